@@ -1,9 +1,20 @@
 package com.sociallearning.config;
 
 import com.sociallearning.entity.Category;
+import com.sociallearning.entity.Comment;
+import com.sociallearning.entity.Lesson;
+import com.sociallearning.entity.Module;
+import com.sociallearning.entity.Tag;
 import com.sociallearning.entity.User;
+import com.sociallearning.enums.LikeableType;
 import com.sociallearning.repository.CategoryRepository;
+import com.sociallearning.repository.CommentRepository;
+import com.sociallearning.repository.CourseRepository;
+import com.sociallearning.repository.LessonRepository;
+import com.sociallearning.repository.LikeRepository;
+import com.sociallearning.repository.ModuleRepository;
 import com.sociallearning.repository.UserRepository;
+import com.sociallearning.service.LessonService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.dataloader.DataLoader;
@@ -12,11 +23,15 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.graphql.execution.DataLoaderRegistrar;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,7 +41,14 @@ public class DataLoaderConfig {
 
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final Executor executor;
+    private final CommentRepository commentRepository;
+    private final LikeRepository likeRepository;
+    private final CourseRepository courseRepository;
+    private final ModuleRepository moduleRepository;
+    private final LessonRepository lessonRepository;
+    private final LessonService lessonService;
+    // Named after the auto-configured task executor; @EnableScheduling adds a second Executor bean
+    private final Executor applicationTaskExecutor;
 
     /**
      * Registers all DataLoaders with the GraphQL execution context.
@@ -37,7 +59,15 @@ public class DataLoaderConfig {
         return (registry, context) -> {
             registry.register("userDataLoader", createUserDataLoader());
             registry.register("categoryDataLoader", createCategoryDataLoader());
-            log.debug("DataLoaders registered: userDataLoader, categoryDataLoader");
+            registry.register("commentRepliesDataLoader", createCommentRepliesDataLoader());
+            registry.register("commentLikedDataLoader", createCommentLikedDataLoader());
+            registry.register("courseModulesDataLoader", createCourseModulesDataLoader());
+            registry.register("moduleLessonsDataLoader", createModuleLessonsDataLoader());
+            registry.register("moduleLessonOutlinesDataLoader", createModuleLessonOutlinesDataLoader());
+            registry.register("courseTagsDataLoader", createCourseTagsDataLoader());
+            log.debug("DataLoaders registered: userDataLoader, categoryDataLoader, " +
+                    "commentRepliesDataLoader, commentLikedDataLoader, courseModulesDataLoader, " +
+                    "moduleLessonsDataLoader, moduleLessonOutlinesDataLoader, courseTagsDataLoader");
         };
     }
 
@@ -63,7 +93,7 @@ public class DataLoaderConfig {
                 
                 log.debug("Loaded {} users from database", users.size());
                 return userMap;
-            }, executor)
+            }, applicationTaskExecutor)
         );
     }
 
@@ -89,7 +119,164 @@ public class DataLoaderConfig {
                 
                 log.debug("Loaded {} categories from database", categories.size());
                 return categoryMap;
-            }, executor)
+            }, applicationTaskExecutor)
         );
     }
+
+    /**
+     * Creates a DataLoader for batch-loading comment replies.
+     * 
+     * This prevents N+1 queries when resolving replies for a page of comments.
+     * Replies of all requested parents are fetched in a single query (with their users)
+     * and grouped by parent in memory, keeping creation order.
+     * 
+     * @return DataLoader from parent comment ID to its replies
+     */
+    private DataLoader<Long, List<Comment>> createCommentRepliesDataLoader() {
+        return DataLoader.newMappedDataLoader((Set<Long> parentIds) -> 
+            CompletableFuture.supplyAsync(() -> {
+                log.debug("Batch loading replies for {} comments", parentIds.size());
+                
+                List<Comment> replies = commentRepository.findRepliesByParentIdsWithUser(parentIds);
+                
+                log.debug("Loaded {} replies from database", replies.size());
+                return groupByKey(parentIds, replies, reply -> reply.getParent().getId());
+            }, applicationTaskExecutor)
+        );
+    }
+
+    /**
+     * Creates a DataLoader for batch-checking whether users liked comments.
+     * 
+     * This prevents N+1 queries when resolving isLikedByMe for a page of comments.
+     * All checks of one user are answered by a single IN query.
+     * 
+     * @return DataLoader from (user, comment) to whether the user liked the comment
+     */
+    private DataLoader<CommentLikeKey, Boolean> createCommentLikedDataLoader() {
+        return DataLoader.newMappedDataLoader((Set<CommentLikeKey> keys) -> 
+            CompletableFuture.supplyAsync(() -> {
+                log.debug("Batch checking {} comment likes", keys.size());
+                
+                // Keys of one request normally share a single viewer
+                Map<Long, List<Long>> commentIdsByUser = keys.stream()
+                    .collect(Collectors.groupingBy(CommentLikeKey::userId,
+                            Collectors.mapping(CommentLikeKey::commentId, Collectors.toList())));
+                
+                Set<CommentLikeKey> liked = new HashSet<>();
+                commentIdsByUser.forEach((userId, commentIds) ->
+                    likeRepository.findLikedTargetIds(userId, LikeableType.COMMENT, commentIds)
+                        .forEach(commentId -> liked.add(new CommentLikeKey(userId, commentId))));
+                
+                return keys.stream()
+                    .collect(Collectors.toMap(key -> key, liked::contains));
+            }, applicationTaskExecutor)
+        );
+    }
+
+    /**
+     * Creates a DataLoader for batch-loading course modules.
+     * 
+     * This prevents N+1 queries when resolving the outline of a page of courses.
+     * Modules of all requested courses are fetched in a single query.
+     * 
+     * @return DataLoader from course ID to its modules in order
+     */
+    private DataLoader<Long, List<Module>> createCourseModulesDataLoader() {
+        return DataLoader.newMappedDataLoader((Set<Long> courseIds) -> 
+            CompletableFuture.supplyAsync(() -> {
+                log.debug("Batch loading modules for {} courses", courseIds.size());
+                
+                List<Module> modules = moduleRepository.findByCourseIdsOrderByOrderIndex(courseIds);
+                
+                log.debug("Loaded {} modules from database", modules.size());
+                return groupByKey(courseIds, modules, module -> module.getCourse().getId());
+            }, applicationTaskExecutor)
+        );
+    }
+
+    /**
+     * Creates a DataLoader for batch-loading module lessons.
+     * 
+     * Together with the module loader this keeps a course outline at one query
+     * per level, regardless of how many courses and modules are on the page.
+     * 
+     * @return DataLoader from module ID to its lessons in order
+     */
+    private DataLoader<Long, List<Lesson>> createModuleLessonsDataLoader() {
+        return DataLoader.newMappedDataLoader((Set<Long> moduleIds) -> 
+            CompletableFuture.supplyAsync(() -> {
+                log.debug("Batch loading lessons for {} modules", moduleIds.size());
+                
+                List<Lesson> lessons = lessonRepository.findByModuleIdsOrderByOrderIndex(moduleIds);
+                
+                log.debug("Loaded {} lessons from database", lessons.size());
+                return groupByKey(moduleIds, lessons, lesson -> lesson.getModule().getId());
+            }, applicationTaskExecutor)
+        );
+    }
+
+    /**
+     * Creates a DataLoader for batch-loading lesson outlines of modules.
+     * 
+     * Like the module lessons loader, but without the large content columns;
+     * used when the query selects none of them.
+     * 
+     * @return DataLoader from module ID to its lesson outlines in order
+     */
+    private DataLoader<Long, List<Lesson>> createModuleLessonOutlinesDataLoader() {
+        return DataLoader.newMappedDataLoader((Set<Long> moduleIds) -> 
+            CompletableFuture.supplyAsync(() -> {
+                log.debug("Batch loading lesson outlines for {} modules", moduleIds.size());
+                
+                List<Lesson> lessons = lessonService.getLessonOutlinesByModules(moduleIds);
+                
+                log.debug("Loaded {} lesson outlines from database", lessons.size());
+                return groupByKey(moduleIds, lessons, lesson -> lesson.getModule().getId());
+            }, applicationTaskExecutor)
+        );
+    }
+
+    /**
+     * Creates a DataLoader for batch-loading course tags.
+     * 
+     * This prevents N+1 queries (or a tag fetch join) when resolving course tags.
+     * 
+     * @return DataLoader from course ID to its tags
+     */
+    private DataLoader<Long, List<Tag>> createCourseTagsDataLoader() {
+        return DataLoader.newMappedDataLoader((Set<Long> courseIds) -> 
+            CompletableFuture.supplyAsync(() -> {
+                log.debug("Batch loading tags for {} courses", courseIds.size());
+                
+                Map<Long, List<Tag>> tagsByCourse = new HashMap<>();
+                courseIds.forEach(courseId -> tagsByCourse.put(courseId, new ArrayList<>()));
+                for (Object[] row : courseRepository.findTagsByCourseIds(courseIds)) {
+                    tagsByCourse.get((Long) row[0]).add((Tag) row[1]);
+                }
+                return tagsByCourse;
+            }, applicationTaskExecutor)
+        );
+    }
+
+    /**
+     * Group loaded children by parent ID, keeping query order.
+     * Every requested key gets an entry, so parents without children resolve to an empty list.
+     */
+    private static <T> Map<Long, List<T>> groupByKey(Set<Long> keys, List<T> items, Function<T, Long> keyOf) {
+        Map<Long, List<T>> grouped = new HashMap<>();
+        keys.forEach(key -> grouped.put(key, new ArrayList<>()));
+        for (T item : items) {
+            grouped.get(keyOf.apply(item)).add(item);
+        }
+        return grouped;
+    }
+
+    /**
+     * Key of the comment like DataLoader.
+     * 
+     * @param userId Viewing user
+     * @param commentId Comment to check
+     */
+    public record CommentLikeKey(Long userId, Long commentId) {}
 }
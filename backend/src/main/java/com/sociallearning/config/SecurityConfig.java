@@ -57,6 +57,9 @@ public class SecurityConfig {
             
             // Configure authorization rules
             .authorizeHttpRequests(auth -> auth
+                // Internal metrics - admins only (matched before the public actuator rule)
+                .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("ADMIN")
+                
                 // Public endpoints - no authentication required
                 .requestMatchers(
                     "/graphql",           // GraphQL endpoint
@@ -0,0 +1,55 @@
+package com.sociallearning.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Input DTO for a lesson progress event recorded while offline.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressEventInput {
+
+    /**
+     * Client-generated event ID, unique per learner (required).
+     * Replaying an event with the same ID has no effect.
+     */
+    @NotBlank(message = "Event ID is required")
+    @Size(max = 100, message = "Event ID must be at most 100 characters")
+    private String eventId;
+
+    /**
+     * Lesson ID (required).
+     */
+    @NotNull(message = "Lesson ID is required")
+    private Long lessonId;
+
+    /**
+     * When the event happened on the device, ISO-8601 (required).
+     */
+    @NotBlank(message = "Occurrence time is required")
+    private String occurredAt;
+
+    /**
+     * Whether the lesson was completed (optional, defaults to false).
+     */
+    private Boolean completed;
+
+    /**
+     * Playback position at the time of the event (optional).
+     */
+    @Min(value = 0, message = "Position must not be negative")
+    private Integer positionSeconds;
+
+    /**
+     * Seconds watched since the previous event (optional).
+     */
+    @Min(value = 0, message = "Watched seconds must not be negative")
+    private Integer watchedSeconds;
+}
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -25,9 +26,11 @@ import java.util.List;
     @Index(name = "idx_comments_target", columnList = "commentable_type, commentable_id"),
     @Index(name = "idx_comments_parent", columnList = "parent_id"),
     @Index(name = "idx_comments_root", columnList = "root_comment_id"),
-    @Index(name = "idx_comments_created_at", columnList = "created_at")
+    @Index(name = "idx_comments_created_at", columnList = "created_at"),
+    @Index(name = "idx_comments_target_feed", columnList = "commentable_type, commentable_id, is_pinned, created_at, id")
 })
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
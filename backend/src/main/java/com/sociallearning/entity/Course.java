@@ -4,6 +4,7 @@ import com.sociallearning.enums.CourseDifficulty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -29,9 +30,11 @@ import java.util.Set;
     @Index(name = "idx_courses_difficulty", columnList = "difficulty"),
     @Index(name = "idx_courses_average_rating", columnList = "averageRating"),
     @Index(name = "idx_courses_enrollment_count", columnList = "enrollmentCount"),
-    @Index(name = "idx_courses_created_at", columnList = "createdAt")
+    @Index(name = "idx_courses_created_at", columnList = "createdAt"),
+    @Index(name = "idx_courses_rating_feed", columnList = "published, average_rating, enrollment_count, id")
 })
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -129,6 +132,12 @@ public class Course {
     @Builder.Default
     private BigDecimal averageRating = BigDecimal.ZERO;
 
+    // Maintained by delta updates in RatingService; ratingCount and averageRating are derived from it
+    @Embedded
+    @Builder.Default
+    private RatingHistogram ratingHistogram = new RatingHistogram();
+
+    // Written in batches by ViewCounterService; @DynamicUpdate keeps entity saves from overwriting it
     @Min(value = 0, message = "View count cannot be negative")
     @Column(name = "view_count", nullable = false)
     @Builder.Default
@@ -144,6 +153,11 @@ public class Course {
     @Builder.Default
     private Integer likeCount = 0;
 
+    // Next free position in the completion bitmaps (see Lesson.progressOrdinal). Only grows, so the bit of a
+    // deleted lesson is never reused; written by LessonCompletionRepository only, null until first needed
+    @Column(name = "next_progress_ordinal", insertable = false, updatable = false)
+    private Integer nextProgressOrdinal;
+
     // Status Flags
     @Column(nullable = false)
     @Builder.Default
@@ -0,0 +1,74 @@
+package com.sociallearning.entity;
+
+import com.sociallearning.enums.RefreshJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * CourseProgressRefresh Entity - Background job that re-derives the progress counters of
+ * every enrollment of a course after lessons were added or removed.
+ * One row per course: a new structure change restarts the job from the first enrollment.
+ * The cursor ({@code last_enrollment_id}) advances in the same transaction as each batch,
+ * so an interrupted job resumes where it stopped. Rows are only written by
+ * {@link com.sociallearning.repository.CourseProgressRefreshRepository}.
+ */
+@Entity
+@Table(name = "course_progress_refreshes",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_course_progress_refreshes_course", columnNames = {"course_id"})
+    },
+    indexes = {
+        @Index(name = "idx_course_progress_refreshes_status", columnList = "status")
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class CourseProgressRefresh {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private RefreshJobStatus status;
+
+    /**
+     * Highest enrollment ID refreshed so far (keyset cursor)
+     */
+    @Column(name = "last_enrollment_id", nullable = false)
+    private Long lastEnrollmentId;
+
+    @Column(name = "processed_enrollments", nullable = false)
+    private Integer processedEnrollments;
+
+    /**
+     * Enrollments of the course when the refresh was requested
+     */
+    @Column(name = "total_enrollments", nullable = false)
+    private Integer totalEnrollments;
+
+    /**
+     * Enrollments whose counters actually changed
+     */
+    @Column(name = "updated_enrollments", nullable = false)
+    private Integer updatedEnrollments;
+
+    @Column(name = "requested_at", nullable = false)
+    private LocalDateTime requestedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
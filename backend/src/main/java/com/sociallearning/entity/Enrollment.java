@@ -7,6 +7,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -21,6 +22,8 @@ import java.util.List;
  * Enrollment Entity - Represents a learner's enrollment in a course.
  *
  * Stores denormalized progress fields for fast dashboard and query operations.
+ * Lesson completion is kept as a bitmap indexed by {@link Lesson#getProgressOrdinal()};
+ * per-lesson {@link Progress} rows exist only for lessons the learner touched.
  */
 @Entity
 @Table(name = "enrollments", uniqueConstraints = {
@@ -38,7 +41,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@ToString(exclude = {"user", "course", "progressRecords"})
+@ToString(exclude = {"user", "course", "progressRecords", "completedLessonBits"})
 @EqualsAndHashCode(of = "id")
 public class Enrollment {
 
@@ -97,6 +100,20 @@ public class Enrollment {
     @Builder.Default
     private Integer timeSpentMinutes = 0;
 
+    // Sum of the watch time of all lessons; timeSpentMinutes is derived from it
+    @Min(value = 0, message = "Watch time cannot be negative")
+    @Column(name = "watch_time_seconds", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long watchTimeSeconds = 0L;
+
+    // Bit N is set when the lesson with progress ordinal N is completed (java.util.BitSet byte order).
+    // Written by single-statement bit updates in LessonCompletionRepository, never by entity saves;
+    // null for enrollments not yet migrated from per-lesson progress rows
+    @Column(name = "completed_lesson_bits", updatable = false)
+    @Builder.Default
+    private byte[] completedLessonBits = new byte[0];
+
     @OneToMany(mappedBy = "enrollment", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("createdAt ASC")
     @Builder.Default
@@ -148,6 +165,24 @@ public class Enrollment {
         }
     }
 
+    /**
+     * Count one more completed lesson (a lesson's not-completed to completed transition).
+     * The total grows with it if lessons were added since it was last counted.
+     */
+    public void applyLessonCompleted() {
+        applyLessonsCompleted(1);
+    }
+
+    /**
+     * Count several more completed lessons at once (e.g. from an offline progress sync).
+     */
+    public void applyLessonsCompleted(int count) {
+        if (count > 0) {
+            int completed = this.completedLessons + count;
+            updateProgress(completed, Math.max(this.totalLessons, completed));
+        }
+    }
+
     /**
      * Mark enrollment as completed.
      */
@@ -179,6 +214,29 @@ public class Enrollment {
         }
     }
 
+    /**
+     * Track learner access that happened at a given time (e.g. offline), never moving
+     * the last access back.
+     */
+    public void markAccessedAt(LocalDateTime accessedAt) {
+        if (this.lastAccessedAt == null || accessedAt.isAfter(this.lastAccessedAt)) {
+            this.lastAccessedAt = accessedAt;
+        }
+        if (this.startedAt == null || accessedAt.isBefore(this.startedAt)) {
+            this.startedAt = accessedAt;
+        }
+    }
+
+    /**
+     * Add lesson watch time and re-derive the time spent in minutes.
+     */
+    public void addWatchTime(long seconds) {
+        if (seconds > 0) {
+            this.watchTimeSeconds += seconds;
+            this.timeSpentMinutes = (int) Math.min(Integer.MAX_VALUE, this.watchTimeSeconds / 60);
+        }
+    }
+
     /**
      * Add tracked study time in minutes.
      */
@@ -4,6 +4,8 @@ import com.sociallearning.enums.LessonType;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -23,6 +25,7 @@ import java.time.LocalDateTime;
     @Index(name = "idx_lessons_published", columnList = "published")
 })
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -59,6 +62,12 @@ public class Lesson {
     @Builder.Default
     private Integer orderIndex = 0;
 
+    // Position of the lesson in its course's completion bitmaps (see Enrollment.completedLessonBits).
+    // Assigned once at creation and never reused, unlike orderIndex; null until migrated
+    @Min(value = 0, message = "Progress ordinal must be non-negative")
+    @Column(name = "progress_ordinal")
+    private Integer progressOrdinal;
+
     // Content Type
     @NotNull(message = "Lesson type is required")
     @Enumerated(EnumType.STRING)
@@ -152,11 +161,19 @@ public class Lesson {
     @Builder.Default
     private Integer completionCount = 0;
 
+    // Written in batches by ViewCounterService; @DynamicUpdate keeps entity saves from overwriting it
     @Min(value = 0, message = "View count cannot be negative")
     @Column(name = "view_count", nullable = false)
     @Builder.Default
     private Integer viewCount = 0;
 
+    // Maintained atomically by the like toggle statement (see LikeRepository)
+    @Min(value = 0, message = "Like count cannot be negative")
+    @Column(name = "like_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer likeCount = 0;
+
     // Timestamps
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
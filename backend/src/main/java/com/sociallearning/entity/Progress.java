@@ -6,6 +6,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -16,7 +17,10 @@ import java.time.LocalDateTime;
 /**
  * Progress Entity - Tracks a learner's progress for a single lesson.
  *
- * One progress record exists per enrollment + lesson pair.
+ * At most one progress record exists per enrollment + lesson pair, created when the
+ * learner first touches the lesson. Watch time, resume position and last access are
+ * also written in batches by playback heartbeat flushes; @DynamicUpdate keeps entity
+ * saves from overwriting them.
  */
 @Entity
 @Table(name = "lesson_progress", uniqueConstraints = {
@@ -29,6 +33,7 @@ import java.time.LocalDateTime;
     @Index(name = "idx_progress_completed_at", columnList = "completed_at")
 })
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -75,6 +80,11 @@ public class Progress {
     @Builder.Default
     private Integer watchTimeSeconds = 0;
 
+    // Latest playback position, for resuming video lessons
+    @Min(value = 0, message = "Playback position cannot be negative")
+    @Column(name = "last_position_seconds")
+    private Integer lastPositionSeconds;
+
     @Min(value = 0, message = "Attempt count cannot be negative")
     @Column(name = "attempt_count", nullable = false)
     @Builder.Default
@@ -0,0 +1,46 @@
+package com.sociallearning.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * ProgressSyncEvent Entity - Client event ID of an offline progress event that was applied.
+ * Claimed with INSERT ... ON CONFLICT DO NOTHING by {@link com.sociallearning.repository.ProgressSyncRepository},
+ * so replayed events (retries, duplicate uploads) are recognized and skipped.
+ * Kept for a retention period only.
+ */
+@Entity
+@Table(name = "progress_sync_events",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_progress_sync_events_user_event", columnNames = {"user_id", "event_id"})
+    },
+    indexes = {
+        @Index(name = "idx_progress_sync_events_received_at", columnList = "received_at")
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class ProgressSyncEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Client-generated event ID, unique per learner
+     */
+    @Column(name = "event_id", nullable = false, length = 100)
+    private String eventId;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+}
@@ -3,6 +3,7 @@ package com.sociallearning.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -12,6 +13,9 @@ import java.time.LocalDateTime;
 /**
  * Rating Entity - Represents a course rating/review in the Social Learning Platform
  * Users can rate courses from 1-5 stars and optionally leave a review
+ *
+ * Visibility is also changed by conditional moderation updates; @DynamicUpdate keeps
+ * entity saves from writing back columns they did not change.
  */
 @Entity
 @Table(name = "ratings",
@@ -19,7 +23,8 @@ import java.time.LocalDateTime;
         @Index(name = "idx_ratings_user", columnList = "user_id"),
         @Index(name = "idx_ratings_course", columnList = "course_id"),
         @Index(name = "idx_ratings_value", columnList = "rating_value"),
-        @Index(name = "idx_ratings_created_at", columnList = "created_at")
+        @Index(name = "idx_ratings_created_at", columnList = "created_at"),
+        @Index(name = "idx_ratings_course_feed", columnList = "course_id, created_at, id")
     },
     uniqueConstraints = {
         @UniqueConstraint(
@@ -29,6 +34,7 @@ import java.time.LocalDateTime;
     }
 )
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,110 @@
+package com.sociallearning.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * RatingHistogram - Per-course distribution of visible (non-hidden) ratings.
+ * Embedded in Course and maintained incrementally by delta updates, so that
+ * average, count and distribution are O(1) reads instead of scans over ratings.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode
+public class RatingHistogram {
+
+    @Column(name = "rating_1_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer oneStarCount = 0;
+
+    @Column(name = "rating_2_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer twoStarCount = 0;
+
+    @Column(name = "rating_3_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer threeStarCount = 0;
+
+    @Column(name = "rating_4_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer fourStarCount = 0;
+
+    @Column(name = "rating_5_count", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer fiveStarCount = 0;
+
+    /**
+     * Sum of all visible rating values
+     */
+    @Column(name = "rating_sum", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    // Helper Methods
+
+    /**
+     * Build a histogram from bucket counts indexed by star value (index 0 unused).
+     */
+    public static RatingHistogram of(long[] countsByStars) {
+        long sum = 0;
+        for (int stars = 1; stars <= 5; stars++) {
+            sum += stars * countsByStars[stars];
+        }
+        return RatingHistogram.builder()
+                .oneStarCount((int) countsByStars[1])
+                .twoStarCount((int) countsByStars[2])
+                .threeStarCount((int) countsByStars[3])
+                .fourStarCount((int) countsByStars[4])
+                .fiveStarCount((int) countsByStars[5])
+                .ratingSum(sum)
+                .build();
+    }
+
+    /**
+     * Number of ratings with the given star value (1-5)
+     */
+    public long getCount(int stars) {
+        return switch (stars) {
+            case 1 -> oneStarCount;
+            case 2 -> twoStarCount;
+            case 3 -> threeStarCount;
+            case 4 -> fourStarCount;
+            case 5 -> fiveStarCount;
+            default -> throw new IllegalArgumentException("Rating must be between 1 and 5");
+        };
+    }
+
+    /**
+     * Total number of visible ratings
+     */
+    public long getTotalCount() {
+        return (long) oneStarCount + twoStarCount + threeStarCount + fourStarCount + fiveStarCount;
+    }
+
+    /**
+     * Average rating rounded to two decimals (zero when there are no ratings)
+     */
+    public BigDecimal getAverage() {
+        long total = getTotalCount();
+        if (total == 0) {
+            return BigDecimal.ZERO;
+        }
+        return BigDecimal.valueOf(ratingSum).divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP);
+    }
+}
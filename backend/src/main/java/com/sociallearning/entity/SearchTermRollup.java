@@ -0,0 +1,50 @@
+package com.sociallearning.entity;
+
+import com.sociallearning.enums.SearchTermKind;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * SearchTermRollup Entity - Approximate count of one search term within one time window.
+ * Written in bulk when a search analytics window closes (only the window's top terms);
+ * counts are sketch estimates and may slightly overcount, never undercount.
+ */
+@Entity
+@Table(name = "search_term_rollups",
+    indexes = {
+        @Index(name = "idx_search_term_rollups_kind_window", columnList = "kind, window_start")
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class SearchTermRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 20)
+    private SearchTermKind kind;
+
+    /**
+     * Normalized search term
+     */
+    @Column(name = "term", nullable = false, length = 100)
+    private String term;
+
+    @Column(name = "estimated_count", nullable = false)
+    private Long estimatedCount;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime windowEnd;
+}
@@ -0,0 +1,40 @@
+package com.sociallearning.entity;
+
+import com.sociallearning.enums.SlugScope;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * SlugCounter Entity - Last suffix handed out for a base slug within a scope.
+ * Suffix 0 stands for the bare base slug, N for "base-N". Rows are only written
+ * by {@link com.sociallearning.repository.SlugCounterRepository} with single-statement
+ * increments; the unique (scope, base_slug) constraint is the upsert conflict target.
+ */
+@Entity
+@Table(name = "slug_counters",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_slug_counters_scope_base", columnNames = {"scope", "base_slug"})
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class SlugCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", nullable = false, length = 20)
+    private SlugScope scope;
+
+    @Column(name = "base_slug", nullable = false, length = 250)
+    private String baseSlug;
+
+    @Column(name = "last_suffix", nullable = false)
+    private Long lastSuffix;
+}
@@ -0,0 +1,43 @@
+package com.sociallearning.entity;
+
+import com.sociallearning.enums.SlugScope;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * SlugReservation Entity - A slug handed out by the slug allocator.
+ * The unique (scope, slug) constraint is what makes a slug exclusive: concurrent
+ * allocations that arrive at the same candidate from different bases (e.g. "intro" + 1
+ * and "Intro 1") cannot both reserve it. Rows are only written by
+ * {@link com.sociallearning.repository.SlugCounterRepository}.
+ */
+@Entity
+@Table(name = "slug_reservations",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_slug_reservations_scope_slug", columnNames = {"scope", "slug"})
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class SlugReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", nullable = false, length = 20)
+    private SlugScope scope;
+
+    @Column(name = "slug", nullable = false, length = 250)
+    private String slug;
+
+    @Column(name = "reserved_at", nullable = false)
+    private LocalDateTime reservedAt;
+}
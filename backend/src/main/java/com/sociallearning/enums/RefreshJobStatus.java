@@ -0,0 +1,10 @@
+package com.sociallearning.enums;
+
+/**
+ * State of a background enrollment progress refresh
+ */
+public enum RefreshJobStatus {
+    PENDING,    // Requested, no batch processed since
+    RUNNING,    // Some batches processed; resumes from its cursor after a restart
+    COMPLETED   // Every enrollment of the course was refreshed
+}
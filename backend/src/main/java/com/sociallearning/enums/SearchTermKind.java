@@ -0,0 +1,9 @@
+package com.sociallearning.enums;
+
+/**
+ * Which searches a search term rollup counts
+ */
+public enum SearchTermKind {
+    SEARCH,         // Every search with the term
+    ZERO_RESULTS    // Searches with the term that found no course
+}
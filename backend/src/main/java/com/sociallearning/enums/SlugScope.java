@@ -0,0 +1,43 @@
+package com.sociallearning.enums;
+
+/**
+ * Entity kinds whose slugs are allocated by the slug allocator.
+ * Each scope knows its table and how long a base slug may be, leaving room
+ * for a numeric suffix within the slug column length.
+ */
+public enum SlugScope {
+    COURSE("courses", "course", 200),           // slug column: 250
+    CATEGORY("categories", "category", 89),     // slug column: 100
+    TAG("tags", "tag", 39);                     // slug column: 50
+
+    private final String table;
+    private final String fallbackSlug;
+    private final int maxBaseLength;
+
+    SlugScope(String table, String fallbackSlug, int maxBaseLength) {
+        this.table = table;
+        this.fallbackSlug = fallbackSlug;
+        this.maxBaseLength = maxBaseLength;
+    }
+
+    /**
+     * Table holding the slugs of this scope
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Base slug used when a name has no slug-able characters
+     */
+    public String getFallbackSlug() {
+        return fallbackSlug;
+    }
+
+    /**
+     * Maximum length of a base slug (without the "-N" suffix)
+     */
+    public int getMaxBaseLength() {
+        return maxBaseLength;
+    }
+}
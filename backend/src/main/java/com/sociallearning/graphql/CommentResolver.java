@@ -1,25 +1,28 @@
 package com.sociallearning.graphql;
 
+import com.sociallearning.config.DataLoaderConfig.CommentLikeKey;
 import com.sociallearning.entity.Comment;
 import com.sociallearning.enums.CommentableType;
 import com.sociallearning.security.SecurityUtils;
 import com.sociallearning.service.CommentService;
-import com.sociallearning.service.LikeService;
 import com.sociallearning.service.SubscriptionPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.dataloader.DataLoader;
+import graphql.relay.Connection;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * GraphQL resolver for comment operations.
@@ -37,7 +40,6 @@ import java.util.Map;
 public class CommentResolver {
 
     private final CommentService commentService;
-    private final LikeService likeService;
     private final SubscriptionPublisher subscriptionPublisher;
 
     // ============================================
@@ -194,7 +196,9 @@ public class CommentResolver {
             @Argument String targetType,
             @Argument Long targetId,
             @Argument Integer page,
-            @Argument Integer size) {
+            @Argument Integer size,
+            @Argument Boolean approximateTotal,
+            DataFetchingFieldSelectionSet selectionSet) {
         
         log.info("GraphQL comments query: targetType={}, targetId={}, page={}, size={}", 
                 targetType, targetId, page, size);
@@ -204,9 +208,41 @@ public class CommentResolver {
         Pageable pageable = PageRequest.of(pageNumber, pageSize);
         
         CommentableType type = CommentableType.valueOf(targetType);
-        Page<Comment> commentPage = commentService.getComments(type, targetId, pageable);
+        Slice<Comment> commentPage = commentService.getComments(type, targetId, pageable,
+                PageResults.totalsFor(selectionSet, approximateTotal));
         
-        return toPageResult(commentPage);
+        return PageResults.toPageResult(commentPage);
+    }
+
+    /**
+     * Get comments for a course or lesson as a cursor connection.
+     * Pinned comments come first, then newest first; pass the last endCursor as
+     * {@code after} to continue.
+     * 
+     * GraphQL Query:
+     * query GetCommentFeed($targetType: CommentableType!, $targetId: ID!, $after: String) {
+     *   commentsConnection(targetType: $targetType, targetId: $targetId, first: 20, after: $after) {
+     *     edges {
+     *       cursor
+     *       node { id content user { id username } createdAt }
+     *     }
+     *     pageInfo { hasNextPage endCursor }
+     *   }
+     * }
+     */
+    @QueryMapping
+    public Connection<Comment> commentsConnection(
+            @Argument String targetType,
+            @Argument Long targetId,
+            @Argument Integer first,
+            @Argument String after) {
+        
+        log.info("GraphQL commentsConnection query: targetType={}, targetId={}, first={}, after={}",
+                targetType, targetId, first, after);
+        
+        CommentableType type = CommentableType.valueOf(targetType);
+        return PageResults.toConnection(
+                commentService.getCommentFeed(type, targetId, PageResults.windowSize(first), after), after);
     }
 
     /**
@@ -256,22 +292,26 @@ public class CommentResolver {
 
     /**
      * Resolve whether the current user has liked this comment.
+     * Checks for all comments in the response are batched into one query.
      */
     @SchemaMapping(typeName = "Comment", field = "isLikedByMe")
-    public boolean isLikedByMe(Comment comment) {
+    public CompletableFuture<Boolean> isLikedByMe(Comment comment,
+                                                  DataLoader<CommentLikeKey, Boolean> commentLikedDataLoader) {
         Long userId = SecurityUtils.getCurrentUserId();
         if (userId == null) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
-        return likeService.hasUserLikedComment(userId, comment.getId());
+        return commentLikedDataLoader.load(new CommentLikeKey(userId, comment.getId()));
     }
 
     /**
      * Resolve replies for a comment.
+     * Replies for all comments on the same level are batched into one query.
      */
     @SchemaMapping(typeName = "Comment", field = "replies")
-    public List<Comment> replies(Comment comment) {
-        return commentService.getReplies(comment.getId());
+    public CompletableFuture<List<Comment>> replies(Comment comment,
+                                                    DataLoader<Long, List<Comment>> commentRepliesDataLoader) {
+        return commentRepliesDataLoader.load(comment.getId());
     }
 
     // ============================================
@@ -286,18 +326,6 @@ public class CommentResolver {
         return userId;
     }
 
-    private Map<String, Object> toPageResult(Page<Comment> page) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("content", page.getContent());
-        result.put("totalElements", page.getTotalElements());
-        result.put("totalPages", page.getTotalPages());
-        result.put("pageNumber", page.getNumber());
-        result.put("pageSize", page.getSize());
-        result.put("hasNext", page.hasNext());
-        result.put("hasPrevious", page.hasPrevious());
-        return result;
-    }
-
     // ============================================
     // Input Records
     // ============================================
@@ -4,16 +4,17 @@ import com.sociallearning.entity.Category;
 import com.sociallearning.entity.Course;
 import com.sociallearning.entity.Lesson;
 import com.sociallearning.entity.Module;
+import com.sociallearning.entity.Tag;
 import com.sociallearning.entity.User;
-import com.sociallearning.service.LessonService;
-import com.sociallearning.service.ModuleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -28,8 +29,10 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class CourseFieldResolver {
 
-    private final ModuleService moduleService;
-    private final LessonService lessonService;
+    // Large TEXT columns that only lesson detail views select
+    private static final String[] LESSON_CONTENT_FIELDS = {
+        "textContent", "quizData", "assignmentInstructions", "additionalResources", "transcript"
+    };
 
     /**
      * Resolve the creator field for a Course using DataLoader.
@@ -66,30 +69,58 @@ public class CourseFieldResolver {
     }
 
     /**
-     * Resolve the modules field for a Course.
+     * Resolve the tags field for a Course using DataLoader.
      * 
-     * Called when a GraphQL query requests the modules of a course.
+     * Tags of all courses in the response are loaded with a single query.
      * 
      * @param course The parent course entity
-     * @return List of modules belonging to the course
+     * @param courseTagsDataLoader DataLoader for batch-loading course tags
+     * @return CompletableFuture containing the course's tags
+     */
+    @SchemaMapping(typeName = "Course", field = "tags")
+    public CompletableFuture<List<Tag>> courseTags(Course course, DataLoader<Long, List<Tag>> courseTagsDataLoader) {
+        return courseTagsDataLoader.load(course.getId());
+    }
+
+    /**
+     * Resolve the modules field for a Course using DataLoader.
+     * 
+     * Modules of all courses in the response are loaded with a single query.
+     * 
+     * @param course The parent course entity
+     * @param courseModulesDataLoader DataLoader for batch-loading course modules
+     * @return CompletableFuture containing the modules belonging to the course
      */
     @SchemaMapping(typeName = "Course", field = "modules")
-    public List<Module> courseModules(Course course) {
-        log.debug("Resolving modules for course ID: {}", course.getId());
-        return moduleService.getModulesByCourse(course.getId());
+    public CompletableFuture<List<Module>> courseModules(Course course,
+                                                        DataLoader<Long, List<Module>> courseModulesDataLoader) {
+        log.debug("Queuing modules load for course ID: {}", course.getId());
+        return courseModulesDataLoader.load(course.getId());
     }
 
     /**
-     * Resolve the lessons field for a Module.
+     * Resolve the lessons field for a Module using DataLoader.
      * 
-     * Called when a GraphQL query requests the lessons of a module.
+     * Lessons of all modules in the response are loaded with a single query.
+     * When the query selects none of the lesson content fields, only the outline
+     * columns are read.
      * 
      * @param module The parent module entity
-     * @return List of lessons belonging to the module
+     * @param selectionSet Fields requested on the lessons
+     * @param moduleLessonsDataLoader DataLoader for batch-loading module lessons
+     * @param moduleLessonOutlinesDataLoader DataLoader for batch-loading lesson outlines
+     * @return CompletableFuture containing the lessons belonging to the module
      */
     @SchemaMapping(typeName = "Module", field = "lessons")
-    public List<Lesson> moduleLessons(Module module) {
-        log.debug("Resolving lessons for module ID: {}", module.getId());
-        return lessonService.getLessonsByModule(module.getId());
+    public CompletableFuture<List<Lesson>> moduleLessons(Module module,
+                                                        DataFetchingFieldSelectionSet selectionSet,
+                                                        DataLoader<Long, List<Lesson>> moduleLessonsDataLoader,
+                                                        DataLoader<Long, List<Lesson>> moduleLessonOutlinesDataLoader) {
+        boolean withContent = Arrays.stream(LESSON_CONTENT_FIELDS).anyMatch(selectionSet::contains);
+        log.debug("Queuing lessons load for module ID: {} (content: {})", module.getId(), withContent);
+        
+        return withContent
+                ? moduleLessonsDataLoader.load(module.getId())
+                : moduleLessonOutlinesDataLoader.load(module.getId());
     }
 }
@@ -5,6 +5,7 @@ import com.sociallearning.entity.Course;
 import com.sociallearning.entity.Lesson;
 import com.sociallearning.entity.Module;
 import com.sociallearning.security.SecurityUtils;
+import com.sociallearning.service.CourseSearchIndex;
 import com.sociallearning.service.CourseService;
 import com.sociallearning.service.LessonService;
 import com.sociallearning.service.ModuleService;
@@ -24,6 +25,7 @@ import java.util.List;
  * - Course CRUD and lifecycle operations
  * - Module CRUD and ordering
  * - Lesson CRUD and ordering
+ * - Search index administration
  */
 @Slf4j
 @Controller
@@ -33,6 +35,7 @@ public class CourseMutationResolver {
     private final CourseService courseService;
     private final ModuleService moduleService;
     private final LessonService lessonService;
+    private final CourseSearchIndex courseSearchIndex;
 
     // ============================================
     // Course Mutations
@@ -196,6 +199,22 @@ public class CourseMutationResolver {
         return courseService.removeTagsFromCourse(courseId, userId, tagIds);
     }
 
+    /**
+     * Rebuild the course search index from the database (admin only).
+     * 
+     * @return Number of indexed courses
+     * @throws SecurityException if the user is not an admin
+     */
+    @MutationMapping
+    public Integer rebuildSearchIndex() {
+        if (!SecurityUtils.hasRole("ADMIN")) {
+            throw new SecurityException("Only admins can rebuild the search index");
+        }
+        log.info("GraphQL mutation: rebuildSearchIndex by user {}", SecurityUtils.getCurrentUserId());
+        
+        return courseSearchIndex.rebuild();
+    }
+
     // ============================================
     // Module Mutations
     // ============================================
@@ -3,31 +3,52 @@ package com.sociallearning.graphql;
 import com.sociallearning.entity.Category;
 import com.sociallearning.entity.Course;
 import com.sociallearning.enums.CourseDifficulty;
+import com.sociallearning.enums.SearchTermKind;
 import com.sociallearning.entity.Tag;
 import com.sociallearning.repository.CategoryRepository;
 import com.sociallearning.repository.TagRepository;
+import com.sociallearning.security.SecurityUtils;
+import com.sociallearning.service.CatalogSnapshotService;
+import com.sociallearning.service.CourseFacetIndex.Facets;
+import com.sociallearning.service.CourseFacetIndex.FacetFilter;
 import com.sociallearning.service.CourseService;
+import com.sociallearning.service.CourseService.CourseProjection;
+import com.sociallearning.service.CourseService.FacetedCourses;
+import com.sociallearning.service.PersonalFeedService;
+import com.sociallearning.service.SearchAnalyticsService;
+import com.sociallearning.service.SearchAnalyticsService.TermCount;
+import com.sociallearning.service.SuggestionIndex;
+import com.sociallearning.service.SuggestionIndex.Suggestions;
+import graphql.relay.Connection;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * GraphQL resolver for course queries.
  * 
  * Handles:
  * - Course retrieval (by slug, ID, search)
- * - Course discovery (trending, popular, new, featured, recommended)
+ * - Faceted catalog filtering with facet counts (Discover page)
+ * - Course discovery (trending, popular, new, featured, recommended);
+ *   the home page lists are served from {@link CatalogSnapshotService}
+ * - The signed-in learner's personal feed ({@link PersonalFeedService})
  * - Category and tag queries
+ * - Search-as-you-type suggestions ({@link SuggestionIndex})
+ * - Search term analytics for admins ({@link SearchAnalyticsService})
  */
 @Slf4j
 @Controller
@@ -35,6 +56,10 @@ import java.util.Optional;
 public class CourseQueryResolver {
 
     private final CourseService courseService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final PersonalFeedService personalFeedService;
+    private final SuggestionIndex suggestionIndex;
+    private final SearchAnalyticsService searchAnalyticsService;
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
 
@@ -128,7 +153,9 @@ public class CourseQueryResolver {
             @Argument String language,
             @Argument Double minRating,
             @Argument Integer page,
-            @Argument Integer size) {
+            @Argument Integer size,
+            @Argument Boolean approximateTotal,
+            DataFetchingFieldSelectionSet selectionSet) {
         
         log.info("GraphQL query: courses(searchTerm={}, categoryId={}, difficulty={}, page={}, size={})",
                 searchTerm, categoryId, difficulty, page, size);
@@ -138,20 +165,135 @@ public class CourseQueryResolver {
         int pageSize = (size != null && size > 0) ? size : 20;
         Pageable pageable = PageRequest.of(pageNumber, pageSize);
         
-        Page<Course> coursePage = courseService.searchCourses(
-                searchTerm, categoryId, difficulty, language, minRating, pageable);
+        // Catalog cards rarely select the long text fields; skip loading them when not requested
+        CourseProjection projection = new CourseProjection(
+                selectionSet.contains("content/description"),
+                selectionSet.containsAnyOf("content/requirements", "content/learningOutcomes"));
+        
+        Slice<Course> coursePage = courseService.searchCourses(
+                searchTerm, categoryId, difficulty, language, minRating, pageable, projection,
+                PageResults.totalsFor(selectionSet, approximateTotal));
         
         // Convert to GraphQL CoursePage type
-        Map<String, Object> result = new HashMap<>();
-        result.put("content", coursePage.getContent());
-        result.put("totalElements", coursePage.getTotalElements());
-        result.put("totalPages", coursePage.getTotalPages());
-        result.put("pageNumber", coursePage.getNumber());
-        result.put("pageSize", coursePage.getSize());
-        result.put("hasNext", coursePage.hasNext());
-        result.put("hasPrevious", coursePage.hasPrevious());
+        return PageResults.toPageResult(coursePage);
+    }
+
+    /**
+     * Filter courses as a cursor connection (highest rated, then most enrolled).
+     * 
+     * GraphQL Query:
+     * query BrowseCourses($categoryId: ID, $after: String) {
+     *   coursesConnection(categoryId: $categoryId, first: 20, after: $after) {
+     *     edges {
+     *       cursor
+     *       node { id title slug averageRating }
+     *     }
+     *     pageInfo { hasNextPage endCursor }
+     *   }
+     * }
+     * 
+     * @param categoryId Category filter
+     * @param difficulty Difficulty filter
+     * @param language Language filter
+     * @param minRating Minimum rating filter
+     * @param first Number of courses (default 20, at most 50)
+     * @param after Cursor of the last course already seen
+     * @return Course connection
+     */
+    @QueryMapping
+    public Connection<Course> coursesConnection(
+            @Argument Long categoryId,
+            @Argument CourseDifficulty difficulty,
+            @Argument String language,
+            @Argument Double minRating,
+            @Argument Integer first,
+            @Argument String after,
+            DataFetchingFieldSelectionSet selectionSet) {
+        
+        log.info("GraphQL query: coursesConnection(categoryId={}, difficulty={}, first={}, after={})",
+                categoryId, difficulty, first, after);
+        
+        CourseProjection projection = new CourseProjection(
+                selectionSet.contains("edges/node/description"),
+                selectionSet.containsAnyOf("edges/node/requirements", "edges/node/learningOutcomes"));
         
-        return result;
+        return PageResults.toConnection(courseService.getCourseFeed(categoryId, difficulty, language, minRating,
+                PageResults.windowSize(first), after, projection), after);
+    }
+
+    /**
+     * Filter the catalog by facets and return the facet counts of the result.
+     * 
+     * Values within one facet are alternatives; facets are combined. Tags match
+     * all selected tags unless tagMatch is ANY.
+     * 
+     * @param categoryIds Category filter
+     * @param difficulties Difficulty filter
+     * @param languages Language filter
+     * @param minRating Minimum rating filter
+     * @param tagIds Tag filter
+     * @param tagMatch ALL (default) or ANY
+     * @param page Page number (0-indexed, default 0)
+     * @param size Page size (default 20)
+     * @param selectionSet Selected fields, used to skip loading unselected long text fields
+     * @return Paginated courses with facet counts
+     */
+    @QueryMapping
+    public Map<String, Object> discoverCourses(
+            @Argument List<Long> categoryIds,
+            @Argument List<CourseDifficulty> difficulties,
+            @Argument List<String> languages,
+            @Argument Double minRating,
+            @Argument List<Long> tagIds,
+            @Argument String tagMatch,
+            @Argument Integer page,
+            @Argument Integer size,
+            DataFetchingFieldSelectionSet selectionSet) {
+        
+        log.info("GraphQL query: discoverCourses(categoryIds={}, difficulties={}, languages={}, tagIds={}, page={}, size={})",
+                categoryIds, difficulties, languages, tagIds, page, size);
+        
+        int pageNumber = (page != null) ? page : 0;
+        int pageSize = (size != null && size > 0) ? size : 20;
+        FacetFilter filter = new FacetFilter(categoryIds, difficulties, languages, minRating,
+                tagIds, !"ANY".equals(tagMatch));
+        CourseProjection projection = new CourseProjection(
+                selectionSet.contains("courses/content/description"),
+                selectionSet.containsAnyOf("courses/content/requirements", "courses/content/learningOutcomes"));
+        
+        FacetedCourses result = courseService.discoverCourses(filter, PageRequest.of(pageNumber, pageSize), projection);
+        Facets facets = result.facets();
+        
+        Map<Long, String> categoryNames = new HashMap<>();
+        categoryRepository.findAllById(facets.categories().keySet())
+                .forEach(category -> categoryNames.put(category.getId(), category.getName()));
+        Map<Long, String> tagNames = new HashMap<>();
+        tagRepository.findAllById(facets.tags().keySet())
+                .forEach(tag -> tagNames.put(tag.getId(), tag.getName()));
+        
+        Map<String, Object> facetResult = new HashMap<>();
+        facetResult.put("categories", facetCounts(facets.categories(), categoryNames::get));
+        facetResult.put("difficulties", facetCounts(facets.difficulties(), CourseDifficulty::name));
+        facetResult.put("languages", facetCounts(facets.languages(), language -> language));
+        facetResult.put("tags", facetCounts(facets.tags(), tagNames::get));
+        facetResult.put("ratings", facetCounts(facets.ratings(), rating -> rating + "+"));
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("courses", PageResults.toPageResult(result.courses()));
+        response.put("facets", facetResult);
+        return response;
+    }
+
+    private static <K> List<Map<String, Object>> facetCounts(Map<K, Integer> counts, Function<K, String> label) {
+        return counts.entrySet().stream()
+                .map(entry -> {
+                    Map<String, Object> facet = new HashMap<>();
+                    facet.put("value", String.valueOf(entry.getKey()));
+                    facet.put("label", label.apply(entry.getKey()));
+                    facet.put("count", entry.getValue());
+                    return facet;
+                })
+                .toList();
     }
 
     /**
@@ -177,7 +319,7 @@ public class CourseQueryResolver {
     }
 
     /**
-     * Get trending courses based on enrollments and views.
+     * Get trending courses based on recent, time-decayed activity.
      * 
      * @param limit Maximum number of courses to return (default 10)
      * @return List of trending courses
@@ -186,7 +328,7 @@ public class CourseQueryResolver {
     public List<Course> trendingCourses(@Argument Integer limit) {
         int maxResults = (limit != null && limit > 0) ? limit : 10;
         log.info("GraphQL query: trendingCourses(limit={})", maxResults);
-        return courseService.findTrendingCourses(maxResults);
+        return catalogSnapshotService.getTrendingCourses(maxResults);
     }
 
     /**
@@ -207,7 +349,7 @@ public class CourseQueryResolver {
         log.info("GraphQL query: popularCourses(minEnrollments={}, limit={})",
                 minEnroll, maxResults);
         
-        return courseService.findPopularCourses(minEnroll, maxResults);
+        return catalogSnapshotService.getPopularCourses(minEnroll, maxResults);
     }
 
     /**
@@ -220,7 +362,7 @@ public class CourseQueryResolver {
     public List<Course> newCourses(@Argument Integer limit) {
         int maxResults = (limit != null && limit > 0) ? limit : 10;
         log.info("GraphQL query: newCourses(limit={})", maxResults);
-        return courseService.findNewCourses(maxResults);
+        return catalogSnapshotService.getNewCourses(maxResults);
     }
 
     /**
@@ -233,10 +375,7 @@ public class CourseQueryResolver {
     public List<Course> featuredCourses(@Argument Integer limit) {
         int maxResults = (limit != null && limit > 0) ? limit : 10;
         log.info("GraphQL query: featuredCourses(limit={})", maxResults);
-        return courseService.findFeaturedCourses()
-                .stream()
-                .limit(maxResults)
-                .toList();
+        return catalogSnapshotService.getFeaturedCourses(maxResults);
     }
 
     /**
@@ -258,6 +397,34 @@ public class CourseQueryResolver {
         return courseService.findRecommendedCourses(courseId, maxResults);
     }
 
+    /**
+     * Get the signed-in learner's personal course feed.
+     * 
+     * @param limit Maximum number of courses to return (default 10)
+     * @param selectionSet Selected fields, used to skip loading unselected long text fields
+     * @return Recommended courses, excluding courses the learner is enrolled in
+     * @throws IllegalArgumentException if not authenticated
+     */
+    @QueryMapping
+    public List<Course> recommendedForMe(
+            @Argument Integer limit,
+            DataFetchingFieldSelectionSet selectionSet) {
+        
+        Long userId = SecurityUtils.getCurrentUserId();
+        if (userId == null) {
+            throw new IllegalArgumentException("Authentication required");
+        }
+        
+        int maxResults = (limit != null && limit > 0) ? limit : 10;
+        log.info("GraphQL query: recommendedForMe(userId={}, limit={})", userId, maxResults);
+        
+        // The list itself is the selection root (no page wrapper)
+        CourseProjection projection = new CourseProjection(
+                selectionSet.contains("description"),
+                selectionSet.containsAnyOf("requirements", "learningOutcomes"));
+        return personalFeedService.getRecommendedCourses(userId, maxResults, projection);
+    }
+
     /**
      * Get all active categories.
      * 
@@ -303,4 +470,45 @@ public class CourseQueryResolver {
         log.info("GraphQL query: tag(id={})", id);
         return tagRepository.findById(id).orElse(null);
     }
+
+    /**
+     * Suggest courses, tags and categories while the user types.
+     * Answered from memory; called on every keystroke.
+     * 
+     * @param prefix Typed text
+     * @param limit Maximum suggestions per kind (default 5)
+     * @return Suggestions grouped by kind
+     */
+    @QueryMapping
+    public Suggestions suggest(@Argument String prefix, @Argument Integer limit) {
+        int maxResults = (limit != null && limit > 0) ? limit : 5;
+        log.debug("GraphQL query: suggest(prefix={}, limit={})", prefix, maxResults);
+        return suggestionIndex.suggest(prefix, maxResults);
+    }
+
+    /**
+     * Get the most frequent search terms of recent time windows (admin only).
+     * Zero-result terms show content gaps.
+     * 
+     * @param kind All searches or zero-result searches
+     * @param hours How far back to look (default 24)
+     * @param limit Maximum number of terms (default 50)
+     * @return Terms with estimated search counts, highest first
+     * @throws SecurityException if the user is not an admin
+     */
+    @QueryMapping
+    public List<TermCount> searchAnalytics(
+            @Argument SearchTermKind kind,
+            @Argument Integer hours,
+            @Argument Integer limit) {
+        
+        if (!SecurityUtils.hasRole("ADMIN")) {
+            throw new SecurityException("Only admins can view search analytics");
+        }
+        int lookbackHours = (hours != null && hours > 0) ? hours : 24;
+        int maxResults = (limit != null && limit > 0) ? Math.min(limit, 500) : 50;
+        log.info("GraphQL query: searchAnalytics(kind={}, hours={}, limit={})", kind, lookbackHours, maxResults);
+        
+        return searchAnalyticsService.getTopTerms(kind, LocalDateTime.now().minusHours(lookbackHours), maxResults);
+    }
 }
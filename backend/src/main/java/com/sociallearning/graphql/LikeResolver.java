@@ -58,8 +58,9 @@ public class LikeResolver {
                 userId, targetType, targetId);
         
         LikeableType type = LikeableType.valueOf(targetType);
-        boolean isLiked = likeService.toggleLike(userId, type, targetId);
-        long likeCount = likeService.getLikeCount(type, targetId);
+        LikeService.ToggleResult toggle = likeService.toggleLike(userId, type, targetId);
+        boolean isLiked = toggle.liked();
+        long likeCount = toggle.likeCount();
         
         // Publish subscription event
         subscriptionPublisher.publishLikeToggled(targetType, targetId, userId, isLiked, likeCount);
@@ -0,0 +1,96 @@
+package com.sociallearning.graphql;
+
+import com.sociallearning.service.KeysetWindow;
+import com.sociallearning.service.PageTotals;
+import graphql.relay.Connection;
+import graphql.relay.ConnectionCursor;
+import graphql.relay.DefaultConnection;
+import graphql.relay.DefaultConnectionCursor;
+import graphql.relay.DefaultEdge;
+import graphql.relay.DefaultPageInfo;
+import graphql.relay.Edge;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for the paginated GraphQL result types: offset pages (CoursePage, CommentPage, RatingPage)
+ * and cursor connections (CourseConnection, CommentConnection, RatingConnection).
+ * 
+ * Totals are only computed when the client selects them: infinite-scroll clients
+ * read hasNext alone, which needs no COUNT query.
+ */
+final class PageResults {
+
+    private PageResults() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Decide how the total of a page is obtained from the fields the client selected.
+     * 
+     * @param selectionSet Fields selected on the page type
+     * @param approximateTotal Whether the client accepts an estimated total
+     * @return NONE if no total is selected, otherwise ESTIMATED or EXACT
+     */
+    static PageTotals totalsFor(DataFetchingFieldSelectionSet selectionSet, Boolean approximateTotal) {
+        if (!selectionSet.containsAnyOf("totalElements", "totalPages")) {
+            return PageTotals.NONE;
+        }
+        return Boolean.TRUE.equals(approximateTotal) ? PageTotals.ESTIMATED : PageTotals.EXACT;
+    }
+
+    /**
+     * Convert a slice to the GraphQL page type. Totals are only present for a Page.
+     * 
+     * @param slice Slice or Page of results
+     * @return Page result map
+     */
+    static Map<String, Object> toPageResult(Slice<?> slice) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("content", slice.getContent());
+        if (slice instanceof Page<?> page) {
+            result.put("totalElements", page.getTotalElements());
+            result.put("totalPages", page.getTotalPages());
+        }
+        result.put("pageNumber", slice.getNumber());
+        result.put("pageSize", slice.getSize());
+        result.put("hasNext", slice.hasNext());
+        result.put("hasPrevious", slice.hasPrevious());
+        return result;
+    }
+
+    /**
+     * Number of items in a connection window from the {@code first} argument.
+     * 
+     * @param first Requested number of items
+     * @return Window size (default 20, at most 50)
+     */
+    static int windowSize(Integer first) {
+        return (first != null && first > 0) ? Math.min(first, 50) : 20;
+    }
+
+    /**
+     * Convert a keyset window to a Relay-style connection.
+     * 
+     * @param window Window of results with their cursors
+     * @param after Cursor the window started after (null for the first window)
+     * @return Connection with one edge per item
+     */
+    static <T> Connection<T> toConnection(KeysetWindow<T> window, String after) {
+        List<Edge<T>> edges = new ArrayList<>(window.items().size());
+        for (int i = 0; i < window.items().size(); i++) {
+            edges.add(new DefaultEdge<>(window.items().get(i), new DefaultConnectionCursor(window.cursors().get(i))));
+        }
+        
+        ConnectionCursor startCursor = edges.isEmpty() ? null : edges.get(0).getCursor();
+        ConnectionCursor endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor();
+        return new DefaultConnection<>(edges,
+                new DefaultPageInfo(startCursor, endCursor, after != null, window.hasNext()));
+    }
+}
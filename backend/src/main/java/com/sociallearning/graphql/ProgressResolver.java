@@ -0,0 +1,136 @@
+package com.sociallearning.graphql;
+
+import com.sociallearning.dto.ProgressEventInput;
+import com.sociallearning.entity.CourseProgressRefresh;
+import com.sociallearning.security.SecurityUtils;
+import com.sociallearning.service.CourseProgressRefreshService;
+import com.sociallearning.service.PlaybackHeartbeatService;
+import com.sociallearning.service.ProgressSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.MutationMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+
+/**
+ * GraphQL resolver for learner progress operations.
+ * 
+ * Handles:
+ * - Video playback heartbeats (over HTTP or the /graphql-ws WebSocket)
+ * - Syncing progress recorded while offline
+ * - Status of enrollment progress refreshes after course structure changes
+ * - Resume positions of video lessons
+ */
+@Slf4j
+@Controller
+@RequiredArgsConstructor
+public class ProgressResolver {
+
+    private final PlaybackHeartbeatService playbackHeartbeatService;
+    private final ProgressSyncService progressSyncService;
+    private final CourseProgressRefreshService courseProgressRefreshService;
+
+    // ============================================
+    // Mutations
+    // ============================================
+
+    /**
+     * Report playback of a video lesson. Players send one every few seconds; heartbeats
+     * are buffered and written in batches, so the call never waits for the database.
+     * 
+     * GraphQL Mutation:
+     * mutation Heartbeat($lessonId: ID!, $position: Int!, $watched: Int!) {
+     *   recordPlaybackHeartbeat(lessonId: $lessonId, positionSeconds: $position, watchedSeconds: $watched)
+     * }
+     * 
+     * @return false if the server is overloaded and the player should send heartbeats less often
+     */
+    @MutationMapping
+    public boolean recordPlaybackHeartbeat(
+            @Argument Long lessonId,
+            @Argument int positionSeconds,
+            @Argument int watchedSeconds) {
+        
+        Long userId = requireAuthentication();
+        
+        log.trace("GraphQL recordPlaybackHeartbeat mutation: userId={}, lessonId={}, position={}, watched={}",
+                userId, lessonId, positionSeconds, watchedSeconds);
+        
+        return playbackHeartbeatService.record(userId, lessonId, positionSeconds, watchedSeconds);
+    }
+
+    /**
+     * Upload progress events recorded while offline. Safe to retry: events are identified
+     * by their client event ID and applied at most once.
+     * 
+     * GraphQL Mutation:
+     * mutation SyncProgress($events: [ProgressEventInput!]!) {
+     *   syncProgress(events: $events) { applied duplicates skippedEventIds }
+     * }
+     */
+    @MutationMapping
+    public ProgressSyncService.SyncResult syncProgress(@Argument List<ProgressEventInput> events) {
+        Long userId = requireAuthentication();
+        
+        log.debug("GraphQL syncProgress mutation: userId={}, events={}", userId, events.size());
+        
+        return progressSyncService.sync(userId, events);
+    }
+
+    // ============================================
+    // Queries
+    // ============================================
+
+    /**
+     * Get the position to resume a lesson from for the current user.
+     * 
+     * GraphQL Query:
+     * query PlaybackPosition($lessonId: ID!) {
+     *   playbackPosition(lessonId: $lessonId)
+     * }
+     */
+    @QueryMapping
+    public Integer playbackPosition(@Argument Long lessonId) {
+        Long userId = requireAuthentication();
+        
+        log.debug("GraphQL playbackPosition query: userId={}, lessonId={}", userId, lessonId);
+        
+        return playbackHeartbeatService.getPlaybackPosition(userId, lessonId);
+    }
+
+    /**
+     * Get how far the background refresh of a course's enrollments got after lessons
+     * were added or removed (course creator or admin).
+     * 
+     * GraphQL Query:
+     * query ProgressRefresh($courseId: ID!) {
+     *   courseProgressRefresh(courseId: $courseId) { status processedEnrollments totalEnrollments }
+     * }
+     * 
+     * @return Refresh job, or null if none was ever requested
+     */
+    @QueryMapping
+    public CourseProgressRefresh courseProgressRefresh(@Argument Long courseId) {
+        Long userId = requireAuthentication();
+        
+        log.debug("GraphQL courseProgressRefresh query: userId={}, courseId={}", userId, courseId);
+        
+        return courseProgressRefreshService.getRefresh(courseId, userId, SecurityUtils.hasRole("ADMIN"))
+                .orElse(null);
+    }
+
+    // ============================================
+    // Helper Methods
+    // ============================================
+
+    private Long requireAuthentication() {
+        Long userId = SecurityUtils.getCurrentUserId();
+        if (userId == null) {
+            throw new IllegalArgumentException("Authentication required");
+        }
+        return userId;
+    }
+}
@@ -7,9 +7,11 @@ import com.sociallearning.service.RatingService.RatingStats;
 import com.sociallearning.service.SubscriptionPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import graphql.relay.Connection;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
@@ -203,7 +205,9 @@ public class RatingResolver {
     public Map<String, Object> courseRatings(
             @Argument Long courseId,
             @Argument Integer page,
-            @Argument Integer size) {
+            @Argument Integer size,
+            @Argument Boolean approximateTotal,
+            DataFetchingFieldSelectionSet selectionSet) {
         
         log.info("GraphQL courseRatings query: courseId={}, page={}, size={}", courseId, page, size);
         
@@ -211,9 +215,10 @@ public class RatingResolver {
         int pageSize = (size != null && size > 0) ? Math.min(size, 50) : 20;
         Pageable pageable = PageRequest.of(pageNumber, pageSize);
         
-        Page<Rating> ratingPage = ratingService.getCourseRatings(courseId, pageable);
+        Slice<Rating> ratingPage = ratingService.getCourseRatings(courseId, pageable,
+                PageResults.totalsFor(selectionSet, approximateTotal));
         
-        return toPageResult(ratingPage);
+        return PageResults.toPageResult(ratingPage);
     }
 
     /**
@@ -237,7 +242,9 @@ public class RatingResolver {
     public Map<String, Object> courseReviews(
             @Argument Long courseId,
             @Argument Integer page,
-            @Argument Integer size) {
+            @Argument Integer size,
+            @Argument Boolean approximateTotal,
+            DataFetchingFieldSelectionSet selectionSet) {
         
         log.info("GraphQL courseReviews query: courseId={}, page={}, size={}", courseId, page, size);
         
@@ -245,9 +252,56 @@ public class RatingResolver {
         int pageSize = (size != null && size > 0) ? Math.min(size, 50) : 20;
         Pageable pageable = PageRequest.of(pageNumber, pageSize);
         
-        Page<Rating> reviewPage = ratingService.getCourseReviews(courseId, pageable);
+        Slice<Rating> reviewPage = ratingService.getCourseReviews(courseId, pageable,
+                PageResults.totalsFor(selectionSet, approximateTotal));
         
-        return toPageResult(reviewPage);
+        return PageResults.toPageResult(reviewPage);
+    }
+
+    /**
+     * Get ratings for a course as a cursor connection, newest first.
+     * 
+     * GraphQL Query:
+     * query GetCourseRatingFeed($courseId: ID!, $after: String) {
+     *   courseRatingsConnection(courseId: $courseId, first: 20, after: $after) {
+     *     edges { node { id ratingValue user { id username } createdAt } }
+     *     pageInfo { hasNextPage endCursor }
+     *   }
+     * }
+     */
+    @QueryMapping
+    public Connection<Rating> courseRatingsConnection(
+            @Argument Long courseId,
+            @Argument Integer first,
+            @Argument String after) {
+        
+        log.info("GraphQL courseRatingsConnection query: courseId={}, first={}, after={}", courseId, first, after);
+        
+        return PageResults.toConnection(
+                ratingService.getCourseRatingFeed(courseId, PageResults.windowSize(first), after), after);
+    }
+
+    /**
+     * Get reviews (ratings with content) for a course as a cursor connection, newest first.
+     * 
+     * GraphQL Query:
+     * query GetCourseReviewFeed($courseId: ID!, $after: String) {
+     *   courseReviewsConnection(courseId: $courseId, first: 20, after: $after) {
+     *     edges { node { id reviewTitle reviewContent user { id username } } }
+     *     pageInfo { hasNextPage endCursor }
+     *   }
+     * }
+     */
+    @QueryMapping
+    public Connection<Rating> courseReviewsConnection(
+            @Argument Long courseId,
+            @Argument Integer first,
+            @Argument String after) {
+        
+        log.info("GraphQL courseReviewsConnection query: courseId={}, first={}, after={}", courseId, first, after);
+        
+        return PageResults.toConnection(
+                ratingService.getCourseReviewFeed(courseId, PageResults.windowSize(first), after), after);
     }
 
     /**
@@ -322,18 +376,6 @@ public class RatingResolver {
         return userId;
     }
 
-    private Map<String, Object> toPageResult(Page<Rating> page) {
-        Map<String, Object> result = new HashMap<>();
-        result.put("content", page.getContent());
-        result.put("totalElements", page.getTotalElements());
-        result.put("totalPages", page.getTotalPages());
-        result.put("pageNumber", page.getNumber());
-        result.put("pageSize", page.getSize());
-        result.put("hasNext", page.hasNext());
-        result.put("hasPrevious", page.hasPrevious());
-        return result;
-    }
-
     // ============================================
     // Input Records
     // ============================================
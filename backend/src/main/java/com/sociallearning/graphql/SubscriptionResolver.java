@@ -2,6 +2,10 @@ package com.sociallearning.graphql;
 
 import com.sociallearning.enums.CommentableType;
 import com.sociallearning.enums.LikeableType;
+import com.sociallearning.security.SecurityUtils;
+import com.sociallearning.service.SubscriptionFlowControl;
+import com.sociallearning.service.SubscriptionFlowControl.Stream;
+import com.sociallearning.service.SubscriptionFlowControl.SubscriptionStatsView;
 import com.sociallearning.service.SubscriptionPublisher;
 import com.sociallearning.service.SubscriptionPublisher.CommentEvent;
 import com.sociallearning.service.SubscriptionPublisher.LikeEvent;
@@ -9,10 +13,13 @@ import com.sociallearning.service.SubscriptionPublisher.RatingEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
 import org.springframework.stereotype.Controller;
 import reactor.core.publisher.Flux;
 
+import java.util.List;
+
 /**
  * GraphQL resolver for subscription operations.
  * 
@@ -22,6 +29,8 @@ import reactor.core.publisher.Flux;
  * - Rating events (added, updated)
  * 
  * Uses WebSocket transport for persistent connections.
+ * Every stream gets a bounded per-subscriber buffer with the overflow policy
+ * configured for it in {@link SubscriptionFlowControl}.
  */
 @Slf4j
 @Controller
@@ -29,6 +38,7 @@ import reactor.core.publisher.Flux;
 public class SubscriptionResolver {
 
     private final SubscriptionPublisher subscriptionPublisher;
+    private final SubscriptionFlowControl subscriptionFlowControl;
 
     // ============================================
     // Comment Subscriptions
@@ -60,8 +70,11 @@ public class SubscriptionResolver {
         
         log.info("New subscription: commentAdded(targetType={}, targetId={})", targetType, targetId);
         
-        return subscriptionPublisher.getCommentEventsForTarget(targetType, targetId)
-                .filter(event -> event.eventType() == SubscriptionPublisher.CommentEventType.ADDED)
+        Flux<CommentEvent> events = subscriptionPublisher.getCommentEventsForTarget(targetType, targetId)
+                .filter(event -> event.eventType() == SubscriptionPublisher.CommentEventType.ADDED);
+        
+        return subscriptionFlowControl.bounded(Stream.COMMENT_ADDED, targetType, targetId,
+                        SecurityUtils.getCurrentUserId(), events)
                 .doOnSubscribe(s -> log.debug("Client subscribed to commentAdded: targetType={}, targetId={}", 
                         targetType, targetId))
                 .doOnCancel(() -> log.debug("Client unsubscribed from commentAdded: targetType={}, targetId={}", 
@@ -94,7 +107,9 @@ public class SubscriptionResolver {
         
         log.info("New subscription: commentEvents(targetType={}, targetId={})", targetType, targetId);
         
-        return subscriptionPublisher.getCommentEventsForTarget(targetType, targetId)
+        return subscriptionFlowControl.bounded(Stream.COMMENT_EVENTS, targetType, targetId,
+                        SecurityUtils.getCurrentUserId(),
+                        subscriptionPublisher.getCommentEventsForTarget(targetType, targetId))
                 .doOnSubscribe(s -> log.debug("Client subscribed to commentEvents: targetType={}, targetId={}", 
                         targetType, targetId))
                 .doOnCancel(() -> log.debug("Client unsubscribed from commentEvents: targetType={}, targetId={}", 
@@ -126,7 +141,9 @@ public class SubscriptionResolver {
         
         log.info("New subscription: likeToggled(targetType={}, targetId={})", targetType, targetId);
         
-        return subscriptionPublisher.getLikeEventsForTarget(targetType, targetId)
+        return subscriptionFlowControl.bounded(Stream.LIKE_TOGGLED, targetType, targetId,
+                        SecurityUtils.getCurrentUserId(),
+                        subscriptionPublisher.getLikeEventsForTarget(targetType, targetId))
                 .doOnSubscribe(s -> log.debug("Client subscribed to likeToggled: targetType={}, targetId={}", 
                         targetType, targetId))
                 .doOnCancel(() -> log.debug("Client unsubscribed from likeToggled: targetType={}, targetId={}", 
@@ -162,8 +179,30 @@ public class SubscriptionResolver {
     public Flux<RatingEvent> ratingEvent(@Argument Long courseId) {
         log.info("New subscription: ratingEvent(courseId={})", courseId);
         
-        return subscriptionPublisher.getRatingEventsForCourse(courseId)
+        return subscriptionFlowControl.bounded(Stream.RATING_EVENT, "COURSE", courseId,
+                        SecurityUtils.getCurrentUserId(),
+                        subscriptionPublisher.getRatingEventsForCourse(courseId))
                 .doOnSubscribe(s -> log.debug("Client subscribed to ratingEvent: courseId={}", courseId))
                 .doOnCancel(() -> log.debug("Client unsubscribed from ratingEvent: courseId={}", courseId));
     }
+
+    // ============================================
+    // Subscription Monitoring
+    // ============================================
+
+    /**
+     * Get buffer statistics for all open subscriptions on this node (admin only).
+     * Sorted by lag, so slow clients come first.
+     * 
+     * @return Per-subscription statistics
+     * @throws SecurityException if the user is not an admin
+     */
+    @QueryMapping
+    public List<SubscriptionStatsView> subscriptionStats() {
+        if (!SecurityUtils.hasRole("ADMIN")) {
+            throw new SecurityException("Only admins can view subscription statistics");
+        }
+        
+        return subscriptionFlowControl.getActiveSubscriptions();
+    }
 }
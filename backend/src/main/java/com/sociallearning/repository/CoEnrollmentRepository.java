@@ -0,0 +1,105 @@
+package com.sociallearning.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository for the enrollment data behind course-to-course recommendations.
+ * Reads (learner, course) pairs without materializing Enrollment entities:
+ * the full scan is streamed row by row, and single-course updates use grouped
+ * co-enrollment counts computed by the database.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CoEnrollmentRepository {
+
+    private static final int STREAM_FETCH_SIZE = 10_000;
+
+    private static final String PUBLISHED_ENROLLMENTS_BY_USER =
+            "SELECT e.user_id, e.course_id FROM enrollments e JOIN courses c ON c.id = e.course_id " +
+            "WHERE c.published = true ORDER BY e.user_id";
+
+    /**
+     * Bounded to the course's most recent learners, so popular courses do not join their
+     * whole enrollment list.
+     */
+    private static final String CO_ENROLLMENT_COUNTS =
+            "WITH sample AS (SELECT user_id FROM enrollments WHERE course_id = ? ORDER BY id DESC LIMIT ?) " +
+            "SELECT e2.course_id, COUNT(*) FROM sample s " +
+            "JOIN enrollments e2 ON e2.user_id = s.user_id AND e2.course_id <> ? " +
+            "JOIN courses c ON c.id = e2.course_id AND c.published = true " +
+            "GROUP BY e2.course_id";
+
+    private static final String ENROLLMENT_COUNTS =
+            "SELECT course_id, COUNT(*) FROM enrollments WHERE course_id = ANY(?) GROUP BY course_id";
+
+    private static final String COURSES_OF_USER =
+            "SELECT course_id FROM enrollments WHERE user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Stream every (userId, courseId) enrollment pair of published courses, grouped by user.
+     * Runs in a read-only transaction so the driver fetches rows in chunks instead of
+     * loading the whole table.
+     * @param handler Receives one row per enrollment (column 1: user ID, column 2: course ID)
+     */
+    @Transactional(readOnly = true)
+    public void streamPublishedEnrollmentsByUser(RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(PUBLISHED_ENROLLMENTS_BY_USER);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            return statement;
+        }, handler);
+    }
+
+    /**
+     * Count, for every other published course, how many of a course's most recent learners also took it
+     * @param courseId Course ID
+     * @param sampleSize Most recent learners of the course to look at
+     * @return Other course ID to number of shared learners within the sample
+     */
+    public Map<Long, Long> countCoEnrollments(Long courseId, int sampleSize) {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query(CO_ENROLLMENT_COUNTS,
+                (RowCallbackHandler) rs -> counts.put(rs.getLong(1), rs.getLong(2)), courseId, sampleSize, courseId);
+        return counts;
+    }
+
+    /**
+     * Count enrollments of a set of courses
+     * @param courseIds Course IDs
+     * @return Course ID to number of enrollments (courses without enrollments are absent)
+     */
+    public Map<Long, Long> countEnrollments(Collection<Long> courseIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (courseIds.isEmpty()) {
+            return counts;
+        }
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(ENROLLMENT_COUNTS);
+            Array ids = connection.createArrayOf("bigint", courseIds.toArray());
+            statement.setArray(1, ids);
+            return statement;
+        }, (RowCallbackHandler) rs -> counts.put(rs.getLong(1), rs.getLong(2)));
+        return counts;
+    }
+
+    /**
+     * Find the courses a learner is enrolled in
+     * @param userId User ID
+     * @return Course IDs
+     */
+    public List<Long> findCourseIdsByUser(Long userId) {
+        return jdbcTemplate.queryForList(COURSES_OF_USER, Long.class, userId);
+    }
+}
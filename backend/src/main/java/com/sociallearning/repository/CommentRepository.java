@@ -5,12 +5,15 @@ import com.sociallearning.entity.User;
 import com.sociallearning.enums.CommentableType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,6 +55,17 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
         Pageable pageable
     );
 
+    /**
+     * Find root comments for a target without counting them (fetches one extra row to detect a next page)
+     */
+    @Query("SELECT c FROM Comment c WHERE c.commentableType = :type AND c.commentableId = :targetId " +
+           "AND c.parent IS NULL AND c.isDeleted = false ORDER BY c.isPinned DESC, c.createdAt DESC")
+    Slice<Comment> findRootCommentSliceByTarget(
+        @Param("type") CommentableType type,
+        @Param("targetId") Long targetId,
+        Pageable pageable
+    );
+
     /**
      * Find all root comments for a target with user eagerly loaded
      */
@@ -87,6 +101,41 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
            "AND c.parent IS NULL AND c.isDeleted = false")
     long countRootCommentsByTarget(@Param("type") CommentableType type, @Param("targetId") Long targetId);
 
+    // ============================================
+    // Keyset Queries (feed order: pinned first, newest first, ID as tie-breaker)
+    // ============================================
+
+    /**
+     * Find the first root comments of a target in feed order with user eagerly loaded
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user " +
+           "WHERE c.commentableType = :type AND c.commentableId = :targetId " +
+           "AND c.parent IS NULL AND c.isDeleted = false " +
+           "ORDER BY c.isPinned DESC, c.createdAt DESC, c.id DESC LIMIT :limit")
+    List<Comment> findRootCommentFeed(
+        @Param("type") CommentableType type,
+        @Param("targetId") Long targetId,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Find the root comments of a target that follow a position in feed order, with user eagerly loaded.
+     * Served by idx_comments_target_feed, so the cost does not depend on how deep the position is.
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user " +
+           "WHERE c.commentableType = :type AND c.commentableId = :targetId " +
+           "AND c.parent IS NULL AND c.isDeleted = false " +
+           "AND (c.isPinned, c.createdAt, c.id) < (:afterPinned, :afterCreatedAt, :afterId) " +
+           "ORDER BY c.isPinned DESC, c.createdAt DESC, c.id DESC LIMIT :limit")
+    List<Comment> findRootCommentFeedAfter(
+        @Param("type") CommentableType type,
+        @Param("targetId") Long targetId,
+        @Param("afterPinned") Boolean afterPinned,
+        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+        @Param("afterId") Long afterId,
+        @Param("limit") int limit
+    );
+
     // ============================================
     // Threading Queries
     // ============================================
@@ -104,6 +153,13 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
            "WHERE c.parent.id = :parentId AND c.isDeleted = false ORDER BY c.createdAt ASC")
     List<Comment> findRepliesByParentIdWithUser(@Param("parentId") Long parentId);
 
+    /**
+     * Find replies to several comments at once with user eagerly loaded
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user " +
+           "WHERE c.parent.id IN :parentIds AND c.isDeleted = false ORDER BY c.createdAt ASC")
+    List<Comment> findRepliesByParentIdsWithUser(@Param("parentIds") Collection<Long> parentIds);
+
     /**
      * Find all comments in a thread (by root comment)
      */
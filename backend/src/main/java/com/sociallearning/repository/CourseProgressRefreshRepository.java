@@ -0,0 +1,164 @@
+package com.sociallearning.repository;
+
+import com.sociallearning.entity.CourseProgressRefresh;
+import com.sociallearning.enums.RefreshJobStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for course progress refresh jobs.
+ * A batch is one transaction: claim the job row ({@code SKIP LOCKED}, so only one worker
+ * runs a course at a time), lock the next page of the course's enrollments by ID, re-derive
+ * their counters with one set-based UPDATE, and advance the cursor. The UPDATE runs after
+ * the lock, so it reads counters and bitmaps that concurrent lesson completions committed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CourseProgressRefreshRepository {
+
+    /**
+     * Restarts a job that is still running, since the lessons changed again.
+     */
+    private static final String REQUEST_REFRESH =
+            "INSERT INTO course_progress_refreshes (course_id, status, last_enrollment_id, processed_enrollments, " +
+            "total_enrollments, updated_enrollments, requested_at, completed_at, updated_at) " +
+            "SELECT ?, 'PENDING', 0, 0, COUNT(*), 0, now(), NULL, now() FROM enrollments WHERE course_id = ? " +
+            "ON CONFLICT (course_id) DO UPDATE SET status = 'PENDING', last_enrollment_id = 0, " +
+            "processed_enrollments = 0, total_enrollments = EXCLUDED.total_enrollments, updated_enrollments = 0, " +
+            "requested_at = now(), completed_at = NULL, updated_at = now()";
+
+    private static final String CLAIM_CURSOR =
+            "SELECT last_enrollment_id FROM course_progress_refreshes " +
+            "WHERE course_id = ? AND status IN ('PENDING', 'RUNNING') FOR UPDATE SKIP LOCKED";
+
+    private static final String LOCK_ENROLLMENT_PAGE =
+            "SELECT id FROM enrollments WHERE course_id = ? AND id > ? ORDER BY id LIMIT ? FOR UPDATE";
+
+    /**
+     * Same derivation as {@code Enrollment.updateProgress}: bits of deleted lessons are
+     * masked out, percentages are rounded half up and capped at 100, and reaching 100%
+     * completes the enrollment. Enrollments without a bitmap yet keep their completed count.
+     */
+    private static final String REFRESH_ENROLLMENTS =
+            "WITH course_lessons AS (SELECT l.progress_ordinal FROM lessons l JOIN modules m ON m.id = l.module_id " +
+            "WHERE m.course_id = ?), " +
+            "counts AS (SELECT e.id, t.total, CASE WHEN e.completed_lesson_bits IS NULL " +
+            "THEN LEAST(e.completed_lessons, t.total) ELSE t.completed END AS completed FROM enrollments e " +
+            "JOIN LATERAL (SELECT COUNT(*) AS total, COUNT(*) FILTER (WHERE CASE " +
+            "WHEN c.progress_ordinal < length(e.completed_lesson_bits) * 8 " +
+            "THEN get_bit(e.completed_lesson_bits, c.progress_ordinal) = 1 ELSE false END) AS completed " +
+            "FROM course_lessons c) t ON true WHERE e.id = ANY(?)), " +
+            "progress AS (SELECT id, total, completed, CASE WHEN total = 0 THEN 0 " +
+            "ELSE LEAST(ROUND(completed * 100.0 / total, 2), 100) END AS percentage FROM counts) " +
+            "UPDATE enrollments AS e SET total_lessons = p.total, completed_lessons = p.completed, " +
+            "progress_percentage = p.percentage, " +
+            "status = CASE WHEN p.percentage >= 100 THEN 'COMPLETED' ELSE e.status END, " +
+            "completed_at = CASE WHEN p.percentage >= 100 THEN COALESCE(e.completed_at, now()) ELSE e.completed_at END, " +
+            "updated_at = now() FROM progress p WHERE e.id = p.id " +
+            "AND (e.total_lessons <> p.total OR e.completed_lessons <> p.completed OR e.progress_percentage <> p.percentage)";
+
+    private static final String ADVANCE_CURSOR =
+            "UPDATE course_progress_refreshes SET status = ?, last_enrollment_id = ?, " +
+            "processed_enrollments = processed_enrollments + ?, updated_enrollments = updated_enrollments + ?, " +
+            "completed_at = ?, updated_at = now() WHERE course_id = ?";
+
+    private static final String UNFINISHED_COURSE_IDS =
+            "SELECT course_id FROM course_progress_refreshes WHERE status IN ('PENDING', 'RUNNING') " +
+            "ORDER BY requested_at LIMIT ?";
+
+    private static final String FIND_BY_COURSE =
+            "SELECT id, course_id, status, last_enrollment_id, processed_enrollments, total_enrollments, " +
+            "updated_enrollments, requested_at, completed_at, updated_at FROM course_progress_refreshes WHERE course_id = ?";
+
+    private static final RowMapper<CourseProgressRefresh> ROW_MAPPER = (rs, rowNum) -> CourseProgressRefresh.builder()
+            .id(rs.getLong("id"))
+            .courseId(rs.getLong("course_id"))
+            .status(RefreshJobStatus.valueOf(rs.getString("status")))
+            .lastEnrollmentId(rs.getLong("last_enrollment_id"))
+            .processedEnrollments(rs.getInt("processed_enrollments"))
+            .totalEnrollments(rs.getInt("total_enrollments"))
+            .updatedEnrollments(rs.getInt("updated_enrollments"))
+            .requestedAt(rs.getTimestamp("requested_at").toLocalDateTime())
+            .completedAt(rs.getTimestamp("completed_at") != null ? rs.getTimestamp("completed_at").toLocalDateTime() : null)
+            .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Request (or restart) the refresh of a course's enrollments
+     * @param courseId Course ID
+     */
+    public void requestRefresh(Long courseId) {
+        jdbcTemplate.update(REQUEST_REFRESH, courseId, courseId);
+    }
+
+    /**
+     * Refresh the next page of a course's enrollments and advance the job cursor, in one transaction
+     * @param courseId Course ID
+     * @param batchSize Enrollments per page
+     * @return Batch outcome, or empty if the job is finished or another worker holds it
+     */
+    @Transactional
+    public Optional<BatchResult> refreshNextBatch(Long courseId, int batchSize) {
+        List<Long> cursor = jdbcTemplate.queryForList(CLAIM_CURSOR, Long.class, courseId);
+        if (cursor.isEmpty()) {
+            return Optional.empty();
+        }
+        long afterId = cursor.get(0);
+
+        List<Long> enrollmentIds = jdbcTemplate.queryForList(LOCK_ENROLLMENT_PAGE, Long.class,
+                courseId, afterId, batchSize);
+        int updated = 0;
+        if (!enrollmentIds.isEmpty()) {
+            updated = jdbcTemplate.update(REFRESH_ENROLLMENTS, ps -> {
+                Array ids = ps.getConnection().createArrayOf("bigint", enrollmentIds.toArray());
+                ps.setLong(1, courseId);
+                ps.setArray(2, ids);
+            });
+        }
+
+        boolean done = enrollmentIds.size() < batchSize;
+        long lastId = enrollmentIds.isEmpty() ? afterId : enrollmentIds.get(enrollmentIds.size() - 1);
+        jdbcTemplate.update(ADVANCE_CURSOR,
+                (done ? RefreshJobStatus.COMPLETED : RefreshJobStatus.RUNNING).name(), lastId,
+                enrollmentIds.size(), updated, done ? new Timestamp(System.currentTimeMillis()) : null, courseId);
+        return Optional.of(new BatchResult(enrollmentIds.size(), updated, done));
+    }
+
+    /**
+     * Find courses whose refresh is not finished, oldest request first
+     * @param limit Maximum number of courses
+     * @return Course IDs
+     */
+    public List<Long> findUnfinishedCourseIds(int limit) {
+        return jdbcTemplate.queryForList(UNFINISHED_COURSE_IDS, Long.class, limit);
+    }
+
+    /**
+     * Get the refresh job of a course
+     * @param courseId Course ID
+     * @return Job, or empty if the course's lessons never changed while it had enrollments
+     */
+    public Optional<CourseProgressRefresh> findByCourseId(Long courseId) {
+        return jdbcTemplate.query(FIND_BY_COURSE, ROW_MAPPER, courseId).stream().findFirst();
+    }
+
+    /**
+     * Outcome of one refresh batch.
+     *
+     * @param processed Enrollments in the page
+     * @param updated Enrollments whose counters changed
+     * @param done Whether this was the last page
+     */
+    public record BatchResult(int processed, int updated, boolean done) {
+    }
+}
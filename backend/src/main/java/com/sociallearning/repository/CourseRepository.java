@@ -2,15 +2,20 @@ package com.sociallearning.repository;
 
 import com.sociallearning.entity.Category;
 import com.sociallearning.entity.Course;
+import com.sociallearning.entity.RatingHistogram;
 import com.sociallearning.entity.User;
 import com.sociallearning.enums.CourseDifficulty;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,15 +51,15 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     Optional<Course> findBySlugWithCreator(@Param("slug") String slug);
 
     /**
-     * Find a course by slug with all relationships loaded
+     * Find a course by slug with its to-one relationships loaded.
+     * Tags and modules are collections and are batch-loaded separately
+     * (fetch-joining both would multiply rows into a cartesian product).
      * @param slug The course slug
-     * @return Optional course with creator, category, tags, modules
+     * @return Optional course with creator and category
      */
-    @Query("SELECT DISTINCT c FROM Course c " +
+    @Query("SELECT c FROM Course c " +
            "LEFT JOIN FETCH c.creator " +
            "LEFT JOIN FETCH c.category " +
-           "LEFT JOIN FETCH c.tags " +
-           "LEFT JOIN FETCH c.modules " +
            "WHERE c.slug = :slug")
     Optional<Course> findBySlugWithDetails(@Param("slug") String slug);
 
@@ -128,16 +133,69 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     Page<Course> findByLanguage(@Param("language") String language, Pageable pageable);
 
     /**
-     * Search courses by title or description (case-insensitive)
-     * @param searchTerm The search term
-     * @param pageable Pagination parameters
-     * @return Page of matching courses
+     * Find IDs of all published courses (search index rebuild)
+     * @return Published course IDs in ascending order
      */
-    @Query("SELECT c FROM Course c WHERE c.published = true AND " +
-           "(LOWER(c.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(c.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-           "ORDER BY c.averageRating DESC, c.enrollmentCount DESC")
-    Page<Course> searchCourses(@Param("searchTerm") String searchTerm, Pageable pageable);
+    @Query("SELECT c.id FROM Course c WHERE c.published = true ORDER BY c.id")
+    List<Long> findPublishedCourseIds();
+
+    /**
+     * Load the facet values and catalog sort keys of all published courses (facet index rebuild)
+     * @return Rows of [courseId, categoryId, difficulty, language, averageRating, enrollmentCount]
+     *         in catalog order (highest rated, then most enrolled, then newest ID)
+     */
+    @Query("SELECT c.id, c.category.id, c.difficulty, c.language, c.averageRating, c.enrollmentCount " +
+           "FROM Course c WHERE c.published = true " +
+           "ORDER BY c.averageRating DESC, c.enrollmentCount DESC, c.id DESC")
+    List<Object[]> findFacetRows();
+
+    /**
+     * Same columns as {@link #findFacetRows} for a set of published courses
+     * @param courseIds Course IDs to load
+     * @return Rows of [courseId, categoryId, difficulty, language, averageRating, enrollmentCount]
+     */
+    @Query("SELECT c.id, c.category.id, c.difficulty, c.language, c.averageRating, c.enrollmentCount " +
+           "FROM Course c WHERE c.published = true AND c.id IN :courseIds")
+    List<Object[]> findFacetRowsByIds(@Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * Load the tag IDs of all published courses (facet index rebuild)
+     * @return Rows of [courseId, tagId]
+     */
+    @Query("SELECT c.id, t.id FROM Course c JOIN c.tags t WHERE c.published = true")
+    List<Object[]> findPublishedCourseTagIds();
+
+    /**
+     * Load the title and popularity of all published courses (suggestion index rebuild)
+     * @return Rows of [courseId, title, slug, enrollmentCount, averageRating]
+     */
+    @Query("SELECT c.id, c.title, c.slug, c.enrollmentCount, c.averageRating FROM Course c WHERE c.published = true")
+    List<Object[]> findSuggestionRows();
+
+    /**
+     * Load the searchable text of published courses
+     * @param courseIds Course IDs to load
+     * @return Rows of [courseId, title, description, categoryName]
+     */
+    @Query("SELECT c.id, c.title, c.description, cat.name FROM Course c LEFT JOIN c.category cat " +
+           "WHERE c.published = true AND c.id IN :courseIds")
+    List<Object[]> findSearchDocuments(@Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * Load tag names for a set of courses
+     * @param courseIds Course IDs to load
+     * @return Rows of [courseId, tagName]
+     */
+    @Query("SELECT c.id, t.name FROM Course c JOIN c.tags t WHERE c.id IN :courseIds")
+    List<Object[]> findTagNamesByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * Load the tags of several courses in one query
+     * @param courseIds Course IDs to load
+     * @return Rows of [courseId, Tag] ordered by tag name
+     */
+    @Query("SELECT c.id, t FROM Course c JOIN c.tags t WHERE c.id IN :courseIds ORDER BY t.name ASC")
+    List<Object[]> findTagsByCourseIds(@Param("courseIds") Collection<Long> courseIds);
 
     /**
      * Find courses by multiple filters
@@ -163,11 +221,117 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     );
 
     /**
-     * Find featured courses
+     * Same filter and order as {@link #findCoursesWithFilters}, returning only course IDs
+     * (used when the page is hydrated from summary projections)
+     * @return Page of filtered course IDs
+     */
+    @Query(value = "SELECT c.id FROM Course c WHERE c.published = true " +
+           "AND (:categoryId IS NULL OR c.category.id = :categoryId) " +
+           "AND (:difficulty IS NULL OR c.difficulty = :difficulty) " +
+           "AND (:language IS NULL OR c.language = :language) " +
+           "AND c.averageRating >= :minRating " +
+           "ORDER BY c.averageRating DESC, c.enrollmentCount DESC",
+           countQuery = "SELECT COUNT(c) FROM Course c WHERE c.published = true " +
+           "AND (:categoryId IS NULL OR c.category.id = :categoryId) " +
+           "AND (:difficulty IS NULL OR c.difficulty = :difficulty) " +
+           "AND (:language IS NULL OR c.language = :language) " +
+           "AND c.averageRating >= :minRating")
+    Page<Long> findCourseIdsWithFilters(
+        @Param("categoryId") Long categoryId,
+        @Param("difficulty") CourseDifficulty difficulty,
+        @Param("language") String language,
+        @Param("minRating") Double minRating,
+        Pageable pageable
+    );
+
+    /**
+     * Same as {@link #findCourseIdsWithFilters} without counting the matches
+     * (fetches one extra row to detect a next page)
+     * @return Slice of filtered course IDs
+     */
+    @Query("SELECT c.id FROM Course c WHERE c.published = true " +
+           "AND (:categoryId IS NULL OR c.category.id = :categoryId) " +
+           "AND (:difficulty IS NULL OR c.difficulty = :difficulty) " +
+           "AND (:language IS NULL OR c.language = :language) " +
+           "AND c.averageRating >= :minRating " +
+           "ORDER BY c.averageRating DESC, c.enrollmentCount DESC")
+    Slice<Long> findCourseIdSliceWithFilters(
+        @Param("categoryId") Long categoryId,
+        @Param("difficulty") CourseDifficulty difficulty,
+        @Param("language") String language,
+        @Param("minRating") Double minRating,
+        Pageable pageable
+    );
+
+    /**
+     * Find the sort keys of the first filtered courses in feed order
+     * (highest rated, then most enrolled, ID as tie-breaker)
+     * @return Rows of [id, averageRating, enrollmentCount]
+     */
+    @Query("SELECT c.id, c.averageRating, c.enrollmentCount FROM Course c WHERE c.published = true " +
+           "AND (:categoryId IS NULL OR c.category.id = :categoryId) " +
+           "AND (:difficulty IS NULL OR c.difficulty = :difficulty) " +
+           "AND (:language IS NULL OR c.language = :language) " +
+           "AND c.averageRating >= :minRating " +
+           "ORDER BY c.averageRating DESC, c.enrollmentCount DESC, c.id DESC LIMIT :limit")
+    List<Object[]> findCourseFeedKeys(
+        @Param("categoryId") Long categoryId,
+        @Param("difficulty") CourseDifficulty difficulty,
+        @Param("language") String language,
+        @Param("minRating") Double minRating,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Find the sort keys of the filtered courses that follow a position in feed order
+     * (keyset, served by idx_courses_rating_feed)
+     * @return Rows of [id, averageRating, enrollmentCount]
+     */
+    @Query("SELECT c.id, c.averageRating, c.enrollmentCount FROM Course c WHERE c.published = true " +
+           "AND (:categoryId IS NULL OR c.category.id = :categoryId) " +
+           "AND (:difficulty IS NULL OR c.difficulty = :difficulty) " +
+           "AND (:language IS NULL OR c.language = :language) " +
+           "AND c.averageRating >= :minRating " +
+           "AND (c.averageRating, c.enrollmentCount, c.id) < (:afterRating, :afterEnrollments, :afterId) " +
+           "ORDER BY c.averageRating DESC, c.enrollmentCount DESC, c.id DESC LIMIT :limit")
+    List<Object[]> findCourseFeedKeysAfter(
+        @Param("categoryId") Long categoryId,
+        @Param("difficulty") CourseDifficulty difficulty,
+        @Param("language") String language,
+        @Param("minRating") Double minRating,
+        @Param("afterRating") BigDecimal afterRating,
+        @Param("afterEnrollments") Integer afterEnrollments,
+        @Param("afterId") Long afterId,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Load course summaries: every scalar column except the large TEXT columns
+     * (requirements, learning outcomes, and the description unless requested)
+     * @param ids Course IDs to load
+     * @param withDescription Whether to include the description
+     * @return Rows of [id, title, slug, description, thumbnailUrl, creatorId, categoryId, difficulty,
+     *         totalDurationMinutes, language, enrollmentCount, ratingCount, averageRating, viewCount,
+     *         commentCount, likeCount, published, draft, archived, featured, publishedAt, createdAt, updatedAt]
+     */
+    @Query("SELECT c.id, c.title, c.slug, " +
+           "CASE WHEN :withDescription = true THEN c.description ELSE NULL END, " +
+           "c.thumbnailUrl, c.creator.id, c.category.id, c.difficulty, c.totalDurationMinutes, c.language, " +
+           "c.enrollmentCount, c.ratingCount, c.averageRating, c.viewCount, c.commentCount, c.likeCount, " +
+           "c.published, c.draft, c.archived, c.featured, c.publishedAt, c.createdAt, c.updatedAt " +
+           "FROM Course c WHERE c.id IN :ids")
+    List<Object[]> findCourseSummariesByIds(
+        @Param("ids") Collection<Long> ids,
+        @Param("withDescription") boolean withDescription
+    );
+
+    /**
+     * Find featured courses (highest rated first)
+     * @param limit Number of courses to return
      * @return List of featured courses
      */
-    @Query("SELECT c FROM Course c WHERE c.featured = true AND c.published = true ORDER BY c.averageRating DESC")
-    List<Course> findFeaturedCourses();
+    @Query("SELECT c FROM Course c WHERE c.featured = true AND c.published = true ORDER BY c.averageRating DESC LIMIT :limit")
+    List<Course> findFeaturedCourses(@Param("limit") int limit);
 
     /**
      * Find trending courses (most enrollments in recent period)
@@ -195,6 +359,88 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     @Query("SELECT c FROM Course c WHERE c.published = true ORDER BY c.publishedAt DESC LIMIT :limit")
     List<Course> findNewCourses(@Param("limit") int limit);
 
+    // ============================================
+    // Catalog Snapshot Queries (IDs only, ID as tie-breaker for a stable order)
+    // ============================================
+
+    /**
+     * Same order as {@link #findTrendingCourses} (lifetime enrollments and views), returning only course IDs
+     */
+    @Query("SELECT c.id FROM Course c WHERE c.published = true " +
+           "ORDER BY c.enrollmentCount DESC, c.viewCount DESC, c.id DESC LIMIT :limit")
+    List<Long> findTrendingCourseIds(@Param("limit") int limit);
+
+    /**
+     * Same order as {@link #findPopularCourses}, returning only course IDs
+     */
+    @Query("SELECT c.id FROM Course c WHERE c.published = true AND c.enrollmentCount >= :minEnrollments " +
+           "ORDER BY c.averageRating DESC, c.enrollmentCount DESC, c.id DESC LIMIT :limit")
+    List<Long> findPopularCourseIds(@Param("minEnrollments") int minEnrollments, @Param("limit") int limit);
+
+    /**
+     * Same order as {@link #findNewCourses}, returning only course IDs
+     */
+    @Query("SELECT c.id FROM Course c WHERE c.published = true ORDER BY c.publishedAt DESC, c.id DESC LIMIT :limit")
+    List<Long> findNewCourseIds(@Param("limit") int limit);
+
+    /**
+     * Same order as {@link #findFeaturedCourses}, returning only course IDs
+     */
+    @Query("SELECT c.id FROM Course c WHERE c.featured = true AND c.published = true " +
+           "ORDER BY c.averageRating DESC, c.id DESC LIMIT :limit")
+    List<Long> findFeaturedCourseIds(@Param("limit") int limit);
+
+    /**
+     * Keep the published courses of a set of course IDs
+     * @param courseIds Candidate course IDs
+     * @return IDs of the published courses among them
+     */
+    @Query("SELECT c.id FROM Course c WHERE c.id IN :courseIds AND c.published = true")
+    List<Long> findPublishedIdsIn(@Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * Load the category of several courses in one query
+     * @param courseIds Course IDs to load
+     * @return Rows of [courseId, categoryId]
+     */
+    @Query("SELECT c.id, c.category.id FROM Course c WHERE c.id IN :courseIds")
+    List<Object[]> findCategoryIdsByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * Load the tag IDs of several courses in one query
+     * @param courseIds Course IDs to load
+     * @return Rows of [courseId, tagId]
+     */
+    @Query("SELECT c.id, t.id FROM Course c JOIN c.tags t WHERE c.id IN :courseIds")
+    List<Object[]> findTagIdsByCourseIds(@Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * Best-rated published courses of any of several categories, returning only course IDs
+     * @param categoryIds Category IDs
+     * @param limit Maximum number of course IDs
+     * @return Course IDs, best rated first
+     */
+    @Query("SELECT c.id FROM Course c WHERE c.published = true AND c.category.id IN :categoryIds " +
+           "ORDER BY c.averageRating DESC, c.enrollmentCount DESC, c.id DESC LIMIT :limit")
+    List<Long> findTopCourseIdsInCategories(
+        @Param("categoryIds") Collection<Long> categoryIds,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Best-rated published courses carrying any of several tags, returning only course IDs
+     * @param tagIds Tag IDs
+     * @param limit Maximum number of course IDs
+     * @return Course IDs, best rated first
+     */
+    @Query("SELECT c.id FROM Course c WHERE c.published = true " +
+           "AND c.id IN (SELECT tc.id FROM Course tc JOIN tc.tags t WHERE t.id IN :tagIds) " +
+           "ORDER BY c.averageRating DESC, c.enrollmentCount DESC, c.id DESC LIMIT :limit")
+    List<Long> findTopCourseIdsWithTags(
+        @Param("tagIds") Collection<Long> tagIds,
+        @Param("limit") int limit
+    );
+
     /**
      * Find courses with a specific tag
      * @param tagId The tag ID
@@ -293,4 +539,119 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
      */
     @Query("SELECT c FROM Course c WHERE c.creator.id = :creatorId AND SIZE(c.modules) = 0")
     List<Course> findCoursesWithoutContent(@Param("creatorId") Long creatorId);
+
+    // ============================================
+    // Rating Histogram
+    // ============================================
+
+    /**
+     * Read a course's rating histogram without loading the course
+     * @param courseId The course ID
+     * @return Optional histogram
+     */
+    @Query("SELECT c.ratingHistogram FROM Course c WHERE c.id = :courseId")
+    Optional<RatingHistogram> findRatingHistogramById(@Param("courseId") Long courseId);
+
+    /**
+     * Read rating histograms for a batch of courses
+     * @param courseIds Course IDs
+     * @return Rows of [courseId, RatingHistogram]
+     */
+    @Query("SELECT c.id, c.ratingHistogram FROM Course c WHERE c.id IN :courseIds")
+    List<Object[]> findRatingHistograms(@Param("courseIds") Collection<Long> courseIds);
+
+    /**
+     * Apply a rating delta to the histogram and re-derive rating_count and average_rating
+     * in the same statement (right-hand sides see the pre-update row)
+     * @param courseId The course ID
+     * @param d1 Change in 1-star count
+     * @param d2 Change in 2-star count
+     * @param d3 Change in 3-star count
+     * @param d4 Change in 4-star count
+     * @param d5 Change in 5-star count
+     * @param sumDelta Change in the sum of rating values
+     * @return Number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE courses SET " +
+           "rating_1_count = rating_1_count + :d1, rating_2_count = rating_2_count + :d2, " +
+           "rating_3_count = rating_3_count + :d3, rating_4_count = rating_4_count + :d4, " +
+           "rating_5_count = rating_5_count + :d5, rating_sum = rating_sum + :sumDelta, " +
+           "rating_count = rating_1_count + rating_2_count + rating_3_count + rating_4_count + rating_5_count " +
+           "  + :d1 + :d2 + :d3 + :d4 + :d5, " +
+           "average_rating = CASE WHEN rating_1_count + rating_2_count + rating_3_count + rating_4_count " +
+           "  + rating_5_count + :d1 + :d2 + :d3 + :d4 + :d5 > 0 " +
+           "  THEN ROUND(CAST(rating_sum + :sumDelta AS numeric) / (rating_1_count + rating_2_count " +
+           "  + rating_3_count + rating_4_count + rating_5_count + :d1 + :d2 + :d3 + :d4 + :d5), 2) " +
+           "  ELSE 0 END " +
+           "WHERE id = :courseId",
+           nativeQuery = true)
+    int applyRatingDelta(
+        @Param("courseId") Long courseId,
+        @Param("d1") int d1,
+        @Param("d2") int d2,
+        @Param("d3") int d3,
+        @Param("d4") int d4,
+        @Param("d5") int d5,
+        @Param("sumDelta") long sumDelta
+    );
+
+    /**
+     * Overwrite a course's histogram and derived rating stats with exact values
+     * @param courseId The course ID
+     * @param c1 Number of 1-star ratings
+     * @param c2 Number of 2-star ratings
+     * @param c3 Number of 3-star ratings
+     * @param c4 Number of 4-star ratings
+     * @param c5 Number of 5-star ratings
+     * @param ratingSum Sum of rating values
+     * @param ratingCount Total number of ratings
+     * @param averageRating Average rating
+     * @return Number of updated rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Course c SET " +
+           "c.ratingHistogram.oneStarCount = :c1, c.ratingHistogram.twoStarCount = :c2, " +
+           "c.ratingHistogram.threeStarCount = :c3, c.ratingHistogram.fourStarCount = :c4, " +
+           "c.ratingHistogram.fiveStarCount = :c5, c.ratingHistogram.ratingSum = :ratingSum, " +
+           "c.ratingCount = :ratingCount, c.averageRating = :averageRating " +
+           "WHERE c.id = :courseId")
+    int overwriteRatingHistogram(
+        @Param("courseId") Long courseId,
+        @Param("c1") Integer c1,
+        @Param("c2") Integer c2,
+        @Param("c3") Integer c3,
+        @Param("c4") Integer c4,
+        @Param("c5") Integer c5,
+        @Param("ratingSum") Long ratingSum,
+        @Param("ratingCount") Integer ratingCount,
+        @Param("averageRating") BigDecimal averageRating
+    );
+
+    /**
+     * Lock a course row so histogram rebuilds serialize with concurrent rating deltas
+     * @param courseId The course ID
+     * @return The course ID if it exists
+     */
+    @Query(value = "SELECT id FROM courses WHERE id = :courseId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("courseId") Long courseId);
+
+    /**
+     * Page through all course IDs in ascending order (keyset)
+     * @param afterId Last ID of the previous batch
+     * @param limit Batch size
+     * @return Next batch of course IDs
+     */
+    @Query("SELECT c.id FROM Course c WHERE c.id > :afterId ORDER BY c.id LIMIT :limit")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * Find courses whose rating count disagrees with their histogram
+     * (e.g. rows that predate the histogram columns)
+     * @return Course IDs needing a histogram rebuild
+     */
+    @Query("SELECT c.id FROM Course c WHERE c.ratingCount <> c.ratingHistogram.oneStarCount " +
+           "+ c.ratingHistogram.twoStarCount + c.ratingHistogram.threeStarCount " +
+           "+ c.ratingHistogram.fourStarCount + c.ratingHistogram.fiveStarCount")
+    List<Long> findCoursesWithInconsistentRatingCount();
 }
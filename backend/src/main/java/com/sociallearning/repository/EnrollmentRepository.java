@@ -2,11 +2,14 @@ package com.sociallearning.repository;
 
 import com.sociallearning.entity.Enrollment;
 import com.sociallearning.enums.EnrollmentStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +25,26 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
 
     boolean existsByUserIdAndCourseId(Long userId, Long courseId);
 
+    /**
+     * Load and row-lock a learner's enrollment, so progress deltas apply to fresh counters
+     * and concurrent completions of the same enrollment serialize.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Enrollment e WHERE e.user.id = :userId AND e.course.id = :courseId")
+    Optional<Enrollment> findByUserIdAndCourseIdForUpdate(@Param("userId") Long userId, @Param("courseId") Long courseId);
+
+    /**
+     * Locks in ID order so concurrent multi-enrollment updates cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Enrollment e WHERE e.user.id = :userId AND e.course.id IN :courseIds ORDER BY e.id")
+    List<Enrollment> findByUserIdAndCourseIdInForUpdate(@Param("userId") Long userId,
+                                                        @Param("courseIds") Collection<Long> courseIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Enrollment e WHERE e.id = :id")
+    Optional<Enrollment> findByIdForUpdate(@Param("id") Long id);
+
     List<Enrollment> findByUserIdOrderByEnrolledAtDesc(Long userId);
 
     List<Enrollment> findByUserIdAndStatusOrderByEnrolledAtDesc(Long userId, EnrollmentStatus status);
@@ -43,4 +66,10 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     Double getAverageProgressByUserId(@Param("userId") Long userId);
 
     void deleteByUserIdAndCourseId(Long userId, Long courseId);
+
+    /**
+     * Page through all enrollment IDs in ascending order (keyset)
+     */
+    @Query("SELECT e.id FROM Enrollment e WHERE e.id > :afterId ORDER BY e.id LIMIT :limit")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
 }
@@ -0,0 +1,306 @@
+package com.sociallearning.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository for lesson completion bitmaps ({@code enrollments.completed_lesson_bits}).
+ * Bits are set with a single UPDATE using PostgreSQL {@code set_bit}, whose bit order
+ * (bit 0 = least significant bit of the first byte) matches {@link BitSet#valueOf(byte[])},
+ * so concurrent completions of one enrollment never overwrite each other.
+ * Also holds the statements that migrate per-lesson progress rows into bitmaps and
+ * that detect drift of the enrollment progress counters.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LessonCompletionRepository {
+
+    /**
+     * Only matches when the bit is still clear, so the update count tells whether this
+     * call made the not-completed to completed transition.
+     */
+    private static final String SET_COMPLETED =
+            "UPDATE enrollments SET completed_lesson_bits = set_bit(" +
+            "CASE WHEN length(completed_lesson_bits) > ? / 8 THEN completed_lesson_bits " +
+            "ELSE completed_lesson_bits || decode(repeat('00', ? / 8 + 1 - length(completed_lesson_bits)), 'hex') END, " +
+            "?, 1) WHERE id = ? AND completed_lesson_bits IS NOT NULL " +
+            "AND CASE WHEN length(completed_lesson_bits) > ? / 8 THEN get_bit(completed_lesson_bits, ?) = 0 ELSE true END";
+
+    /**
+     * Compares stored counters with the bitmap (masked with the course's lessons) and the
+     * progress rows' watch time.
+     */
+    private static final String DRIFTED_ENROLLMENTS =
+            "SELECT e.id FROM enrollments e " +
+            "JOIN LATERAL (SELECT COUNT(*) AS total, COUNT(*) FILTER (WHERE CASE " +
+            "WHEN l.progress_ordinal < length(e.completed_lesson_bits) * 8 " +
+            "THEN get_bit(e.completed_lesson_bits, l.progress_ordinal) = 1 ELSE false END) AS completed " +
+            "FROM lessons l JOIN modules m ON m.id = l.module_id WHERE m.course_id = e.course_id) c ON true " +
+            "JOIN LATERAL (SELECT COALESCE(SUM(p.watch_time_seconds), 0) AS watched " +
+            "FROM lesson_progress p WHERE p.enrollment_id = e.id) w ON true " +
+            "WHERE e.id = ANY(?) AND e.completed_lesson_bits IS NOT NULL " +
+            "AND (e.completed_lessons <> c.completed OR e.total_lessons <> c.total OR e.watch_time_seconds <> w.watched)";
+
+    private static final String COMPLETED_BITS =
+            "SELECT completed_lesson_bits FROM enrollments WHERE id = ?";
+
+    private static final String UPDATE_BITS =
+            "UPDATE enrollments SET completed_lesson_bits = ? WHERE id = ?";
+
+    private static final String INITIALIZE_BITS =
+            "UPDATE enrollments SET completed_lesson_bits = ? WHERE id = ? AND completed_lesson_bits IS NULL";
+
+    private static final String COMPLETED_ORDINALS =
+            "SELECT p.enrollment_id, l.progress_ordinal FROM lesson_progress p JOIN lessons l ON l.id = p.lesson_id " +
+            "WHERE p.enrollment_id = ANY(?) AND p.completed = true AND l.progress_ordinal IS NOT NULL";
+
+    private static final String LESSON_ORDINALS_OF_COURSE =
+            "SELECT l.progress_ordinal FROM lessons l JOIN modules m ON m.id = l.module_id " +
+            "WHERE m.course_id = ? AND l.progress_ordinal IS NOT NULL";
+
+    private static final String LESSON_ORDINAL =
+            "SELECT progress_ordinal FROM lessons WHERE id = ?";
+
+    /**
+     * Numbers lessons without an ordinal after the highest ordinal ever handed out in their
+     * course (the course counter, or the highest remaining ordinal for courses without one),
+     * in curriculum order.
+     */
+    private static final String ASSIGN_MISSING_ORDINALS =
+            "UPDATE lessons AS l SET progress_ordinal = o.ordinal FROM (" +
+            "SELECT x.id, x.base + ROW_NUMBER() OVER (PARTITION BY x.course_id " +
+            "ORDER BY x.module_order, x.lesson_order, x.id) AS ordinal FROM (" +
+            "SELECT l2.id, l2.progress_ordinal, m.course_id, m.order_index AS module_order, l2.order_index AS lesson_order, " +
+            "GREATEST(COALESCE(MAX(l2.progress_ordinal) OVER (PARTITION BY m.course_id), -1), " +
+            "COALESCE(c.next_progress_ordinal, 0) - 1) AS base " +
+            "FROM lessons l2 JOIN modules m ON m.id = l2.module_id JOIN courses c ON c.id = m.course_id " +
+            "WHERE m.course_id = ?) x " +
+            "WHERE x.progress_ordinal IS NULL) o WHERE l.id = o.id";
+
+    /**
+     * Takes the next ordinal from the course counter. The counter starts above the highest
+     * ordinal of the course's lessons and only grows, so ordinals of deleted lessons (whose
+     * bits may still be set in enrollments) are never handed out again. The UPDATE holds the
+     * course row lock, so concurrent lesson creations get distinct ordinals.
+     */
+    private static final String ALLOCATE_ORDINAL =
+            "UPDATE courses c SET next_progress_ordinal = GREATEST(COALESCE(c.next_progress_ordinal, 0), " +
+            "(SELECT COALESCE(MAX(l.progress_ordinal), -1) + 1 FROM lessons l JOIN modules m ON m.id = l.module_id " +
+            "WHERE m.course_id = c.id)) + 1 WHERE c.id = ? RETURNING c.next_progress_ordinal - 1";
+
+    /**
+     * Raises the course counter above every ordinal its lessons hold, before one of them is
+     * deleted or after missing ordinals were assigned.
+     */
+    private static final String RESERVE_ASSIGNED_ORDINALS =
+            "UPDATE courses c SET next_progress_ordinal = GREATEST(COALESCE(c.next_progress_ordinal, 0), " +
+            "(SELECT COALESCE(MAX(l.progress_ordinal), -1) + 1 FROM lessons l JOIN modules m ON m.id = l.module_id " +
+            "WHERE m.course_id = c.id)) WHERE c.id = ?";
+
+    private static final String COURSES_MISSING_ORDINALS =
+            "SELECT DISTINCT m.course_id FROM lessons l JOIN modules m ON m.id = l.module_id " +
+            "WHERE l.progress_ordinal IS NULL ORDER BY m.course_id";
+
+    private static final String LOCK_COURSE =
+            "SELECT id FROM courses WHERE id = ? FOR UPDATE";
+
+    private static final String UNMIGRATED_ENROLLMENT_IDS =
+            "SELECT id FROM enrollments WHERE completed_lesson_bits IS NULL AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String DELETE_UNTOUCHED_PROGRESS =
+            "DELETE FROM lesson_progress WHERE id IN (SELECT id FROM lesson_progress " +
+            "WHERE completed = false AND started_at IS NULL AND last_accessed_at IS NULL " +
+            "AND watch_time_seconds = 0 AND attempt_count = 0 AND score_percentage IS NULL LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Set the completion bit of a lesson
+     * @param enrollmentId Enrollment ID
+     * @param ordinal Lesson progress ordinal
+     * @return true if the bit was clear before (the lesson became completed)
+     */
+    public boolean setCompleted(Long enrollmentId, int ordinal) {
+        return jdbcTemplate.update(SET_COMPLETED, ordinal, ordinal, ordinal, enrollmentId, ordinal, ordinal) > 0;
+    }
+
+    /**
+     * Load the completion bitmap of an enrollment
+     * @param enrollmentId Enrollment ID
+     * @return Completed lesson ordinals, or null if the enrollment is missing or not migrated yet
+     */
+    public BitSet findCompletedBits(Long enrollmentId) {
+        List<byte[]> bits = jdbcTemplate.queryForList(COMPLETED_BITS, byte[].class, enrollmentId);
+        return bits.isEmpty() || bits.get(0) == null ? null : BitSet.valueOf(bits.get(0));
+    }
+
+    /**
+     * Replace the bitmaps of several enrollments with one JDBC batch.
+     * Callers must hold the enrollment row locks and have read the bitmaps under them,
+     * otherwise concurrent completions could be lost.
+     * @param bits Enrollment ID to completed lesson ordinals
+     */
+    public void updateBits(Map<Long, BitSet> bits) {
+        if (bits.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = bits.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue().toByteArray(), entry.getKey()})
+                .toList();
+        jdbcTemplate.batchUpdate(UPDATE_BITS, args);
+    }
+
+    /**
+     * Store the first bitmap of a not yet migrated enrollment
+     * @param enrollmentId Enrollment ID
+     * @param bits Completed lesson ordinals
+     * @return Number of updated rows (0 if the enrollment already has a bitmap)
+     */
+    public int initializeBits(Long enrollmentId, BitSet bits) {
+        return jdbcTemplate.update(INITIALIZE_BITS, bits.toByteArray(), enrollmentId);
+    }
+
+    /**
+     * Collect completed lesson ordinals from per-lesson progress rows
+     * @param enrollmentIds Enrollment IDs
+     * @return Enrollment ID to completed ordinals (enrollments without completions are absent)
+     */
+    public Map<Long, BitSet> findCompletedOrdinalsFromRows(Collection<Long> enrollmentIds) {
+        Map<Long, BitSet> completed = new HashMap<>();
+        if (enrollmentIds.isEmpty()) {
+            return completed;
+        }
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(COMPLETED_ORDINALS);
+            Array ids = connection.createArrayOf("bigint", enrollmentIds.toArray());
+            statement.setArray(1, ids);
+            return statement;
+        }, (RowCallbackHandler) rs -> completed.computeIfAbsent(rs.getLong(1), id -> new BitSet()).set(rs.getInt(2)));
+        return completed;
+    }
+
+    /**
+     * Find enrollments whose completed lessons, total lessons or watch time counters drifted
+     * @param enrollmentIds Enrollment IDs to check
+     * @return IDs of drifted enrollments (enrollments without a bitmap are skipped)
+     */
+    public List<Long> findDriftedEnrollmentIds(Collection<Long> enrollmentIds) {
+        if (enrollmentIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(DRIFTED_ENROLLMENTS);
+            Array ids = connection.createArrayOf("bigint", enrollmentIds.toArray());
+            statement.setArray(1, ids);
+            return statement;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    /**
+     * Collect the progress ordinals of a course's lessons
+     * @param courseId Course ID
+     * @return Ordinals of existing lessons
+     */
+    public BitSet findLessonOrdinals(Long courseId) {
+        BitSet ordinals = new BitSet();
+        jdbcTemplate.query(LESSON_ORDINALS_OF_COURSE, (RowCallbackHandler) rs -> ordinals.set(rs.getInt(1)), courseId);
+        return ordinals;
+    }
+
+    /**
+     * Get the progress ordinal of a lesson as stored
+     * @param lessonId Lesson ID
+     * @return Ordinal, or null if the lesson is missing or has none
+     */
+    public Integer findLessonOrdinal(Long lessonId) {
+        List<Integer> ordinals = jdbcTemplate.queryForList(LESSON_ORDINAL, Integer.class, lessonId);
+        return ordinals.isEmpty() ? null : ordinals.get(0);
+    }
+
+    /**
+     * Assign progress ordinals to the lessons of a course that have none
+     * @param courseId Course ID
+     * @return Number of updated lessons
+     */
+    public int assignMissingOrdinals(Long courseId) {
+        int assigned = jdbcTemplate.update(ASSIGN_MISSING_ORDINALS, courseId);
+        if (assigned > 0) {
+            reserveAssignedOrdinals(courseId);
+        }
+        return assigned;
+    }
+
+    /**
+     * Assign progress ordinals to the lessons of a course that have none, under the course
+     * row lock that lesson creation takes before numbering a new lesson
+     * @param courseId Course ID
+     * @return Number of updated lessons
+     */
+    @Transactional
+    public int assignMissingOrdinalsLocked(Long courseId) {
+        if (jdbcTemplate.queryForList(LOCK_COURSE, Long.class, courseId).isEmpty()) {
+            return 0;
+        }
+        return assignMissingOrdinals(courseId);
+    }
+
+    /**
+     * Allocate the progress ordinal of a new lesson
+     * @param courseId Course ID
+     * @return Ordinal never used by any lesson of the course, deleted ones included
+     * @throws IllegalArgumentException if the course does not exist
+     */
+    public int allocateOrdinal(Long courseId) {
+        List<Integer> ordinals = jdbcTemplate.queryForList(ALLOCATE_ORDINAL, Integer.class, courseId);
+        if (ordinals.isEmpty()) {
+            throw new IllegalArgumentException("Course not found with ID: " + courseId);
+        }
+        return ordinals.get(0);
+    }
+
+    /**
+     * Keep the ordinals currently held by a course's lessons from being allocated again;
+     * call before deleting a lesson
+     * @param courseId Course ID
+     */
+    public void reserveAssignedOrdinals(Long courseId) {
+        jdbcTemplate.update(RESERVE_ASSIGNED_ORDINALS, courseId);
+    }
+
+    /**
+     * Find courses that have lessons without a progress ordinal
+     * @return Course IDs in ascending order
+     */
+    public List<Long> findCourseIdsWithMissingOrdinals() {
+        return jdbcTemplate.queryForList(COURSES_MISSING_ORDINALS, Long.class);
+    }
+
+    /**
+     * Page through enrollments without a bitmap (keyset)
+     * @param afterId Last ID of the previous batch
+     * @param limit Batch size
+     * @return Next batch of enrollment IDs
+     */
+    public List<Long> findUnmigratedEnrollmentIds(long afterId, int limit) {
+        return jdbcTemplate.queryForList(UNMIGRATED_ENROLLMENT_IDS, Long.class, afterId, limit);
+    }
+
+    /**
+     * Delete a batch of progress rows that only record "not started"
+     * @param limit Batch size
+     * @return Number of deleted rows
+     */
+    public int deleteUntouchedProgress(int limit) {
+        return jdbcTemplate.update(DELETE_UNTOUCHED_PROGRESS, limit);
+    }
+}
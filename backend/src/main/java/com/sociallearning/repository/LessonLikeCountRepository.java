@@ -0,0 +1,59 @@
+package com.sociallearning.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.util.List;
+
+/**
+ * Repository for recounting {@code lessons.like_count} from the likes table in keyset batches.
+ * Each batch locks its lessons before counting, so the count sees every committed like and a
+ * concurrent toggle (which updates the lesson row after writing its like) applies its delta
+ * on top of the recount instead of being overwritten.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LessonLikeCountRepository {
+
+    private static final String LOCK_LESSON_PAGE =
+            "SELECT id FROM lessons WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String RECOUNT_LIKES =
+            "UPDATE lessons AS l SET like_count = c.likes FROM (" +
+            "SELECT t.id, (SELECT COUNT(*) FROM likes k WHERE k.likeable_type = 'LESSON' AND k.likeable_id = t.id) AS likes " +
+            "FROM unnest(?::bigint[]) AS t(id)) c WHERE l.id = c.id AND l.like_count <> c.likes";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recount the likes of the next page of lessons
+     * @param afterId Last lesson ID of the previous page
+     * @param limit Page size
+     * @return Page outcome (empty page when all lessons were recounted)
+     */
+    @Transactional
+    public RecountBatch recountAfter(long afterId, int limit) {
+        List<Long> lessonIds = jdbcTemplate.queryForList(LOCK_LESSON_PAGE, Long.class, afterId, limit);
+        if (lessonIds.isEmpty()) {
+            return new RecountBatch(afterId, 0, 0);
+        }
+        int updated = jdbcTemplate.update(RECOUNT_LIKES, ps -> {
+            Array ids = ps.getConnection().createArrayOf("bigint", lessonIds.toArray());
+            ps.setArray(1, ids);
+        });
+        return new RecountBatch(lessonIds.get(lessonIds.size() - 1), lessonIds.size(), updated);
+    }
+
+    /**
+     * Outcome of one recount page.
+     *
+     * @param lastId Highest lesson ID of the page (cursor for the next page)
+     * @param scanned Lessons in the page
+     * @param updated Lessons whose like count changed
+     */
+    public record RecountBatch(long lastId, int scanned, int updated) {
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +34,29 @@ public interface LessonRepository extends JpaRepository<Lesson, Long> {
     @Query("SELECT l FROM Lesson l WHERE l.module.id = :moduleId ORDER BY l.orderIndex ASC")
     List<Lesson> findByModuleIdOrderByOrderIndex(@Param("moduleId") Long moduleId);
 
+    /**
+     * Find all lessons of several modules in one query
+     * @param moduleIds The module IDs
+     * @return List of lessons ordered by module and index
+     */
+    @Query("SELECT l FROM Lesson l WHERE l.module.id IN :moduleIds ORDER BY l.module.id ASC, l.orderIndex ASC")
+    List<Lesson> findByModuleIdsOrderByOrderIndex(@Param("moduleIds") Collection<Long> moduleIds);
+
+    /**
+     * Find lesson outlines of several modules: every scalar column except the
+     * content TEXT columns (text content, quiz data, assignment instructions,
+     * additional resources, transcript)
+     * @param moduleIds The module IDs
+     * @return Rows of [id, title, description, moduleId, orderIndex, type, durationMinutes, videoUrl,
+     *         videoThumbnailUrl, assignmentMaxPoints, resourceUrl, published, isFree, isDownloadable,
+     *         completionCount, viewCount, likeCount, createdAt, updatedAt] ordered by module and index
+     */
+    @Query("SELECT l.id, l.title, l.description, l.module.id, l.orderIndex, l.type, l.durationMinutes, " +
+           "l.videoUrl, l.videoThumbnailUrl, l.assignmentMaxPoints, l.resourceUrl, l.published, l.isFree, " +
+           "l.isDownloadable, l.completionCount, l.viewCount, l.likeCount, l.createdAt, l.updatedAt " +
+           "FROM Lesson l WHERE l.module.id IN :moduleIds ORDER BY l.module.id ASC, l.orderIndex ASC")
+    List<Object[]> findOutlinesByModuleIds(@Param("moduleIds") Collection<Long> moduleIds);
+
     /**
      * Find published lessons for a module
      * @param moduleId The module ID
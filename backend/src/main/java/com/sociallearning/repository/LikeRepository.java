@@ -239,4 +239,70 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     @Query("SELECT l.likeableId, COUNT(l) as likeCount FROM Like l WHERE l.likeableType = 'COURSE' " +
            "GROUP BY l.likeableId ORDER BY likeCount DESC")
     Page<Object[]> findMostLikedCourses(Pageable pageable);
+
+    // ============================================
+    // Atomic Toggle Queries
+    // ============================================
+
+    /*
+     * Each toggle is one statement: delete the user's like if present, otherwise insert it
+     * (ON CONFLICT against uk_likes_user_target makes concurrent double-likes harmless),
+     * then apply the net change to the target's denormalized like_count under its row lock.
+     * The result row is [liked, like_count]; no row means the target does not exist.
+     */
+
+    /**
+     * Toggle a course like and adjust courses.like_count atomically
+     * @return Single row of [liked, likeCount], or empty if the course does not exist
+     */
+    @Query(value = "WITH target AS (SELECT id FROM courses WHERE id = :targetId), " +
+           "removed AS (DELETE FROM likes WHERE user_id = :userId AND likeable_type = 'COURSE' " +
+           "  AND likeable_id = :targetId AND EXISTS (SELECT 1 FROM target) RETURNING id), " +
+           "added AS (INSERT INTO likes (user_id, likeable_type, likeable_id, created_at) " +
+           "  SELECT :userId, 'COURSE', id, now() FROM target WHERE NOT EXISTS (SELECT 1 FROM removed) " +
+           "  ON CONFLICT ON CONSTRAINT uk_likes_user_target DO NOTHING RETURNING id), " +
+           "delta AS (SELECT (SELECT COUNT(*) FROM added) - (SELECT COUNT(*) FROM removed) AS change, " +
+           "  NOT EXISTS (SELECT 1 FROM removed) AS liked) " +
+           "UPDATE courses c SET like_count = GREATEST(c.like_count + d.change, 0) " +
+           "FROM delta d, target t WHERE c.id = t.id " +
+           "RETURNING d.liked, c.like_count",
+           nativeQuery = true)
+    List<Object[]> toggleCourseLike(@Param("userId") Long userId, @Param("targetId") Long courseId);
+
+    /**
+     * Toggle a lesson like and adjust lessons.like_count atomically
+     * @return Single row of [liked, likeCount], or empty if the lesson does not exist
+     */
+    @Query(value = "WITH target AS (SELECT id FROM lessons WHERE id = :targetId), " +
+           "removed AS (DELETE FROM likes WHERE user_id = :userId AND likeable_type = 'LESSON' " +
+           "  AND likeable_id = :targetId AND EXISTS (SELECT 1 FROM target) RETURNING id), " +
+           "added AS (INSERT INTO likes (user_id, likeable_type, likeable_id, created_at) " +
+           "  SELECT :userId, 'LESSON', id, now() FROM target WHERE NOT EXISTS (SELECT 1 FROM removed) " +
+           "  ON CONFLICT ON CONSTRAINT uk_likes_user_target DO NOTHING RETURNING id), " +
+           "delta AS (SELECT (SELECT COUNT(*) FROM added) - (SELECT COUNT(*) FROM removed) AS change, " +
+           "  NOT EXISTS (SELECT 1 FROM removed) AS liked) " +
+           "UPDATE lessons l SET like_count = GREATEST(l.like_count + d.change, 0) " +
+           "FROM delta d, target t WHERE l.id = t.id " +
+           "RETURNING d.liked, l.like_count",
+           nativeQuery = true)
+    List<Object[]> toggleLessonLike(@Param("userId") Long userId, @Param("targetId") Long lessonId);
+
+    /**
+     * Toggle a comment like and adjust comments.like_count atomically.
+     * Deleted comments are treated as missing.
+     * @return Single row of [liked, likeCount], or empty if the comment does not exist or is deleted
+     */
+    @Query(value = "WITH target AS (SELECT id FROM comments WHERE id = :targetId AND is_deleted = false), " +
+           "removed AS (DELETE FROM likes WHERE user_id = :userId AND likeable_type = 'COMMENT' " +
+           "  AND likeable_id = :targetId AND EXISTS (SELECT 1 FROM target) RETURNING id), " +
+           "added AS (INSERT INTO likes (user_id, likeable_type, likeable_id, created_at) " +
+           "  SELECT :userId, 'COMMENT', id, now() FROM target WHERE NOT EXISTS (SELECT 1 FROM removed) " +
+           "  ON CONFLICT ON CONSTRAINT uk_likes_user_target DO NOTHING RETURNING id), " +
+           "delta AS (SELECT (SELECT COUNT(*) FROM added) - (SELECT COUNT(*) FROM removed) AS change, " +
+           "  NOT EXISTS (SELECT 1 FROM removed) AS liked) " +
+           "UPDATE comments c SET like_count = GREATEST(c.like_count + d.change, 0) " +
+           "FROM delta d, target t WHERE c.id = t.id " +
+           "RETURNING d.liked, c.like_count",
+           nativeQuery = true)
+    List<Object[]> toggleCommentLike(@Param("userId") Long userId, @Param("targetId") Long commentId);
 }
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,6 +33,14 @@ public interface ModuleRepository extends JpaRepository<Module, Long> {
     @Query("SELECT m FROM Module m WHERE m.course.id = :courseId ORDER BY m.orderIndex ASC")
     List<Module> findByCourseIdOrderByOrderIndex(@Param("courseId") Long courseId);
 
+    /**
+     * Find all modules of several courses in one query
+     * @param courseIds The course IDs
+     * @return List of modules ordered by course and index
+     */
+    @Query("SELECT m FROM Module m WHERE m.course.id IN :courseIds ORDER BY m.course.id ASC, m.orderIndex ASC")
+    List<Module> findByCourseIdsOrderByOrderIndex(@Param("courseIds") Collection<Long> courseIds);
+
     /**
      * Find published modules for a course
      * @param courseId The course ID
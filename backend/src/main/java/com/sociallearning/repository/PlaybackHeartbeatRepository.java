@@ -0,0 +1,124 @@
+package com.sociallearning.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Repository for batched playback heartbeat writes.
+ * Applies many coalesced heartbeats with set-based statements (PostgreSQL {@code unnest}
+ * over parallel arrays): one locking the affected enrollments in ID order, one adding watch
+ * time to them, one upserting the lesson progress rows. Heartbeats are matched to enrollments through the lesson's course;
+ * heartbeats of learners not enrolled in the course match nothing and are ignored.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PlaybackHeartbeatRepository {
+
+    private static final String RESOLVED_HEARTBEATS =
+            "SELECT e.id AS enrollment_id, e.user_id, d.lesson_id, d.position, d.watched, d.seen_at " +
+            "FROM unnest(?::bigint[], ?::bigint[], ?::int[], ?::int[], ?::timestamp[]) " +
+            "AS d(user_id, lesson_id, position, watched, seen_at) " +
+            "JOIN lessons l ON l.id = d.lesson_id JOIN modules m ON m.id = l.module_id " +
+            "JOIN enrollments e ON e.course_id = m.course_id AND e.user_id = d.user_id";
+
+    /**
+     * Runs first: enrollment rows are locked before progress rows, the same order as lesson
+     * completion, and in ID order like offline progress sync, so concurrent flushes of other
+     * nodes and syncs cannot deadlock with this one ({@code UPDATE ... FROM} locks in join order).
+     */
+    private static final String LOCK_ENROLLMENTS =
+            "SELECT e.id FROM enrollments e WHERE e.id IN (SELECT r.enrollment_id FROM (" + RESOLVED_HEARTBEATS + ") r) " +
+            "ORDER BY e.id FOR UPDATE";
+
+    private static final String ADD_ENROLLMENT_WATCH_TIME =
+            "UPDATE enrollments AS e SET watch_time_seconds = e.watch_time_seconds + t.watched, " +
+            "time_spent_minutes = LEAST((e.watch_time_seconds + t.watched) / 60, 2147483647), " +
+            "last_accessed_at = GREATEST(e.last_accessed_at, t.seen_at), " +
+            "started_at = COALESCE(e.started_at, t.seen_at), updated_at = now() " +
+            "FROM (SELECT r.enrollment_id, SUM(r.watched) AS watched, MAX(r.seen_at) AS seen_at " +
+            "FROM (" + RESOLVED_HEARTBEATS + ") r GROUP BY r.enrollment_id) t WHERE e.id = t.enrollment_id";
+
+    private static final String UPSERT_PROGRESS =
+            "INSERT INTO lesson_progress (enrollment_id, user_id, lesson_id, completed, started_at, last_accessed_at, " +
+            "watch_time_seconds, attempt_count, last_position_seconds, created_at, updated_at) " +
+            "SELECT r.enrollment_id, r.user_id, r.lesson_id, false, r.seen_at, r.seen_at, r.watched, 0, r.position, " +
+            "now(), now() FROM (" + RESOLVED_HEARTBEATS + ") r " +
+            "ON CONFLICT (enrollment_id, lesson_id) DO UPDATE SET " +
+            "watch_time_seconds = lesson_progress.watch_time_seconds + EXCLUDED.watch_time_seconds, " +
+            "last_position_seconds = EXCLUDED.last_position_seconds, " +
+            "last_accessed_at = GREATEST(lesson_progress.last_accessed_at, EXCLUDED.last_accessed_at), " +
+            "started_at = COALESCE(lesson_progress.started_at, EXCLUDED.started_at), updated_at = now()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Apply coalesced heartbeats in one transaction
+     * @param heartbeats At most one heartbeat per (user, lesson)
+     * @return Number of written progress rows
+     */
+    @Transactional
+    public int applyHeartbeats(Collection<Heartbeat> heartbeats) {
+        if (heartbeats.isEmpty()) {
+            return 0;
+        }
+
+        Long[] userIds = new Long[heartbeats.size()];
+        Long[] lessonIds = new Long[heartbeats.size()];
+        Integer[] positions = new Integer[heartbeats.size()];
+        Integer[] watched = new Integer[heartbeats.size()];
+        Timestamp[] seenAt = new Timestamp[heartbeats.size()];
+        int i = 0;
+        for (Heartbeat heartbeat : heartbeats) {
+            userIds[i] = heartbeat.userId();
+            lessonIds[i] = heartbeat.lessonId();
+            positions[i] = heartbeat.positionSeconds();
+            watched[i] = heartbeat.watchedSeconds();
+            seenAt[i] = Timestamp.valueOf(heartbeat.seenAt());
+            i++;
+        }
+
+        jdbcTemplate.query(LOCK_ENROLLMENTS,
+                ps -> bind(ps, userIds, lessonIds, positions, watched, seenAt), (rs, rowNum) -> rs.getLong(1));
+        jdbcTemplate.update(ADD_ENROLLMENT_WATCH_TIME,
+                ps -> bind(ps, userIds, lessonIds, positions, watched, seenAt));
+        return jdbcTemplate.update(UPSERT_PROGRESS,
+                ps -> bind(ps, userIds, lessonIds, positions, watched, seenAt));
+    }
+
+    private static void bind(PreparedStatement ps, Long[] userIds, Long[] lessonIds, Integer[] positions,
+                             Integer[] watched, Timestamp[] seenAt) throws SQLException {
+        Connection connection = ps.getConnection();
+        Array userArray = connection.createArrayOf("bigint", userIds);
+        Array lessonArray = connection.createArrayOf("bigint", lessonIds);
+        Array positionArray = connection.createArrayOf("integer", positions);
+        Array watchedArray = connection.createArrayOf("integer", watched);
+        Array seenAtArray = connection.createArrayOf("timestamp", seenAt);
+        ps.setArray(1, userArray);
+        ps.setArray(2, lessonArray);
+        ps.setArray(3, positionArray);
+        ps.setArray(4, watchedArray);
+        ps.setArray(5, seenAtArray);
+    }
+
+    /**
+     * Coalesced playback state of one learner in one lesson.
+     *
+     * @param userId Learner ID
+     * @param lessonId Lesson ID
+     * @param positionSeconds Latest playback position
+     * @param watchedSeconds Watch time accumulated since the last flush
+     * @param seenAt Time of the latest heartbeat
+     */
+    public record Heartbeat(Long userId, Long lessonId, int positionSeconds, int watchedSeconds, LocalDateTime seenAt) {
+    }
+}
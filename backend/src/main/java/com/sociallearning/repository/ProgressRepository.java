@@ -13,6 +13,9 @@ import java.util.Optional;
  * Repository for Progress entity.
  *
  * Supports lesson-level progress tracking for each enrollment.
+ * Rows exist only for lessons the learner touched; completion of all lessons is kept
+ * in the enrollment's bitmap. Whole-course views and completion counts go through
+ * {@link com.sociallearning.service.LessonProgressStore}.
  */
 @Repository
 public interface ProgressRepository extends JpaRepository<Progress, Long> {
@@ -51,5 +54,8 @@ public interface ProgressRepository extends JpaRepository<Progress, Long> {
     @Query("SELECT COALESCE(SUM(p.watchTimeSeconds), 0) FROM Progress p WHERE p.user.id = :userId")
     Integer getTotalWatchTimeByUserId(@Param("userId") Long userId);
 
+    @Query("SELECT p.lastPositionSeconds FROM Progress p WHERE p.user.id = :userId AND p.lesson.id = :lessonId")
+    Optional<Integer> findLastPositionSeconds(@Param("userId") Long userId, @Param("lessonId") Long lessonId);
+
     void deleteByEnrollmentId(Long enrollmentId);
 }
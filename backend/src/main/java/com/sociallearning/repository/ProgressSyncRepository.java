@@ -0,0 +1,214 @@
+package com.sociallearning.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Repository for batched offline progress sync writes.
+ * Every step of a sync is one set-based statement over PostgreSQL {@code unnest} arrays,
+ * whatever the number of events: claiming client event IDs, resolving lessons to courses,
+ * merging progress rows and adding lesson completion counts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProgressSyncRepository {
+
+    private static final String CLAIM_EVENT_IDS =
+            "INSERT INTO progress_sync_events (user_id, event_id, received_at) " +
+            "SELECT ?, e.event_id, now() FROM unnest(?::varchar[]) AS e(event_id) " +
+            "ON CONFLICT (user_id, event_id) DO NOTHING RETURNING event_id";
+
+    private static final String DELETE_EVENT_IDS_BEFORE =
+            "DELETE FROM progress_sync_events WHERE received_at < ?";
+
+    private static final String LESSON_REFS =
+            "SELECT l.id, m.course_id, l.progress_ordinal FROM lessons l JOIN modules m ON m.id = l.module_id " +
+            "WHERE l.id = ANY(?)";
+
+    /**
+     * Merges with max/union semantics: completion is sticky, the earliest start and completion
+     * and the latest access win, the position of the latest access wins, watch time adds up
+     * (only for claimed, i.e. never applied, events).
+     */
+    private static final String MERGE_PROGRESS =
+            "INSERT INTO lesson_progress (enrollment_id, user_id, lesson_id, completed, started_at, completed_at, " +
+            "last_accessed_at, watch_time_seconds, attempt_count, last_position_seconds, created_at, updated_at) " +
+            "SELECT d.enrollment_id, d.user_id, d.lesson_id, d.completed, d.first_at, d.completed_at, d.last_at, " +
+            "d.watched, 0, d.position, now(), now() " +
+            "FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::boolean[], ?::timestamp[], ?::timestamp[], " +
+            "?::timestamp[], ?::int[], ?::int[]) " +
+            "AS d(enrollment_id, user_id, lesson_id, completed, first_at, completed_at, last_at, watched, position) " +
+            "ON CONFLICT (enrollment_id, lesson_id) DO UPDATE SET " +
+            "completed = lesson_progress.completed OR EXCLUDED.completed, " +
+            "completed_at = LEAST(lesson_progress.completed_at, EXCLUDED.completed_at), " +
+            "started_at = LEAST(lesson_progress.started_at, EXCLUDED.started_at), " +
+            "last_accessed_at = GREATEST(lesson_progress.last_accessed_at, EXCLUDED.last_accessed_at), " +
+            "watch_time_seconds = lesson_progress.watch_time_seconds + EXCLUDED.watch_time_seconds, " +
+            "last_position_seconds = CASE WHEN EXCLUDED.last_position_seconds IS NOT NULL " +
+            "AND (lesson_progress.last_accessed_at IS NULL OR EXCLUDED.last_accessed_at >= lesson_progress.last_accessed_at) " +
+            "THEN EXCLUDED.last_position_seconds ELSE lesson_progress.last_position_seconds END, " +
+            "updated_at = now()";
+
+    private static final String INCREMENT_LESSON_COMPLETIONS =
+            "UPDATE lessons AS l SET completion_count = l.completion_count + d.delta " +
+            "FROM unnest(?::bigint[], ?::int[]) AS d(id, delta) WHERE l.id = d.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claim client event IDs of a learner; IDs claimed before are not returned
+     * @param userId Learner ID
+     * @param eventIds Client event IDs
+     * @return IDs claimed by this call (never applied before)
+     */
+    public Set<String> claimEventIds(Long userId, Collection<String> eventIds) {
+        Set<String> claimed = new HashSet<>();
+        if (eventIds.isEmpty()) {
+            return claimed;
+        }
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(CLAIM_EVENT_IDS);
+            statement.setLong(1, userId);
+            statement.setArray(2, connection.createArrayOf("varchar", eventIds.toArray()));
+            return statement;
+        }, (RowCallbackHandler) rs -> claimed.add(rs.getString(1)));
+        return claimed;
+    }
+
+    /**
+     * Forget claimed event IDs received before a time (retention)
+     * @param before Cut-off time
+     * @return Number of deleted event IDs
+     */
+    public int deleteEventIdsBefore(LocalDateTime before) {
+        return jdbcTemplate.update(DELETE_EVENT_IDS_BEFORE, Timestamp.valueOf(before));
+    }
+
+    /**
+     * Resolve lessons to their course and progress ordinal
+     * @param lessonIds Lesson IDs
+     * @return Lesson ID to reference (missing lessons are absent)
+     */
+    public Map<Long, LessonRef> findLessonRefs(Collection<Long> lessonIds) {
+        Map<Long, LessonRef> refs = new HashMap<>();
+        if (lessonIds.isEmpty()) {
+            return refs;
+        }
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(LESSON_REFS);
+            statement.setArray(1, connection.createArrayOf("bigint", lessonIds.toArray()));
+            return statement;
+        }, (RowCallbackHandler) rs -> refs.put(rs.getLong(1),
+                new LessonRef(rs.getLong(1), rs.getLong(2), (Integer) rs.getObject(3))));
+        return refs;
+    }
+
+    /**
+     * Merge progress rows (insert or combine with the existing row)
+     * @param merges At most one merge per (enrollment, lesson)
+     * @return Number of written rows
+     */
+    public int mergeProgress(List<ProgressMerge> merges) {
+        if (merges.isEmpty()) {
+            return 0;
+        }
+        int size = merges.size();
+        Long[] enrollmentIds = new Long[size];
+        Long[] userIds = new Long[size];
+        Long[] lessonIds = new Long[size];
+        Boolean[] completed = new Boolean[size];
+        Timestamp[] firstAt = new Timestamp[size];
+        Timestamp[] completedAt = new Timestamp[size];
+        Timestamp[] lastAt = new Timestamp[size];
+        Integer[] watched = new Integer[size];
+        Integer[] positions = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            ProgressMerge merge = merges.get(i);
+            enrollmentIds[i] = merge.enrollmentId();
+            userIds[i] = merge.userId();
+            lessonIds[i] = merge.lessonId();
+            completed[i] = merge.completedAt() != null;
+            firstAt[i] = Timestamp.valueOf(merge.firstAt());
+            completedAt[i] = merge.completedAt() != null ? Timestamp.valueOf(merge.completedAt()) : null;
+            lastAt[i] = Timestamp.valueOf(merge.lastAt());
+            watched[i] = merge.watchedSeconds();
+            positions[i] = merge.positionSeconds();
+        }
+
+        return jdbcTemplate.update(MERGE_PROGRESS, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("bigint", enrollmentIds));
+            ps.setArray(2, connection.createArrayOf("bigint", userIds));
+            ps.setArray(3, connection.createArrayOf("bigint", lessonIds));
+            ps.setArray(4, connection.createArrayOf("boolean", completed));
+            ps.setArray(5, connection.createArrayOf("timestamp", firstAt));
+            ps.setArray(6, connection.createArrayOf("timestamp", completedAt));
+            ps.setArray(7, connection.createArrayOf("timestamp", lastAt));
+            ps.setArray(8, connection.createArrayOf("integer", watched));
+            ps.setArray(9, connection.createArrayOf("integer", positions));
+        });
+    }
+
+    /**
+     * Add completions to lesson completion counts
+     * @param deltas Lesson ID to number of new completions
+     * @return Number of updated rows
+     */
+    public int incrementLessonCompletions(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        Long[] ids = deltas.keySet().toArray(Long[]::new);
+        Integer[] values = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            values[i] = deltas.get(ids[i]);
+        }
+        return jdbcTemplate.update(INCREMENT_LESSON_COMPLETIONS, ps -> {
+            Connection connection = ps.getConnection();
+            Array idArray = connection.createArrayOf("bigint", ids);
+            Array deltaArray = connection.createArrayOf("integer", values);
+            ps.setArray(1, idArray);
+            ps.setArray(2, deltaArray);
+        });
+    }
+
+    /**
+     * Course and bitmap position of a lesson.
+     *
+     * @param lessonId Lesson ID
+     * @param courseId Course ID
+     * @param progressOrdinal Progress ordinal (null if not assigned yet)
+     */
+    public record LessonRef(Long lessonId, Long courseId, Integer progressOrdinal) {
+    }
+
+    /**
+     * Merged offline events of one learner in one lesson.
+     *
+     * @param enrollmentId Enrollment ID
+     * @param userId Learner ID
+     * @param lessonId Lesson ID
+     * @param firstAt Earliest event time
+     * @param lastAt Latest event time
+     * @param completedAt Earliest completion time (null if no event completed the lesson)
+     * @param watchedSeconds Watch time of all events
+     * @param positionSeconds Position of the latest event that had one (nullable)
+     */
+    public record ProgressMerge(Long enrollmentId, Long userId, Long lessonId, LocalDateTime firstAt,
+                                LocalDateTime lastAt, LocalDateTime completedAt, int watchedSeconds,
+                                Integer positionSeconds) {
+    }
+}
@@ -1,14 +1,19 @@
 package com.sociallearning.repository;
 
 import com.sociallearning.entity.Rating;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +33,29 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
      */
     Optional<Rating> findByUserIdAndCourseId(Long userId, Long courseId);
 
+    /**
+     * Load and row-lock a user's rating of a course, so histogram deltas are computed
+     * from the value and visibility the change replaces.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Rating r WHERE r.user.id = :userId AND r.course.id = :courseId")
+    Optional<Rating> findByUserIdAndCourseIdForUpdate(@Param("userId") Long userId, @Param("courseId") Long courseId);
+
+    /**
+     * Load and row-lock a rating
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Rating r WHERE r.id = :id")
+    Optional<Rating> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Load and row-lock a rating with user and course eagerly loaded
+     * (inner joins: PostgreSQL cannot lock the nullable side of an outer join)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Rating r JOIN FETCH r.user JOIN FETCH r.course WHERE r.id = :id")
+    Optional<Rating> findByIdWithDetailsForUpdate(@Param("id") Long id);
+
     /**
      * Check if user has rated a course
      */
@@ -53,6 +81,11 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
      */
     Page<Rating> findByCourseIdAndIsHiddenFalse(Long courseId, Pageable pageable);
 
+    /**
+     * Find ratings for a course without counting them (fetches one extra row to detect a next page)
+     */
+    Slice<Rating> findSliceByCourseIdAndIsHiddenFalse(Long courseId, Pageable pageable);
+
     /**
      * Find all ratings for a course ordered by most recent
      */
@@ -74,6 +107,13 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
            "AND r.reviewContent IS NOT NULL AND r.reviewContent != '' ORDER BY r.createdAt DESC")
     Page<Rating> findReviewsByCourseId(@Param("courseId") Long courseId, Pageable pageable);
 
+    /**
+     * Find reviews for a course without counting them (fetches one extra row to detect a next page)
+     */
+    @Query("SELECT r FROM Rating r WHERE r.course.id = :courseId AND r.isHidden = false " +
+           "AND r.reviewContent IS NOT NULL AND r.reviewContent != '' ORDER BY r.createdAt DESC")
+    Slice<Rating> findReviewSliceByCourseId(@Param("courseId") Long courseId, Pageable pageable);
+
     /**
      * Find featured reviews for a course
      */
@@ -81,6 +121,53 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
            "AND r.isHidden = false ORDER BY r.createdAt DESC")
     List<Rating> findFeaturedReviewsByCourseId(@Param("courseId") Long courseId);
 
+    // ============================================
+    // Keyset Queries (feed order: newest first, ID as tie-breaker)
+    // ============================================
+
+    /**
+     * Find the most recent visible ratings of a course with user eagerly loaded
+     */
+    @Query("SELECT r FROM Rating r JOIN FETCH r.user WHERE r.course.id = :courseId AND r.isHidden = false " +
+           "ORDER BY r.createdAt DESC, r.id DESC LIMIT :limit")
+    List<Rating> findRatingFeed(@Param("courseId") Long courseId, @Param("limit") int limit);
+
+    /**
+     * Find the visible ratings of a course that follow a position in feed order, with user eagerly loaded
+     * (served by idx_ratings_course_feed)
+     */
+    @Query("SELECT r FROM Rating r JOIN FETCH r.user WHERE r.course.id = :courseId AND r.isHidden = false " +
+           "AND (r.createdAt, r.id) < (:afterCreatedAt, :afterId) " +
+           "ORDER BY r.createdAt DESC, r.id DESC LIMIT :limit")
+    List<Rating> findRatingFeedAfter(
+        @Param("courseId") Long courseId,
+        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+        @Param("afterId") Long afterId,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Find the most recent reviews of a course with user eagerly loaded
+     */
+    @Query("SELECT r FROM Rating r JOIN FETCH r.user WHERE r.course.id = :courseId AND r.isHidden = false " +
+           "AND r.reviewContent IS NOT NULL AND r.reviewContent != '' " +
+           "ORDER BY r.createdAt DESC, r.id DESC LIMIT :limit")
+    List<Rating> findReviewFeed(@Param("courseId") Long courseId, @Param("limit") int limit);
+
+    /**
+     * Find the reviews of a course that follow a position in feed order, with user eagerly loaded
+     */
+    @Query("SELECT r FROM Rating r JOIN FETCH r.user WHERE r.course.id = :courseId AND r.isHidden = false " +
+           "AND r.reviewContent IS NOT NULL AND r.reviewContent != '' " +
+           "AND (r.createdAt, r.id) < (:afterCreatedAt, :afterId) " +
+           "ORDER BY r.createdAt DESC, r.id DESC LIMIT :limit")
+    List<Rating> findReviewFeedAfter(
+        @Param("courseId") Long courseId,
+        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+        @Param("afterId") Long afterId,
+        @Param("limit") int limit
+    );
+
     /**
      * Find verified purchase reviews for a course
      */
@@ -122,6 +209,14 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
            "FROM Rating r WHERE r.course.id = :courseId AND r.isHidden = false")
     Object[] getRatingStats(@Param("courseId") Long courseId);
 
+    /**
+     * Count visible ratings by value for a batch of courses (histogram verification)
+     * @return Rows of [courseId, ratingValue, count]
+     */
+    @Query("SELECT r.course.id, r.ratingValue, COUNT(r) FROM Rating r WHERE r.course.id IN :courseIds " +
+           "AND r.isHidden = false GROUP BY r.course.id, r.ratingValue")
+    List<Object[]> countVisibleRatingsByValue(@Param("courseIds") Collection<Long> courseIds);
+
     // ============================================
     // User Queries
     // ============================================
@@ -205,18 +300,20 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
     void setFeatured(@Param("id") Long id, @Param("featured") Boolean featured);
 
     /**
-     * Hide a rating
+     * Hide a rating if it is currently visible
+     * @return 1 if the rating changed state, 0 otherwise
      */
     @Modifying
-    @Query("UPDATE Rating r SET r.isHidden = true WHERE r.id = :id")
-    void hide(@Param("id") Long id);
+    @Query("UPDATE Rating r SET r.isHidden = true WHERE r.id = :id AND r.isHidden = false")
+    int hide(@Param("id") Long id);
 
     /**
-     * Unhide a rating
+     * Unhide a rating if it is currently hidden
+     * @return 1 if the rating changed state, 0 otherwise
      */
     @Modifying
-    @Query("UPDATE Rating r SET r.isHidden = false WHERE r.id = :id")
-    void unhide(@Param("id") Long id);
+    @Query("UPDATE Rating r SET r.isHidden = false WHERE r.id = :id AND r.isHidden = true")
+    int unhide(@Param("id") Long id);
 
     // ============================================
     // Batch Queries
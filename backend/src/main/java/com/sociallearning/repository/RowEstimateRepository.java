@@ -0,0 +1,90 @@
+package com.sociallearning.repository;
+
+import com.sociallearning.enums.CommentableType;
+import com.sociallearning.enums.CourseDifficulty;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Repository for approximate row counts.
+ * Asks the PostgreSQL planner how many rows a filter would return
+ * ({@code EXPLAIN (FORMAT JSON)}, estimated from table statistics) instead of
+ * counting them, so a total costs the same regardless of table size.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RowEstimateRepository {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
+    private static final String ROOT_COMMENTS_BY_TARGET =
+            "SELECT 1 FROM comments WHERE commentable_type = ? AND commentable_id = ? " +
+            "AND parent_id IS NULL AND is_deleted = false";
+
+    private static final String REVIEWS_BY_COURSE =
+            "SELECT 1 FROM ratings WHERE course_id = ? AND is_hidden = false " +
+            "AND review_content IS NOT NULL AND review_content <> ''";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Estimate the number of visible root comments on a target
+     * @param type Commentable type
+     * @param targetId Target entity ID
+     * @return Estimated row count
+     */
+    public long estimateRootComments(CommentableType type, Long targetId) {
+        return estimate(ROOT_COMMENTS_BY_TARGET, type.name(), targetId);
+    }
+
+    /**
+     * Estimate the number of visible reviews (ratings with content) of a course
+     * @param courseId Course ID
+     * @return Estimated row count
+     */
+    public long estimateCourseReviews(Long courseId) {
+        return estimate(REVIEWS_BY_COURSE, courseId);
+    }
+
+    /**
+     * Estimate the number of published courses matching the catalog filters
+     * @param categoryId Optional category ID
+     * @param difficulty Optional difficulty
+     * @param language Optional language
+     * @param minRating Minimum average rating
+     * @return Estimated row count
+     */
+    public long estimateFilteredCourses(Long categoryId, CourseDifficulty difficulty, String language,
+                                        double minRating) {
+        // Only the predicates actually in use, so the planner can apply per-column statistics
+        StringBuilder sql = new StringBuilder("SELECT 1 FROM courses WHERE published = true AND average_rating >= ?");
+        List<Object> args = new ArrayList<>();
+        args.add(minRating);
+        if (categoryId != null) {
+            sql.append(" AND category_id = ?");
+            args.add(categoryId);
+        }
+        if (difficulty != null) {
+            sql.append(" AND difficulty = ?");
+            args.add(difficulty.name());
+        }
+        if (language != null) {
+            sql.append(" AND language = ?");
+            args.add(language);
+        }
+        return estimate(sql.toString(), args.toArray());
+    }
+
+    private long estimate(String sql, Object... args) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args);
+        // The first "Plan Rows" belongs to the top plan node, i.e. the rows the query returns
+        Matcher matcher = PLAN_ROWS.matcher(plan != null ? plan : "");
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0L;
+    }
+}
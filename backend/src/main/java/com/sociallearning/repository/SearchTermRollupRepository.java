@@ -0,0 +1,47 @@
+package com.sociallearning.repository;
+
+import com.sociallearning.entity.SearchTermRollup;
+import com.sociallearning.enums.SearchTermKind;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for SearchTermRollup entity.
+ * Stores the top search terms of closed analytics windows and sums them over a time range.
+ */
+@Repository
+public interface SearchTermRollupRepository extends JpaRepository<SearchTermRollup, Long> {
+
+    /**
+     * Sum the rollups of windows starting at or after a time, per term
+     * @param kind Rollup kind
+     * @param since Earliest window start
+     * @param limit Maximum number of terms
+     * @return Rows of [term, summed estimated count], highest first
+     */
+    @Query("SELECT r.term, SUM(r.estimatedCount) FROM SearchTermRollup r " +
+           "WHERE r.kind = :kind AND r.windowStart >= :since " +
+           "GROUP BY r.term ORDER BY SUM(r.estimatedCount) DESC, r.term LIMIT :limit")
+    List<Object[]> sumTopTerms(
+        @Param("kind") SearchTermKind kind,
+        @Param("since") LocalDateTime since,
+        @Param("limit") int limit
+    );
+
+    /**
+     * Delete rollups of windows that ended before a time (retention)
+     * @param before Cut-off time
+     * @return Number of deleted rollups
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SearchTermRollup r WHERE r.windowEnd < :before")
+    int deleteByWindowEndBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,119 @@
+package com.sociallearning.repository;
+
+import com.sociallearning.enums.SlugScope;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for slug suffix counters.
+ * Hands out the next free suffix of a base slug with one atomic statement: an
+ * increment of the existing counter row, or - the first time a base is seen -
+ * an upsert seeded by a single prefix query over the existing slugs.
+ * Candidate slugs are then reserved under a unique index ({@code slug_reservations});
+ * reservations are released when their entity is deleted or renamed, and swept once
+ * no row of the scope holds the slug (creates that rolled back).
+ */
+@Repository
+@RequiredArgsConstructor
+public class SlugCounterRepository {
+
+    private static final String INCREMENT_SUFFIX =
+            "UPDATE slug_counters SET last_suffix = last_suffix + 1 " +
+            "WHERE scope = ? AND base_slug = ? RETURNING last_suffix";
+
+    /**
+     * Seeds the counter with the highest suffix in use (0 for the bare base, -1 if
+     * the base is free) plus one. A concurrent seed of the same base turns into an
+     * increment, so both callers still get different suffixes.
+     */
+    private static final String SEED_SUFFIX =
+            "INSERT INTO slug_counters (scope, base_slug, last_suffix) " +
+            "SELECT ?, ?, COALESCE(MAX(CASE WHEN slug = ? THEN 0 ELSE CAST(substr(slug, ?) AS BIGINT) END), -1) + 1 " +
+            "FROM %s WHERE slug = ? OR (slug LIKE ? ESCAPE '\\' AND substr(slug, ?) ~ '^[1-9][0-9]{0,17}$') " +
+            "ON CONFLICT (scope, base_slug) DO UPDATE SET last_suffix = slug_counters.last_suffix + 1 " +
+            "RETURNING last_suffix";
+
+    private static final String RESERVE_SLUG =
+            "INSERT INTO slug_reservations (scope, slug, reserved_at) VALUES (?, ?, now()) " +
+            "ON CONFLICT (scope, slug) DO NOTHING";
+
+    private static final String RELEASE_SLUG =
+            "DELETE FROM slug_reservations WHERE scope = ? AND slug = ?";
+
+    private static final String DELETE_ORPHANED_RESERVATIONS =
+            "DELETE FROM slug_reservations WHERE id IN (SELECT r.id FROM slug_reservations r " +
+            "WHERE r.scope = ? AND r.reserved_at < ? AND NOT EXISTS (SELECT 1 FROM %s t WHERE t.slug = r.slug) LIMIT ?)";
+
+    private static final String SLUG_EXISTS =
+            "SELECT EXISTS (SELECT 1 FROM %s WHERE slug = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserve the next suffix of a base slug
+     * @param scope Slug scope (table)
+     * @param baseSlug Base slug
+     * @return Reserved suffix (0 = the bare base slug)
+     */
+    public long nextSuffix(SlugScope scope, String baseSlug) {
+        List<Long> incremented = jdbcTemplate.queryForList(INCREMENT_SUFFIX, Long.class, scope.name(), baseSlug);
+        if (!incremented.isEmpty()) {
+            return incremented.get(0);
+        }
+        int suffixStart = baseSlug.length() + 2;
+        Long seeded = jdbcTemplate.queryForObject(SEED_SUFFIX.formatted(scope.getTable()), Long.class,
+                scope.name(), baseSlug, baseSlug, suffixStart,
+                baseSlug, escapeLike(baseSlug) + "-%", suffixStart);
+        return seeded != null ? seeded : 0L;
+    }
+
+    /**
+     * Check if a slug is taken in a scope
+     * @param scope Slug scope (table)
+     * @param slug Slug
+     * @return true if a row with this slug exists
+     */
+    public boolean slugExists(SlugScope scope, String slug) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(SLUG_EXISTS.formatted(scope.getTable()), Boolean.class, slug));
+    }
+
+    /**
+     * Reserve a slug under the unique (scope, slug) index
+     * @param scope Slug scope
+     * @param slug Slug
+     * @return true if this call reserved it, false if it was reserved before
+     */
+    public boolean reserve(SlugScope scope, String slug) {
+        return jdbcTemplate.update(RESERVE_SLUG, scope.name(), slug) > 0;
+    }
+
+    /**
+     * Release the reservation of a slug
+     * @param scope Slug scope
+     * @param slug Slug
+     */
+    public void release(SlugScope scope, String slug) {
+        jdbcTemplate.update(RELEASE_SLUG, scope.name(), slug);
+    }
+
+    /**
+     * Delete a batch of reservations whose slug no row of the scope holds
+     * @param scope Slug scope (table)
+     * @param reservedBefore Only reservations older than this (younger ones may belong to creates in progress)
+     * @param limit Batch size
+     * @return Number of deleted reservations
+     */
+    public int deleteOrphanedReservations(SlugScope scope, LocalDateTime reservedBefore, int limit) {
+        return jdbcTemplate.update(DELETE_ORPHANED_RESERVATIONS.formatted(scope.getTable()),
+                scope.name(), Timestamp.valueOf(reservedBefore), limit);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,82 @@
+package com.sociallearning.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for recent course activity, grouped into hourly buckets.
+ * Used to seed the trending scores on startup without replaying individual rows:
+ * each bucket carries its age relative to the application clock and its event count.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TrendingSignalRepository {
+
+    private static final String ENROLLMENTS_BY_HOUR =
+            "SELECT course_id, EXTRACT(EPOCH FROM (? - date_trunc('hour', enrolled_at))), COUNT(*) " +
+            "FROM enrollments WHERE enrolled_at >= ? GROUP BY course_id, date_trunc('hour', enrolled_at)";
+
+    private static final String COURSE_LIKES_BY_HOUR =
+            "SELECT likeable_id, EXTRACT(EPOCH FROM (? - date_trunc('hour', created_at))), COUNT(*) " +
+            "FROM likes WHERE likeable_type = 'COURSE' AND created_at >= ? " +
+            "GROUP BY likeable_id, date_trunc('hour', created_at)";
+
+    private static final String RATINGS_BY_HOUR =
+            "SELECT course_id, EXTRACT(EPOCH FROM (? - date_trunc('hour', created_at))), COUNT(*) " +
+            "FROM ratings WHERE is_hidden = false AND created_at >= ? " +
+            "GROUP BY course_id, date_trunc('hour', created_at)";
+
+    private static final RowMapper<HourlyCount> HOURLY_COUNT = (rs, rowNum) ->
+            new HourlyCount(rs.getLong(1), rs.getDouble(2), rs.getLong(3));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Count enrollments per course and hour
+     * @param now Current time of the application clock
+     * @param since Oldest enrollment time to include
+     * @return Hourly enrollment counts
+     */
+    public List<HourlyCount> countEnrollmentsByHour(LocalDateTime now, LocalDateTime since) {
+        return query(ENROLLMENTS_BY_HOUR, now, since);
+    }
+
+    /**
+     * Count course likes per course and hour
+     * @param now Current time of the application clock
+     * @param since Oldest like time to include
+     * @return Hourly like counts
+     */
+    public List<HourlyCount> countCourseLikesByHour(LocalDateTime now, LocalDateTime since) {
+        return query(COURSE_LIKES_BY_HOUR, now, since);
+    }
+
+    /**
+     * Count visible ratings per course and hour
+     * @param now Current time of the application clock
+     * @param since Oldest rating time to include
+     * @return Hourly rating counts
+     */
+    public List<HourlyCount> countRatingsByHour(LocalDateTime now, LocalDateTime since) {
+        return query(RATINGS_BY_HOUR, now, since);
+    }
+
+    private List<HourlyCount> query(String sql, LocalDateTime now, LocalDateTime since) {
+        return jdbcTemplate.query(sql, HOURLY_COUNT, Timestamp.valueOf(now), Timestamp.valueOf(since));
+    }
+
+    /**
+     * Activity of one course within one hour
+     * @param courseId Course ID
+     * @param ageSeconds Seconds between the start of the hour and now
+     * @param count Number of events in the hour
+     */
+    public record HourlyCount(Long courseId, double ageSeconds, long count) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.sociallearning.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.util.Map;
+
+/**
+ * Repository for batched view counter writes.
+ * Applies many accumulated view count deltas with a single UPDATE statement
+ * (PostgreSQL {@code unnest} over two parallel arrays) instead of one row update per view.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ViewCountRepository {
+
+    private static final String INCREMENT_COURSE_VIEWS =
+            "UPDATE courses AS c SET view_count = c.view_count + d.delta " +
+            "FROM unnest(?::bigint[], ?::bigint[]) AS d(id, delta) WHERE c.id = d.id";
+
+    private static final String INCREMENT_LESSON_VIEWS =
+            "UPDATE lessons AS l SET view_count = l.view_count + d.delta " +
+            "FROM unnest(?::bigint[], ?::bigint[]) AS d(id, delta) WHERE l.id = d.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Add view deltas to courses
+     * @param deltas Course ID to number of views to add
+     * @return Number of updated rows
+     */
+    public int incrementCourseViews(Map<Long, Long> deltas) {
+        return applyDeltas(INCREMENT_COURSE_VIEWS, deltas);
+    }
+
+    /**
+     * Add view deltas to lessons
+     * @param deltas Lesson ID to number of views to add
+     * @return Number of updated rows
+     */
+    public int incrementLessonViews(Map<Long, Long> deltas) {
+        return applyDeltas(INCREMENT_LESSON_VIEWS, deltas);
+    }
+
+    private int applyDeltas(String sql, Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        Long[] ids = new Long[deltas.size()];
+        Long[] values = new Long[deltas.size()];
+        int i = 0;
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            ids[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+
+        return jdbcTemplate.update(sql, ps -> {
+            Connection connection = ps.getConnection();
+            Array idArray = connection.createArrayOf("bigint", ids);
+            Array deltaArray = connection.createArrayOf("bigint", values);
+            ps.setArray(1, idArray);
+            ps.setArray(2, deltaArray);
+        });
+    }
+}
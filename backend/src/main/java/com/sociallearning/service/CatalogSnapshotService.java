@@ -0,0 +1,282 @@
+package com.sociallearning.service;
+
+import com.sociallearning.entity.Course;
+import com.sociallearning.repository.CourseRepository;
+import com.sociallearning.service.CourseService.CourseProjection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory snapshot of the home page catalog lists.
+ *
+ * Provides business logic for:
+ * - Precomputed top-K trending, popular, new and featured courses, served without database access
+ * - A scheduled rebuild, plus a coalesced rebuild after every committed course change
+ *   ({@link CourseChangedEvent}: publish, unpublish, archive, edits of listed courses)
+ * - Falling back to the database for requests the snapshot cannot answer (limits above K,
+ *   a popular enrollment floor below the precomputed one, or before the first build)
+ * - Metrics: catalog.snapshot.age, catalog.snapshot.refresh, catalog.snapshot.misses (tagged by list)
+ *
+ * A snapshot is immutable and replaced as a whole, so readers never block and always see
+ * the four lists from the same build. Listed courses are read-only summaries (see
+ * {@link CourseService#findCourses}); counters on them may be up to one refresh interval old.
+ */
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+
+    private final CourseRepository courseRepository;
+    private final CourseService courseService;
+    private final Executor applicationTaskExecutor;
+    private final int size;
+    private final int popularMinEnrollments;
+    private final Timer refreshTimer;
+    private final MeterRegistry meterRegistry;
+
+    private volatile Snapshot snapshot;
+    private final AtomicBoolean refreshPending = new AtomicBoolean(false);
+
+    public CatalogSnapshotService(
+            CourseRepository courseRepository,
+            CourseService courseService,
+            Executor applicationTaskExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${app.catalog-snapshot.size:50}") int size,
+            @Value("${app.catalog-snapshot.popular-min-enrollments:10}") int popularMinEnrollments) {
+
+        if (size < 1) {
+            throw new IllegalArgumentException("app.catalog-snapshot.size must be at least 1");
+        }
+        this.courseRepository = courseRepository;
+        this.courseService = courseService;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.size = size;
+        this.popularMinEnrollments = popularMinEnrollments;
+        this.meterRegistry = meterRegistry;
+        this.refreshTimer = Timer.builder("catalog.snapshot.refresh")
+                .description("Time spent rebuilding the catalog snapshot")
+                .register(meterRegistry);
+
+        TimeGauge.builder("catalog.snapshot.age", this, TimeUnit.MILLISECONDS, CatalogSnapshotService::ageMillis)
+                .description("Time since the catalog snapshot was built")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // Serving
+    // ============================================
+
+    /**
+     * Get trending courses.
+     *
+     * @param limit Number of courses to return
+     * @return Trending courses, most trending first
+     */
+    public List<Course> getTrendingCourses(int limit) {
+        Snapshot current = snapshot;
+        if (current == null || limit > size) {
+            miss("trending");
+            return courseService.findTrendingCourses(limit);
+        }
+        return head(current.trending(), limit);
+    }
+
+    /**
+     * Get popular courses (highest rated with a minimum number of enrollments).
+     *
+     * The snapshot holds the top K above the configured enrollment floor; a higher floor
+     * is answered by filtering it (the order is the same), a lower one goes to the database.
+     *
+     * @param minEnrollments Minimum enrollment count
+     * @param limit Number of courses to return
+     * @return Popular courses, highest rated first
+     */
+    public List<Course> getPopularCourses(int minEnrollments, int limit) {
+        Snapshot current = snapshot;
+        if (current == null || limit > size || minEnrollments < popularMinEnrollments) {
+            miss("popular");
+            return courseService.findPopularCourses(minEnrollments, limit);
+        }
+
+        List<Course> matching = current.popular().stream()
+                .filter(course -> course.getEnrollmentCount() >= minEnrollments)
+                .limit(limit)
+                .toList();
+        // A full list may have cut off courses that would match the higher floor
+        if (matching.size() < limit && current.popular().size() == size) {
+            miss("popular");
+            return courseService.findPopularCourses(minEnrollments, limit);
+        }
+        return matching;
+    }
+
+    /**
+     * Get newly published courses.
+     *
+     * @param limit Number of courses to return
+     * @return New courses, most recently published first
+     */
+    public List<Course> getNewCourses(int limit) {
+        Snapshot current = snapshot;
+        if (current == null || limit > size) {
+            miss("new");
+            return courseService.findNewCourses(limit);
+        }
+        return head(current.newest(), limit);
+    }
+
+    /**
+     * Get featured courses.
+     *
+     * @param limit Number of courses to return
+     * @return Featured courses, highest rated first
+     */
+    public List<Course> getFeaturedCourses(int limit) {
+        Snapshot current = snapshot;
+        if (current == null || limit > size) {
+            miss("featured");
+            return courseService.findFeaturedCourses(limit);
+        }
+        return head(current.featured(), limit);
+    }
+
+    // ============================================
+    // Refreshing
+    // ============================================
+
+    /**
+     * Build the first snapshot once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Requests fall back to the database until the next scheduled refresh succeeds
+            log.error("Initial catalog snapshot build failed", e);
+        }
+    }
+
+    /**
+     * Rebuild the snapshot periodically, picking up counter changes (enrollments, views, ratings)
+     * that are not signalled by course change events.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog-snapshot.refresh-interval-ms:60000}",
+            initialDelayString = "${app.catalog-snapshot.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Catalog snapshot refresh failed; keeping snapshot built at {}",
+                    snapshot != null ? snapshot.builtAt() : null, e);
+        }
+    }
+
+    /**
+     * Schedule a rebuild after a course change commits. Bursts of changes are coalesced
+     * into one rebuild on the task executor, so the committing request does not wait.
+     *
+     * @param event Course change event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (!refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            applicationTaskExecutor.execute(() -> {
+                refreshPending.set(false);
+                scheduledRefresh();
+            });
+        } catch (RuntimeException e) {
+            refreshPending.set(false);
+            log.warn("Could not schedule catalog snapshot refresh for course {}", event.courseId(), e);
+        }
+    }
+
+    /**
+     * Rebuild all lists from the database and swap in the new snapshot.
+     */
+    public synchronized void refresh() {
+        refreshTimer.record(() -> {
+            List<Long> trendingIds = courseService.findTrendingCourseIds(size);
+            List<Long> popularIds = courseRepository.findPopularCourseIds(popularMinEnrollments, size);
+            List<Long> newIds = courseRepository.findNewCourseIds(size);
+            List<Long> featuredIds = courseRepository.findFeaturedCourseIds(size);
+
+            // Hydrate every listed course once, whichever lists it appears in
+            Set<Long> allIds = new LinkedHashSet<>(trendingIds);
+            allIds.addAll(popularIds);
+            allIds.addAll(newIds);
+            allIds.addAll(featuredIds);
+            Map<Long, Course> coursesById = courseService
+                    .findCourses(List.copyOf(allIds), new CourseProjection(true, false)).stream()
+                    .collect(Collectors.toMap(Course::getId, Function.identity()));
+
+            snapshot = new Snapshot(
+                    select(trendingIds, coursesById),
+                    select(popularIds, coursesById),
+                    select(newIds, coursesById),
+                    select(featuredIds, coursesById),
+                    Instant.now());
+            log.debug("Catalog snapshot rebuilt with {} distinct courses", coursesById.size());
+        });
+    }
+
+    private static List<Course> select(List<Long> ids, Map<Long, Course> coursesById) {
+        return ids.stream()
+                .map(coursesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static List<Course> head(List<Course> courses, int limit) {
+        return courses.size() > limit ? courses.subList(0, limit) : courses;
+    }
+
+    private void miss(String list) {
+        Counter.builder("catalog.snapshot.misses")
+                .description("Catalog requests answered from the database instead of the snapshot")
+                .tag("list", list)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private double ageMillis() {
+        Snapshot current = snapshot;
+        return current == null ? Double.NaN : System.currentTimeMillis() - current.builtAt().toEpochMilli();
+    }
+
+    /**
+     * One immutable build of the catalog lists.
+     */
+    private record Snapshot(
+        List<Course> trending,
+        List<Course> popular,
+        List<Course> newest,
+        List<Course> featured,
+        Instant builtAt
+    ) {}
+}
@@ -8,11 +8,13 @@ import com.sociallearning.enums.CommentableType;
 import com.sociallearning.repository.CommentRepository;
 import com.sociallearning.repository.CourseRepository;
 import com.sociallearning.repository.LessonRepository;
+import com.sociallearning.repository.RowEstimateRepository;
 import com.sociallearning.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,10 +39,12 @@ public class CommentService {
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final LessonRepository lessonRepository;
+    private final RowEstimateRepository rowEstimateRepository;
 
     private static final String COMMENT_NOT_FOUND_MSG = "Comment not found with ID: ";
     private static final String USER_NOT_FOUND_MSG = "User not found with ID: ";
     private static final int MAX_THREAD_DEPTH = 5; // Maximum nesting level for replies
+    private static final String FEED_CURSOR = "comment";
 
     // ============================================
     // Add Comment Methods
@@ -347,6 +351,52 @@ public class CommentService {
         return commentRepository.findRootCommentsByTarget(targetType, targetId, pageable);
     }
 
+    /**
+     * Get comments for any target, computing the total only as requested.
+     *
+     * @param targetType Commentable type
+     * @param targetId Target entity ID
+     * @param pageable Pagination parameters
+     * @param totals How to obtain the total (a plain Slice is returned for NONE)
+     * @return Slice of comments, a Page when a total was requested
+     */
+    @Transactional(readOnly = true)
+    public Slice<Comment> getComments(CommentableType targetType, Long targetId, Pageable pageable,
+                                      PageTotals totals) {
+        return switch (totals) {
+            case EXACT -> commentRepository.findRootCommentsByTarget(targetType, targetId, pageable);
+            case NONE -> commentRepository.findRootCommentSliceByTarget(targetType, targetId, pageable);
+            case ESTIMATED -> PageTotals.withEstimatedTotal(
+                    commentRepository.findRootCommentSliceByTarget(targetType, targetId, pageable),
+                    () -> rowEstimateRepository.estimateRootComments(targetType, targetId));
+        };
+    }
+
+    /**
+     * Get one window of root comments for a target in feed order (pinned first, newest first).
+     * Keyset pagination: a window costs the same at any depth, and comments added meanwhile
+     * do not shift later windows.
+     *
+     * @param targetType Commentable type
+     * @param targetId Target entity ID
+     * @param first Maximum number of comments
+     * @param after Cursor of the last comment already seen (null for the first window)
+     * @return Window of comments with user loaded
+     */
+    @Transactional(readOnly = true)
+    public KeysetWindow<Comment> getCommentFeed(CommentableType targetType, Long targetId, int first, String after) {
+        List<Comment> comments;
+        if (after == null) {
+            comments = commentRepository.findRootCommentFeed(targetType, targetId, first + 1);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after, FEED_CURSOR, 3);
+            comments = commentRepository.findRootCommentFeedAfter(targetType, targetId,
+                    cursor.getBoolean(0), cursor.getDateTime(1), cursor.getLong(2), first + 1);
+        }
+        return KeysetWindow.of(comments, first, comment ->
+                KeysetCursor.encode(FEED_CURSOR, comment.getIsPinned(), comment.getCreatedAt(), comment.getId()));
+    }
+
     /**
      * Get replies to a comment.
      *
@@ -0,0 +1,13 @@
+package com.sociallearning.service;
+
+/**
+ * Application event published by {@link CourseService} whenever a course's
+ * searchable or catalog-visible state changes (create, update, tags, lifecycle).
+ *
+ * Listeners that keep derived read models in sync should consume it with
+ * {@code @TransactionalEventListener} so they only see committed data.
+ *
+ * @param courseId ID of the changed course
+ */
+public record CourseChangedEvent(Long courseId) {
+}
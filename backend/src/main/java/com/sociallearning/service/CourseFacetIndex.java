@@ -0,0 +1,667 @@
+package com.sociallearning.service;
+
+import com.sociallearning.enums.CourseDifficulty;
+import com.sociallearning.repository.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * In-memory facet index over published courses.
+ *
+ * Provides:
+ * - One bitmap per category, difficulty, language, tag and rating band ("4.0 and up")
+ * - Filtering by any combination of them (values of one facet are OR-ed, facets are AND-ed;
+ *   tags match all or any of the selected tags) without touching the database
+ * - Facet counts computed from the same bitmaps: each facet is counted against the other
+ *   facets' filters, so the counts show what selecting another value would return
+ * - Results in catalog order (highest rated, then most enrolled, then newest)
+ * - Incremental updates after course changes commit ({@link CourseChangedEvent}) and a
+ *   periodic rebuild that picks up rating and enrollment changes
+ *
+ * Courses occupy dense slots; a bitmap is a {@link BitSet} over slots, which stays compact
+ * because slots are contiguous. Readers never block: an update copies only the bitmaps it
+ * touches into a new generation and publishes it atomically. Slots are not reused before
+ * the next rebuild, so older generations stay consistent while they are read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseFacetIndex {
+
+    /** Lower bounds of the rating bands offered as facets */
+    private static final double[] RATING_BANDS = {1.0, 2.0, 3.0, 3.5, 4.0, 4.5};
+    private static final int TAG_FACET_LIMIT = 30;
+
+    private final CourseRepository courseRepository;
+
+    private volatile Generation generation;
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    // ============================================
+    // Querying
+    // ============================================
+
+    /**
+     * Whether the index has been built and can answer queries.
+     *
+     * @return true once the first build finished
+     */
+    public boolean isReady() {
+        return generation != null;
+    }
+
+    /**
+     * Filter published courses without counting facets (catalog listing).
+     *
+     * @param filter Facet filter (empty selections do not restrict)
+     * @param offset Number of matching courses to skip
+     * @param limit Maximum number of course IDs to return
+     * @return One page of matching course IDs in catalog order and the total
+     * @throws IllegalStateException if the index is not built yet
+     */
+    public MatchedCourses queryIds(FacetFilter filter, long offset, int limit) {
+        Generation current = requireGeneration();
+        Selection selection = new Selection(current, filter);
+        BitSet matches = selection.matches();
+        return new MatchedCourses(page(current, matches, offset, limit), matches.cardinality());
+    }
+
+    /**
+     * Filter published courses and count the facet values of the result.
+     *
+     * @param filter Facet filter (empty selections do not restrict)
+     * @param offset Number of matching courses to skip
+     * @param limit Maximum number of course IDs to return
+     * @return One page of matching course IDs in catalog order, the total and the facet counts
+     * @throws IllegalStateException if the index is not built yet
+     */
+    public FacetResult query(FacetFilter filter, long offset, int limit) {
+        Generation current = requireGeneration();
+        Selection selection = new Selection(current, filter);
+        BitSet matches = selection.matches();
+        BitSet published = current.published;
+
+        Facets facets = new Facets(
+                count(current.categories, and(published, selection.byDifficulty, selection.byLanguage,
+                        selection.byTag, selection.byRating)),
+                count(current.difficulties, and(published, selection.byCategory, selection.byLanguage,
+                        selection.byTag, selection.byRating)),
+                count(current.languages, and(published, selection.byCategory, selection.byDifficulty,
+                        selection.byTag, selection.byRating)),
+                top(count(current.tags, filter.matchAllTags()
+                        ? matches
+                        : and(published, selection.byCategory, selection.byDifficulty, selection.byLanguage,
+                                selection.byRating)), TAG_FACET_LIMIT),
+                countRatingBands(current, and(published, selection.byCategory, selection.byDifficulty,
+                        selection.byLanguage, selection.byTag)));
+
+        return new FacetResult(page(current, matches, offset, limit), matches.cardinality(), facets);
+    }
+
+    private static List<Long> page(Generation current, BitSet matches, long offset, int limit) {
+        List<Long> courseIds = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        long skipped = 0;
+        for (int slot : current.ranked) {
+            if (courseIds.size() == limit) {
+                break;
+            }
+            if (matches.get(slot) && skipped++ >= offset) {
+                courseIds.add(current.courseIds[slot]);
+            }
+        }
+        return courseIds;
+    }
+
+    private Generation requireGeneration() {
+        Generation current = generation;
+        if (current == null) {
+            throw new IllegalStateException("Course facet index is not built yet");
+        }
+        return current;
+    }
+
+    /**
+     * Per-facet restrictions of a filter (null: facet not restricted).
+     */
+    private static final class Selection {
+        private final BitSet published;
+        private final BitSet byCategory;
+        private final BitSet byDifficulty;
+        private final BitSet byLanguage;
+        private final BitSet byTag;
+        private final BitSet byRating;
+
+        Selection(Generation current, FacetFilter filter) {
+            published = current.published;
+            byCategory = union(current.categories, filter.categoryIds());
+            byDifficulty = union(current.difficulties, filter.difficulties());
+            byLanguage = union(current.languages, filter.languages());
+            byTag = filter.matchAllTags()
+                    ? intersection(current.tags, filter.tagIds(), current.published)
+                    : union(current.tags, filter.tagIds());
+            byRating = ratingAtLeast(current, filter.minRating());
+        }
+
+        BitSet matches() {
+            return and(published, byCategory, byDifficulty, byLanguage, byTag, byRating);
+        }
+    }
+
+    /**
+     * Courses having any of the selected values, or null when nothing is selected (no restriction).
+     */
+    private static <K> BitSet union(Map<K, BitSet> bitmaps, Collection<K> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        BitSet result = new BitSet();
+        for (K value : selected) {
+            BitSet bitmap = bitmaps.get(value);
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Courses having all of the selected values, or null when nothing is selected (no restriction).
+     */
+    private static <K> BitSet intersection(Map<K, BitSet> bitmaps, Collection<K> selected, BitSet universe) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        BitSet result = (BitSet) universe.clone();
+        for (K value : selected) {
+            BitSet bitmap = bitmaps.get(value);
+            if (bitmap == null) {
+                return new BitSet();
+            }
+            result.and(bitmap);
+        }
+        return result;
+    }
+
+    private static BitSet ratingAtLeast(Generation current, Double minRating) {
+        if (minRating == null || minRating <= 0) {
+            return null;
+        }
+        // Start from the narrowest band that contains every match, then check the ratings of its slots
+        int band = -1;
+        for (int i = 0; i < RATING_BANDS.length && RATING_BANDS[i] <= minRating; i++) {
+            band = i;
+        }
+        BitSet result = (BitSet) (band >= 0 ? current.ratingBands[band] : current.published).clone();
+        if (band < 0 || RATING_BANDS[band] != minRating) {
+            for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+                if (current.ratings[slot] < minRating) {
+                    result.clear(slot);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Intersect the non-null filters (null means "not restricted").
+     */
+    private static BitSet and(BitSet base, BitSet... filters) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static <K> Map<K, Integer> count(Map<K, BitSet> bitmaps, BitSet base) {
+        Map<K, Integer> counts = new HashMap<>();
+        bitmaps.forEach((value, bitmap) -> {
+            int count = intersectionSize(bitmap, base);
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        });
+        return top(counts, Integer.MAX_VALUE);
+    }
+
+    private static Map<Double, Integer> countRatingBands(Generation current, BitSet base) {
+        Map<Double, Integer> counts = new LinkedHashMap<>();
+        for (int band = RATING_BANDS.length - 1; band >= 0; band--) {
+            counts.put(RATING_BANDS[band], intersectionSize(current.ratingBands[band], base));
+        }
+        return counts;
+    }
+
+    private static int intersectionSize(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+
+    /**
+     * Order counts by descending count (ties by value order as inserted) and keep the first entries.
+     */
+    private static <K> Map<K, Integer> top(Map<K, Integer> counts, int limit) {
+        Map<K, Integer> ordered = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<K, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+        return ordered;
+    }
+
+    // ============================================
+    // Incremental Updates
+    // ============================================
+
+    /**
+     * Re-index a course after a committed change.
+     * Unpublished or deleted courses are removed from the index.
+     *
+     * @param event Course change event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCourseChanged(CourseChangedEvent event) {
+        try {
+            reindexCourse(event.courseId());
+        } catch (RuntimeException e) {
+            // The next rebuild repairs the entry; never fail the committed request
+            log.warn("Failed to update facet index for course {}", event.courseId(), e);
+        }
+    }
+
+    /**
+     * Reload a single course from the database and replace its slot.
+     *
+     * @param courseId Course ID
+     */
+    public synchronized void reindexCourse(Long courseId) {
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(courseId);
+        }
+        Generation current = generation;
+        if (current == null) {
+            return;
+        }
+
+        List<FacetDocument> documents = loadDocuments(courseRepository.findFacetRowsByIds(List.of(courseId)),
+                courseRepository.findTagIdsByCourseIds(List.of(courseId)));
+        generation = current.replace(courseId, documents.isEmpty() ? null : documents.get(0));
+    }
+
+    // ============================================
+    // Full Rebuild
+    // ============================================
+
+    /**
+     * Build the index once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Initial facet index build failed; catalog filtering falls back to the database", e);
+        }
+    }
+
+    /**
+     * Rebuild periodically, picking up rating and enrollment changes (catalog order and
+     * rating bands) that are not signalled by course change events, and compacting slots.
+     */
+    @Scheduled(fixedDelayString = "${app.facets.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.facets.rebuild-interval-ms:300000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Facet index rebuild failed; keeping the previous index", e);
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the database and swap it in.
+     * Courses changed while the rebuild was running are re-indexed afterwards.
+     *
+     * @return Number of indexed courses
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Facet index rebuild already in progress");
+        }
+
+        long start = System.currentTimeMillis();
+        Generation fresh;
+        try {
+            List<FacetDocument> documents = loadDocuments(courseRepository.findFacetRows(),
+                    courseRepository.findPublishedCourseTagIds());
+            fresh = Generation.build(documents);
+            synchronized (this) {
+                generation = fresh;
+            }
+        } finally {
+            rebuilding.set(false);
+        }
+
+        Set<Long> changed = Set.copyOf(changedDuringRebuild);
+        changedDuringRebuild.removeAll(changed);
+        changed.forEach(this::reindexCourse);
+
+        log.info("Facet index rebuilt: {} courses in {} ms", fresh.published.cardinality(),
+                System.currentTimeMillis() - start);
+        return fresh.published.cardinality();
+    }
+
+    private static List<FacetDocument> loadDocuments(List<Object[]> rows, List<Object[]> tagRows) {
+        Map<Long, List<Long>> tagIds = new HashMap<>();
+        for (Object[] row : tagRows) {
+            tagIds.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+
+        List<FacetDocument> documents = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long courseId = (Long) row[0];
+            BigDecimal rating = (BigDecimal) row[4];
+            Integer enrollments = (Integer) row[5];
+            documents.add(new FacetDocument(courseId, (Long) row[1], (CourseDifficulty) row[2], (String) row[3],
+                    rating != null ? rating.doubleValue() : 0.0, enrollments != null ? enrollments : 0,
+                    tagIds.getOrDefault(courseId, List.of())));
+        }
+        return documents;
+    }
+
+    /**
+     * Facet values and catalog sort keys of one published course.
+     */
+    private record FacetDocument(Long courseId, Long categoryId, CourseDifficulty difficulty, String language,
+                                 double rating, int enrollments, List<Long> tagIds) {
+    }
+
+    /**
+     * One immutable generation of the index. Bitmaps are never modified once published;
+     * {@link #replace} copies the ones that change. The slot arrays are shared with newer
+     * generations, which only write slots this generation does not use.
+     */
+    private static final class Generation {
+
+        private static final Comparator<FacetDocument> CATALOG_ORDER =
+                Comparator.comparingDouble(FacetDocument::rating).reversed()
+                        .thenComparing(Comparator.comparingInt(FacetDocument::enrollments).reversed())
+                        .thenComparing(Comparator.comparing(FacetDocument::courseId).reversed());
+
+        private final long[] courseIds;
+        private final double[] ratings;
+        private final int[] ranked;
+        private final int nextSlot;
+        private final Map<Long, FacetDocument> documents;
+        private final Map<Long, Integer> slots;
+        private final BitSet published;
+        private final Map<Long, BitSet> categories;
+        private final Map<CourseDifficulty, BitSet> difficulties;
+        private final Map<String, BitSet> languages;
+        private final Map<Long, BitSet> tags;
+        private final BitSet[] ratingBands;
+
+        private Generation(long[] courseIds, double[] ratings, int[] ranked, int nextSlot,
+                           Map<Long, FacetDocument> documents, Map<Long, Integer> slots, BitSet published,
+                           Map<Long, BitSet> categories, Map<CourseDifficulty, BitSet> difficulties,
+                           Map<String, BitSet> languages, Map<Long, BitSet> tags, BitSet[] ratingBands) {
+            this.courseIds = courseIds;
+            this.ratings = ratings;
+            this.ranked = ranked;
+            this.nextSlot = nextSlot;
+            this.documents = documents;
+            this.slots = slots;
+            this.published = published;
+            this.categories = categories;
+            this.difficulties = difficulties;
+            this.languages = languages;
+            this.tags = tags;
+            this.ratingBands = ratingBands;
+        }
+
+        /**
+         * Build from documents already in catalog order: slot i is the i-th course.
+         */
+        static Generation build(List<FacetDocument> documents) {
+            int size = documents.size();
+            long[] courseIds = new long[Math.max(16, size + size / 4)];
+            double[] ratings = new double[courseIds.length];
+            int[] ranked = new int[size];
+            Map<Long, FacetDocument> byId = new HashMap<>();
+            Map<Long, Integer> slots = new HashMap<>();
+            BitSet published = new BitSet(size);
+            Map<Long, BitSet> categories = new HashMap<>();
+            Map<CourseDifficulty, BitSet> difficulties = new EnumMap<>(CourseDifficulty.class);
+            Map<String, BitSet> languages = new HashMap<>();
+            Map<Long, BitSet> tags = new HashMap<>();
+            BitSet[] ratingBands = new BitSet[RATING_BANDS.length];
+            Arrays.setAll(ratingBands, band -> new BitSet(size));
+
+            for (int slot = 0; slot < size; slot++) {
+                FacetDocument document = documents.get(slot);
+                courseIds[slot] = document.courseId();
+                ratings[slot] = document.rating();
+                ranked[slot] = slot;
+                byId.put(document.courseId(), document);
+                slots.put(document.courseId(), slot);
+                published.set(slot);
+                set(categories, document.categoryId(), slot, id -> new BitSet());
+                set(difficulties, document.difficulty(), slot, id -> new BitSet());
+                set(languages, document.language(), slot, id -> new BitSet());
+                for (Long tagId : document.tagIds()) {
+                    set(tags, tagId, slot, id -> new BitSet());
+                }
+                for (int band = 0; band < RATING_BANDS.length; band++) {
+                    if (document.rating() >= RATING_BANDS[band]) {
+                        ratingBands[band].set(slot);
+                    }
+                }
+            }
+            return new Generation(courseIds, ratings, ranked, size, byId, slots, published,
+                    categories, difficulties, languages, tags, ratingBands);
+        }
+
+        /**
+         * Derive a generation in which a course is removed and, if given, re-added in a new slot.
+         *
+         * @param courseId Course ID
+         * @param document New facet values, or null if the course is no longer published
+         */
+        Generation replace(Long courseId, FacetDocument document) {
+            Map<Long, FacetDocument> nextDocuments = new HashMap<>(documents);
+            Map<Long, Integer> nextSlots = new HashMap<>(slots);
+            BitSet nextPublished = (BitSet) published.clone();
+            Map<Long, BitSet> nextCategories = new HashMap<>(categories);
+            Map<CourseDifficulty, BitSet> nextDifficulties = new EnumMap<>(difficulties);
+            Map<String, BitSet> nextLanguages = new HashMap<>(languages);
+            Map<Long, BitSet> nextTags = new HashMap<>(tags);
+            BitSet[] nextBands = ratingBands.clone();
+
+            FacetDocument previous = nextDocuments.remove(courseId);
+            Integer previousSlot = nextSlots.remove(courseId);
+            int[] nextRanked = ranked;
+            if (previous != null && previousSlot != null) {
+                int slot = previousSlot;
+                nextPublished.clear(slot);
+                clear(nextCategories, previous.categoryId(), slot);
+                clear(nextDifficulties, previous.difficulty(), slot);
+                clear(nextLanguages, previous.language(), slot);
+                for (Long tagId : previous.tagIds()) {
+                    clear(nextTags, tagId, slot);
+                }
+                for (int band = 0; band < nextBands.length; band++) {
+                    if (nextBands[band].get(slot)) {
+                        nextBands[band] = (BitSet) nextBands[band].clone();
+                        nextBands[band].clear(slot);
+                    }
+                }
+                nextRanked = Arrays.stream(ranked).filter(other -> other != slot).toArray();
+            }
+
+            long[] nextCourseIds = courseIds;
+            double[] nextRatings = ratings;
+            int slotCount = nextSlot;
+            if (document != null) {
+                int slot = slotCount++;
+                if (slot == nextCourseIds.length) {
+                    nextCourseIds = Arrays.copyOf(courseIds, slot * 2);
+                    nextRatings = Arrays.copyOf(ratings, slot * 2);
+                }
+                nextCourseIds[slot] = courseId;
+                nextRatings[slot] = document.rating();
+                nextDocuments.put(courseId, document);
+                nextSlots.put(courseId, slot);
+                nextPublished.set(slot);
+                add(nextCategories, document.categoryId(), slot);
+                add(nextDifficulties, document.difficulty(), slot);
+                add(nextLanguages, document.language(), slot);
+                for (Long tagId : document.tagIds()) {
+                    add(nextTags, tagId, slot);
+                }
+                for (int band = 0; band < nextBands.length; band++) {
+                    if (document.rating() >= RATING_BANDS[band]) {
+                        nextBands[band] = (BitSet) nextBands[band].clone();
+                        nextBands[band].set(slot);
+                    }
+                }
+                nextRanked = insertRanked(nextRanked, slot, document, nextCourseIds, nextDocuments);
+            }
+
+            return new Generation(nextCourseIds, nextRatings, nextRanked, slotCount, nextDocuments, nextSlots,
+                    nextPublished, nextCategories, nextDifficulties, nextLanguages, nextTags, nextBands);
+        }
+
+        private static int[] insertRanked(int[] ranked, int slot, FacetDocument document,
+                                          long[] courseIds, Map<Long, FacetDocument> documents) {
+            int low = 0;
+            int high = ranked.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                FacetDocument other = documents.get(courseIds[ranked[middle]]);
+                if (CATALOG_ORDER.compare(other, document) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            int[] result = new int[ranked.length + 1];
+            System.arraycopy(ranked, 0, result, 0, low);
+            result[low] = slot;
+            System.arraycopy(ranked, low, result, low + 1, ranked.length - low);
+            return result;
+        }
+
+        private static <K> void set(Map<K, BitSet> bitmaps, K value, int slot, Function<K, BitSet> create) {
+            if (value != null) {
+                bitmaps.computeIfAbsent(value, create).set(slot);
+            }
+        }
+
+        private static <K> void add(Map<K, BitSet> bitmaps, K value, int slot) {
+            if (value == null) {
+                return;
+            }
+            BitSet bitmap = bitmaps.get(value);
+            BitSet copy = bitmap != null ? (BitSet) bitmap.clone() : new BitSet();
+            copy.set(slot);
+            bitmaps.put(value, copy);
+        }
+
+        private static <K> void clear(Map<K, BitSet> bitmaps, K value, int slot) {
+            BitSet bitmap = value != null ? bitmaps.get(value) : null;
+            if (bitmap == null) {
+                return;
+            }
+            BitSet copy = (BitSet) bitmap.clone();
+            copy.clear(slot);
+            if (copy.isEmpty()) {
+                bitmaps.remove(value);
+            } else {
+                bitmaps.put(value, copy);
+            }
+        }
+    }
+
+    // ============================================
+    // Query Types
+    // ============================================
+
+    /**
+     * Facet selection. Values within one facet are alternatives (OR); facets combine with AND.
+     *
+     * @param categoryIds Selected categories (null or empty: any)
+     * @param difficulties Selected difficulties (null or empty: any)
+     * @param languages Selected languages (null or empty: any)
+     * @param minRating Minimum average rating (null: any)
+     * @param tagIds Selected tags (null or empty: any)
+     * @param matchAllTags true to require every selected tag, false to require at least one
+     */
+    public record FacetFilter(Collection<Long> categoryIds, Collection<CourseDifficulty> difficulties,
+                              Collection<String> languages, Double minRating,
+                              Collection<Long> tagIds, boolean matchAllTags) {
+
+        /**
+         * Single-value filter as used by the catalog search.
+         */
+        public static FacetFilter of(Long categoryId, CourseDifficulty difficulty, String language, Double minRating) {
+            return new FacetFilter(categoryId != null ? List.of(categoryId) : null,
+                    difficulty != null ? List.of(difficulty) : null,
+                    language != null ? List.of(language) : null,
+                    minRating, null, false);
+        }
+    }
+
+    /**
+     * Number of matching courses per facet value, most frequent first
+     * (rating bands from the highest floor down; tags limited to the most frequent).
+     */
+    public record Facets(Map<Long, Integer> categories, Map<CourseDifficulty, Integer> difficulties,
+                         Map<String, Integer> languages, Map<Long, Integer> tags, Map<Double, Integer> ratings) {
+    }
+
+    /**
+     * One page of a filter query without facet counts.
+     *
+     * @param courseIds Matching course IDs of the page, in catalog order
+     * @param total Number of matching courses
+     */
+    public record MatchedCourses(List<Long> courseIds, long total) {
+    }
+
+    /**
+     * One page of a facet query.
+     *
+     * @param courseIds Matching course IDs of the page, in catalog order
+     * @param total Number of matching courses
+     * @param facets Facet counts
+     */
+    public record FacetResult(List<Long> courseIds, long total, Facets facets) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.sociallearning.service;
+
+/**
+ * Application event published by {@link CourseProgressRefreshService} when lessons were added to
+ * or removed from a course whose enrollments need their progress counters refreshed.
+ *
+ * Consumed with {@code @TransactionalEventListener} so the refresh only starts once the lesson
+ * change and the refresh request are committed.
+ *
+ * @param courseId ID of the course
+ */
+public record CourseLessonsChangedEvent(Long courseId) {
+}
@@ -0,0 +1,14 @@
+package com.sociallearning.service;
+
+/**
+ * Application event published by {@link LikeService} and {@link RatingService} when a
+ * learner likes, unlikes, rates or removes a rating of a course.
+ *
+ * Listeners that cache per-learner data (e.g. the personal course feed) should consume it
+ * with {@code @TransactionalEventListener} so they only see committed data.
+ *
+ * @param userId ID of the learner
+ * @param courseId ID of the course
+ */
+public record CoursePreferenceChangedEvent(Long userId, Long courseId) {
+}
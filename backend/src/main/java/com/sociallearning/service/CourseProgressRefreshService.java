@@ -0,0 +1,177 @@
+package com.sociallearning.service;
+
+import com.sociallearning.entity.Course;
+import com.sociallearning.entity.CourseProgressRefresh;
+import com.sociallearning.repository.CourseProgressRefreshRepository;
+import com.sociallearning.repository.CourseProgressRefreshRepository.BatchResult;
+import com.sociallearning.repository.CourseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Background fan-out of course structure changes to existing enrollments.
+ *
+ * Provides business logic for:
+ * - Durable refresh requests, written in the transaction that adds or removes a lesson
+ *   (one job per course; a new change restarts it)
+ * - Refreshing total lessons, completed lessons and percentages of all the course's
+ *   enrollments on the task executor, in keyset-paged, set-based batches
+ *   ({@link CourseProgressRefreshRepository})
+ * - Resuming unfinished jobs from their cursor (after a crash or a failed batch)
+ * - Job progress for authors
+ *
+ * Learner completions keep applying O(1) deltas meanwhile; a batch locks its page of
+ * enrollments, so the two never overwrite each other.
+ *
+ * Configuration: {@code app.progress.refresh-batch-size}, {@code app.progress.refresh-poll-interval-ms}.
+ */
+@Slf4j
+@Service
+public class CourseProgressRefreshService {
+
+    private static final int MAX_RESUMED_JOBS = 100;
+
+    private final CourseProgressRefreshRepository courseProgressRefreshRepository;
+    private final CourseRepository courseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Executor applicationTaskExecutor;
+    private final int batchSize;
+    private final Set<Long> runningCourses = ConcurrentHashMap.newKeySet();
+    private final Counter updatedCounter;
+
+    public CourseProgressRefreshService(CourseProgressRefreshRepository courseProgressRefreshRepository,
+                                        CourseRepository courseRepository,
+                                        ApplicationEventPublisher eventPublisher,
+                                        Executor applicationTaskExecutor,
+                                        Environment environment,
+                                        MeterRegistry meterRegistry) {
+        this.courseProgressRefreshRepository = courseProgressRefreshRepository;
+        this.courseRepository = courseRepository;
+        this.eventPublisher = eventPublisher;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.batchSize = environment.getProperty("app.progress.refresh-batch-size", Integer.class, 1000);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("app.progress.refresh-batch-size must be at least 1");
+        }
+        this.updatedCounter = Counter.builder("course_progress_refresh.updated")
+                .description("Enrollment progress counters changed by course structure refreshes")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // Requests
+    // ============================================
+
+    /**
+     * Request a refresh of all enrollments of a course in the caller's transaction.
+     * The refresh starts after commit; the caller never waits for it.
+     *
+     * @param courseId Course ID
+     */
+    @Transactional
+    public void requestRefresh(Long courseId) {
+        courseProgressRefreshRepository.requestRefresh(courseId);
+        eventPublisher.publishEvent(new CourseLessonsChangedEvent(courseId));
+        log.debug("Enrollment progress refresh requested for course {}", courseId);
+    }
+
+    /**
+     * Start the refresh once the lesson change commits.
+     *
+     * @param event Course lessons event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCourseLessonsChanged(CourseLessonsChangedEvent event) {
+        schedule(event.courseId());
+    }
+
+    /**
+     * Get the refresh job of a course for its author.
+     *
+     * @param courseId Course ID
+     * @param userId ID of the user asking
+     * @param admin Whether the user is an admin (may view any course)
+     * @return Job, or empty if none was ever requested
+     * @throws IllegalArgumentException if course not found
+     * @throws SecurityException if the user is neither the creator nor an admin
+     */
+    @Transactional(readOnly = true)
+    public Optional<CourseProgressRefresh> getRefresh(Long courseId, Long userId, boolean admin) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found with ID: " + courseId));
+        if (!admin && !course.getCreator().getId().equals(userId)) {
+            throw new SecurityException("User is not authorized to view this course's progress refresh");
+        }
+        return courseProgressRefreshRepository.findByCourseId(courseId);
+    }
+
+    // ============================================
+    // Processing
+    // ============================================
+
+    /**
+     * Pick up jobs that are not finished: left behind by a restart, a failed batch,
+     * or a request that arrived while the course's previous run was ending.
+     */
+    @Scheduled(fixedDelayString = "${app.progress.refresh-poll-interval-ms:60000}")
+    public void resumeUnfinished() {
+        try {
+            courseProgressRefreshRepository.findUnfinishedCourseIds(MAX_RESUMED_JOBS).forEach(this::schedule);
+        } catch (RuntimeException e) {
+            log.warn("Failed to look up unfinished enrollment progress refreshes", e);
+        }
+    }
+
+    private void schedule(Long courseId) {
+        if (!runningCourses.add(courseId)) {
+            // The running loop reads the restarted cursor with its next batch
+            return;
+        }
+        try {
+            applicationTaskExecutor.execute(() -> run(courseId));
+        } catch (RuntimeException e) {
+            runningCourses.remove(courseId);
+            log.warn("Could not schedule progress refresh for course {}; the next poll picks it up", courseId, e);
+        }
+    }
+
+    private void run(Long courseId) {
+        long start = System.currentTimeMillis();
+        int processed = 0;
+        int updated = 0;
+        try {
+            Optional<BatchResult> batch;
+            do {
+                batch = courseProgressRefreshRepository.refreshNextBatch(courseId, batchSize);
+                if (batch.isPresent()) {
+                    processed += batch.get().processed();
+                    updated += batch.get().updated();
+                    updatedCounter.increment(batch.get().updated());
+                }
+            } while (batch.isPresent() && !batch.get().done());
+
+            if (processed > 0) {
+                log.info("Enrollment progress refreshed for course {}: processed={}, updated={}, took {} ms",
+                        courseId, processed, updated, System.currentTimeMillis() - start);
+            }
+        } catch (RuntimeException e) {
+            // Committed batches stay done; the job resumes from its cursor on the next poll
+            log.warn("Enrollment progress refresh for course {} failed after {} enrollments", courseId, processed, e);
+        } finally {
+            runningCourses.remove(courseId);
+        }
+    }
+}
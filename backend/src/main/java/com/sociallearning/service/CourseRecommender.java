@@ -0,0 +1,519 @@
+package com.sociallearning.service;
+
+import com.sociallearning.repository.CoEnrollmentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * "Learners also took" recommendations from co-enrollments.
+ *
+ * Provides business logic for:
+ * - A full rebuild of the top-K most similar courses of every published course, computed in
+ *   parallel on a fork/join pool from a sparse course x course co-enrollment matrix
+ * - Incremental updates after an enrollment commits: the neighbours of the enrolled course
+ *   and of the learner's other courses are recomputed from grouped database counts
+ *   (sampled for popular courses, at most 50 courses per drain, the rest queued)
+ * - Lookups served from memory (a map read, no database access)
+ * - Metrics: recommendations.rebuild (full rebuild time), recommendations.courses,
+ *   recommendations.pending_updates
+ *
+ * Similarity is the cosine of the two courses' learner sets: shared / sqrt(learners(a) * learners(b)),
+ * counting only pairs with at least {@code app.recommendations.min-co-enrollments} shared learners.
+ *
+ * The rebuild works on dense int indices: enrollments are read into compressed
+ * user -> courses and course -> users arrays, and each course's co-occurrence row is
+ * accumulated in a per-worker int array, so no boxed keys are created per pair.
+ */
+@Slf4j
+@Service
+public class CourseRecommender {
+
+    private static final int MAX_INCREMENTAL_COURSES = 50;
+    private static final long[] NO_NEIGHBOURS = new long[0];
+
+    private final CoEnrollmentRepository coEnrollmentRepository;
+    private final Executor applicationTaskExecutor;
+    private final int neighbourCount;
+    private final int minCoEnrollments;
+    private final int rebuildParallelism;
+    private final int incrementalSampleSize;
+    private final Timer rebuildTimer;
+
+    private volatile ConcurrentHashMap<Long, long[]> neighbours = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<EnrollmentCreatedEvent> pendingEnrollments = new ConcurrentLinkedQueue<>();
+    private final Set<Long> pendingCourses = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean updateScheduled = new AtomicBoolean(false);
+
+    public CourseRecommender(CoEnrollmentRepository coEnrollmentRepository,
+                             Executor applicationTaskExecutor,
+                             Environment environment,
+                             MeterRegistry meterRegistry) {
+        this.coEnrollmentRepository = coEnrollmentRepository;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.neighbourCount = environment.getProperty("app.recommendations.neighbours", Integer.class, 20);
+        this.minCoEnrollments = environment.getProperty("app.recommendations.min-co-enrollments", Integer.class, 2);
+        this.rebuildParallelism = environment.getProperty("app.recommendations.rebuild-parallelism", Integer.class, 4);
+        this.incrementalSampleSize = environment.getProperty(
+                "app.recommendations.incremental-sample-size", Integer.class, 5000);
+        if (neighbourCount < 1) {
+            throw new IllegalArgumentException("app.recommendations.neighbours must be at least 1");
+        }
+        if (incrementalSampleSize < 1) {
+            throw new IllegalArgumentException("app.recommendations.incremental-sample-size must be at least 1");
+        }
+
+        this.rebuildTimer = Timer.builder("recommendations.rebuild")
+                .description("Time spent rebuilding the co-enrollment neighbour table")
+                .register(meterRegistry);
+        Gauge.builder("recommendations.courses", this, recommender -> recommender.neighbours.size())
+                .description("Courses with co-enrollment neighbours")
+                .register(meterRegistry);
+        Gauge.builder("recommendations.pending_updates", this, recommender -> recommender.pendingCourses.size())
+                .description("Courses queued for an incremental neighbour update")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // Querying
+    // ============================================
+
+    /**
+     * Most similar courses by co-enrollment, best first.
+     *
+     * @param courseId Course ID
+     * @return Up to {@code app.recommendations.neighbours} course IDs (empty for cold-start courses)
+     */
+    public List<Long> getSimilarCourseIds(Long courseId) {
+        long[] ids = neighbours.getOrDefault(courseId, NO_NEIGHBOURS);
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    // ============================================
+    // Full Rebuild
+    // ============================================
+
+    /**
+     * Build the neighbour table once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Initial recommendation build failed; recommendations fall back to categories", e);
+        }
+    }
+
+    /**
+     * Nightly rebuild, which also corrects the small drift of incremental updates
+     * (they only refresh the courses of new enrollments).
+     */
+    @Scheduled(cron = "${app.recommendations.rebuild-cron:0 0 4 * * *}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Scheduled recommendation rebuild failed; keeping the previous table", e);
+        }
+    }
+
+    /**
+     * Recompute the neighbours of every published course from all enrollments and swap in the result.
+     * Courses updated incrementally while the rebuild ran are recomputed afterwards.
+     *
+     * @return Number of courses with neighbours
+     * @throws IllegalStateException if a rebuild is already running or fails
+     */
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Recommendation rebuild already in progress");
+        }
+        try {
+            ConcurrentHashMap<Long, long[]> rebuilt = rebuildTimer.record(this::computeAll);
+            neighbours = rebuilt;
+            log.info("Rebuilt co-enrollment neighbours for {} courses", rebuilt.size());
+        } finally {
+            rebuilding.set(false);
+        }
+
+        Set<Long> changed = Set.copyOf(changedDuringRebuild);
+        changedDuringRebuild.removeAll(changed);
+        changed.forEach(this::updateCourse);
+        return neighbours.size();
+    }
+
+    private ConcurrentHashMap<Long, long[]> computeAll() {
+        EnrollmentMatrix matrix = EnrollmentMatrix.load(coEnrollmentRepository);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, rebuildParallelism));
+        try {
+            ThreadLocal<RowAccumulator> accumulators =
+                    ThreadLocal.withInitial(() -> new RowAccumulator(matrix.courseCount()));
+            long[][] rows = pool.submit(() -> IntStream.range(0, matrix.courseCount()).parallel()
+                    .mapToObj(course -> topNeighbours(matrix, course, accumulators.get()))
+                    .toArray(long[][]::new)).get();
+
+            ConcurrentHashMap<Long, long[]> result = new ConcurrentHashMap<>();
+            for (int course = 0; course < rows.length; course++) {
+                if (rows[course].length > 0) {
+                    result.put(matrix.courseId(course), rows[course]);
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Recommendation rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Recommendation rebuild failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Accumulate one row of the co-occurrence matrix (every course sharing a learner
+     * with {@code course}) and keep the most similar entries.
+     */
+    private long[] topNeighbours(EnrollmentMatrix matrix, int course, RowAccumulator row) {
+        int[] learners = matrix.courseLearners;
+        int[] courses = matrix.learnerCourses;
+        for (int p = matrix.courseOffsets[course]; p < matrix.courseOffsets[course + 1]; p++) {
+            int learner = learners[p];
+            for (int q = matrix.learnerOffsets[learner]; q < matrix.learnerOffsets[learner + 1]; q++) {
+                if (courses[q] != course) {
+                    row.increment(courses[q]);
+                }
+            }
+        }
+
+        TopK top = new TopK(neighbourCount);
+        long courseLearners = matrix.learnerCount(course);
+        row.drain((other, shared) -> {
+            if (shared >= minCoEnrollments) {
+                top.offer(matrix.courseId(other), similarity(shared, courseLearners, matrix.learnerCount(other)));
+            }
+        });
+        return top.toSortedIds();
+    }
+
+    private static double similarity(long shared, long learnersA, long learnersB) {
+        return shared / Math.sqrt((double) learnersA * learnersB);
+    }
+
+    // ============================================
+    // Incremental Updates
+    // ============================================
+
+    /**
+     * Queue the courses touched by a committed enrollment for recomputation.
+     * Updates run on the task executor; bursts are coalesced.
+     *
+     * @param event Enrollment event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEnrollmentCreated(EnrollmentCreatedEvent event) {
+        pendingEnrollments.add(event);
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (updateScheduled.compareAndSet(false, true)) {
+            try {
+                applicationTaskExecutor.execute(this::drainPendingEnrollments);
+            } catch (RuntimeException e) {
+                updateScheduled.set(false);
+                log.warn("Could not schedule recommendation update; the next rebuild picks it up", e);
+            }
+        }
+    }
+
+    private void drainPendingEnrollments() {
+        updateScheduled.set(false);
+
+        EnrollmentCreatedEvent event;
+        while ((event = pendingEnrollments.poll()) != null) {
+            pendingCourses.add(event.courseId());
+            try {
+                // The new shared learner changes the similarity of the learner's other courses too
+                pendingCourses.addAll(coEnrollmentRepository.findCourseIdsByUser(event.userId()));
+            } catch (RuntimeException e) {
+                log.warn("Failed to load courses of user {} for recommendation update", event.userId(), e);
+            }
+        }
+
+        // Bounded work per drain; the remainder stays queued for the next one
+        Set<Long> courses = new LinkedHashSet<>();
+        for (Long courseId : pendingCourses) {
+            if (courses.size() == MAX_INCREMENTAL_COURSES) {
+                break;
+            }
+            courses.add(courseId);
+        }
+        pendingCourses.removeAll(courses);
+        courses.forEach(this::updateCourse);
+
+        if (!pendingCourses.isEmpty()) {
+            log.debug("{} courses left for the next recommendation update", pendingCourses.size());
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Recompute the neighbours of one course from the database.
+     * Shared learners are counted over the course's most recent
+     * {@code app.recommendations.incremental-sample-size} learners and scaled up, so popular
+     * courses cost a bounded query; the nightly rebuild uses exact counts.
+     *
+     * @param courseId Course ID
+     */
+    public void updateCourse(Long courseId) {
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(courseId);
+        }
+        try {
+            Map<Long, Long> shared = coEnrollmentRepository.countCoEnrollments(courseId, incrementalSampleSize);
+            Set<Long> involved = new LinkedHashSet<>(shared.keySet());
+            involved.add(courseId);
+            Map<Long, Long> learners = coEnrollmentRepository.countEnrollments(involved);
+
+            TopK top = new TopK(neighbourCount);
+            long courseLearners = learners.getOrDefault(courseId, 0L);
+            double scale = courseLearners > incrementalSampleSize ? (double) courseLearners / incrementalSampleSize : 1.0;
+            shared.forEach((other, sampled) -> {
+                long count = Math.round(sampled * scale);
+                if (count >= minCoEnrollments) {
+                    top.offer(other, similarity(count, courseLearners, learners.getOrDefault(other, count)));
+                }
+            });
+
+            long[] ids = top.toSortedIds();
+            if (ids.length == 0) {
+                neighbours.remove(courseId);
+            } else {
+                neighbours.put(courseId, ids);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to update recommendations for course {}", courseId, e);
+        }
+    }
+
+    // ============================================
+    // Rebuild Data Structures
+    // ============================================
+
+    /**
+     * Enrollments of published courses in compressed sparse row form, indexed both ways:
+     * learner -> courses and course -> learners. Course and learner IDs are mapped to dense indices.
+     */
+    private static final class EnrollmentMatrix {
+
+        private final long[] courseIds;
+        private final int[] learnerOffsets;
+        private final int[] learnerCourses;
+        private final int[] courseOffsets;
+        private final int[] courseLearners;
+
+        private EnrollmentMatrix(long[] courseIds, int[] learnerOffsets, int[] learnerCourses,
+                                 int[] courseOffsets, int[] courseLearners) {
+            this.courseIds = courseIds;
+            this.learnerOffsets = learnerOffsets;
+            this.learnerCourses = learnerCourses;
+            this.courseOffsets = courseOffsets;
+            this.courseLearners = courseLearners;
+        }
+
+        static EnrollmentMatrix load(CoEnrollmentRepository repository) {
+            Map<Long, Integer> courseIndex = new HashMap<>();
+            long[][] idHolder = {new long[1024]};
+            IntList learnerOffsets = new IntList();
+            IntList learnerCourses = new IntList();
+            long[] lastUser = {Long.MIN_VALUE};
+
+            // Rows arrive grouped by learner: a new learner starts a new row of course indices
+            repository.streamPublishedEnrollmentsByUser(rs -> {
+                long userId = rs.getLong(1);
+                long courseId = rs.getLong(2);
+                if (userId != lastUser[0]) {
+                    learnerOffsets.add(learnerCourses.size());
+                    lastUser[0] = userId;
+                }
+                Integer index = courseIndex.get(courseId);
+                if (index == null) {
+                    index = courseIndex.size();
+                    courseIndex.put(courseId, index);
+                    if (index == idHolder[0].length) {
+                        idHolder[0] = Arrays.copyOf(idHolder[0], index * 2);
+                    }
+                    idHolder[0][index] = courseId;
+                }
+                learnerCourses.add(index);
+            });
+            learnerOffsets.add(learnerCourses.size());
+
+            int courseCount = courseIndex.size();
+            int[] learnerRows = learnerOffsets.toArray();
+            int[] coursesOfLearners = learnerCourses.toArray();
+
+            // Transpose with a counting sort: course -> learners
+            int[] courseOffsets = new int[courseCount + 1];
+            for (int course : coursesOfLearners) {
+                courseOffsets[course + 1]++;
+            }
+            for (int course = 0; course < courseCount; course++) {
+                courseOffsets[course + 1] += courseOffsets[course];
+            }
+            int[] fill = Arrays.copyOf(courseOffsets, courseCount);
+            int[] learnersOfCourses = new int[coursesOfLearners.length];
+            for (int learner = 0; learner + 1 < learnerRows.length; learner++) {
+                for (int p = learnerRows[learner]; p < learnerRows[learner + 1]; p++) {
+                    learnersOfCourses[fill[coursesOfLearners[p]]++] = learner;
+                }
+            }
+
+            return new EnrollmentMatrix(Arrays.copyOf(idHolder[0], courseCount), learnerRows,
+                    coursesOfLearners, courseOffsets, learnersOfCourses);
+        }
+
+        int courseCount() {
+            return courseIds.length;
+        }
+
+        long courseId(int course) {
+            return courseIds[course];
+        }
+
+        long learnerCount(int course) {
+            return courseOffsets[course + 1] - courseOffsets[course];
+        }
+    }
+
+    /**
+     * Dense counter row reused by one worker thread; only touched cells are visited and reset.
+     */
+    private static final class RowAccumulator {
+
+        private final int[] counts;
+        private final IntList touched = new IntList();
+
+        RowAccumulator(int size) {
+            this.counts = new int[size];
+        }
+
+        void increment(int column) {
+            if (counts[column]++ == 0) {
+                touched.add(column);
+            }
+        }
+
+        void drain(CellConsumer consumer) {
+            for (int i = 0; i < touched.size(); i++) {
+                int column = touched.get(i);
+                consumer.accept(column, counts[column]);
+                counts[column] = 0;
+            }
+            touched.clear();
+        }
+    }
+
+    @FunctionalInterface
+    private interface CellConsumer {
+        void accept(int column, int count);
+    }
+
+    /**
+     * Bounded min-heap keeping the K highest-scored course IDs.
+     */
+    private static final class TopK {
+
+        private final int k;
+        private final PriorityQueue<Candidate> heap;
+
+        TopK(int k) {
+            this.k = k;
+            this.heap = new PriorityQueue<>(k + 1);
+        }
+
+        void offer(long courseId, double score) {
+            heap.offer(new Candidate(courseId, score));
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+
+        long[] toSortedIds() {
+            Candidate[] candidates = heap.toArray(new Candidate[0]);
+            Arrays.sort(candidates, (a, b) -> b.compareTo(a));
+            long[] ids = new long[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                ids[i] = candidates[i].courseId();
+            }
+            return ids;
+        }
+
+        private record Candidate(long courseId, double score) implements Comparable<Candidate> {
+            @Override
+            public int compareTo(Candidate other) {
+                int byScore = Double.compare(score, other.score);
+                // Ties: prefer the lower (older) course ID, deterministically
+                return byScore != 0 ? byScore : Long.compare(other.courseId, courseId);
+            }
+        }
+    }
+
+    /**
+     * Growable int array.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.sociallearning.service;
+
+import com.sociallearning.repository.CourseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * In-memory ranked inverted index over published courses.
+ *
+ * Provides:
+ * - BM25 ranking over title, tag names, category name and description with per-field boosts
+ * - Prefix matching on the last query term (search-as-you-type)
+ * - Typo tolerance: when a query matches nothing, terms unknown to the index are replaced
+ *   by the closest title and tag terms within one or two edits ({@link FuzzyTermIndex})
+ * - Incremental updates after course changes commit ({@link CourseChangedEvent})
+ * - Parallel full rebuild for cold starts and on demand
+ *
+ * Readers never block: postings live in concurrent maps and a rebuild swaps in a
+ * freshly built segment. Writers (incremental updates) are serialized.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CourseSearchIndex {
+
+    private static final float TITLE_BOOST = 4.0f;
+    private static final float TAG_BOOST = 3.0f;
+    private static final float CATEGORY_BOOST = 2.0f;
+    private static final float DESCRIPTION_BOOST = 1.0f;
+
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+    private static final double PREFIX_MATCH_PENALTY = 0.7;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final double FUZZY_MATCH_PENALTY_PER_EDIT = 0.5;
+    private static final int MAX_FUZZY_CORRECTIONS = 3;
+
+    private final CourseRepository courseRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.search.rebuild-parallelism:4}")
+    private int rebuildParallelism;
+
+    private volatile Segment segment = new Segment();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    // ============================================
+    // Querying
+    // ============================================
+
+    /**
+     * Search the index and return matching course IDs, best match first.
+     *
+     * Every query term must match (AND semantics); the last term also matches
+     * as a prefix so partially typed words still find results. If nothing matches,
+     * the query is retried with misspelled terms replaced by their closest corrections.
+     *
+     * @param query Free-text query
+     * @return Ranked course IDs (empty if nothing matches)
+     */
+    public List<Long> search(String query) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(SearchTextAnalyzer.tokenize(query)));
+        Segment current = segment;
+        if (terms.isEmpty() || current.documents.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> exact = rank(current, terms, false);
+        if (!exact.isEmpty()) {
+            return exact;
+        }
+        return meterRegistry.timer("search.fuzzy").record(() -> rank(current, terms, true));
+    }
+
+    private List<Long> rank(Segment current, List<String> terms, boolean fuzzy) {
+        int documentCount = current.documents.size();
+        double averageLength = Math.max(1.0, current.totalLength.sum() / documentCount);
+        Map<Long, Double> scores = null;
+
+        for (int i = 0; i < terms.size(); i++) {
+            boolean lastTerm = i == terms.size() - 1;
+            Map<Long, Double> exactScores = scoreTerm(current, terms.get(i), lastTerm, documentCount, averageLength);
+            Map<Long, Double> termScores = fuzzy && exactScores.isEmpty()
+                    ? scoreCorrections(current, terms.get(i), documentCount, averageLength)
+                    : exactScores;
+
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((courseId, score) -> score + termScores.get(courseId));
+            }
+
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<Long, Double>comparingByKey(Comparator.reverseOrder())))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Number of courses currently in the index.
+     *
+     * @return Indexed document count
+     */
+    public int size() {
+        return segment.documents.size();
+    }
+
+    private Map<Long, Double> scoreTerm(Segment current, String term, boolean allowPrefix,
+                                        int documentCount, double averageLength) {
+        Map<Long, Double> termScores = new HashMap<>();
+        accumulate(termScores, current, current.postings.get(term), 1.0, documentCount, averageLength);
+
+        if (allowPrefix && term.length() >= MIN_PREFIX_LENGTH) {
+            int expansions = 0;
+            for (Map.Entry<String, ConcurrentHashMap<Long, Float>> entry
+                    : current.postings.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+                if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                accumulate(termScores, current, entry.getValue(), PREFIX_MATCH_PENALTY, documentCount, averageLength);
+            }
+        }
+        return termScores;
+    }
+
+    /**
+     * Score the closest known terms of a term that matches nothing, penalized per edit.
+     */
+    private Map<Long, Double> scoreCorrections(Segment current, String term,
+                                               int documentCount, double averageLength) {
+        Map<Long, Double> termScores = new HashMap<>();
+        for (FuzzyTermIndex.Correction correction : current.fuzzyTerms.correct(term, MAX_FUZZY_CORRECTIONS)) {
+            double factor = Math.pow(FUZZY_MATCH_PENALTY_PER_EDIT, correction.distance());
+            accumulate(termScores, current, current.postings.get(correction.term()), factor,
+                    documentCount, averageLength);
+        }
+        if (!termScores.isEmpty()) {
+            log.debug("Fuzzy search corrected '{}'", term);
+        }
+        return termScores;
+    }
+
+    /**
+     * Add BM25 scores of one posting list, keeping the best score per course
+     * when several expansions of the same query term match it.
+     */
+    private void accumulate(Map<Long, Double> termScores, Segment current, Map<Long, Float> postings,
+                            double factor, int documentCount, double averageLength) {
+        if (postings == null || postings.isEmpty()) {
+            return;
+        }
+
+        int documentFrequency = postings.size();
+        double idf = Math.log(1.0 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+
+        postings.forEach((courseId, weight) -> {
+            IndexedCourse document = current.documents.get(courseId);
+            if (document == null) {
+                return;
+            }
+            double norm = BM25_K1 * (1 - BM25_B + BM25_B * document.length() / averageLength);
+            double score = factor * idf * (weight * (BM25_K1 + 1)) / (weight + norm);
+            termScores.merge(courseId, score, Math::max);
+        });
+    }
+
+    // ============================================
+    // Incremental Updates
+    // ============================================
+
+    /**
+     * Re-index a course after a committed change.
+     * Unpublished or deleted courses are removed from the index.
+     *
+     * @param event Course change event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCourseChanged(CourseChangedEvent event) {
+        try {
+            reindexCourse(event.courseId());
+        } catch (RuntimeException e) {
+            // The next full rebuild repairs the entry; never fail the committed request
+            log.warn("Failed to update search index for course {}", event.courseId(), e);
+        }
+    }
+
+    /**
+     * Reload a single course from the database and replace its index entry.
+     *
+     * @param courseId Course ID
+     */
+    public synchronized void reindexCourse(Long courseId) {
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(courseId);
+        }
+
+        List<IndexedCourse> documents = loadDocuments(List.of(courseId));
+        if (documents.isEmpty()) {
+            segment.remove(courseId);
+            log.debug("Removed course {} from search index", courseId);
+        } else {
+            segment.put(documents.get(0));
+            log.debug("Re-indexed course {}", courseId);
+        }
+    }
+
+    // ============================================
+    // Full Rebuild
+    // ============================================
+
+    /**
+     * Build the index on startup so search works on a cold instance.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Initial search index build failed; search results will be empty until a rebuild succeeds", e);
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the database.
+     *
+     * Published course IDs are split into batches which are loaded and analyzed
+     * in parallel; the finished segment replaces the live one atomically.
+     * Courses changed while the rebuild was running are re-indexed afterwards.
+     *
+     * @return Number of indexed courses
+     * @throws IllegalStateException if a rebuild is already running or fails
+     */
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Search index rebuild already in progress");
+        }
+
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, rebuildParallelism));
+        Segment fresh = new Segment();
+
+        try {
+            List<Long> courseIds = courseRepository.findPublishedCourseIds();
+            List<List<Long>> batches = new ArrayList<>();
+            for (int i = 0; i < courseIds.size(); i += LOAD_BATCH_SIZE) {
+                batches.add(courseIds.subList(i, Math.min(i + LOAD_BATCH_SIZE, courseIds.size())));
+            }
+
+            List<IndexedCourse> documents = pool.submit(() -> batches.parallelStream()
+                    .map(this::loadDocuments)
+                    .flatMap(List::stream)
+                    .toList()
+            ).get();
+
+            documents.forEach(fresh::put);
+
+            synchronized (this) {
+                segment = fresh;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search index rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search index rebuild failed", e.getCause());
+        } finally {
+            rebuilding.set(false);
+            pool.shutdown();
+        }
+
+        Set<Long> changed = new LinkedHashSet<>(changedDuringRebuild);
+        changedDuringRebuild.removeAll(changed);
+        changed.forEach(this::reindexCourse);
+
+        log.info("Search index rebuilt: {} courses in {} ms ({} re-applied changes)",
+                fresh.documents.size(), System.currentTimeMillis() - start, changed.size());
+        return fresh.documents.size();
+    }
+
+    // ============================================
+    // Document Loading & Analysis
+    // ============================================
+
+    private List<IndexedCourse> loadDocuments(Collection<Long> courseIds) {
+        Map<Long, List<String>> tagNames = new HashMap<>();
+        for (Object[] row : courseRepository.findTagNamesByCourseIds(courseIds)) {
+            tagNames.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+
+        List<IndexedCourse> documents = new ArrayList<>();
+        for (Object[] row : courseRepository.findSearchDocuments(courseIds)) {
+            Long courseId = (Long) row[0];
+            documents.add(analyze(courseId, (String) row[1], (String) row[2], (String) row[3],
+                    tagNames.getOrDefault(courseId, List.of())));
+        }
+        return documents;
+    }
+
+    private IndexedCourse analyze(Long courseId, String title, String description,
+                                  String categoryName, List<String> tags) {
+        Map<String, Float> weights = new HashMap<>();
+        Set<String> fuzzyTerms = new HashSet<>(SearchTextAnalyzer.tokenize(title));
+        float length = 0;
+
+        length += addField(weights, SearchTextAnalyzer.tokenize(title), TITLE_BOOST);
+        length += addField(weights, SearchTextAnalyzer.tokenize(categoryName), CATEGORY_BOOST);
+        length += addField(weights, SearchTextAnalyzer.tokenize(description), DESCRIPTION_BOOST);
+        for (String tag : tags) {
+            List<String> tagTerms = SearchTextAnalyzer.tokenize(tag);
+            length += addField(weights, tagTerms, TAG_BOOST);
+            fuzzyTerms.addAll(tagTerms);
+        }
+
+        return new IndexedCourse(courseId, Map.copyOf(weights), Set.copyOf(fuzzyTerms), length);
+    }
+
+    private float addField(Map<String, Float> weights, List<String> terms, float boost) {
+        for (String term : terms) {
+            weights.merge(term, boost, Float::sum);
+        }
+        return terms.size() * boost;
+    }
+
+    /**
+     * Analyzed course: boosted term frequencies, the title and tag terms used for
+     * typo correction, and boosted length.
+     */
+    private record IndexedCourse(Long courseId, Map<String, Float> termWeights, Set<String> fuzzyTerms,
+                                 float length) {
+    }
+
+    /**
+     * One generation of the index. Mutated only under the owning index's lock
+     * (or before publication during a rebuild), read concurrently by searches.
+     */
+    private static final class Segment {
+
+        private final ConcurrentSkipListMap<String, ConcurrentHashMap<Long, Float>> postings = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<Long, IndexedCourse> documents = new ConcurrentHashMap<>();
+        private final DoubleAdder totalLength = new DoubleAdder();
+        private final FuzzyTermIndex fuzzyTerms = new FuzzyTermIndex();
+
+        void put(IndexedCourse document) {
+            remove(document.courseId());
+            document.termWeights().forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(document.courseId(), weight));
+            document.fuzzyTerms().forEach(fuzzyTerms::add);
+            documents.put(document.courseId(), document);
+            totalLength.add(document.length());
+        }
+
+        void remove(Long courseId) {
+            IndexedCourse previous = documents.remove(courseId);
+            if (previous == null) {
+                return;
+            }
+            totalLength.add(-previous.length());
+            previous.fuzzyTerms().forEach(fuzzyTerms::remove);
+            for (String term : previous.termWeights().keySet()) {
+                ConcurrentHashMap<Long, Float> termPostings = postings.get(term);
+                if (termPostings != null) {
+                    termPostings.remove(courseId);
+                    if (termPostings.isEmpty()) {
+                        postings.remove(term, termPostings);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -2,19 +2,34 @@ package com.sociallearning.service;
 
 import com.sociallearning.entity.*;
 import com.sociallearning.enums.CourseDifficulty;
+import com.sociallearning.enums.SlugScope;
 import com.sociallearning.repository.*;
+import com.sociallearning.service.CourseFacetIndex.FacetFilter;
+import com.sociallearning.service.CourseFacetIndex.FacetResult;
+import com.sociallearning.service.CourseFacetIndex.MatchedCourses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.text.Normalizer;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service for handling course operations.
@@ -24,7 +39,8 @@ import java.util.regex.Pattern;
  * - Course publishing and archiving
  * - Course querying with filters
  * - Module and lesson management
- * - Slug generation
+ * - Full-text search (via {@link CourseSearchIndex})
+ * - Slug generation (via {@link SlugAllocator})
  * - Authorization checks
  */
 @Slf4j
@@ -37,11 +53,18 @@ public class CourseService {
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final TagRepository tagRepository;
+    private final CourseSearchIndex courseSearchIndex;
+    private final ViewCounterService viewCounterService;
+    private final TrendingScoreService trendingScoreService;
+    private final CourseRecommender courseRecommender;
+    private final CourseFacetIndex courseFacetIndex;
+    private final SearchAnalyticsService searchAnalyticsService;
+    private final SlugAllocator slugAllocator;
+    private final RowEstimateRepository rowEstimateRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    private static final Pattern NON_LATIN = Pattern.compile("[^\\w-]");
-    private static final Pattern WHITESPACE = Pattern.compile("[\\s]");
-    private static final Pattern MULTIPLE_DASHES = Pattern.compile("-{2,}");
     private static final String COURSE_NOT_FOUND_MSG = "Course not found with ID: ";
+    private static final String FEED_CURSOR = "course";
 
     /**
      * Create a new course.
@@ -68,8 +91,8 @@ public class CourseService {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new IllegalArgumentException("Category not found with ID: " + categoryId));
         
-        // Generate unique slug
-        String slug = generateUniqueSlug(title);
+        // Allocate unique slug
+        String slug = slugAllocator.allocate(SlugScope.COURSE, title);
         
         // Create course
         Course course = Course.builder()
@@ -92,6 +115,7 @@ public class CourseService {
         // Update category course count
         category.setCourseCount(category.getCourseCount() + 1);
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new CourseChangedEvent(course.getId()));
         
         log.info("Course created successfully with ID: {} and slug: {}", course.getId(), course.getSlug());
         return course;
@@ -132,9 +156,12 @@ public class CourseService {
         // Update fields if provided
         if (title != null && !title.equals(course.getTitle())) {
             course.setTitle(title);
-            // Regenerate slug if title changed
-            String newSlug = generateUniqueSlug(title);
-            course.setSlug(newSlug);
+            // Regenerate slug if the title changed its base slug, freeing the old one
+            String previousSlug = course.getSlug();
+            course.setSlug(slugAllocator.reallocate(SlugScope.COURSE, title, previousSlug));
+            if (!course.getSlug().equals(previousSlug)) {
+                slugAllocator.release(SlugScope.COURSE, previousSlug);
+            }
         }
         
         if (description != null) {
@@ -177,6 +204,7 @@ public class CourseService {
         
         // Save updated course
         course = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId));
         log.info("Course updated successfully: {}", courseId);
         
         return course;
@@ -214,8 +242,10 @@ public class CourseService {
             tagRepository.save(tag);
         }
         
-        // Delete course (will cascade to modules and lessons)
+        // Delete course (will cascade to modules and lessons) and free its slug
         courseRepository.delete(course);
+        slugAllocator.release(SlugScope.COURSE, course.getSlug());
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId));
         log.info("Course deleted successfully: {}", courseId);
     }
 
@@ -249,6 +279,7 @@ public class CourseService {
         // Publish course
         course.publish();
         course = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId));
         
         log.info("Course published successfully: {}", courseId);
         return course;
@@ -277,6 +308,7 @@ public class CourseService {
         
         course.unpublish();
         course = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId));
         
         log.info("Course unpublished successfully: {}", courseId);
         return course;
@@ -305,6 +337,7 @@ public class CourseService {
         
         course.archive();
         course = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId));
         
         log.info("Course archived successfully: {}", courseId);
         return course;
@@ -343,6 +376,7 @@ public class CourseService {
         }
         
         course = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId));
         log.info("Tags added to course successfully");
         
         return course;
@@ -381,6 +415,7 @@ public class CourseService {
         }
         
         course = courseRepository.save(course);
+        eventPublisher.publishEvent(new CourseChangedEvent(courseId));
         log.info("Tags removed from course successfully");
         
         return course;
@@ -417,9 +452,9 @@ public class CourseService {
         Course course = courseRepository.findBySlugWithDetails(slug)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found with slug: " + slug));
         
-        // Increment view count
-        course.incrementViewCount();
-        courseRepository.save(course);
+        // Count the view write-behind; the read path never updates the row
+        viewCounterService.recordCourseView(course.getId());
+        trendingScoreService.record(course.getId(), TrendingScoreService.Signal.VIEW);
         
         return course;
     }
@@ -447,7 +482,13 @@ public class CourseService {
     }
 
     /**
-     * Search courses with filters and pagination.
+     * Search courses with filters and pagination, loading only the columns of the projection
+     * and computing the total only as requested.
+     * 
+     * A search term is answered by the ranked full-text index, which always knows its total;
+     * filters alone by the bitmap facet index ({@link CourseFacetIndex}). Until that index is
+     * built, the database filter query pages course IDs. Either way the IDs are hydrated
+     * with {@link #findCourses}.
      * 
      * @param searchTerm Search term (optional)
      * @param categoryId Category ID filter (optional)
@@ -455,22 +496,155 @@ public class CourseService {
      * @param language Language filter (optional)
      * @param minRating Minimum rating filter
      * @param pageable Pagination parameters
-     * @return Page of courses
+     * @param projection Which large text columns the caller needs
+     * @param totals How to obtain the total (a plain Slice is returned for NONE on the filter path)
+     * @return Slice of courses (read-only summaries unless the projection is full), a Page when a total was requested
+     */
+    @Transactional(readOnly = true)
+    public Slice<Course> searchCourses(String searchTerm, Long categoryId, CourseDifficulty difficulty,
+                                       String language, Double minRating, Pageable pageable,
+                                       CourseProjection projection, PageTotals totals) {
+        if (searchTerm != null && !searchTerm.isBlank()) {
+            return searchIndexedCourses(searchTerm, pageable, projection);
+        }
+        
+        if (courseFacetIndex.isReady()) {
+            // The facet index knows the exact total at no extra cost
+            MatchedCourses result = courseFacetIndex.queryIds(
+                    FacetFilter.of(categoryId, difficulty, language, minRating),
+                    pageable.getOffset(), pageable.getPageSize());
+            return new PageImpl<>(findCourses(result.courseIds(), projection), pageable, result.total());
+        }
+        
+        double ratingFloor = minRating != null ? minRating : 0.0;
+        Slice<Long> ids = switch (totals) {
+            case EXACT -> courseRepository.findCourseIdsWithFilters(
+                    categoryId, difficulty, language, ratingFloor, pageable);
+            case NONE -> courseRepository.findCourseIdSliceWithFilters(
+                    categoryId, difficulty, language, ratingFloor, pageable);
+            case ESTIMATED -> PageTotals.withEstimatedTotal(
+                    courseRepository.findCourseIdSliceWithFilters(categoryId, difficulty, language, ratingFloor, pageable),
+                    () -> rowEstimateRepository.estimateFilteredCourses(categoryId, difficulty, language, ratingFloor));
+        };
+        
+        List<Course> courses = findCourses(ids.getContent(), projection);
+        return ids instanceof Page<Long> idPage
+                ? new PageImpl<>(courses, pageable, idPage.getTotalElements())
+                : new SliceImpl<>(courses, pageable, ids.hasNext());
+    }
+
+    /**
+     * Filter the catalog by facets and count the facet values of the result
+     * (the Discover page: "Beginner (412)").
+     * 
+     * @param filter Facet selection
+     * @param pageable Pagination parameters
+     * @param projection Which large text columns the caller needs
+     * @return Page of courses in catalog order with the facet counts
+     * @throws IllegalStateException if the facet index is not built yet
+     */
+    @Transactional(readOnly = true)
+    public FacetedCourses discoverCourses(FacetFilter filter, Pageable pageable, CourseProjection projection) {
+        FacetResult result = courseFacetIndex.query(filter, pageable.getOffset(), pageable.getPageSize());
+        Page<Course> courses = new PageImpl<>(findCourses(result.courseIds(), projection), pageable, result.total());
+        return new FacetedCourses(courses, result.facets());
+    }
+
+    /**
+     * Get one window of filtered courses in feed order (highest rated, then most enrolled),
+     * starting after a cursor. Keyset pagination: the sort keys are paged first, so a window
+     * costs the same at any depth, then hydrated with {@link #findCourses}.
+     * 
+     * @param categoryId Category ID filter (optional)
+     * @param difficulty Difficulty filter (optional)
+     * @param language Language filter (optional)
+     * @param minRating Minimum rating filter
+     * @param first Maximum number of courses
+     * @param after Cursor of the last course already seen (null for the first window)
+     * @param projection Which large text columns the caller needs
+     * @return Window of courses (read-only summaries unless the projection is full)
+     */
+    @Transactional(readOnly = true)
+    public KeysetWindow<Course> getCourseFeed(Long categoryId, CourseDifficulty difficulty, String language,
+                                              Double minRating, int first, String after,
+                                              CourseProjection projection) {
+        double ratingFloor = minRating != null ? minRating : 0.0;
+        List<Object[]> rows;
+        if (after == null) {
+            rows = courseRepository.findCourseFeedKeys(categoryId, difficulty, language, ratingFloor, first + 1);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after, FEED_CURSOR, 3);
+            rows = courseRepository.findCourseFeedKeysAfter(categoryId, difficulty, language, ratingFloor,
+                    cursor.getBigDecimal(0), cursor.getInteger(1), cursor.getLong(2), first + 1);
+        }
+        
+        KeysetWindow<Object[]> keys = KeysetWindow.of(rows, first,
+                row -> KeysetCursor.encode(FEED_CURSOR, row[1], row[2], row[0]));
+        Map<Long, String> cursorsById = new HashMap<>();
+        for (int i = 0; i < keys.items().size(); i++) {
+            cursorsById.put((Long) keys.items().get(i)[0], keys.cursors().get(i));
+        }
+        
+        List<Course> courses = findCourses(keys.items().stream().map(row -> (Long) row[0]).toList(), projection);
+        return new KeysetWindow<>(courses, courses.stream().map(course -> cursorsById.get(course.getId())).toList(),
+                keys.hasNext());
+    }
+
+    /**
+     * Resolve one page of ranked search hits to courses, keeping index order.
+     * 
+     * @param searchTerm Search term
+     * @param pageable Pagination parameters
+     * @param projection Which large text columns the caller needs
+     * @return Page of courses ordered by relevance
+     */
+    private Page<Course> searchIndexedCourses(String searchTerm, Pageable pageable, CourseProjection projection) {
+        List<Long> rankedIds = courseSearchIndex.search(searchTerm);
+        if (pageable.getPageNumber() == 0) {
+            // Count each search once, not once per page
+            searchAnalyticsService.record(searchTerm, rankedIds.isEmpty());
+        }
+        
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+        
+        return new PageImpl<>(findCourses(pageIds, projection), pageable, rankedIds.size());
+    }
+
+    /**
+     * Load courses by ID in the given order, skipping IDs that no longer exist.
+     * 
+     * Unless the projection is full, the returned courses are detached read-only summaries
+     * built from a column projection: requirements and learning outcomes are null (and the
+     * description too if not requested), creator and category are uninitialized references.
+     * Summaries must never be saved.
+     * 
+     * @param ids Course IDs in result order
+     * @param projection Which large text columns the caller needs
+     * @return Courses in the order of {@code ids}
      */
     @Transactional(readOnly = true)
-    public Page<Course> searchCourses(String searchTerm, Long categoryId, CourseDifficulty difficulty,
-                                      String language, Double minRating, Pageable pageable) {
-        if (searchTerm != null && !searchTerm.isEmpty()) {
-            return courseRepository.searchCourses(searchTerm, pageable);
+    public List<Course> findCourses(List<Long> ids, CourseProjection projection) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        
+        List<Course> loaded;
+        if (projection.details()) {
+            loaded = courseRepository.findAllById(ids);
         } else {
-            return courseRepository.findCoursesWithFilters(
-                    categoryId, 
-                    difficulty, 
-                    language, 
-                    minRating != null ? minRating : 0.0, 
-                    pageable
-            );
+            loaded = courseRepository.findCourseSummariesByIds(ids, projection.description()).stream()
+                    .map(this::toCourseSummary)
+                    .toList();
         }
+        
+        Map<Long, Course> coursesById = loaded.stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+        return ids.stream()
+                .map(coursesById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     /**
@@ -492,7 +666,40 @@ public class CourseService {
      */
     @Transactional(readOnly = true)
     public List<Course> findTrendingCourses(int limit) {
-        return courseRepository.findTrendingCourses(limit);
+        return findCourses(findTrendingCourseIds(limit), CourseProjection.FULL);
+    }
+
+    /**
+     * Get trending course IDs: published courses ranked by time-decayed activity
+     * ({@link TrendingScoreService}). While too few courses have recent activity
+     * (e.g. a quiet catalog), the list is padded with the lifetime ranking.
+     * 
+     * @param limit Number of course IDs to return
+     * @return Trending course IDs, most trending first
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findTrendingCourseIds(int limit) {
+        List<Long> ranked = trendingScoreService.getTopCourseIds();
+        Set<Long> published = ranked.isEmpty() ? Set.of() : new HashSet<>(courseRepository.findPublishedIdsIn(ranked));
+        
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long id : ranked) {
+            if (ids.size() == limit) {
+                break;
+            }
+            if (published.contains(id)) {
+                ids.add(id);
+            }
+        }
+        if (ids.size() < limit) {
+            for (Long id : courseRepository.findTrendingCourseIds(limit)) {
+                if (ids.size() == limit) {
+                    break;
+                }
+                ids.add(id);
+            }
+        }
+        return List.copyOf(ids);
     }
 
     /**
@@ -521,15 +728,18 @@ public class CourseService {
     /**
      * Get featured courses.
      * 
+     * @param limit Number of courses to return
      * @return List of featured courses
      */
     @Transactional(readOnly = true)
-    public List<Course> findFeaturedCourses() {
-        return courseRepository.findFeaturedCourses();
+    public List<Course> findFeaturedCourses(int limit) {
+        return courseRepository.findFeaturedCourses(limit);
     }
 
     /**
-     * Get recommended courses based on a course.
+     * Get recommended courses based on a course: courses its learners also took
+     * ({@link CourseRecommender}), padded with the best-rated courses of the same
+     * category when the course has too few co-enrollments (e.g. a new course).
      * 
      * @param courseId Course ID to base recommendations on
      * @param limit Number of recommendations
@@ -540,70 +750,26 @@ public class CourseService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new IllegalArgumentException(COURSE_NOT_FOUND_MSG + courseId));
         
-        return courseRepository.findRecommendedCoursesByCategory(
-                course.getCategory().getId(), 
-                courseId, 
-                limit
-        );
-    }
-
-    /**
-     * Generate a unique slug from a title.
-     * 
-     * @param title Course title
-     * @return Unique slug
-     */
-    private String generateUniqueSlug(String title) {
-        String baseSlug = toSlug(title);
-        String slug = baseSlug;
-        int counter = 1;
-        
-        // Keep trying with incrementing counter until we find a unique slug
-        while (courseRepository.existsBySlug(slug)) {
-            slug = baseSlug + "-" + counter;
-            counter++;
-        }
-        
-        return slug;
-    }
-
-    /**
-     * Convert a string to a URL-friendly slug.
-     * 
-     * @param input Input string
-     * @return Slug
-     */
-    private String toSlug(String input) {
-        if (input == null) {
-            return "";
-        }
-        
-        // Normalize string (remove accents)
-        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
-        
-        // Convert to lowercase
-        String lowercase = normalized.toLowerCase(Locale.ENGLISH);
-        
-        // Replace whitespace with dashes
-        String withDashes = WHITESPACE.matcher(lowercase).replaceAll("-");
-        
-        // Remove non-latin characters
-        String slug = NON_LATIN.matcher(withDashes).replaceAll("");
-        
-        // Remove multiple consecutive dashes
-        slug = MULTIPLE_DASHES.matcher(slug).replaceAll("-");
-        
-        // Remove leading/trailing dashes
-        slug = slug.replaceAll("(^-)|(-$)", "");
-        
-        // Limit length to 200 characters
-        if (slug.length() > 200) {
-            slug = slug.substring(0, 200);
-            // Remove trailing dash if any
-            slug = slug.replaceAll("-$", "");
+        List<Long> similar = courseRecommender.getSimilarCourseIds(courseId);
+        List<Long> ids = similar.isEmpty() ? List.of() : courseRepository.findPublishedIdsIn(similar);
+        // Keep the similarity order; the ID query returns an unordered subset
+        Set<Long> published = new HashSet<>(ids);
+        List<Long> ranked = similar.stream().filter(published::contains).limit(limit).toList();
+        
+        List<Course> recommended = new ArrayList<>(findCourses(ranked, CourseProjection.FULL));
+        if (recommended.size() < limit) {
+            Set<Long> seen = new HashSet<>(ranked);
+            for (Course candidate : courseRepository.findRecommendedCoursesByCategory(
+                    course.getCategory().getId(), courseId, limit)) {
+                if (recommended.size() == limit) {
+                    break;
+                }
+                if (seen.add(candidate.getId())) {
+                    recommended.add(candidate);
+                }
+            }
         }
-        
-        return slug;
+        return recommended;
     }
 
     /**
@@ -671,4 +837,58 @@ public class CourseService {
         
         log.info("Decremented enrollment count for course {}", courseId);
     }
+
+    // ============================================
+    // Helper Methods
+    // ============================================
+
+    /**
+     * Build a detached course from a {@link CourseRepository#findCourseSummariesByIds} row.
+     */
+    private Course toCourseSummary(Object[] row) {
+        return Course.builder()
+                .id((Long) row[0])
+                .title((String) row[1])
+                .slug((String) row[2])
+                .description((String) row[3])
+                .thumbnailUrl((String) row[4])
+                .creator(userRepository.getReferenceById((Long) row[5]))
+                .category(categoryRepository.getReferenceById((Long) row[6]))
+                .difficulty((CourseDifficulty) row[7])
+                .totalDurationMinutes((Integer) row[8])
+                .language((String) row[9])
+                .enrollmentCount((Integer) row[10])
+                .ratingCount((Integer) row[11])
+                .averageRating((BigDecimal) row[12])
+                .viewCount((Integer) row[13])
+                .commentCount((Integer) row[14])
+                .likeCount((Integer) row[15])
+                .published((Boolean) row[16])
+                .draft((Boolean) row[17])
+                .archived((Boolean) row[18])
+                .featured((Boolean) row[19])
+                .publishedAt((LocalDateTime) row[20])
+                .createdAt((LocalDateTime) row[21])
+                .updatedAt((LocalDateTime) row[22])
+                .build();
+    }
+
+    /**
+     * Which large text columns of a course a caller needs.
+     * 
+     * @param description Whether the description is needed
+     * @param details Whether requirements and learning outcomes are needed (loads full entities)
+     */
+    public record CourseProjection(boolean description, boolean details) {
+        public static final CourseProjection FULL = new CourseProjection(true, true);
+    }
+
+    /**
+     * One page of a facet query.
+     * 
+     * @param courses Page of matching courses
+     * @param facets Facet counts of the whole result
+     */
+    public record FacetedCourses(Page<Course> courses, CourseFacetIndex.Facets facets) {
+    }
 }
@@ -0,0 +1,13 @@
+package com.sociallearning.service;
+
+/**
+ * Application event published by {@link EnrollmentService} when a learner enrolls in a course.
+ *
+ * Listeners that keep derived read models in sync (recommendations, per-user caches)
+ * should consume it with {@code @TransactionalEventListener} so they only see committed data.
+ *
+ * @param userId ID of the enrolled learner
+ * @param courseId ID of the course
+ */
+public record EnrollmentCreatedEvent(Long userId, Long courseId) {
+}
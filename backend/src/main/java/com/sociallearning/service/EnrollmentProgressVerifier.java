@@ -0,0 +1,85 @@
+package com.sociallearning.service;
+
+import com.sociallearning.repository.EnrollmentRepository;
+import com.sociallearning.repository.LessonCompletionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Background verification of the incrementally maintained enrollment progress counters.
+ *
+ * Provides:
+ * - A scheduled full pass that compares every enrollment's completed lessons, total lessons
+ *   and watch time with its completion bitmap, the course's lessons and its progress rows
+ * - Repair of the enrollments that drifted (lessons added or removed since enrollment,
+ *   counters written before they were maintained incrementally)
+ *
+ * Detection runs in unlocked, set-based batches; each suspect enrollment is then recounted
+ * under a row lock by {@link EnrollmentService#verifyProgress(Long)}.
+ */
+@Slf4j
+@Service
+public class EnrollmentProgressVerifier {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final LessonCompletionRepository lessonCompletionRepository;
+    private final EnrollmentService enrollmentService;
+    private final Counter repairedCounter;
+
+    public EnrollmentProgressVerifier(EnrollmentRepository enrollmentRepository,
+                                      LessonCompletionRepository lessonCompletionRepository,
+                                      EnrollmentService enrollmentService,
+                                      MeterRegistry meterRegistry) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.lessonCompletionRepository = lessonCompletionRepository;
+        this.enrollmentService = enrollmentService;
+        this.repairedCounter = Counter.builder("enrollment_progress.repaired")
+                .description("Enrollment progress counters recounted after drift was detected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Compare every enrollment's counters with its progress and repair drifted ones.
+     *
+     * @return Number of repaired enrollments
+     */
+    @Scheduled(cron = "${app.progress.verify-cron:0 0 4 * * *}")
+    public int verifyAll() {
+        long start = System.currentTimeMillis();
+        int checked = 0;
+        int repaired = 0;
+        Long afterId = 0L;
+
+        while (true) {
+            List<Long> enrollmentIds = enrollmentRepository.findIdsAfter(afterId, BATCH_SIZE);
+            if (enrollmentIds.isEmpty()) {
+                break;
+            }
+
+            for (Long enrollmentId : lessonCompletionRepository.findDriftedEnrollmentIds(enrollmentIds)) {
+                try {
+                    if (enrollmentService.verifyProgress(enrollmentId)) {
+                        repaired++;
+                        repairedCounter.increment();
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to verify progress for enrollment {}", enrollmentId, e);
+                }
+            }
+
+            checked += enrollmentIds.size();
+            afterId = enrollmentIds.get(enrollmentIds.size() - 1);
+        }
+
+        log.info("Enrollment progress verification finished: checked={}, repaired={}, took {} ms",
+                checked, repaired, System.currentTimeMillis() - start);
+        return repaired;
+    }
+}
@@ -2,8 +2,6 @@ package com.sociallearning.service;
 
 import com.sociallearning.entity.Course;
 import com.sociallearning.entity.Enrollment;
-import com.sociallearning.entity.Lesson;
-import com.sociallearning.entity.Progress;
 import com.sociallearning.entity.User;
 import com.sociallearning.repository.CourseRepository;
 import com.sociallearning.repository.EnrollmentRepository;
@@ -12,10 +10,12 @@ import com.sociallearning.repository.ProgressRepository;
 import com.sociallearning.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -23,8 +23,9 @@ import java.util.List;
  *
  * Provides business logic for:
  * - Enrolling a learner in a course
- * - Creating initial lesson progress records
- * - Calculating and updating enrollment progress
+ * - Applying lesson completions to the enrollment counters incrementally
+ * - Applying merged offline progress once per enrollment
+ * - Recounting enrollment progress (via {@link LessonProgressStore}) and repairing drift
  */
 @Slf4j
 @Service
@@ -36,6 +37,9 @@ public class EnrollmentService {
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final LessonRepository lessonRepository;
+    private final TrendingScoreService trendingScoreService;
+    private final LessonProgressStore lessonProgressStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String ENROLLMENT_NOT_FOUND_MSG = "Enrollment not found with ID: ";
 
@@ -44,7 +48,8 @@ public class EnrollmentService {
      *
      * Business rules:
      * - A learner can only have one enrollment per course
-     * - Progress records are pre-created for all course lessons
+     * - No per-lesson progress records are created; completion starts as an empty bitmap
+     *   and records are added for lessons the learner touches
      * - Enrollment progress is initialized to 0%
      *
      * @param userId Learner ID
@@ -66,33 +71,64 @@ public class EnrollmentService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found with ID: " + courseId));
 
-        List<Lesson> lessons = lessonRepository.findByCourseId(courseId);
+        long lessonCount = lessonRepository.countByCourseId(courseId);
 
         Enrollment enrollment = Enrollment.builder()
                 .user(user)
                 .course(course)
                 .build();
 
-        enrollment.initializeLessonProgress(lessons.size());
+        enrollment.initializeLessonProgress((int) lessonCount);
         enrollment.markAccessed();
         enrollment = enrollmentRepository.save(enrollment);
 
-        if (!lessons.isEmpty()) {
-            List<Progress> progressRecords = createInitialProgressRecords(enrollment, lessons);
-            progressRepository.saveAll(progressRecords);
-        }
-
         course.incrementEnrollmentCount();
         courseRepository.save(course);
+        trendingScoreService.record(courseId, TrendingScoreService.Signal.ENROLLMENT);
+        eventPublisher.publishEvent(new EnrollmentCreatedEvent(userId, courseId));
 
-        log.info("Enrollment created successfully with ID: {} ({} lessons initialized)",
-                enrollment.getId(), lessons.size());
+        log.info("Enrollment created successfully with ID: {} ({} lessons)",
+                enrollment.getId(), lessonCount);
 
         return enrollment;
     }
 
     /**
-     * Calculate and persist enrollment progress percentage.
+     * Apply one lesson's not-completed to completed transition to an enrollment
+     * loaded with {@link #getEnrollmentForUpdate(Long, Long)}: an O(1) counter update
+     * in the caller's transaction instead of recounting the whole course.
+     *
+     * @param enrollment Locked enrollment
+     * @return Updated enrollment
+     */
+    @Transactional
+    public Enrollment applyLessonCompleted(Enrollment enrollment) {
+        enrollment.applyLessonCompleted();
+        enrollment.markAccessed();
+        return enrollmentRepository.save(enrollment);
+    }
+
+    /**
+     * Apply merged offline progress to an enrollment loaded with
+     * {@link #getEnrollmentsForUpdate(Long, Collection)}, once per enrollment and sync.
+     *
+     * @param enrollment Locked enrollment
+     * @param completedLessons Lessons that became completed
+     * @param watchedSeconds Added watch time
+     * @param lastAccessedAt Time of the latest synced event
+     * @return Updated enrollment
+     */
+    @Transactional
+    public Enrollment applySyncedProgress(Enrollment enrollment, int completedLessons, long watchedSeconds,
+                                          LocalDateTime lastAccessedAt) {
+        enrollment.markAccessedAt(lastAccessedAt);
+        enrollment.applyLessonsCompleted(completedLessons);
+        enrollment.addWatchTime(watchedSeconds);
+        return enrollmentRepository.save(enrollment);
+    }
+
+    /**
+     * Recount and persist enrollment progress from the completion bitmap and progress rows.
      *
      * @param enrollmentId Enrollment ID
      * @return Updated enrollment
@@ -100,18 +136,10 @@ public class EnrollmentService {
      */
     @Transactional
     public Enrollment calculateProgress(Long enrollmentId) {
-        Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
+        Enrollment enrollment = enrollmentRepository.findByIdForUpdate(enrollmentId)
                 .orElseThrow(() -> new IllegalArgumentException(ENROLLMENT_NOT_FOUND_MSG + enrollmentId));
 
-        long totalLessons = progressRepository.countByEnrollmentId(enrollmentId);
-        long completedLessons = progressRepository.countByEnrollmentIdAndCompletedTrue(enrollmentId);
-
-        enrollment.updateProgress((int) completedLessons, (int) totalLessons);
-
-        Integer totalWatchTimeSeconds = progressRepository.getTotalWatchTimeByEnrollmentId(enrollmentId);
-        int totalWatchTimeMinutes = totalWatchTimeSeconds != null ? totalWatchTimeSeconds / 60 : 0;
-        enrollment.setTimeSpentMinutes(Math.max(totalWatchTimeMinutes, 0));
-
+        recount(enrollment);
         enrollment = enrollmentRepository.save(enrollment);
 
         log.debug("Enrollment progress recalculated: enrollmentId={}, completed={}/{}, progress={}%%",
@@ -123,6 +151,48 @@ public class EnrollmentService {
         return enrollment;
     }
 
+    /**
+     * Recount an enrollment's progress under a row lock and repair the incrementally
+     * maintained counters if they drifted.
+     *
+     * @param enrollmentId Enrollment ID
+     * @return true if the counters were repaired
+     */
+    @Transactional
+    public boolean verifyProgress(Long enrollmentId) {
+        Enrollment enrollment = enrollmentRepository.findByIdForUpdate(enrollmentId).orElse(null);
+        if (enrollment == null) {
+            return false;
+        }
+        int completedLessons = enrollment.getCompletedLessons();
+        int totalLessons = enrollment.getTotalLessons();
+        long watchTimeSeconds = enrollment.getWatchTimeSeconds();
+
+        recount(enrollment);
+        if (completedLessons == enrollment.getCompletedLessons()
+                && totalLessons == enrollment.getTotalLessons()
+                && watchTimeSeconds == enrollment.getWatchTimeSeconds()) {
+            return false;
+        }
+
+        enrollmentRepository.save(enrollment);
+        log.warn("Enrollment progress drift repaired: enrollmentId={}, completed {} -> {}, total {} -> {}, " +
+                        "watchTime {}s -> {}s",
+                enrollmentId, completedLessons, enrollment.getCompletedLessons(),
+                totalLessons, enrollment.getTotalLessons(), watchTimeSeconds, enrollment.getWatchTimeSeconds());
+        return true;
+    }
+
+    private void recount(Enrollment enrollment) {
+        LessonProgressStore.LessonCounts lessons =
+                lessonProgressStore.countLessons(enrollment.getId(), enrollment.getCourse().getId());
+        enrollment.updateProgress(lessons.completed(), lessons.total());
+
+        Integer totalWatchTimeSeconds = progressRepository.getTotalWatchTimeByEnrollmentId(enrollment.getId());
+        enrollment.setWatchTimeSeconds(totalWatchTimeSeconds != null ? Math.max(totalWatchTimeSeconds, 0) : 0L);
+        enrollment.setTimeSpentMinutes((int) (enrollment.getWatchTimeSeconds() / 60));
+    }
+
     /**
      * Get all enrollments for a learner, newest first.
      *
@@ -149,20 +219,35 @@ public class EnrollmentService {
                         "Enrollment not found for user " + userId + " and course " + courseId));
     }
 
-    private List<Progress> createInitialProgressRecords(Enrollment enrollment, List<Lesson> lessons) {
-        List<Progress> progressRecords = new ArrayList<>(lessons.size());
-
-        for (Lesson lesson : lessons) {
-            Progress progress = Progress.builder()
-                    .enrollment(enrollment)
-                    .user(enrollment.getUser())
-                    .lesson(lesson)
-                    .completed(false)
-                    .build();
+    /**
+     * Get and row-lock a learner enrollment for a progress update.
+     * Must run inside the caller's transaction so the lock covers the update.
+     *
+     * @param userId Learner ID
+     * @param courseId Course ID
+     * @return Locked enrollment
+     * @throws IllegalArgumentException if enrollment not found
+     */
+    @Transactional
+    public Enrollment getEnrollmentForUpdate(Long userId, Long courseId) {
+        return enrollmentRepository.findByUserIdAndCourseIdForUpdate(userId, courseId)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Enrollment not found for user " + userId + " and course " + courseId));
+    }
 
-            progressRecords.add(progress);
+    /**
+     * Get and row-lock a learner's enrollments in several courses, in ID order.
+     * Must run inside the caller's transaction so the locks cover the update.
+     *
+     * @param userId Learner ID
+     * @param courseIds Course IDs
+     * @return Locked enrollments (courses the learner is not enrolled in are absent)
+     */
+    @Transactional
+    public List<Enrollment> getEnrollmentsForUpdate(Long userId, Collection<Long> courseIds) {
+        if (courseIds.isEmpty()) {
+            return List.of();
         }
-
-        return progressRecords;
+        return enrollmentRepository.findByUserIdAndCourseIdInForUpdate(userId, courseIds);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,210 @@
+package com.sociallearning.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trigram index over the vocabulary of course titles and tag names, used to correct
+ * misspelled search terms ("javscript" -> "javascript").
+ *
+ * Candidates are terms of a close length sharing enough trigrams with the query term;
+ * they are verified with a bounded Levenshtein distance (1 edit for short terms, 2 otherwise)
+ * and ranked by distance, then by how many courses use the term.
+ *
+ * Mutations must be serialized by the owner; lookups may run concurrently with them.
+ */
+final class FuzzyTermIndex {
+
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int TWO_EDITS_MIN_LENGTH = 5;
+    private static final char PAD = '$';
+
+    /** Term -> number of indexed courses using it */
+    private final ConcurrentHashMap<String, Integer> documentFrequency = new ConcurrentHashMap<>();
+    /** Trigram followed by a term length ("$ja4") -> terms of that length containing the trigram */
+    private final ConcurrentHashMap<String, Set<String>> termsByGram = new ConcurrentHashMap<>();
+
+    /**
+     * Count one more course using a term.
+     *
+     * @param term Normalized term
+     */
+    void add(String term) {
+        if (term.length() < MIN_TERM_LENGTH) {
+            return;
+        }
+        if (documentFrequency.merge(term, 1, Integer::sum) == 1) {
+            for (String gram : grams(term)) {
+                termsByGram.computeIfAbsent(gram + term.length(), g -> ConcurrentHashMap.newKeySet()).add(term);
+            }
+        }
+    }
+
+    /**
+     * Count one course less using a term; the term is dropped when no course uses it.
+     *
+     * @param term Normalized term
+     */
+    void remove(String term) {
+        Integer remaining = documentFrequency.computeIfPresent(term, (t, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null && term.length() >= MIN_TERM_LENGTH) {
+            for (String gram : grams(term)) {
+                String key = gram + term.length();
+                Set<String> terms = termsByGram.get(key);
+                if (terms != null) {
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        termsByGram.remove(key, terms);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the closest known terms to a (misspelled) term.
+     *
+     * @param term Normalized query term
+     * @param limit Maximum number of corrections
+     * @return Corrections, closest and most used first (empty if the term is known or nothing is close)
+     */
+    List<Correction> correct(String term, int limit) {
+        if (term.length() < MIN_TERM_LENGTH || documentFrequency.containsKey(term)) {
+            return List.of();
+        }
+        int maxEdits = term.length() >= TWO_EDITS_MIN_LENGTH ? 2 : 1;
+
+        // One edit changes at most three trigrams of the padded term
+        List<String> queryGrams = grams(term);
+        int minShared = Math.max(1, queryGrams.size() - 3 * maxEdits);
+
+        List<Correction> corrections = new ArrayList<>();
+        int maxLength = term.length() + maxEdits;
+        for (int length = Math.max(MIN_TERM_LENGTH, term.length() - maxEdits); length <= maxLength; length++) {
+            collectCorrections(term, queryGrams, length, minShared, maxEdits, corrections);
+        }
+
+        corrections.sort(Comparator.comparingInt(Correction::distance)
+                .thenComparing(Comparator.comparingInt(Correction::documentFrequency).reversed())
+                .thenComparing(Correction::term));
+        return corrections.size() > limit ? List.copyOf(corrections.subList(0, limit)) : corrections;
+    }
+
+    /**
+     * Add the terms of one length within {@code maxEdits} of the query term.
+     *
+     * A term sharing {@code minShared} of the n query trigrams is in at least one of the
+     * n - minShared + 1 smallest posting sets, so only those are scanned for candidates;
+     * the larger ones are only probed for the candidates found.
+     */
+    private void collectCorrections(String term, List<String> queryGrams, int length, int minShared,
+                                    int maxEdits, List<Correction> corrections) {
+        List<Posting> postings = new ArrayList<>(queryGrams.size());
+        for (String gram : queryGrams) {
+            Set<String> terms = termsByGram.getOrDefault(gram + length, Set.of());
+            postings.add(new Posting(terms, terms.size()));
+        }
+        // Sizes are read once, as sets may change while they are sorted
+        postings.sort(Comparator.comparingInt(Posting::size));
+        int scanned = postings.size() - minShared + 1;
+
+        Map<String, Integer> shared = new HashMap<>();
+        for (int i = 0; i < scanned; i++) {
+            for (String candidate : postings.get(i).terms()) {
+                shared.merge(candidate, 1, Integer::sum);
+            }
+        }
+
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            String candidate = entry.getKey();
+            int count = entry.getValue();
+            for (int i = scanned; i < postings.size() && count < minShared; i++) {
+                if (postings.get(i).terms().contains(candidate)) {
+                    count++;
+                }
+            }
+            if (count < minShared) {
+                continue;
+            }
+            int distance = boundedDistance(term, candidate, maxEdits);
+            if (distance <= maxEdits) {
+                corrections.add(new Correction(candidate, distance, documentFrequency.getOrDefault(candidate, 0)));
+            }
+        }
+    }
+
+    /**
+     * Distinct trigrams of the term padded with two leading and one trailing marker,
+     * so that prefixes weigh more than inner characters.
+     */
+    private static List<String> grams(String term) {
+        String padded = "" + PAD + PAD + term + PAD;
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return new ArrayList<>(grams);
+    }
+
+    /**
+     * Levenshtein distance computed on a diagonal band of width {@code 2 * max + 1};
+     * returns {@code max + 1} as soon as the distance is known to exceed {@code max}.
+     */
+    static int boundedDistance(String a, String b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) {
+            return max + 1;
+        }
+        int outside = max + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= max ? j : outside;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(m, i + max);
+            current[0] = i <= max ? i : outside;
+            if (from > 1) {
+                current[from - 1] = outside;
+            }
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                current[j] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < m) {
+                current[to + 1] = outside;
+            }
+            if (rowMin > max) {
+                return outside;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+
+    /**
+     * A known term close to the query term.
+     *
+     * @param term Known term
+     * @param distance Edit distance to the query term
+     * @param documentFrequency Number of courses using the term
+     */
+    record Correction(String term, int distance, int documentFrequency) {
+    }
+
+    private record Posting(Set<String> terms, int size) {
+    }
+}
@@ -0,0 +1,127 @@
+package com.sociallearning.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-memory frequency sketch for strings: a count-min sketch estimates the count of
+ * any term, and a bounded candidate table keeps the terms with the highest estimates.
+ *
+ * Memory does not depend on the number of distinct terms: {@code depth * width} counters
+ * plus at most {@code capacity} candidates. Estimates never undercount; they overcount by
+ * at most about {@code e * total / width} with probability {@code 1 - e^-depth}.
+ *
+ * Not thread-safe; the owner serializes access.
+ */
+final class HeavyHitterSketch {
+
+    private final int depth;
+    private final int width;
+    private final long[][] counters;
+    private final int capacity;
+    private final Map<String, Long> candidates;
+    private long total;
+    private String minimumTerm;
+    private long minimumCount;
+
+    HeavyHitterSketch(int depth, int width, int capacity) {
+        if (depth < 1 || width < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Sketch dimensions must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new long[depth][width];
+        this.capacity = capacity;
+        this.candidates = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Count one occurrence of a term.
+     *
+     * @param term Term
+     */
+    void add(String term) {
+        total++;
+        long estimate = Long.MAX_VALUE;
+        long hash = hash(term);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            int column = Math.floorMod(h1 + row * h2, width);
+            estimate = Math.min(estimate, ++counters[row][column]);
+        }
+        offer(term, estimate);
+    }
+
+    private void offer(String term, long estimate) {
+        if (candidates.containsKey(term)) {
+            candidates.put(term, estimate);
+            if (term.equals(minimumTerm)) {
+                findMinimum();
+            }
+            return;
+        }
+        if (candidates.size() < capacity) {
+            candidates.put(term, estimate);
+            if (minimumTerm == null || estimate < minimumCount) {
+                minimumTerm = term;
+                minimumCount = estimate;
+            }
+            return;
+        }
+        if (estimate > minimumCount) {
+            candidates.remove(minimumTerm);
+            candidates.put(term, estimate);
+            findMinimum();
+        }
+    }
+
+    private void findMinimum() {
+        minimumTerm = null;
+        minimumCount = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            if (entry.getValue() < minimumCount) {
+                minimumTerm = entry.getKey();
+                minimumCount = entry.getValue();
+            }
+        }
+    }
+
+    /**
+     * The most frequent terms seen so far.
+     *
+     * @param limit Maximum number of terms
+     * @return Terms with their estimated counts, highest first
+     */
+    List<Map.Entry<String, Long>> top(int limit) {
+        return candidates.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Number of terms counted.
+     *
+     * @return Total count
+     */
+    long total() {
+        return total;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, split into two 32-bit hashes for double hashing.
+     */
+    private static long hash(String term) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : term.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash | 1L << 32;
+    }
+}
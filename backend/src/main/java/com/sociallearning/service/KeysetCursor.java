@@ -0,0 +1,115 @@
+package com.sociallearning.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.StringJoiner;
+
+/**
+ * Opaque cursor for keyset pagination.
+ *
+ * A cursor holds the sort key values of the last row a client has seen (always ending
+ * with the row ID as tie-breaker), prefixed with the feed it belongs to so a cursor of
+ * one feed is rejected by another. It is Base64 encoded so clients treat it as opaque.
+ *
+ * Example: ("comment", true, 2024-05-01T10:15:30.123456, 42) for the comment feed.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String[] values;
+
+    private KeysetCursor(String[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Encode the sort key of a row.
+     *
+     * @param feed Feed the cursor belongs to
+     * @param keys Sort key values in ORDER BY order, ending with the row ID
+     * @return Opaque cursor
+     */
+    public static String encode(String feed, Object... keys) {
+        StringJoiner joiner = new StringJoiner(SEPARATOR);
+        joiner.add(feed);
+        for (Object key : keys) {
+            if (key == null) {
+                throw new IllegalArgumentException("Keyset cursor values must not be null");
+            }
+            joiner.add(key instanceof BigDecimal decimal ? decimal.toPlainString() : key.toString());
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor produced by {@link #encode}.
+     *
+     * @param cursor Opaque cursor from the client
+     * @param feed Feed the cursor must belong to
+     * @param size Expected number of sort key values
+     * @return Decoded cursor
+     * @throws IllegalArgumentException if the cursor is malformed or belongs to another feed
+     */
+    public static KeysetCursor decode(String cursor, String feed, int size) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        String[] parts = decoded.split("\\" + SEPARATOR, -1);
+        if (parts.length != size + 1 || !parts[0].equals(feed)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        String[] values = new String[size];
+        System.arraycopy(parts, 1, values, 0, size);
+        return new KeysetCursor(values);
+    }
+
+    public Long getLong(int index) {
+        try {
+            return Long.valueOf(values[index]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public Integer getInteger(int index) {
+        try {
+            return Integer.valueOf(values[index]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public BigDecimal getBigDecimal(int index) {
+        try {
+            return new BigDecimal(values[index]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public Boolean getBoolean(int index) {
+        return switch (values[index]) {
+            case "true" -> Boolean.TRUE;
+            case "false" -> Boolean.FALSE;
+            default -> throw new IllegalArgumentException("Invalid cursor");
+        };
+    }
+
+    public LocalDateTime getDateTime(int index) {
+        try {
+            return LocalDateTime.parse(values[index]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.sociallearning.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One window of a keyset-paginated feed.
+ *
+ * @param items Rows of the window in feed order
+ * @param cursors Cursor of each row (same order as items); a client continues after any of them
+ * @param hasNext Whether more rows follow the last one
+ * @param <T> Row type
+ */
+public record KeysetWindow<T>(List<T> items, List<String> cursors, boolean hasNext) {
+
+    /**
+     * Build a window from rows fetched with a limit of {@code size + 1}; the extra row
+     * only tells whether a next window exists.
+     *
+     * @param rows Fetched rows
+     * @param size Requested window size
+     * @param cursorOf Cursor of a row
+     * @return Window of at most {@code size} rows
+     */
+    public static <T> KeysetWindow<T> of(List<T> rows, int size, Function<? super T, String> cursorOf) {
+        List<T> items = rows.size() > size ? rows.subList(0, size) : rows;
+        return new KeysetWindow<>(List.copyOf(items), items.stream().map(cursorOf).toList(), rows.size() > size);
+    }
+}
@@ -0,0 +1,286 @@
+package com.sociallearning.service;
+
+import com.sociallearning.entity.Enrollment;
+import com.sociallearning.entity.Lesson;
+import com.sociallearning.entity.Progress;
+import com.sociallearning.repository.CourseRepository;
+import com.sociallearning.repository.LessonCompletionRepository;
+import com.sociallearning.repository.LessonRepository;
+import com.sociallearning.repository.ProgressRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Compact lesson progress store.
+ *
+ * Provides business logic for:
+ * - Lesson completion as one bitmap per enrollment, indexed by {@link Lesson#getProgressOrdinal()}
+ * - Batched completion of many lessons across enrollments (offline progress sync)
+ * - Completion counts by popcount over the bitmap, masked with the course's current lessons
+ *   (bits of deleted lessons are ignored)
+ * - Per-lesson views that combine the bitmap with the sparse {@link Progress} rows, which now
+ *   only exist for lessons the learner touched (watch time, attempts, scores)
+ * - Migrating enrollments from one pre-created progress row per lesson: lazily per enrollment
+ *   and in batches on startup, after which "not started" rows are deleted
+ *
+ * Configuration: {@code app.progress.migration-batch-size}.
+ */
+@Slf4j
+@Service
+public class LessonProgressStore {
+
+    private final LessonCompletionRepository lessonCompletionRepository;
+    private final ProgressRepository progressRepository;
+    private final LessonRepository lessonRepository;
+    private final CourseRepository courseRepository;
+    private final int migrationBatchSize;
+
+    public LessonProgressStore(
+            LessonCompletionRepository lessonCompletionRepository,
+            ProgressRepository progressRepository,
+            LessonRepository lessonRepository,
+            CourseRepository courseRepository,
+            @Value("${app.progress.migration-batch-size:5000}") int migrationBatchSize) {
+
+        if (migrationBatchSize < 1) {
+            throw new IllegalArgumentException("app.progress.migration-batch-size must be at least 1");
+        }
+        this.lessonCompletionRepository = lessonCompletionRepository;
+        this.progressRepository = progressRepository;
+        this.lessonRepository = lessonRepository;
+        this.courseRepository = courseRepository;
+        this.migrationBatchSize = migrationBatchSize;
+    }
+
+    // ============================================
+    // Completion Bitmap
+    // ============================================
+
+    /**
+     * Record a lesson as completed for an enrollment.
+     *
+     * @param enrollment Enrollment
+     * @param lesson Completed lesson
+     * @return true if the lesson was not completed before
+     */
+    @Transactional
+    public boolean markCompleted(Enrollment enrollment, Lesson lesson) {
+        int ordinal = resolveOrdinal(lesson);
+        getCompletedLessons(enrollment.getId());
+        return lessonCompletionRepository.setCompleted(enrollment.getId(), ordinal);
+    }
+
+    /**
+     * Add completed lessons to several enrollments at once (offline progress sync):
+     * one read per enrollment and one batched write for all changed bitmaps.
+     * The enrollments must be row-locked by the caller's transaction.
+     *
+     * @param completions Enrollment ID to completed lesson ordinals
+     * @return Enrollment ID to the ordinals that were not completed before (enrollments
+     *         without new completions are absent)
+     */
+    @Transactional
+    public Map<Long, BitSet> markCompleted(Map<Long, BitSet> completions) {
+        Map<Long, BitSet> newlyCompleted = new HashMap<>();
+        Map<Long, BitSet> changedBits = new HashMap<>();
+        completions.forEach((enrollmentId, ordinals) -> {
+            BitSet bits = getCompletedLessons(enrollmentId);
+            BitSet added = (BitSet) ordinals.clone();
+            added.andNot(bits);
+            if (!added.isEmpty()) {
+                bits.or(added);
+                newlyCompleted.put(enrollmentId, added);
+                changedBits.put(enrollmentId, bits);
+            }
+        });
+        lessonCompletionRepository.updateBits(changedBits);
+        return newlyCompleted;
+    }
+
+    /**
+     * Assign progress ordinals to the lessons of a course created before ordinals existed.
+     * Serialized with lesson creation through the course row lock.
+     *
+     * @param courseId Course ID
+     */
+    @Transactional
+    public void assignMissingOrdinals(Long courseId) {
+        courseRepository.lockById(courseId);
+        lessonCompletionRepository.assignMissingOrdinals(courseId);
+    }
+
+    /**
+     * Get the completed lesson ordinals of an enrollment, migrating it on first access.
+     *
+     * @param enrollmentId Enrollment ID
+     * @return Completed lesson ordinals (may include ordinals of deleted lessons)
+     */
+    @Transactional
+    public BitSet getCompletedLessons(Long enrollmentId) {
+        BitSet bits = lessonCompletionRepository.findCompletedBits(enrollmentId);
+        if (bits != null) {
+            return bits;
+        }
+        BitSet migrated = lessonCompletionRepository.findCompletedOrdinalsFromRows(List.of(enrollmentId))
+                .getOrDefault(enrollmentId, new BitSet());
+        if (lessonCompletionRepository.initializeBits(enrollmentId, migrated) == 0) {
+            // Migrated concurrently
+            BitSet current = lessonCompletionRepository.findCompletedBits(enrollmentId);
+            return current != null ? current : migrated;
+        }
+        return migrated;
+    }
+
+    /**
+     * Count completed and total lessons of an enrollment.
+     *
+     * @param enrollmentId Enrollment ID
+     * @param courseId Course of the enrollment
+     * @return Lesson counts
+     */
+    @Transactional
+    public LessonCounts countLessons(Long enrollmentId, Long courseId) {
+        BitSet lessons = courseLessonOrdinals(courseId);
+        BitSet completed = getCompletedLessons(enrollmentId);
+        completed.and(lessons);
+        return new LessonCounts(completed.cardinality(), lessons.cardinality());
+    }
+
+    private int resolveOrdinal(Lesson lesson) {
+        if (lesson.getProgressOrdinal() != null) {
+            return lesson.getProgressOrdinal();
+        }
+        // Lesson created before ordinals existed and not migrated yet
+        assignMissingOrdinals(lesson.getModule().getCourse().getId());
+        Integer ordinal = lessonCompletionRepository.findLessonOrdinal(lesson.getId());
+        if (ordinal == null) {
+            throw new IllegalArgumentException("Lesson not found with ID: " + lesson.getId());
+        }
+        lesson.setProgressOrdinal(ordinal);
+        return ordinal;
+    }
+
+    private BitSet courseLessonOrdinals(Long courseId) {
+        BitSet ordinals = lessonCompletionRepository.findLessonOrdinals(courseId);
+        if (ordinals.cardinality() < lessonRepository.countByCourseId(courseId)) {
+            assignMissingOrdinals(courseId);
+            ordinals = lessonCompletionRepository.findLessonOrdinals(courseId);
+        }
+        return ordinals;
+    }
+
+    // ============================================
+    // Per-Lesson Views
+    // ============================================
+
+    /**
+     * Get progress for every lesson of the enrolled course, in curriculum order.
+     * Untouched lessons are represented by transient records that must never be saved.
+     *
+     * @param enrollment Enrollment
+     * @return One progress record per lesson
+     */
+    @Transactional
+    public List<Progress> getLessonProgress(Enrollment enrollment) {
+        List<Lesson> lessons = lessonRepository.findByCourseId(enrollment.getCourse().getId());
+        Map<Long, Progress> touched = progressRepository.findByEnrollmentId(enrollment.getId()).stream()
+                .collect(Collectors.toMap(progress -> progress.getLesson().getId(), Function.identity()));
+        BitSet completed = getCompletedLessons(enrollment.getId());
+
+        List<Progress> result = new ArrayList<>(lessons.size());
+        for (Lesson lesson : lessons) {
+            Progress progress = touched.get(lesson.getId());
+            if (progress == null) {
+                boolean done = lesson.getProgressOrdinal() != null && completed.get(lesson.getProgressOrdinal());
+                progress = Progress.builder()
+                        .enrollment(enrollment)
+                        .user(enrollment.getUser())
+                        .lesson(lesson)
+                        .completed(done)
+                        .build();
+            }
+            result.add(progress);
+        }
+        return result;
+    }
+
+    /**
+     * Get progress for the lessons of the enrolled course that are not completed yet.
+     *
+     * @param enrollment Enrollment
+     * @return Progress records of incomplete lessons, in curriculum order
+     */
+    @Transactional
+    public List<Progress> getIncompleteLessonProgress(Enrollment enrollment) {
+        return getLessonProgress(enrollment).stream()
+                .filter(progress -> !Boolean.TRUE.equals(progress.getCompleted()))
+                .toList();
+    }
+
+    // ============================================
+    // Migration
+    // ============================================
+
+    /**
+     * Migrate legacy per-lesson progress once the application is ready: assign lesson ordinals,
+     * build bitmaps for enrollments without one, then delete rows that only say "not started".
+     * Idempotent; each step only touches rows that still need it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyProgress() {
+        try {
+            // Per course under the course lock, so lessons created meanwhile never share an ordinal
+            int lessons = 0;
+            for (Long courseId : lessonCompletionRepository.findCourseIdsWithMissingOrdinals()) {
+                lessons += lessonCompletionRepository.assignMissingOrdinalsLocked(courseId);
+            }
+
+            int enrollments = 0;
+            long afterId = 0;
+            List<Long> batch;
+            while (!(batch = lessonCompletionRepository.findUnmigratedEnrollmentIds(afterId, migrationBatchSize)).isEmpty()) {
+                Map<Long, BitSet> completed = lessonCompletionRepository.findCompletedOrdinalsFromRows(batch);
+                for (Long enrollmentId : batch) {
+                    enrollments += lessonCompletionRepository.initializeBits(
+                            enrollmentId, completed.getOrDefault(enrollmentId, new BitSet()));
+                }
+                afterId = batch.get(batch.size() - 1);
+            }
+
+            long deleted = 0;
+            int removed;
+            while ((removed = lessonCompletionRepository.deleteUntouchedProgress(migrationBatchSize)) > 0) {
+                deleted += removed;
+            }
+
+            if (lessons > 0 || enrollments > 0 || deleted > 0) {
+                log.info("Lesson progress migrated: {} lesson ordinals assigned, {} enrollment bitmaps built, " +
+                        "{} untouched progress rows deleted", lessons, enrollments, deleted);
+            }
+        } catch (RuntimeException e) {
+            // Unmigrated enrollments are migrated lazily on first access
+            log.warn("Lesson progress migration failed; will retry on next startup", e);
+        }
+    }
+
+    /**
+     * Completed and total lessons of an enrollment.
+     *
+     * @param completed Completed lessons that still exist
+     * @param total Lessons of the course
+     */
+    public record LessonCounts(int completed, int total) {
+    }
+}
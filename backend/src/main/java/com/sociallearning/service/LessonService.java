@@ -1,8 +1,10 @@
 package com.sociallearning.service;
 
+import com.sociallearning.entity.Course;
 import com.sociallearning.entity.Lesson;
 import com.sociallearning.entity.Module;
 import com.sociallearning.enums.LessonType;
+import com.sociallearning.repository.LessonCompletionRepository;
 import com.sociallearning.repository.LessonRepository;
 import com.sociallearning.repository.ModuleRepository;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +12,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +24,7 @@ import java.util.Optional;
  * - Lesson creation and updates
  * - Lesson ordering and navigation
  * - Lesson deletion
+ * - Refreshing enrollment progress of published courses after lessons are added or removed
  * - Authorization checks
  */
 @Slf4j
@@ -28,8 +33,11 @@ import java.util.Optional;
 public class LessonService {
 
     private final LessonRepository lessonRepository;
+    private final LessonCompletionRepository lessonCompletionRepository;
     private final ModuleRepository moduleRepository;
     private final ModuleService moduleService;
+    private final ViewCounterService viewCounterService;
+    private final CourseProgressRefreshService courseProgressRefreshService;
     
     private static final String LESSON_NOT_FOUND_MSG = "Lesson not found with ID: ";
 
@@ -63,6 +71,10 @@ public class LessonService {
         // Get next order index
         int nextOrderIndex = lessonRepository.getMaxOrderIndex(moduleId) + 1;
         
+        // Reserve the lesson's bit in the course's completion bitmaps (never a deleted lesson's bit)
+        Long courseId = module.getCourse().getId();
+        int progressOrdinal = lessonCompletionRepository.allocateOrdinal(courseId);
+        
         // Create lesson
         Lesson lesson = Lesson.builder()
                 .title(title)
@@ -71,6 +83,7 @@ public class LessonService {
                 .type(type != null ? type : LessonType.TEXT)
                 .durationMinutes(durationMinutes != null ? durationMinutes : 0)
                 .orderIndex(nextOrderIndex)
+                .progressOrdinal(progressOrdinal)
                 .published(false)
                 .isFree(false)
                 .isDownloadable(false)
@@ -81,6 +94,11 @@ public class LessonService {
         // Update module duration
         moduleService.updateModuleDuration(moduleId);
         
+        // Existing enrollments now have one more lesson (refreshed in the background)
+        if (Boolean.TRUE.equals(module.getCourse().getPublished())) {
+            courseProgressRefreshService.requestRefresh(courseId);
+        }
+        
         log.info("Lesson created successfully with ID: {}", lesson.getId());
         return lesson;
     }
@@ -258,6 +276,10 @@ public class LessonService {
         }
         
         Long moduleId = lesson.getModule().getId();
+        Course course = lesson.getModule().getCourse();
+        
+        // Learners may have the lesson's bit set; keep its ordinal from going to a new lesson
+        lessonCompletionRepository.reserveAssignedOrdinals(course.getId());
         
         // Delete lesson
         lessonRepository.delete(lesson);
@@ -268,6 +290,11 @@ public class LessonService {
         // Update module duration
         moduleService.updateModuleDuration(moduleId);
         
+        // Existing enrollments now have one lesson less (refreshed in the background)
+        if (Boolean.TRUE.equals(course.getPublished())) {
+            courseProgressRefreshService.requestRefresh(course.getId());
+        }
+        
         log.info("Lesson deleted successfully: {}", lessonId);
     }
 
@@ -335,6 +362,44 @@ public class LessonService {
         return lessonRepository.findByModuleIdOrderByOrderIndex(moduleId);
     }
 
+    /**
+     * Get lesson outlines for several modules in one query.
+     * 
+     * Outlines are detached read-only lessons without the content columns (text content,
+     * quiz data, assignment instructions, additional resources, transcript), for course
+     * outlines that only list lessons. The module is an uninitialized reference.
+     * Outlines must never be saved.
+     * 
+     * @param moduleIds Module IDs
+     * @return Lesson outlines ordered by module and index
+     */
+    @Transactional(readOnly = true)
+    public List<Lesson> getLessonOutlinesByModules(Collection<Long> moduleIds) {
+        return lessonRepository.findOutlinesByModuleIds(moduleIds).stream()
+                .map(row -> Lesson.builder()
+                        .id((Long) row[0])
+                        .title((String) row[1])
+                        .description((String) row[2])
+                        .module(moduleRepository.getReferenceById((Long) row[3]))
+                        .orderIndex((Integer) row[4])
+                        .type((LessonType) row[5])
+                        .durationMinutes((Integer) row[6])
+                        .videoUrl((String) row[7])
+                        .videoThumbnailUrl((String) row[8])
+                        .assignmentMaxPoints((Integer) row[9])
+                        .resourceUrl((String) row[10])
+                        .published((Boolean) row[11])
+                        .isFree((Boolean) row[12])
+                        .isDownloadable((Boolean) row[13])
+                        .completionCount((Integer) row[14])
+                        .viewCount((Integer) row[15])
+                        .likeCount((Integer) row[16])
+                        .createdAt((LocalDateTime) row[17])
+                        .updatedAt((LocalDateTime) row[18])
+                        .build())
+                .toList();
+    }
+
     /**
      * Get published lessons for a module.
      * 
@@ -358,9 +423,8 @@ public class LessonService {
         Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new IllegalArgumentException(LESSON_NOT_FOUND_MSG + lessonId));
         
-        // Increment view count
-        lesson.incrementViewCount();
-        lessonRepository.save(lesson);
+        // Count the view write-behind; the read path never updates the row
+        viewCounterService.recordLessonView(lessonId);
         
         return lesson;
     }
@@ -4,15 +4,18 @@ import com.sociallearning.entity.Comment;
 import com.sociallearning.entity.Course;
 import com.sociallearning.entity.Lesson;
 import com.sociallearning.entity.Like;
-import com.sociallearning.entity.User;
 import com.sociallearning.enums.LikeableType;
 import com.sociallearning.repository.CommentRepository;
 import com.sociallearning.repository.CourseRepository;
+import com.sociallearning.repository.LessonLikeCountRepository;
+import com.sociallearning.repository.LessonLikeCountRepository.RecountBatch;
 import com.sociallearning.repository.LessonRepository;
 import com.sociallearning.repository.LikeRepository;
-import com.sociallearning.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -25,7 +28,7 @@ import java.util.Optional;
  * Service for handling like/upvote operations.
  *
  * Provides business logic for:
- * - Toggle like functionality (like/unlike)
+ * - Toggle like functionality (like/unlike) in a single atomic statement
  * - Like status checks
  * - Updating denormalized like counts on target entities
  * - Fetching likes with pagination
@@ -36,15 +39,17 @@ import java.util.Optional;
 public class LikeService {
 
     private final LikeRepository likeRepository;
-    private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final LessonRepository lessonRepository;
     private final CommentRepository commentRepository;
+    private final LessonLikeCountRepository lessonLikeCountRepository;
+    private final TrendingScoreService trendingScoreService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    private static final String USER_NOT_FOUND_MSG = "User not found with ID: ";
     private static final String COURSE_NOT_FOUND_MSG = "Course not found with ID: ";
     private static final String LESSON_NOT_FOUND_MSG = "Lesson not found with ID: ";
     private static final String COMMENT_NOT_FOUND_MSG = "Comment not found with ID: ";
+    private static final int LIKE_COUNT_BACKFILL_BATCH_SIZE = 1000;
 
     // ============================================
     // Toggle Like Methods
@@ -54,66 +59,48 @@ public class LikeService {
      * Toggle like on a course.
      * If user has liked the course, removes the like.
      * If user hasn't liked, adds a like.
+     * Membership change and like count update happen in a single statement.
      *
      * @param userId User ID
      * @param courseId Course ID
-     * @return true if liked, false if unliked
+     * @return Toggle result with the new like state and count
+     * @throws IllegalArgumentException if course not found
      */
     @Transactional
-    public boolean toggleCourseLike(Long userId, Long courseId) {
+    public ToggleResult toggleCourseLike(Long userId, Long courseId) {
         log.info("Toggling course like: userId={}, courseId={}", userId, courseId);
 
-        User user = getUser(userId);
-        Course course = courseRepository.findById(courseId)
+        ToggleResult result = toToggleResult(likeRepository.toggleCourseLike(userId, courseId))
                 .orElseThrow(() -> new IllegalArgumentException(COURSE_NOT_FOUND_MSG + courseId));
-
-        Optional<Like> existingLike = likeRepository.findUserCourseLike(userId, courseId);
-
-        if (existingLike.isPresent()) {
-            // Unlike
-            likeRepository.delete(existingLike.get());
-            updateCourseLikeCount(course, -1);
-            log.info("Course unliked: userId={}, courseId={}", userId, courseId);
-            return false;
-        } else {
-            // Like
-            Like like = Like.forCourse(user, courseId);
-            likeRepository.save(like);
-            updateCourseLikeCount(course, 1);
-            log.info("Course liked: userId={}, courseId={}", userId, courseId);
-            return true;
+        if (result.liked()) {
+            trendingScoreService.record(courseId, TrendingScoreService.Signal.LIKE);
         }
+        eventPublisher.publishEvent(new CoursePreferenceChangedEvent(userId, courseId));
+
+        log.info("Course {}: userId={}, courseId={}, likeCount={}",
+                result.liked() ? "liked" : "unliked", userId, courseId, result.likeCount());
+        return result;
     }
 
     /**
      * Toggle like on a lesson.
+     * Updates denormalized like count on the lesson.
      *
      * @param userId User ID
      * @param lessonId Lesson ID
-     * @return true if liked, false if unliked
+     * @return Toggle result with the new like state and count
+     * @throws IllegalArgumentException if lesson not found
      */
     @Transactional
-    public boolean toggleLessonLike(Long userId, Long lessonId) {
+    public ToggleResult toggleLessonLike(Long userId, Long lessonId) {
         log.info("Toggling lesson like: userId={}, lessonId={}", userId, lessonId);
 
-        User user = getUser(userId);
-        Lesson lesson = lessonRepository.findById(lessonId)
+        ToggleResult result = toToggleResult(likeRepository.toggleLessonLike(userId, lessonId))
                 .orElseThrow(() -> new IllegalArgumentException(LESSON_NOT_FOUND_MSG + lessonId));
 
-        Optional<Like> existingLike = likeRepository.findUserLessonLike(userId, lessonId);
-
-        if (existingLike.isPresent()) {
-            // Unlike
-            likeRepository.delete(existingLike.get());
-            log.info("Lesson unliked: userId={}, lessonId={}", userId, lessonId);
-            return false;
-        } else {
-            // Like
-            Like like = Like.forLesson(user, lessonId);
-            likeRepository.save(like);
-            log.info("Lesson liked: userId={}, lessonId={}", userId, lessonId);
-            return true;
-        }
+        log.info("Lesson {}: userId={}, lessonId={}, likeCount={}",
+                result.liked() ? "liked" : "unliked", userId, lessonId, result.likeCount());
+        return result;
     }
 
     /**
@@ -122,38 +109,21 @@ public class LikeService {
      *
      * @param userId User ID
      * @param commentId Comment ID
-     * @return true if liked, false if unliked
+     * @return Toggle result with the new like state and count
+     * @throws IllegalArgumentException if comment not found or deleted
      */
     @Transactional
-    public boolean toggleCommentLike(Long userId, Long commentId) {
+    public ToggleResult toggleCommentLike(Long userId, Long commentId) {
         log.info("Toggling comment like: userId={}, commentId={}", userId, commentId);
 
-        User user = getUser(userId);
-        Comment comment = commentRepository.findById(commentId)
-                .orElseThrow(() -> new IllegalArgumentException(COMMENT_NOT_FOUND_MSG + commentId));
+        ToggleResult result = toToggleResult(likeRepository.toggleCommentLike(userId, commentId))
+                .orElseThrow(() -> commentRepository.existsById(commentId)
+                        ? new IllegalArgumentException("Cannot like a deleted comment")
+                        : new IllegalArgumentException(COMMENT_NOT_FOUND_MSG + commentId));
 
-        if (comment.getIsDeleted()) {
-            throw new IllegalArgumentException("Cannot like a deleted comment");
-        }
-
-        Optional<Like> existingLike = likeRepository.findUserCommentLike(userId, commentId);
-
-        if (existingLike.isPresent()) {
-            // Unlike
-            likeRepository.delete(existingLike.get());
-            comment.decrementLikeCount();
-            commentRepository.save(comment);
-            log.info("Comment unliked: userId={}, commentId={}", userId, commentId);
-            return false;
-        } else {
-            // Like
-            Like like = Like.forComment(user, commentId);
-            likeRepository.save(like);
-            comment.incrementLikeCount();
-            commentRepository.save(comment);
-            log.info("Comment liked: userId={}, commentId={}", userId, commentId);
-            return true;
-        }
+        log.info("Comment {}: userId={}, commentId={}, likeCount={}",
+                result.liked() ? "liked" : "unliked", userId, commentId, result.likeCount());
+        return result;
     }
 
     /**
@@ -162,10 +132,10 @@ public class LikeService {
      * @param userId User ID
      * @param targetType Type of target entity
      * @param targetId Target entity ID
-     * @return true if liked, false if unliked
+     * @return Toggle result with the new like state and count
      */
     @Transactional
-    public boolean toggleLike(Long userId, LikeableType targetType, Long targetId) {
+    public ToggleResult toggleLike(Long userId, LikeableType targetType, Long targetId) {
         return switch (targetType) {
             case COURSE -> toggleCourseLike(userId, targetId);
             case LESSON -> toggleLessonLike(userId, targetId);
@@ -423,20 +393,6 @@ public class LikeService {
     // Denormalized Count Update Methods
     // ============================================
 
-    /**
-     * Update the denormalized like count on a course.
-     *
-     * @param course Course entity
-     * @param delta Change in count (+1 or -1)
-     */
-    private void updateCourseLikeCount(Course course, int delta) {
-        int newCount = course.getLikeCount() + delta;
-        if (newCount < 0) newCount = 0;
-        course.setLikeCount(newCount);
-        courseRepository.save(course);
-        log.debug("Course like count updated: courseId={}, count={}", course.getId(), newCount);
-    }
-
     /**
      * Recalculate and update the like count for a course.
      * Use for data consistency checks or repairs.
@@ -455,6 +411,46 @@ public class LikeService {
         log.info("Course like count recalculated: courseId={}, count={}", courseId, actualCount);
     }
 
+    /**
+     * Recalculate and update the like count for a lesson.
+     * Use for data consistency checks or repairs.
+     *
+     * @param lessonId Lesson ID
+     */
+    @Transactional
+    public void recalculateLessonLikeCount(Long lessonId) {
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new IllegalArgumentException(LESSON_NOT_FOUND_MSG + lessonId));
+
+        long actualCount = likeRepository.countLessonLikes(lessonId);
+        lesson.setLikeCount((int) actualCount);
+        lessonRepository.save(lesson);
+
+        log.info("Lesson like count recalculated: lessonId={}, count={}", lessonId, actualCount);
+    }
+
+    /**
+     * Backfill lesson like counts from the likes table once the application is ready.
+     * Lessons liked before {@code lessons.like_count} existed start at 0; idempotent and
+     * batched, only lessons whose count differs are written.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLessonLikeCounts() {
+        try {
+            long updated = 0;
+            RecountBatch batch = lessonLikeCountRepository.recountAfter(0, LIKE_COUNT_BACKFILL_BATCH_SIZE);
+            while (batch.scanned() > 0) {
+                updated += batch.updated();
+                batch = lessonLikeCountRepository.recountAfter(batch.lastId(), LIKE_COUNT_BACKFILL_BATCH_SIZE);
+            }
+            if (updated > 0) {
+                log.info("Lesson like counts backfilled: {} lessons updated", updated);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Lesson like count backfill failed; will retry on next startup", e);
+        }
+    }
+
     /**
      * Recalculate and update the like count for a comment.
      * Use for data consistency checks or repairs.
@@ -477,8 +473,20 @@ public class LikeService {
     // Helper Methods
     // ============================================
 
-    private User getUser(Long userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException(USER_NOT_FOUND_MSG + userId));
+    private Optional<ToggleResult> toToggleResult(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        return Optional.of(new ToggleResult((Boolean) row[0], ((Number) row[1]).longValue()));
+    }
+
+    /**
+     * Result of a like toggle.
+     *
+     * @param liked Whether the user likes the target after the toggle
+     * @param likeCount Denormalized like count of the target after the toggle
+     */
+    public record ToggleResult(boolean liked, long likeCount) {
     }
 }
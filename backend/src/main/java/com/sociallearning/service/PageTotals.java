@@ -0,0 +1,43 @@
+package com.sociallearning.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+
+import java.util.function.LongSupplier;
+
+/**
+ * How a paginated query reports its total element count.
+ */
+public enum PageTotals {
+
+    /**
+     * No total: one extra row is fetched to detect a next page and the COUNT query is skipped
+     */
+    NONE,
+
+    /**
+     * Exact total from a COUNT query (or a maintained counter where one exists)
+     */
+    EXACT,
+
+    /**
+     * Total estimated by the query planner from table statistics instead of counting rows
+     */
+    ESTIMATED;
+
+    /**
+     * Turn a slice into a page with an estimated total.
+     * The estimate is only consulted when there is a next page; on the last page
+     * the exact total is known from the offset.
+     *
+     * @param slice Slice fetched without a COUNT query
+     * @param estimate Supplier of the estimated total
+     * @return Page whose total is consistent with the slice
+     */
+    public static <T> Page<T> withEstimatedTotal(Slice<T> slice, LongSupplier estimate) {
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        long total = slice.hasNext() ? Math.max(estimate.getAsLong(), seen + 1) : seen;
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+}
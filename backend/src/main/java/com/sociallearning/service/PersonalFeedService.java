@@ -0,0 +1,292 @@
+package com.sociallearning.service;
+
+import com.sociallearning.entity.Course;
+import com.sociallearning.entity.Enrollment;
+import com.sociallearning.entity.Like;
+import com.sociallearning.repository.CourseRepository;
+import com.sociallearning.repository.EnrollmentRepository;
+import com.sociallearning.repository.LikeRepository;
+import com.sociallearning.repository.RatingRepository;
+import com.sociallearning.service.CourseService.CourseProjection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Personal "for you" course feed.
+ *
+ * Provides business logic for:
+ * - Building a learner's profile from their enrollments, course likes and ratings
+ * - Ranking candidate courses by co-enrollment with the profile courses ({@link CourseRecommender})
+ *   and by affinity to the profile's categories and tags, excluding courses already enrolled in
+ * - Caching each learner's ranked candidate IDs with a TTL, invalidated when that learner
+ *   enrolls, likes or rates after the transaction commits
+ * - Falling back to trending courses for learners without any activity
+ * - Metrics: recommendations.for-you.cache (hit/miss), recommendations.for-you.cached
+ *
+ * Configuration: {@code app.recommendations.for-you.candidates},
+ * {@code app.recommendations.for-you.cache-ttl-seconds} and
+ * {@code app.recommendations.for-you.cache-max-users}.
+ */
+@Slf4j
+@Service
+public class PersonalFeedService {
+
+    private static final double ENROLLED_WEIGHT = 3.0;
+    private static final double LIKED_WEIGHT = 2.0;
+    private static final double RATED_WEIGHT = 1.0;
+
+    private static final double CO_ENROLLMENT_SHARE = 1.0;
+    private static final double CATEGORY_SHARE = 0.6;
+    private static final double TAG_SHARE = 0.4;
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final LikeRepository likeRepository;
+    private final RatingRepository ratingRepository;
+    private final CourseRepository courseRepository;
+    private final CourseRecommender courseRecommender;
+    private final CourseService courseService;
+    private final int candidateCount;
+    private final long cacheTtlMillis;
+    private final int cacheMaxUsers;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    private final ConcurrentHashMap<Long, CachedFeed> cache = new ConcurrentHashMap<>();
+    /** Learner -> token of the latest feed computation; removed when the learner's feed is invalidated */
+    private final ConcurrentHashMap<Long, Object> computing = new ConcurrentHashMap<>();
+
+    public PersonalFeedService(EnrollmentRepository enrollmentRepository,
+                               LikeRepository likeRepository,
+                               RatingRepository ratingRepository,
+                               CourseRepository courseRepository,
+                               CourseRecommender courseRecommender,
+                               CourseService courseService,
+                               Environment environment,
+                               MeterRegistry meterRegistry) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.likeRepository = likeRepository;
+        this.ratingRepository = ratingRepository;
+        this.courseRepository = courseRepository;
+        this.courseRecommender = courseRecommender;
+        this.courseService = courseService;
+        this.candidateCount = environment.getProperty("app.recommendations.for-you.candidates", Integer.class, 100);
+        this.cacheTtlMillis = environment.getProperty(
+                "app.recommendations.for-you.cache-ttl-seconds", Long.class, 300L) * 1000;
+        this.cacheMaxUsers = environment.getProperty("app.recommendations.for-you.cache-max-users", Integer.class, 10_000);
+        if (candidateCount < 1) {
+            throw new IllegalArgumentException("app.recommendations.for-you.candidates must be at least 1");
+        }
+
+        this.cacheHits = Counter.builder("recommendations.for-you.cache")
+                .description("Personal feed requests by cache outcome")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.cacheMisses = Counter.builder("recommendations.for-you.cache")
+                .description("Personal feed requests by cache outcome")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("recommendations.for-you.cached", cache, Map::size)
+                .description("Learners with a cached personal feed")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // Serving
+    // ============================================
+
+    /**
+     * Get a learner's personal course feed.
+     *
+     * @param userId Learner ID
+     * @param limit Number of courses to return (at most the cached candidate count)
+     * @param projection Course columns to load
+     * @return Recommended published courses, best first
+     */
+    @Transactional(readOnly = true)
+    public List<Course> getRecommendedCourses(Long userId, int limit, CourseProjection projection) {
+        List<Long> ids = getCandidateIds(userId);
+        return courseService.findCourses(ids.subList(0, Math.min(limit, ids.size())), projection);
+    }
+
+    private List<Long> getCandidateIds(Long userId) {
+        long now = System.currentTimeMillis();
+        CachedFeed cached = cache.get(userId);
+        if (cached != null && cached.expiresAt() > now) {
+            cacheHits.increment();
+            return cached.courseIds();
+        }
+        cacheMisses.increment();
+
+        // Only an invalidation of this learner during the computation keeps the result out of the cache
+        Object token = new Object();
+        computing.put(userId, token);
+        List<Long> ids;
+        try {
+            ids = rankCandidates(userId);
+        } catch (RuntimeException e) {
+            computing.remove(userId, token);
+            throw e;
+        }
+        cache.compute(userId, (id, existing) -> {
+            boolean current = computing.remove(id, token);
+            return current && (existing != null || cache.size() < cacheMaxUsers)
+                    ? new CachedFeed(ids, now + cacheTtlMillis)
+                    : existing;
+        });
+        return ids;
+    }
+
+    // ============================================
+    // Ranking
+    // ============================================
+
+    private List<Long> rankCandidates(Long userId) {
+        Set<Long> enrolled = new HashSet<>();
+        Map<Long, Double> profile = new HashMap<>();
+        for (Enrollment enrollment : enrollmentRepository.findByUserIdWithCourse(userId)) {
+            Long courseId = enrollment.getCourse().getId();
+            enrolled.add(courseId);
+            profile.merge(courseId, ENROLLED_WEIGHT, Double::sum);
+        }
+        for (Like like : likeRepository.findUserLikedCourses(userId)) {
+            profile.merge(like.getLikeableId(), LIKED_WEIGHT, Double::sum);
+        }
+        for (Long courseId : ratingRepository.findRatedCourseIdsByUserId(userId)) {
+            profile.merge(courseId, RATED_WEIGHT, Double::sum);
+        }
+
+        if (profile.isEmpty()) {
+            // Nothing to personalize on yet
+            return courseService.findTrendingCourseIds(candidateCount);
+        }
+
+        double totalWeight = profile.values().stream().mapToDouble(Double::doubleValue).sum();
+        Map<Long, Double> scores = new LinkedHashMap<>();
+
+        // Co-enrollment: neighbours of each profile course, earlier neighbours count more
+        profile.forEach((courseId, weight) -> {
+            List<Long> similar = courseRecommender.getSimilarCourseIds(courseId);
+            for (int rank = 0; rank < similar.size(); rank++) {
+                double closeness = 1.0 - (double) rank / similar.size();
+                scores.merge(similar.get(rank), CO_ENROLLMENT_SHARE * weight * closeness / totalWeight, Double::sum);
+            }
+        });
+
+        // Category and tag affinity: share of the profile weight on each category and tag
+        Map<Long, Double> categoryAffinity = affinity(courseRepository.findCategoryIdsByCourseIds(profile.keySet()),
+                profile, totalWeight);
+        Map<Long, Double> tagAffinity = affinity(courseRepository.findTagIdsByCourseIds(profile.keySet()),
+                profile, totalWeight);
+        if (!categoryAffinity.isEmpty()) {
+            courseRepository.findTopCourseIdsInCategories(categoryAffinity.keySet(), candidateCount)
+                    .forEach(id -> scores.putIfAbsent(id, 0.0));
+        }
+        if (!tagAffinity.isEmpty()) {
+            courseRepository.findTopCourseIdsWithTags(tagAffinity.keySet(), candidateCount)
+                    .forEach(id -> scores.putIfAbsent(id, 0.0));
+        }
+
+        scores.keySet().removeAll(enrolled);
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+        scores.keySet().retainAll(new HashSet<>(courseRepository.findPublishedIdsIn(scores.keySet())));
+
+        for (Object[] row : courseRepository.findCategoryIdsByCourseIds(scores.keySet())) {
+            scores.merge((Long) row[0], CATEGORY_SHARE * categoryAffinity.getOrDefault((Long) row[1], 0.0), Double::sum);
+        }
+        Map<Long, Double> tagScores = new HashMap<>();
+        for (Object[] row : courseRepository.findTagIdsByCourseIds(scores.keySet())) {
+            tagScores.merge((Long) row[0], tagAffinity.getOrDefault((Long) row[1], 0.0), Double::sum);
+        }
+        // A course matching many profile tags is capped at a full tag match
+        tagScores.forEach((courseId, score) -> scores.merge(courseId, TAG_SHARE * Math.min(1.0, score), Double::sum));
+
+        // Candidates were collected in quality order; the stable sort keeps it for equal scores
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder()))
+                .limit(candidateCount)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Share of the profile weight carried by each key (category or tag) of the profile courses.
+     *
+     * @param rows Rows of [courseId, key]
+     */
+    private static Map<Long, Double> affinity(List<Object[]> rows, Map<Long, Double> profile, double totalWeight) {
+        Map<Long, Double> affinity = new HashMap<>();
+        for (Object[] row : rows) {
+            affinity.merge((Long) row[1], profile.get((Long) row[0]) / totalWeight, Double::sum);
+        }
+        return affinity;
+    }
+
+    // ============================================
+    // Cache Maintenance
+    // ============================================
+
+    /**
+     * Drop a learner's cached feed once their enrollment commits.
+     *
+     * @param event Enrollment event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEnrollmentCreated(EnrollmentCreatedEvent event) {
+        invalidate(event.userId());
+    }
+
+    /**
+     * Drop a learner's cached feed once their like or rating change commits.
+     *
+     * @param event Preference event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCoursePreferenceChanged(CoursePreferenceChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    /**
+     * Drop a learner's cached feed.
+     *
+     * @param userId Learner ID
+     */
+    public void invalidate(Long userId) {
+        // Under the cache entry's lock, so a computation cannot store its feed after this
+        cache.compute(userId, (id, existing) -> {
+            computing.remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * Remove expired feeds so inactive learners do not hold cache slots.
+     */
+    @Scheduled(fixedRateString = "${app.recommendations.for-you.cache-ttl-seconds:300}", timeUnit = TimeUnit.SECONDS)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(feed -> feed.expiresAt() <= now);
+    }
+
+    private record CachedFeed(List<Long> courseIds, long expiresAt) {
+    }
+}
@@ -0,0 +1,274 @@
+package com.sociallearning.service;
+
+import com.sociallearning.repository.PlaybackHeartbeatRepository;
+import com.sociallearning.repository.PlaybackHeartbeatRepository.Heartbeat;
+import com.sociallearning.repository.ProgressRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind ingestion of video playback heartbeats.
+ *
+ * Provides business logic for:
+ * - Recording heartbeats (playback position and seconds watched) in memory, coalesced per
+ *   learner and lesson: only the latest position and the accumulated seconds are kept
+ * - Periodic flushing with two set-based statements per chunk ({@link PlaybackHeartbeatRepository}),
+ *   which also derive {@code lastAccessedAt} and {@code Enrollment.timeSpentMinutes}
+ * - Back-pressure: when the buffer is full, heartbeats for new keys are rejected so players
+ *   can back off (keys already buffered keep coalescing)
+ * - Resume positions that include heartbeats not flushed yet
+ * - Metrics: accepted and rejected heartbeats, pending keys, flush duration
+ *
+ * Heartbeats are keyed by (user, lesson) rather than enrollment so that recording never
+ * touches the database; the enrollment is resolved in the flush statements.
+ */
+@Slf4j
+@Service
+public class PlaybackHeartbeatService {
+
+    private static final int STRIPES = 16;
+    private static final int FLUSH_CHUNK_SIZE = 1000;
+
+    private final PlaybackHeartbeatRepository playbackHeartbeatRepository;
+    private final ProgressRepository progressRepository;
+    private final int maxKeysPerStripe;
+    private final int maxSecondsPerHeartbeat;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Timer flushTimer;
+
+    public PlaybackHeartbeatService(
+            PlaybackHeartbeatRepository playbackHeartbeatRepository,
+            ProgressRepository progressRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.heartbeat.max-pending-keys:200000}") int maxPendingKeys,
+            @Value("${app.heartbeat.max-seconds-per-heartbeat:60}") int maxSecondsPerHeartbeat) {
+
+        if (maxSecondsPerHeartbeat < 1) {
+            throw new IllegalArgumentException("app.heartbeat.max-seconds-per-heartbeat must be at least 1");
+        }
+        this.playbackHeartbeatRepository = playbackHeartbeatRepository;
+        this.progressRepository = progressRepository;
+        this.maxKeysPerStripe = Math.max(1, maxPendingKeys / STRIPES);
+        this.maxSecondsPerHeartbeat = maxSecondsPerHeartbeat;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        this.accepted = Counter.builder("playback_heartbeat.accepted")
+                .description("Playback heartbeats added to the buffer")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("playback_heartbeat.rejected")
+                .description("Playback heartbeats rejected because the buffer was full")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("playback_heartbeat.flush.duration")
+                .description("Time spent writing buffered playback heartbeats")
+                .register(meterRegistry);
+        Gauge.builder("playback_heartbeat.pending", this, PlaybackHeartbeatService::pendingKeys)
+                .description("Learner lessons with unflushed playback heartbeats")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // Recording
+    // ============================================
+
+    /**
+     * Record a playback heartbeat. Never blocks on the database.
+     *
+     * @param userId Learner ID
+     * @param lessonId Lesson ID
+     * @param positionSeconds Current playback position
+     * @param watchedSeconds Seconds watched since the previous heartbeat (capped per heartbeat)
+     * @return false if the buffer is full and the heartbeat was rejected (the player should back off)
+     * @throws IllegalArgumentException if the position or watched seconds are negative
+     */
+    public boolean record(Long userId, Long lessonId, int positionSeconds, int watchedSeconds) {
+        if (positionSeconds < 0 || watchedSeconds < 0) {
+            throw new IllegalArgumentException("Playback position and watched seconds must not be negative");
+        }
+        Pending heartbeat = new Pending(positionSeconds, Math.min(watchedSeconds, maxSecondsPerHeartbeat),
+                LocalDateTime.now());
+        if (add(new Key(userId, lessonId), heartbeat, true)) {
+            accepted.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Get the playback position to resume a lesson from, including unflushed heartbeats.
+     *
+     * @param userId Learner ID
+     * @param lessonId Lesson ID
+     * @return Latest position in seconds, or null if the learner never played the lesson
+     */
+    public Integer getPlaybackPosition(Long userId, Long lessonId) {
+        Key key = new Key(userId, lessonId);
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Pending pending = stripe.pending.get(key);
+            if (pending != null) {
+                return pending.positionSeconds;
+            }
+        }
+        return progressRepository.findLastPositionSeconds(userId, lessonId).orElse(null);
+    }
+
+    /**
+     * A key always maps to the same stripe, so its heartbeats coalesce into one entry.
+     */
+    private Stripe stripeOf(Key key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private boolean add(Key key, Pending heartbeat, boolean capped) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Pending pending = stripe.pending.get(key);
+            if (pending != null) {
+                pending.merge(heartbeat);
+                return true;
+            }
+            if (capped && stripe.pending.size() >= maxKeysPerStripe) {
+                return false;
+            }
+            stripe.pending.put(key, heartbeat);
+            return true;
+        }
+    }
+
+    // ============================================
+    // Flushing
+    // ============================================
+
+    /**
+     * Write all buffered heartbeats to the database.
+     * Runs periodically and once more on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${app.heartbeat.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        flushTimer.record(() -> {
+            List<List<Heartbeat>> chunks = drain();
+            for (int i = 0; i < chunks.size(); i++) {
+                try {
+                    playbackHeartbeatRepository.applyHeartbeats(chunks.get(i));
+                } catch (RuntimeException e) {
+                    // Keep unwritten heartbeats for the next attempt; chunks already written are committed
+                    log.warn("Failed to flush playback heartbeats, re-queueing {} chunk(s)", chunks.size() - i, e);
+                    chunks.subList(i, chunks.size()).forEach(chunk -> chunk.forEach(this::requeue));
+                    return;
+                }
+            }
+            if (!chunks.isEmpty()) {
+                log.debug("Flushed playback heartbeats in {} chunk(s)", chunks.size());
+            }
+        });
+    }
+
+    /**
+     * Drain buffered heartbeats before the application context (and its DataSource) goes away.
+     */
+    @PreDestroy
+    public void drainOnShutdown() {
+        log.info("Draining buffered playback heartbeats before shutdown");
+        flush();
+    }
+
+    /**
+     * Put back a heartbeat that could not be written, exempt from the cap: it was accepted already.
+     */
+    private void requeue(Heartbeat heartbeat) {
+        add(new Key(heartbeat.userId(), heartbeat.lessonId()),
+                new Pending(heartbeat.positionSeconds(), heartbeat.watchedSeconds(), heartbeat.seenAt()), false);
+    }
+
+    /**
+     * Take everything buffered so far (each stripe atomically), ordered by learner and lesson,
+     * and split into chunks.
+     */
+    private List<List<Heartbeat>> drain() {
+        Map<Key, Pending> merged = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            Map<Key, Pending> taken;
+            synchronized (stripe) {
+                if (stripe.pending.isEmpty()) {
+                    continue;
+                }
+                taken = stripe.pending;
+                stripe.pending = new HashMap<>();
+            }
+            merged.putAll(taken);
+        }
+
+        List<Heartbeat> heartbeats = merged.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.comparing(Key::userId).thenComparing(Key::lessonId)))
+                .map(entry -> new Heartbeat(entry.getKey().userId(), entry.getKey().lessonId(),
+                        entry.getValue().positionSeconds, entry.getValue().watchedSeconds, entry.getValue().seenAt))
+                .toList();
+
+        List<List<Heartbeat>> chunks = new ArrayList<>();
+        for (int from = 0; from < heartbeats.size(); from += FLUSH_CHUNK_SIZE) {
+            chunks.add(heartbeats.subList(from, Math.min(heartbeats.size(), from + FLUSH_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    double pendingKeys() {
+        int keys = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                keys += stripe.pending.size();
+            }
+        }
+        return keys;
+    }
+
+    private record Key(Long userId, Long lessonId) {
+    }
+
+    /**
+     * Coalesced heartbeats of one key: latest position wins, watched seconds add up.
+     */
+    private static final class Pending {
+        private int positionSeconds;
+        private int watchedSeconds;
+        private LocalDateTime seenAt;
+
+        Pending(int positionSeconds, int watchedSeconds, LocalDateTime seenAt) {
+            this.positionSeconds = positionSeconds;
+            this.watchedSeconds = watchedSeconds;
+            this.seenAt = seenAt;
+        }
+
+        Pending merge(Pending other) {
+            if (!other.seenAt.isBefore(seenAt)) {
+                positionSeconds = other.positionSeconds;
+                seenAt = other.seenAt;
+            }
+            watchedSeconds = (int) Math.min(Integer.MAX_VALUE, (long) watchedSeconds + other.watchedSeconds);
+            return this;
+        }
+    }
+
+    private static final class Stripe {
+        private Map<Key, Pending> pending = new HashMap<>();
+    }
+}
@@ -16,7 +16,7 @@ import org.springframework.transaction.annotation.Transactional;
  *
  * Provides business logic for:
  * - Marking lessons as completed
- * - Updating enrollment-level progress percentages
+ * - Updating enrollment-level progress percentages incrementally
  * - Triggering post-progress hooks (achievements, etc.)
  */
 @Slf4j
@@ -31,16 +31,19 @@ public class ProgressService {
     private final LessonRepository lessonRepository;
     private final UserRepository userRepository;
     private final EnrollmentService enrollmentService;
+    private final LessonProgressStore lessonProgressStore;
 
     /**
      * Mark a lesson as completed for a learner.
      *
      * Flow:
      * - Validate user and lesson
-     * - Resolve learner enrollment for the lesson's course
-     * - Create progress record if missing (handles lessons added post-enrollment)
-     * - Mark lesson complete
-     * - Recalculate enrollment percentage and completion status
+     * - Resolve and row-lock learner enrollment for the lesson's course
+     * - Set the lesson's bit in the enrollment completion bitmap
+     * - Create progress record if missing (rows exist only for touched lessons) and mark it complete
+     * - On the lesson's first completion, apply an O(1) delta to the enrollment
+     *   counters, percentage and completion status (drift is repaired by
+     *   {@link EnrollmentProgressVerifier})
      * - Trigger achievement hook
      *
      * @param userId Learner ID
@@ -59,18 +62,24 @@ public class ProgressService {
                 .orElseThrow(() -> new IllegalArgumentException(LESSON_NOT_FOUND_MSG + lessonId));
 
         Long courseId = lesson.getModule().getCourse().getId();
-        Enrollment enrollment = enrollmentService.getEnrollment(userId, courseId);
+        Enrollment enrollment = enrollmentService.getEnrollmentForUpdate(userId, courseId);
+
+        // Set the completion bit first: a not yet migrated enrollment is migrated from its
+        // progress rows as they were before this completion
+        boolean newlyCompleted = lessonProgressStore.markCompleted(enrollment, lesson);
 
         Progress progress = getOrCreateProgressRecord(enrollment, lesson);
-        boolean wasCompleted = Boolean.TRUE.equals(progress.getCompleted());
 
         progress.markAccessed();
         progress.markCompleted();
         progress = progressRepository.save(progress);
 
-        Enrollment updatedEnrollment = enrollmentService.calculateProgress(enrollment.getId());
+        // Only the first completion of a lesson moves the enrollment counters
+        Enrollment updatedEnrollment = newlyCompleted
+                ? enrollmentService.applyLessonCompleted(enrollment)
+                : enrollment;
 
-        if (!wasCompleted) {
+        if (newlyCompleted) {
             triggerAchievementCheck(userId, updatedEnrollment);
         }
 
@@ -0,0 +1,351 @@
+package com.sociallearning.service;
+
+import com.sociallearning.dto.ProgressEventInput;
+import com.sociallearning.entity.Enrollment;
+import com.sociallearning.repository.ProgressSyncRepository;
+import com.sociallearning.repository.ProgressSyncRepository.LessonRef;
+import com.sociallearning.repository.ProgressSyncRepository.ProgressMerge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service for syncing lesson progress recorded while offline.
+ *
+ * Provides business logic for:
+ * - Idempotent replay: events are deduplicated by client event ID, within a batch and
+ *   against IDs claimed by earlier syncs (kept for a retention period)
+ * - Merging with max/union semantics, so the order and repetition of uploads do not
+ *   matter: completion is sticky, the latest access and position win, watch time adds up
+ * - Bounding watch time like live playback: each event counts at most
+ *   {@code app.heartbeat.max-seconds-per-heartbeat}, and a lesson's events of one sync at most
+ *   the time between its first and last event plus that allowance
+ * - Writing a whole batch in one transaction with a fixed number of set-based statements
+ *   ({@link ProgressSyncRepository}, one batched bitmap update in {@link LessonProgressStore})
+ * - Updating each affected enrollment once per sync instead of once per event
+ *
+ * Configuration: {@code app.progress.sync-max-events}, {@code app.progress.sync-event-retention-days},
+ * {@code app.heartbeat.max-seconds-per-heartbeat}.
+ */
+@Slf4j
+@Service
+public class ProgressSyncService {
+
+    private static final int MAX_EVENT_ID_LENGTH = 100;
+
+    private final ProgressSyncRepository progressSyncRepository;
+    private final EnrollmentService enrollmentService;
+    private final LessonProgressStore lessonProgressStore;
+    private final int maxEvents;
+    private final int eventRetentionDays;
+    private final int maxSecondsPerEvent;
+
+    public ProgressSyncService(
+            ProgressSyncRepository progressSyncRepository,
+            EnrollmentService enrollmentService,
+            LessonProgressStore lessonProgressStore,
+            @Value("${app.progress.sync-max-events:500}") int maxEvents,
+            @Value("${app.progress.sync-event-retention-days:30}") int eventRetentionDays,
+            @Value("${app.heartbeat.max-seconds-per-heartbeat:60}") int maxSecondsPerEvent) {
+
+        if (maxEvents < 1 || eventRetentionDays < 1) {
+            throw new IllegalArgumentException(
+                    "app.progress.sync-max-events and app.progress.sync-event-retention-days must be at least 1");
+        }
+        if (maxSecondsPerEvent < 1) {
+            throw new IllegalArgumentException("app.heartbeat.max-seconds-per-heartbeat must be at least 1");
+        }
+        this.progressSyncRepository = progressSyncRepository;
+        this.enrollmentService = enrollmentService;
+        this.lessonProgressStore = lessonProgressStore;
+        this.maxEvents = maxEvents;
+        this.eventRetentionDays = eventRetentionDays;
+        this.maxSecondsPerEvent = maxSecondsPerEvent;
+    }
+
+    // ============================================
+    // Sync
+    // ============================================
+
+    /**
+     * Apply a batch of offline progress events of the current learner.
+     *
+     * Flow:
+     * - Validate and deduplicate events within the batch (first occurrence of an ID wins)
+     * - Resolve lessons to courses and row-lock the learner's enrollments, in ID order
+     * - Skip events of unknown lessons or courses the learner is not enrolled in; their IDs
+     *   are not claimed, so they can be synced again later
+     * - Claim the remaining event IDs; IDs claimed by an earlier sync are duplicates
+     * - Merge the new events per lesson (watch time capped) and write completion bitmaps (before the progress
+     *   rows, which unmigrated enrollments are migrated from), progress rows and lesson
+     *   completion counts in batches
+     * - Apply completed lessons, watch time and last access once per enrollment
+     *
+     * @param userId Learner ID
+     * @param inputs Offline events, in any order
+     * @return Counts of applied and duplicate events and the IDs of skipped events
+     * @throws IllegalArgumentException if the batch is too large or an event is invalid
+     */
+    @Transactional
+    public SyncResult sync(Long userId, List<ProgressEventInput> inputs) {
+        if (inputs.size() > maxEvents) {
+            throw new IllegalArgumentException("At most " + maxEvents + " progress events can be synced at once");
+        }
+
+        Map<String, ProgressEvent> unique = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (ProgressEventInput input : inputs) {
+            ProgressEvent event = toEvent(input, now);
+            unique.putIfAbsent(event.eventId(), event);
+        }
+        int duplicates = inputs.size() - unique.size();
+
+        Set<Long> lessonIds = new HashSet<>();
+        unique.values().forEach(event -> lessonIds.add(event.lessonId()));
+        Map<Long, LessonRef> lessons = progressSyncRepository.findLessonRefs(lessonIds);
+
+        Set<Long> courseIds = new HashSet<>();
+        lessons.values().forEach(lesson -> courseIds.add(lesson.courseId()));
+        Map<Long, Enrollment> enrollmentsByCourse = new HashMap<>();
+        for (Enrollment enrollment : enrollmentService.getEnrollmentsForUpdate(userId, courseIds)) {
+            enrollmentsByCourse.put(enrollment.getCourse().getId(), enrollment);
+        }
+
+        List<String> skippedEventIds = new ArrayList<>();
+        List<ProgressEvent> accepted = new ArrayList<>();
+        Set<Long> coursesMissingOrdinals = new HashSet<>();
+        for (ProgressEvent event : unique.values()) {
+            LessonRef lesson = lessons.get(event.lessonId());
+            if (lesson == null || !enrollmentsByCourse.containsKey(lesson.courseId())) {
+                skippedEventIds.add(event.eventId());
+                continue;
+            }
+            accepted.add(event);
+            if (event.completed() && lesson.progressOrdinal() == null) {
+                coursesMissingOrdinals.add(lesson.courseId());
+            }
+        }
+
+        if (!coursesMissingOrdinals.isEmpty()) {
+            // Lessons created before ordinals existed; enrollments are locked first, as in lesson completion
+            coursesMissingOrdinals.forEach(lessonProgressStore::assignMissingOrdinals);
+            lessons = progressSyncRepository.findLessonRefs(lessonIds);
+        }
+
+        List<String> acceptedIds = accepted.stream().map(ProgressEvent::eventId).toList();
+        Set<String> claimed = progressSyncRepository.claimEventIds(userId, acceptedIds);
+        duplicates += accepted.size() - claimed.size();
+
+        Map<Long, LessonMerge> merges = new HashMap<>();
+        for (ProgressEvent event : accepted) {
+            if (claimed.contains(event.eventId())) {
+                merges.computeIfAbsent(event.lessonId(), id -> new LessonMerge()).add(event);
+            }
+        }
+        if (merges.isEmpty()) {
+            return new SyncResult(0, duplicates, skippedEventIds);
+        }
+        merges.values().forEach(merge -> merge.capWatchedSeconds(maxSecondsPerEvent));
+
+        apply(userId, merges, lessons, enrollmentsByCourse);
+
+        log.info("Progress synced: userId={}, applied={}, duplicates={}, skipped={}, lessons={}",
+                userId, claimed.size(), duplicates, skippedEventIds.size(), merges.size());
+
+        return new SyncResult(claimed.size(), duplicates, skippedEventIds);
+    }
+
+    private void apply(Long userId, Map<Long, LessonMerge> merges, Map<Long, LessonRef> lessons,
+                       Map<Long, Enrollment> enrollmentsByCourse) {
+
+        List<ProgressMerge> rows = new ArrayList<>(merges.size());
+        Map<Long, BitSet> completions = new HashMap<>();
+        Map<Long, EnrollmentDelta> deltas = new HashMap<>();
+        merges.forEach((lessonId, merge) -> {
+            LessonRef lesson = lessons.get(lessonId);
+            Enrollment enrollment = enrollmentsByCourse.get(lesson.courseId());
+            rows.add(new ProgressMerge(enrollment.getId(), userId, lessonId, merge.firstAt, merge.lastAt,
+                    merge.completedAt, merge.watchedSeconds, merge.positionSeconds));
+            if (merge.completedAt != null) {
+                completions.computeIfAbsent(enrollment.getId(), id -> new BitSet()).set(lesson.progressOrdinal());
+            }
+            deltas.computeIfAbsent(enrollment.getId(), id -> new EnrollmentDelta(enrollment)).add(merge);
+        });
+
+        // Set the completion bits first: a not yet migrated enrollment is migrated from its
+        // progress rows as they were before this sync
+        Map<Long, BitSet> newlyCompleted = lessonProgressStore.markCompleted(completions);
+        progressSyncRepository.mergeProgress(rows);
+
+        Map<Long, Integer> lessonCompletions = new HashMap<>();
+        merges.forEach((lessonId, merge) -> {
+            LessonRef lesson = lessons.get(lessonId);
+            BitSet added = newlyCompleted.get(enrollmentsByCourse.get(lesson.courseId()).getId());
+            if (merge.completedAt != null && added != null && added.get(lesson.progressOrdinal())) {
+                lessonCompletions.put(lessonId, 1);
+            }
+        });
+        progressSyncRepository.incrementLessonCompletions(lessonCompletions);
+
+        deltas.forEach((enrollmentId, delta) -> {
+            BitSet added = newlyCompleted.get(enrollmentId);
+            enrollmentService.applySyncedProgress(delta.enrollment, added != null ? added.cardinality() : 0,
+                    delta.watchedSeconds, delta.lastAt);
+        });
+    }
+
+    private ProgressEvent toEvent(ProgressEventInput input, LocalDateTime now) {
+        String eventId = input.getEventId();
+        if (eventId == null || eventId.isBlank() || eventId.length() > MAX_EVENT_ID_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Event ID is required and must be at most " + MAX_EVENT_ID_LENGTH + " characters");
+        }
+        if (input.getLessonId() == null) {
+            throw new IllegalArgumentException("Lesson ID is required for event " + eventId);
+        }
+        int positionSeconds = input.getPositionSeconds() != null ? input.getPositionSeconds() : 0;
+        int watchedSeconds = input.getWatchedSeconds() != null ? input.getWatchedSeconds() : 0;
+        if (positionSeconds < 0 || watchedSeconds < 0) {
+            throw new IllegalArgumentException("Position and watched seconds must not be negative for event " + eventId);
+        }
+
+        LocalDateTime occurredAt = parseOccurredAt(eventId, input.getOccurredAt());
+        // Device clocks can run ahead; an event never counts as later than its upload
+        if (occurredAt.isAfter(now)) {
+            occurredAt = now;
+        }
+        // Same cap as a live playback heartbeat
+        return new ProgressEvent(eventId, input.getLessonId(), occurredAt, Boolean.TRUE.equals(input.getCompleted()),
+                input.getPositionSeconds(), Math.min(watchedSeconds, maxSecondsPerEvent));
+    }
+
+    private static LocalDateTime parseOccurredAt(String eventId, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Occurrence time is required for event " + eventId);
+        }
+        try {
+            return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(value);
+            } catch (DateTimeParseException ignored) {
+                throw new IllegalArgumentException("Invalid occurrence time for event " + eventId + ": " + value);
+            }
+        }
+    }
+
+    // ============================================
+    // Retention
+    // ============================================
+
+    /**
+     * Forget claimed event IDs after the retention period. Clients must not replay
+     * events older than that.
+     */
+    @Scheduled(cron = "${app.progress.sync-cleanup-cron:0 30 4 * * *}")
+    public void purgeExpiredEventIds() {
+        int deleted = progressSyncRepository.deleteEventIdsBefore(LocalDateTime.now().minusDays(eventRetentionDays));
+        if (deleted > 0) {
+            log.info("Purged {} synced progress event IDs older than {} days", deleted, eventRetentionDays);
+        }
+    }
+
+    /**
+     * A validated offline progress event.
+     *
+     * @param eventId Client event ID
+     * @param lessonId Lesson ID
+     * @param occurredAt Event time (server time zone, not in the future)
+     * @param completed Whether the lesson was completed
+     * @param positionSeconds Playback position (nullable)
+     * @param watchedSeconds Seconds watched (at most {@code app.heartbeat.max-seconds-per-heartbeat})
+     */
+    public record ProgressEvent(String eventId, Long lessonId, LocalDateTime occurredAt, boolean completed,
+                                Integer positionSeconds, int watchedSeconds) {
+    }
+
+    /**
+     * Outcome of a sync.
+     *
+     * @param applied Events applied by this sync
+     * @param duplicates Events repeated within the batch or applied by an earlier sync
+     * @param skippedEventIds Events of unknown lessons or courses the learner is not enrolled in
+     */
+    public record SyncResult(int applied, int duplicates, List<String> skippedEventIds) {
+    }
+
+    /**
+     * New events of one lesson, merged.
+     */
+    private static final class LessonMerge {
+        private LocalDateTime firstAt;
+        private LocalDateTime lastAt;
+        private LocalDateTime completedAt;
+        private LocalDateTime positionAt;
+        private Integer positionSeconds;
+        private int watchedSeconds;
+
+        void add(ProgressEvent event) {
+            LocalDateTime at = event.occurredAt();
+            if (firstAt == null || at.isBefore(firstAt)) {
+                firstAt = at;
+            }
+            if (lastAt == null || at.isAfter(lastAt)) {
+                lastAt = at;
+            }
+            if (event.completed() && (completedAt == null || at.isBefore(completedAt))) {
+                completedAt = at;
+            }
+            if (event.positionSeconds() != null && (positionAt == null || !at.isBefore(positionAt))) {
+                positionAt = at;
+                positionSeconds = event.positionSeconds();
+            }
+            watchedSeconds = (int) Math.min(Integer.MAX_VALUE, (long) watchedSeconds + event.watchedSeconds());
+        }
+
+        /**
+         * A lesson cannot be watched for longer than its events span, plus the allowance of
+         * the first event (many events with the same time count as one).
+         */
+        void capWatchedSeconds(int maxSecondsPerEvent) {
+            long span = Duration.between(firstAt, lastAt).getSeconds();
+            watchedSeconds = (int) Math.min(watchedSeconds, span + maxSecondsPerEvent);
+        }
+    }
+
+    /**
+     * New events of one enrollment, summed.
+     */
+    private static final class EnrollmentDelta {
+        private final Enrollment enrollment;
+        private LocalDateTime lastAt;
+        private long watchedSeconds;
+
+        EnrollmentDelta(Enrollment enrollment) {
+            this.enrollment = enrollment;
+        }
+
+        void add(LessonMerge merge) {
+            if (lastAt == null || merge.lastAt.isAfter(lastAt)) {
+                lastAt = merge.lastAt;
+            }
+            watchedSeconds += merge.watchedSeconds;
+        }
+    }
+}
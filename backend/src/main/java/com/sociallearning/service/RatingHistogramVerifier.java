@@ -0,0 +1,118 @@
+package com.sociallearning.service;
+
+import com.sociallearning.entity.RatingHistogram;
+import com.sociallearning.repository.CourseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background verification of the incrementally maintained course rating histograms.
+ *
+ * Provides:
+ * - A startup pass that rebuilds histograms whose rating count disagrees with them
+ *   (e.g. courses rated before the histogram columns existed)
+ * - A scheduled full pass that compares every histogram with a grouped count of the
+ *   course's visible ratings and rebuilds the ones that drifted
+ *
+ * Detection runs in unlocked batches; each suspect course is then re-checked and
+ * rebuilt under a row lock by {@link RatingService#verifyRatingHistogram(Long)}.
+ */
+@Slf4j
+@Service
+public class RatingHistogramVerifier {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final CourseRepository courseRepository;
+    private final RatingService ratingService;
+    private final Counter repairedCounter;
+
+    public RatingHistogramVerifier(CourseRepository courseRepository,
+                                   RatingService ratingService,
+                                   MeterRegistry meterRegistry) {
+        this.courseRepository = courseRepository;
+        this.ratingService = ratingService;
+        this.repairedCounter = Counter.builder("rating_histogram.repaired")
+                .description("Course rating histograms rebuilt after drift was detected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Initialize histograms that are obviously out of date on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairInconsistentHistograms() {
+        try {
+            List<Long> courseIds = courseRepository.findCoursesWithInconsistentRatingCount();
+            int repaired = repair(courseIds);
+            if (repaired > 0) {
+                log.info("Rebuilt {} inconsistent course rating histograms on startup", repaired);
+            }
+        } catch (RuntimeException e) {
+            log.error("Startup rating histogram repair failed", e);
+        }
+    }
+
+    /**
+     * Compare every course's histogram with its ratings and rebuild drifted ones.
+     *
+     * @return Number of rebuilt histograms
+     */
+    @Scheduled(cron = "${app.rating-histogram.verify-cron:0 30 3 * * *}")
+    public int verifyAll() {
+        long start = System.currentTimeMillis();
+        int checked = 0;
+        int repaired = 0;
+        Long afterId = 0L;
+
+        while (true) {
+            List<Long> courseIds = courseRepository.findIdsAfter(afterId, BATCH_SIZE);
+            if (courseIds.isEmpty()) {
+                break;
+            }
+
+            Map<Long, RatingHistogram> stored = new HashMap<>();
+            for (Object[] row : courseRepository.findRatingHistograms(courseIds)) {
+                stored.put((Long) row[0], row[1] != null ? (RatingHistogram) row[1] : new RatingHistogram());
+            }
+            Map<Long, RatingHistogram> actual = ratingService.countVisibleRatings(courseIds);
+
+            List<Long> suspects = courseIds.stream()
+                    .filter(id -> !actual.getOrDefault(id, new RatingHistogram())
+                            .equals(stored.getOrDefault(id, new RatingHistogram())))
+                    .toList();
+            repaired += repair(suspects);
+
+            checked += courseIds.size();
+            afterId = courseIds.get(courseIds.size() - 1);
+        }
+
+        log.info("Rating histogram verification finished: checked={}, repaired={}, took {} ms",
+                checked, repaired, System.currentTimeMillis() - start);
+        return repaired;
+    }
+
+    private int repair(List<Long> courseIds) {
+        int repaired = 0;
+        for (Long courseId : courseIds) {
+            try {
+                if (ratingService.verifyRatingHistogram(courseId)) {
+                    repaired++;
+                    repairedCounter.increment();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to verify rating histogram for course {}", courseId, e);
+            }
+        }
+        return repaired;
+    }
+}
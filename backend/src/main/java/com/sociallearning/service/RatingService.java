@@ -2,21 +2,28 @@ package com.sociallearning.service;
 
 import com.sociallearning.entity.Course;
 import com.sociallearning.entity.Rating;
+import com.sociallearning.entity.RatingHistogram;
 import com.sociallearning.entity.User;
 import com.sociallearning.repository.CourseRepository;
 import com.sociallearning.repository.EnrollmentRepository;
 import com.sociallearning.repository.RatingRepository;
+import com.sociallearning.repository.RowEstimateRepository;
 import com.sociallearning.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -25,7 +32,7 @@ import java.util.Optional;
  * Provides business logic for:
  * - Adding/updating ratings with validation (1-5 stars)
  * - Managing reviews
- * - Updating denormalized rating counts and averages
+ * - Maintaining the per-course rating histogram incrementally (count, average, distribution)
  * - Fetching ratings with pagination and filtering
  * - Moderation features (hide, feature reviews)
  */
@@ -38,12 +45,17 @@ public class RatingService {
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
     private final EnrollmentRepository enrollmentRepository;
+    private final RowEstimateRepository rowEstimateRepository;
+    private final TrendingScoreService trendingScoreService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String USER_NOT_FOUND_MSG = "User not found with ID: ";
     private static final String COURSE_NOT_FOUND_MSG = "Course not found with ID: ";
     private static final String RATING_NOT_FOUND_MSG = "Rating not found with ID: ";
     private static final int MIN_RATING = 1;
     private static final int MAX_RATING = 5;
+    private static final String RATING_FEED_CURSOR = "rating";
+    private static final String REVIEW_FEED_CURSOR = "review";
 
     // ============================================
     // Rate Course Methods
@@ -87,15 +99,19 @@ public class RatingService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new IllegalArgumentException(COURSE_NOT_FOUND_MSG + courseId));
 
-        // Check if user has already rated this course
-        Optional<Rating> existingRating = ratingRepository.findByUserIdAndCourseId(userId, courseId);
+        // Check if user has already rated this course (locked, so the histogram delta uses the current value)
+        Optional<Rating> existingRating = ratingRepository.findByUserIdAndCourseIdForUpdate(userId, courseId);
 
         Rating rating;
         boolean isNewRating;
+        Integer previousVisibleValue = null;
 
         if (existingRating.isPresent()) {
             // Update existing rating
             rating = existingRating.get();
+            if (!rating.getIsHidden()) {
+                previousVisibleValue = rating.getRatingValue();
+            }
             rating.setRatingValue(ratingValue);
             
             // Update review if provided
@@ -126,8 +142,14 @@ public class RatingService {
 
         rating = ratingRepository.save(rating);
 
-        // Update denormalized counts on course
-        updateCourseRatingStats(course, isNewRating);
+        // Update denormalized histogram on course (hidden ratings are not counted)
+        if (isNewRating) {
+            applyHistogramDelta(courseId, null, ratingValue);
+            trendingScoreService.record(courseId, TrendingScoreService.Signal.RATING);
+        } else if (previousVisibleValue != null) {
+            applyHistogramDelta(courseId, previousVisibleValue, ratingValue);
+        }
+        eventPublisher.publishEvent(new CoursePreferenceChangedEvent(userId, courseId));
 
         log.info("Rating saved: ratingId={}", rating.getId());
         return rating;
@@ -182,13 +204,17 @@ public class RatingService {
         validateRatingValue(newRatingValue);
 
         Rating rating = getRatingWithAuthorization(ratingId, userId);
+        int previousValue = rating.getRatingValue();
         
         rating.setRatingValue(newRatingValue);
         rating.markAsEdited();
         rating = ratingRepository.save(rating);
 
-        // Update course stats
-        updateCourseRatingStats(rating.getCourse(), false);
+        // Update course stats (hidden ratings are not in the histogram)
+        if (!rating.getIsHidden()) {
+            applyHistogramDelta(rating.getCourse().getId(), previousValue, newRatingValue);
+        }
+        eventPublisher.publishEvent(new CoursePreferenceChangedEvent(userId, rating.getCourse().getId()));
 
         log.info("Rating updated: ratingId={}", ratingId);
         return rating;
@@ -234,12 +260,17 @@ public class RatingService {
         log.info("Deleting rating: userId={}, ratingId={}", userId, ratingId);
 
         Rating rating = getRatingWithAuthorization(ratingId, userId);
-        Course course = rating.getCourse();
+        Long courseId = rating.getCourse().getId();
+        boolean wasVisible = !rating.getIsHidden();
+        int ratingValue = rating.getRatingValue();
 
         ratingRepository.delete(rating);
 
-        // Update course stats (decrement count)
-        updateCourseRatingStatsAfterDelete(course);
+        // Update course stats (remove from histogram; hidden ratings were removed when hidden)
+        if (wasVisible) {
+            applyHistogramDelta(courseId, ratingValue, null);
+        }
+        eventPublisher.publishEvent(new CoursePreferenceChangedEvent(userId, courseId));
 
         log.info("Rating deleted: ratingId={}", ratingId);
     }
@@ -253,13 +284,18 @@ public class RatingService {
     public void adminDeleteRating(Long ratingId) {
         log.info("Admin deleting rating: ratingId={}", ratingId);
 
-        Rating rating = ratingRepository.findByIdWithDetails(ratingId)
+        Rating rating = ratingRepository.findByIdForUpdate(ratingId)
                 .orElseThrow(() -> new IllegalArgumentException(RATING_NOT_FOUND_MSG + ratingId));
         
-        Course course = rating.getCourse();
+        Long courseId = rating.getCourse().getId();
+        boolean wasVisible = !rating.getIsHidden();
+        int ratingValue = rating.getRatingValue();
 
         ratingRepository.delete(rating);
-        updateCourseRatingStatsAfterDelete(course);
+        if (wasVisible) {
+            applyHistogramDelta(courseId, ratingValue, null);
+        }
+        eventPublisher.publishEvent(new CoursePreferenceChangedEvent(rating.getUser().getId(), courseId));
 
         log.info("Rating deleted by admin: ratingId={}", ratingId);
     }
@@ -304,6 +340,25 @@ public class RatingService {
         return ratingRepository.findByCourseIdAndIsHiddenFalse(courseId, pageable);
     }
 
+    /**
+     * Get ratings for a course, computing the total only as requested.
+     * The exact total comes from the course's rating histogram, so no COUNT query is needed
+     * for either EXACT or ESTIMATED.
+     *
+     * @param courseId Course ID
+     * @param pageable Pagination parameters
+     * @param totals How to obtain the total (a plain Slice is returned for NONE)
+     * @return Slice of ratings, a Page when a total was requested
+     */
+    @Transactional(readOnly = true)
+    public Slice<Rating> getCourseRatings(Long courseId, Pageable pageable, PageTotals totals) {
+        Slice<Rating> slice = ratingRepository.findSliceByCourseIdAndIsHiddenFalse(courseId, pageable);
+        if (totals == PageTotals.NONE) {
+            return slice;
+        }
+        return new PageImpl<>(slice.getContent(), pageable, getHistogram(courseId).getTotalCount());
+    }
+
     /**
      * Get reviews (ratings with content) for a course.
      *
@@ -316,6 +371,67 @@ public class RatingService {
         return ratingRepository.findReviewsByCourseId(courseId, pageable);
     }
 
+    /**
+     * Get reviews for a course, computing the total only as requested.
+     *
+     * @param courseId Course ID
+     * @param pageable Pagination parameters
+     * @param totals How to obtain the total (a plain Slice is returned for NONE)
+     * @return Slice of reviews, a Page when a total was requested
+     */
+    @Transactional(readOnly = true)
+    public Slice<Rating> getCourseReviews(Long courseId, Pageable pageable, PageTotals totals) {
+        return switch (totals) {
+            case EXACT -> ratingRepository.findReviewsByCourseId(courseId, pageable);
+            case NONE -> ratingRepository.findReviewSliceByCourseId(courseId, pageable);
+            case ESTIMATED -> PageTotals.withEstimatedTotal(
+                    ratingRepository.findReviewSliceByCourseId(courseId, pageable),
+                    () -> rowEstimateRepository.estimateCourseReviews(courseId));
+        };
+    }
+
+    /**
+     * Get one window of visible ratings for a course, newest first (keyset pagination).
+     *
+     * @param courseId Course ID
+     * @param first Maximum number of ratings
+     * @param after Cursor of the last rating already seen (null for the first window)
+     * @return Window of ratings with user loaded
+     */
+    @Transactional(readOnly = true)
+    public KeysetWindow<Rating> getCourseRatingFeed(Long courseId, int first, String after) {
+        List<Rating> ratings;
+        if (after == null) {
+            ratings = ratingRepository.findRatingFeed(courseId, first + 1);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after, RATING_FEED_CURSOR, 2);
+            ratings = ratingRepository.findRatingFeedAfter(courseId, cursor.getDateTime(0), cursor.getLong(1), first + 1);
+        }
+        return KeysetWindow.of(ratings, first, rating ->
+                KeysetCursor.encode(RATING_FEED_CURSOR, rating.getCreatedAt(), rating.getId()));
+    }
+
+    /**
+     * Get one window of reviews (ratings with content) for a course, newest first (keyset pagination).
+     *
+     * @param courseId Course ID
+     * @param first Maximum number of reviews
+     * @param after Cursor of the last review already seen (null for the first window)
+     * @return Window of reviews with user loaded
+     */
+    @Transactional(readOnly = true)
+    public KeysetWindow<Rating> getCourseReviewFeed(Long courseId, int first, String after) {
+        List<Rating> reviews;
+        if (after == null) {
+            reviews = ratingRepository.findReviewFeed(courseId, first + 1);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after, REVIEW_FEED_CURSOR, 2);
+            reviews = ratingRepository.findReviewFeedAfter(courseId, cursor.getDateTime(0), cursor.getLong(1), first + 1);
+        }
+        return KeysetWindow.of(reviews, first, review ->
+                KeysetCursor.encode(REVIEW_FEED_CURSOR, review.getCreatedAt(), review.getId()));
+    }
+
     /**
      * Get featured reviews for a course.
      *
@@ -401,7 +517,8 @@ public class RatingService {
      */
     @Transactional(readOnly = true)
     public Double getAverageRating(Long courseId) {
-        return ratingRepository.calculateAverageRating(courseId);
+        RatingHistogram histogram = getHistogram(courseId);
+        return histogram.getTotalCount() > 0 ? histogram.getAverage().doubleValue() : null;
     }
 
     /**
@@ -412,43 +529,47 @@ public class RatingService {
      */
     @Transactional(readOnly = true)
     public long getRatingCount(Long courseId) {
-        return ratingRepository.countByCourseIdAndIsHiddenFalse(courseId);
+        return getHistogram(courseId).getTotalCount();
     }
 
     /**
      * Get rating distribution for a course.
      *
      * @param courseId Course ID
-     * @return List of [ratingValue, count] arrays
+     * @return List of [ratingValue, count] arrays, highest rating first
      */
     @Transactional(readOnly = true)
     public List<Object[]> getRatingDistribution(Long courseId) {
-        return ratingRepository.getRatingDistribution(courseId);
+        RatingHistogram histogram = getHistogram(courseId);
+        List<Object[]> distribution = new ArrayList<>();
+        for (int stars = MAX_RATING; stars >= MIN_RATING; stars--) {
+            long count = histogram.getCount(stars);
+            if (count > 0) {
+                distribution.add(new Object[]{stars, count});
+            }
+        }
+        return distribution;
     }
 
     /**
      * Get comprehensive rating statistics for a course.
-     * Returns: [average, total, count5star, count4star, count3star, count2star, count1star]
+     * Read from the course's rating histogram (no scan over ratings).
      *
      * @param courseId Course ID
-     * @return Statistics array
+     * @return Rating statistics
      */
     @Transactional(readOnly = true)
     public RatingStats getRatingStats(Long courseId) {
-        Object[] stats = ratingRepository.getRatingStats(courseId);
-        
-        if (stats == null || stats[0] == null) {
-            return new RatingStats(0.0, 0L, 0L, 0L, 0L, 0L, 0L);
-        }
+        RatingHistogram histogram = getHistogram(courseId);
 
         return new RatingStats(
-            ((Number) stats[0]).doubleValue(),  // average
-            ((Number) stats[1]).longValue(),    // total
-            stats[2] != null ? ((Number) stats[2]).longValue() : 0L,  // 5 stars
-            stats[3] != null ? ((Number) stats[3]).longValue() : 0L,  // 4 stars
-            stats[4] != null ? ((Number) stats[4]).longValue() : 0L,  // 3 stars
-            stats[5] != null ? ((Number) stats[5]).longValue() : 0L,  // 2 stars
-            stats[6] != null ? ((Number) stats[6]).longValue() : 0L   // 1 star
+            histogram.getAverage().doubleValue(),
+            histogram.getTotalCount(),
+            histogram.getCount(5),
+            histogram.getCount(4),
+            histogram.getCount(3),
+            histogram.getCount(2),
+            histogram.getCount(1)
         );
     }
 
@@ -517,14 +638,14 @@ public class RatingService {
     public void hideReview(Long ratingId) {
         log.info("Hiding review: ratingId={}", ratingId);
         
-        Rating rating = ratingRepository.findById(ratingId)
+        // Locked, so the value removed from the histogram cannot be changed by a concurrent update
+        Rating rating = ratingRepository.findByIdForUpdate(ratingId)
                 .orElseThrow(() -> new IllegalArgumentException(RATING_NOT_FOUND_MSG + ratingId));
 
-        rating.setIsHidden(true);
-        ratingRepository.save(rating);
-
-        // Update course stats
-        updateCourseRatingStats(rating.getCourse(), false);
+        // Conditional update so concurrent hides only remove the rating from the histogram once
+        if (ratingRepository.hide(ratingId) == 1) {
+            applyHistogramDelta(rating.getCourse().getId(), rating.getRatingValue(), null);
+        }
 
         log.info("Review hidden: ratingId={}", ratingId);
     }
@@ -538,14 +659,12 @@ public class RatingService {
     public void unhideReview(Long ratingId) {
         log.info("Unhiding review: ratingId={}", ratingId);
         
-        Rating rating = ratingRepository.findById(ratingId)
+        Rating rating = ratingRepository.findByIdForUpdate(ratingId)
                 .orElseThrow(() -> new IllegalArgumentException(RATING_NOT_FOUND_MSG + ratingId));
 
-        rating.setIsHidden(false);
-        ratingRepository.save(rating);
-
-        // Update course stats
-        updateCourseRatingStats(rating.getCourse(), false);
+        if (ratingRepository.unhide(ratingId) == 1) {
+            applyHistogramDelta(rating.getCourse().getId(), null, rating.getRatingValue());
+        }
 
         log.info("Review unhidden: ratingId={}", ratingId);
     }
@@ -597,54 +716,108 @@ public class RatingService {
     // ============================================
 
     /**
-     * Update the denormalized rating statistics on a course.
+     * Apply a rating change to the course's histogram in a single UPDATE.
+     * Average and count are re-derived from the histogram in the same statement.
      *
-     * @param course Course entity
-     * @param isNewRating Whether this is a new rating (increments count)
+     * @param courseId Course ID
+     * @param removedValue Rating value leaving the visible set (null if none)
+     * @param addedValue Rating value entering the visible set (null if none)
      */
-    private void updateCourseRatingStats(Course course, boolean isNewRating) {
-        // Recalculate average and count from database
-        Double averageRating = ratingRepository.calculateAverageRating(course.getId());
-        long ratingCount = ratingRepository.countByCourseIdAndIsHiddenFalse(course.getId());
+    private void applyHistogramDelta(Long courseId, Integer removedValue, Integer addedValue) {
+        if (removedValue != null && removedValue.equals(addedValue)) {
+            return;
+        }
 
-        // Update course entity
-        if (averageRating != null) {
-            course.setAverageRating(BigDecimal.valueOf(averageRating)
-                    .setScale(2, RoundingMode.HALF_UP));
-        } else {
-            course.setAverageRating(BigDecimal.ZERO);
+        int[] deltas = new int[MAX_RATING + 1];
+        long sumDelta = 0;
+        if (removedValue != null) {
+            deltas[removedValue]--;
+            sumDelta -= removedValue;
+        }
+        if (addedValue != null) {
+            deltas[addedValue]++;
+            sumDelta += addedValue;
         }
-        course.setRatingCount((int) ratingCount);
 
-        courseRepository.save(course);
+        courseRepository.applyRatingDelta(courseId, deltas[1], deltas[2], deltas[3], deltas[4], deltas[5], sumDelta);
 
-        log.debug("Course rating stats updated: courseId={}, avg={}, count={}", 
-                course.getId(), averageRating, ratingCount);
+        log.debug("Course rating histogram updated: courseId={}, removed={}, added={}",
+                courseId, removedValue, addedValue);
     }
 
     /**
-     * Update course stats after a rating is deleted.
+     * Recalculate and update rating stats for a course from its ratings.
+     * Use for data consistency checks or repairs.
      *
-     * @param course Course entity
+     * @param courseId Course ID
      */
-    private void updateCourseRatingStatsAfterDelete(Course course) {
-        updateCourseRatingStats(course, false);
+    @Transactional
+    public void recalculateCourseRatingStats(Long courseId) {
+        courseRepository.lockById(courseId)
+                .orElseThrow(() -> new IllegalArgumentException(COURSE_NOT_FOUND_MSG + courseId));
+
+        writeHistogram(courseId, countVisibleRatings(List.of(courseId)).getOrDefault(courseId, new RatingHistogram()));
+
+        log.info("Course rating stats recalculated: courseId={}", courseId);
     }
 
     /**
-     * Recalculate and update rating stats for a course.
-     * Use for data consistency checks or repairs.
+     * Compare a course's stored histogram with its ratings and rebuild it if they differ.
+     * The course row is locked first, so in-flight rating deltas either commit before
+     * the recount (and are included) or apply on top of the rebuilt histogram.
      *
      * @param courseId Course ID
+     * @return true if the histogram had drifted and was rebuilt
      */
     @Transactional
-    public void recalculateCourseRatingStats(Long courseId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException(COURSE_NOT_FOUND_MSG + courseId));
+    public boolean verifyRatingHistogram(Long courseId) {
+        if (courseRepository.lockById(courseId).isEmpty()) {
+            return false;
+        }
 
-        updateCourseRatingStats(course, false);
+        RatingHistogram actual = countVisibleRatings(List.of(courseId)).getOrDefault(courseId, new RatingHistogram());
+        RatingHistogram stored = courseRepository.findRatingHistogramById(courseId).orElseGet(RatingHistogram::new);
+        if (actual.equals(stored)) {
+            return false;
+        }
 
-        log.info("Course rating stats recalculated: courseId={}", courseId);
+        log.warn("Rating histogram drift on course {}: stored={}, actual={}", courseId, stored, actual);
+        writeHistogram(courseId, actual);
+        return true;
+    }
+
+    /**
+     * Build exact histograms for a batch of courses with one grouped query.
+     * Courses without visible ratings are absent from the result.
+     *
+     * @param courseIds Course IDs
+     * @return Histogram per course ID
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, RatingHistogram> countVisibleRatings(Collection<Long> courseIds) {
+        Map<Long, long[]> buckets = new HashMap<>();
+        for (Object[] row : ratingRepository.countVisibleRatingsByValue(courseIds)) {
+            long[] counts = buckets.computeIfAbsent((Long) row[0], id -> new long[MAX_RATING + 1]);
+            counts[(Integer) row[1]] = ((Number) row[2]).longValue();
+        }
+
+        Map<Long, RatingHistogram> histograms = new HashMap<>();
+        buckets.forEach((courseId, counts) -> histograms.put(courseId, RatingHistogram.of(counts)));
+        return histograms;
+    }
+
+    private void writeHistogram(Long courseId, RatingHistogram histogram) {
+        courseRepository.overwriteRatingHistogram(
+                courseId,
+                histogram.getOneStarCount(),
+                histogram.getTwoStarCount(),
+                histogram.getThreeStarCount(),
+                histogram.getFourStarCount(),
+                histogram.getFiveStarCount(),
+                histogram.getRatingSum(),
+                (int) histogram.getTotalCount(),
+                histogram.getAverage()
+        );
     }
 
     // ============================================
@@ -688,13 +861,21 @@ public class RatingService {
         }
     }
 
+    private RatingHistogram getHistogram(Long courseId) {
+        return courseRepository.findRatingHistogramById(courseId).orElseGet(RatingHistogram::new);
+    }
+
     private User getUser(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException(USER_NOT_FOUND_MSG + userId));
     }
 
+    /**
+     * Load and row-lock a rating of the user; value and visibility stay current until the
+     * transaction ends, so histogram deltas and saves cannot race moderation or other edits.
+     */
     private Rating getRatingWithAuthorization(Long ratingId, Long userId) {
-        Rating rating = ratingRepository.findByIdWithDetails(ratingId)
+        Rating rating = ratingRepository.findByIdWithDetailsForUpdate(ratingId)
                 .orElseThrow(() -> new IllegalArgumentException(RATING_NOT_FOUND_MSG + ratingId));
 
         if (!rating.getUser().getId().equals(userId)) {
@@ -0,0 +1,224 @@
+package com.sociallearning.service;
+
+import com.sociallearning.entity.SearchTermRollup;
+import com.sociallearning.enums.SearchTermKind;
+import com.sociallearning.repository.SearchTermRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Search query analytics.
+ *
+ * Provides business logic for:
+ * - Recording normalized search terms off the request path (a bounded queue, drained periodically)
+ * - Approximate top terms and top zero-result terms per time window, kept in fixed-memory
+ *   sketches ({@link HeavyHitterSketch}: count-min sketch plus a bounded candidate table)
+ * - Persisting the top terms of every closed window as rollups, with a retention period
+ * - Reporting the top terms over a time range, including the open window
+ * - Metrics: search.analytics.recorded, search.analytics.dropped (queue full)
+ *
+ * Memory is constant: the queue, the sketches and the candidate tables are bounded
+ * regardless of how many distinct terms arrive.
+ *
+ * Configuration: {@code app.search-analytics.*} (window-minutes, top-terms, queue-capacity,
+ * sketch-width, sketch-depth, retention-days).
+ */
+@Slf4j
+@Service
+public class SearchAnalyticsService {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_TERM_LENGTH = 100;
+
+    private final SearchTermRollupRepository searchTermRollupRepository;
+    private final BlockingQueue<RecordedSearch> queue;
+    private final int topTerms;
+    private final int sketchDepth;
+    private final int sketchWidth;
+    private final int retentionDays;
+    private final Counter recorded;
+    private final Counter dropped;
+
+    // Only accessed under the instance lock
+    private Map<SearchTermKind, HeavyHitterSketch> sketches;
+    private LocalDateTime windowStart = LocalDateTime.now();
+
+    public SearchAnalyticsService(SearchTermRollupRepository searchTermRollupRepository,
+                                  Environment environment,
+                                  MeterRegistry meterRegistry) {
+        this.searchTermRollupRepository = searchTermRollupRepository;
+        int windowMinutes = environment.getProperty("app.search-analytics.window-minutes", Integer.class, 60);
+        this.topTerms = environment.getProperty("app.search-analytics.top-terms", Integer.class, 100);
+        this.sketchDepth = environment.getProperty("app.search-analytics.sketch-depth", Integer.class, 4);
+        this.sketchWidth = environment.getProperty("app.search-analytics.sketch-width", Integer.class, 8192);
+        this.retentionDays = environment.getProperty("app.search-analytics.retention-days", Integer.class, 90);
+        int queueCapacity = environment.getProperty("app.search-analytics.queue-capacity", Integer.class, 10_000);
+        if (windowMinutes < 1 || topTerms < 1) {
+            throw new IllegalArgumentException("app.search-analytics window-minutes and top-terms must be positive");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.sketches = newSketches();
+
+        this.recorded = Counter.builder("search.analytics.recorded")
+                .description("Search terms added to the analytics sketches")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("search.analytics.dropped")
+                .description("Search terms dropped because the analytics queue was full")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // Recording
+    // ============================================
+
+    /**
+     * Record a search. Never blocks; the term is dropped (and counted) if the queue is full.
+     *
+     * @param searchTerm Raw search term
+     * @param zeroResults Whether the search found no course
+     */
+    public void record(String searchTerm, boolean zeroResults) {
+        String term = normalize(searchTerm);
+        if (term.isEmpty()) {
+            return;
+        }
+        if (!queue.offer(new RecordedSearch(term, zeroResults))) {
+            dropped.increment();
+        }
+    }
+
+    private static String normalize(String searchTerm) {
+        String term = WHITESPACE.matcher(SearchTextAnalyzer.normalize(searchTerm)).replaceAll(" ");
+        return term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term;
+    }
+
+    /**
+     * Move queued searches into the sketches of the open window.
+     */
+    @Scheduled(fixedDelayString = "${app.search-analytics.drain-interval-ms:1000}")
+    public synchronized void drain() {
+        List<RecordedSearch> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        for (RecordedSearch search : batch) {
+            sketches.get(SearchTermKind.SEARCH).add(search.term());
+            if (search.zeroResults()) {
+                sketches.get(SearchTermKind.ZERO_RESULTS).add(search.term());
+            }
+        }
+        recorded.increment(batch.size());
+    }
+
+    // ============================================
+    // Rollups
+    // ============================================
+
+    /**
+     * Close the open window: persist its top terms and start a new one.
+     * Runs every window and once more on shutdown.
+     */
+    @Scheduled(fixedRateString = "${app.search-analytics.window-minutes:60}",
+            initialDelayString = "${app.search-analytics.window-minutes:60}", timeUnit = TimeUnit.MINUTES)
+    public synchronized void rollUp() {
+        drain();
+        Map<SearchTermKind, HeavyHitterSketch> closed = sketches;
+        LocalDateTime start = windowStart;
+        LocalDateTime end = LocalDateTime.now();
+        sketches = newSketches();
+        windowStart = end;
+
+        List<SearchTermRollup> rollups = new ArrayList<>();
+        closed.forEach((kind, sketch) -> sketch.top(topTerms).forEach(entry -> rollups.add(SearchTermRollup.builder()
+                .kind(kind)
+                .term(entry.getKey())
+                .estimatedCount(entry.getValue())
+                .windowStart(start)
+                .windowEnd(end)
+                .build())));
+        try {
+            searchTermRollupRepository.saveAll(rollups);
+            int expired = searchTermRollupRepository.deleteByWindowEndBefore(end.minusDays(retentionDays));
+            log.info("Search analytics window closed: {} searches, {} rollups saved, {} expired",
+                    closed.get(SearchTermKind.SEARCH).total(), rollups.size(), expired);
+        } catch (RuntimeException e) {
+            // The window is lost, but recording continues in the new one
+            log.warn("Failed to persist search analytics window {} - {}", start, end, e);
+        }
+    }
+
+    /**
+     * Persist the open window before the application context (and its DataSource) goes away.
+     */
+    @PreDestroy
+    public void rollUpOnShutdown() {
+        rollUp();
+    }
+
+    // ============================================
+    // Reporting
+    // ============================================
+
+    /**
+     * Get the most frequent search terms since a time: persisted windows plus the open one.
+     * Counts are estimates; terms outside a window's top list are not counted for that window.
+     *
+     * @param kind All searches or zero-result searches
+     * @param since Earliest window start
+     * @param limit Maximum number of terms
+     * @return Term to estimated count, highest first
+     */
+    @Transactional(readOnly = true)
+    public List<TermCount> getTopTerms(SearchTermKind kind, LocalDateTime since, int limit) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : searchTermRollupRepository.sumTopTerms(kind, since, limit)) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        synchronized (this) {
+            drain();
+            sketches.get(kind).top(limit).forEach(entry -> counts.merge(entry.getKey(), entry.getValue(), Long::sum));
+        }
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> new TermCount(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private Map<SearchTermKind, HeavyHitterSketch> newSketches() {
+        Map<SearchTermKind, HeavyHitterSketch> fresh = new EnumMap<>(SearchTermKind.class);
+        for (SearchTermKind kind : SearchTermKind.values()) {
+            // Keep more candidates than reported so late risers can displace early ones
+            fresh.put(kind, new HeavyHitterSketch(sketchDepth, sketchWidth, topTerms * 4));
+        }
+        return fresh;
+    }
+
+    private record RecordedSearch(String term, boolean zeroResults) {
+    }
+
+    /**
+     * Estimated number of searches for a term.
+     *
+     * @param term Normalized search term
+     * @param count Estimated count
+     */
+    public record TermCount(String term, long count) {
+    }
+}
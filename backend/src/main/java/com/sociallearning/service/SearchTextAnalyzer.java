@@ -0,0 +1,68 @@
+package com.sociallearning.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Text analysis shared by the course search components.
+ *
+ * Turns free text into normalized index terms:
+ * - Accents are stripped (NFD + combining mark removal)
+ * - Text is lower-cased and split on anything that is not a letter or digit
+ * - Common English stop words are dropped
+ */
+public final class SearchTextAnalyzer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into",
+            "is", "it", "of", "on", "or", "the", "to", "with", "your", "you"
+    );
+
+    private SearchTextAnalyzer() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Normalize text without splitting it (accents removed, lower-cased, trimmed).
+     *
+     * @param text Input text
+     * @return Normalized text, or empty string for null input
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ENGLISH)
+                .trim();
+    }
+
+    /**
+     * Split text into index terms, keeping duplicates so callers can count term frequency.
+     *
+     * @param text Input text
+     * @return Terms in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> terms = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(normalized)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,189 @@
+package com.sociallearning.service;
+
+import com.sociallearning.enums.SlugScope;
+import com.sociallearning.repository.SlugCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Service for allocating unique URL slugs.
+ * 
+ * Provides business logic for:
+ * - Converting names into URL-friendly base slugs
+ * - Allocating "base", "base-1", "base-2", ... with one counter statement per slug
+ *   ({@link SlugCounterRepository}) instead of probing every suffix with existsBySlug
+ * - Serving course, category and tag slugs ({@link SlugScope})
+ * 
+ * Suffixes are reserved in their own short transaction, so concurrent creates of the
+ * same title get different suffixes without holding the counter row lock until the
+ * caller commits. Each candidate is then reserved under a unique index, so two
+ * allocations can never hand out the same slug, even from different bases ("intro" with
+ * suffix 1 and a title "Intro 1"). A candidate that is already reserved or taken (created
+ * before reservations existed) is skipped and the next suffix tried. The bare base slug is
+ * tried first, so it comes back once its entity is gone.
+ *
+ * Reservations live as long as the slug is in use: deletes and renames release them in
+ * the owning transaction, and a nightly sweep removes reservations no row holds (creates
+ * and renames that rolled back after their allocation committed).
+ *
+ * Configuration: {@code app.slugs.reservation-cleanup-cron}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SlugAllocator {
+
+    private static final Pattern NON_LATIN = Pattern.compile("[^\\w-]");
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s]");
+    private static final Pattern MULTIPLE_DASHES = Pattern.compile("-{2,}");
+    private static final Pattern NUMERIC_SUFFIX = Pattern.compile("-[1-9][0-9]*");
+    private static final int MAX_ATTEMPTS = 10;
+    private static final int CLEANUP_BATCH_SIZE = 1000;
+    /** Longer than any create or rename transaction, which may still be about to insert its slug */
+    private static final Duration RESERVATION_GRACE = Duration.ofHours(1);
+
+    private final SlugCounterRepository slugCounterRepository;
+
+    /**
+     * Allocate a unique slug for a name.
+     * 
+     * @param scope Entity kind the slug is for
+     * @param name Name (title) to derive the slug from
+     * @return Unique slug
+     * @throws IllegalStateException if no free slug is found within a few attempts
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public String allocate(SlugScope scope, String name) {
+        String baseSlug = toBaseSlug(scope, name);
+        // A base freed by a delete or rename is handed out again; the counter only moves forward
+        if (isFree(scope, baseSlug)) {
+            return baseSlug;
+        }
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long suffix = slugCounterRepository.nextSuffix(scope, baseSlug);
+            String slug = suffix == 0 ? baseSlug : baseSlug + "-" + suffix;
+            // The reservation settles races between bases that produce the same slug
+            if (isFree(scope, slug)) {
+                return slug;
+            }
+            log.debug("Slug {} already taken in {}, reserving the next suffix", slug, scope);
+        }
+        throw new IllegalStateException("Could not allocate a unique slug for: " + name);
+    }
+
+    /**
+     * Allocate a slug for a renamed entity, keeping the current slug when the new
+     * name produces the same base (e.g. only case or punctuation changed).
+     * 
+     * @param scope Entity kind the slug is for
+     * @param name New name
+     * @param currentSlug Current slug of the entity
+     * @return The current slug, or a newly allocated one
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public String reallocate(SlugScope scope, String name, String currentSlug) {
+        String baseSlug = toBaseSlug(scope, name);
+        if (currentSlug != null && (currentSlug.equals(baseSlug)
+                || (currentSlug.startsWith(baseSlug)
+                    && NUMERIC_SUFFIX.matcher(currentSlug.substring(baseSlug.length())).matches()))) {
+            return currentSlug;
+        }
+        return allocate(scope, name);
+    }
+
+    /**
+     * Reserve a slug if nobody holds it.
+     */
+    private boolean isFree(SlugScope scope, String slug) {
+        return slugCounterRepository.reserve(scope, slug) && !slugCounterRepository.slugExists(scope, slug);
+    }
+
+    /**
+     * Release the slug of a deleted entity, or the previous slug of a renamed one.
+     * Joins the caller's transaction, so the slug stays reserved if the change rolls back.
+     * 
+     * @param scope Entity kind the slug is for
+     * @param slug Slug no longer used
+     */
+    @Transactional
+    public void release(SlugScope scope, String slug) {
+        if (slug != null) {
+            slugCounterRepository.release(scope, slug);
+        }
+    }
+
+    /**
+     * Remove reservations of slugs that no entity holds, left behind by creates and
+     * renames that rolled back after their slug was allocated.
+     */
+    @Scheduled(cron = "${app.slugs.reservation-cleanup-cron:0 45 4 * * *}")
+    public void releaseOrphanedReservations() {
+        LocalDateTime reservedBefore = LocalDateTime.now().minus(RESERVATION_GRACE);
+        for (SlugScope scope : SlugScope.values()) {
+            long released = 0;
+            int deleted;
+            while ((deleted = slugCounterRepository.deleteOrphanedReservations(
+                    scope, reservedBefore, CLEANUP_BATCH_SIZE)) > 0) {
+                released += deleted;
+            }
+            if (released > 0) {
+                log.info("Released {} orphaned {} slug reservations", released, scope);
+            }
+        }
+    }
+
+    private static String toBaseSlug(SlugScope scope, String name) {
+        String slug = toSlug(name, scope.getMaxBaseLength());
+        return slug.isEmpty() ? scope.getFallbackSlug() : slug;
+    }
+
+    /**
+     * Convert a string to a URL-friendly slug.
+     * 
+     * @param input Input string
+     * @param maxLength Maximum slug length
+     * @return Slug (empty if the input has no slug-able characters)
+     */
+    static String toSlug(String input, int maxLength) {
+        if (input == null) {
+            return "";
+        }
+        
+        // Normalize string (remove accents)
+        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
+        
+        // Convert to lowercase
+        String lowercase = normalized.toLowerCase(Locale.ENGLISH);
+        
+        // Replace whitespace with dashes
+        String withDashes = WHITESPACE.matcher(lowercase).replaceAll("-");
+        
+        // Remove non-latin characters
+        String slug = NON_LATIN.matcher(withDashes).replaceAll("");
+        
+        // Remove multiple consecutive dashes
+        slug = MULTIPLE_DASHES.matcher(slug).replaceAll("-");
+        
+        // Remove leading/trailing dashes
+        slug = slug.replaceAll("(^-)|(-$)", "");
+        
+        // Limit length
+        if (slug.length() > maxLength) {
+            slug = slug.substring(0, maxLength);
+            // Remove trailing dash if any
+            slug = slug.replaceAll("-$", "");
+        }
+        
+        return slug;
+    }
+}
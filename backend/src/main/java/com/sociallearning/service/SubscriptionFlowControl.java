@@ -0,0 +1,229 @@
+package com.sociallearning.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-subscriber flow control for GraphQL subscription streams.
+ *
+ * Provides business logic for:
+ * - A bounded buffer between the topic sink and each subscriber, so one slow
+ *   WebSocket client cannot make the node buffer events without limit
+ * - A per-stream overflow policy (drop oldest, latest value wins, disconnect)
+ * - Per-subscription received/delivered/dropped counters and current lag
+ * - Metrics: subscriptions.dropped, subscriptions.disconnected, subscriptions.lag (all tagged by stream)
+ *
+ * Buffer size and policy are configured per stream under
+ * {@code app.subscriptions.<stream>.buffer-size} and {@code app.subscriptions.<stream>.overflow}.
+ */
+@Slf4j
+@Service
+public class SubscriptionFlowControl {
+
+    private static final int DEFAULT_BUFFER_SIZE = 256;
+
+    private final Map<Stream, StreamPolicy> policies = new EnumMap<>(Stream.class);
+    private final Map<Long, SubscriptionStats> activeSubscriptions = new ConcurrentHashMap<>();
+    private final AtomicLong subscriptionIds = new AtomicLong();
+    private final Map<Stream, Counter> droppedCounters = new EnumMap<>(Stream.class);
+    private final Map<Stream, Counter> disconnectedCounters = new EnumMap<>(Stream.class);
+
+    public SubscriptionFlowControl(Environment environment, MeterRegistry meterRegistry) {
+        for (Stream stream : Stream.values()) {
+            String prefix = "app.subscriptions." + stream.configKey;
+            int bufferSize = environment.getProperty(prefix + ".buffer-size", Integer.class, DEFAULT_BUFFER_SIZE);
+            OverflowPolicy overflow = environment.getProperty(prefix + ".overflow", OverflowPolicy.class,
+                    stream.defaultOverflow);
+            if (bufferSize < 1) {
+                throw new IllegalArgumentException(prefix + ".buffer-size must be at least 1");
+            }
+            policies.put(stream, new StreamPolicy(overflow == OverflowPolicy.LATEST ? 1 : bufferSize, overflow));
+
+            droppedCounters.put(stream, Counter.builder("subscriptions.dropped")
+                    .description("Events dropped because a subscriber's buffer was full")
+                    .tag("stream", stream.configKey)
+                    .register(meterRegistry));
+            disconnectedCounters.put(stream, Counter.builder("subscriptions.disconnected")
+                    .description("Subscriptions terminated because their buffer overflowed")
+                    .tag("stream", stream.configKey)
+                    .register(meterRegistry));
+            Gauge.builder("subscriptions.lag", this, flowControl -> flowControl.totalLag(stream))
+                    .description("Events buffered for subscribers and not yet delivered")
+                    .tag("stream", stream.configKey)
+                    .register(meterRegistry);
+        }
+        log.info("Subscription buffer policies: {}", policies);
+    }
+
+    /**
+     * Put a bounded, policy-controlled buffer in front of one subscriber.
+     *
+     * @param stream Subscription stream
+     * @param targetType Type of entity watched
+     * @param targetId ID of the entity watched
+     * @param userId Subscribing user (may be null for anonymous subscriptions)
+     * @param source Hot event stream of the topic
+     * @return Stream that applies the overflow policy and tracks the subscription
+     */
+    public <T> Flux<T> bounded(Stream stream, String targetType, Long targetId, Long userId, Flux<T> source) {
+        StreamPolicy policy = policies.get(stream);
+
+        return Flux.defer(() -> {
+            long id = subscriptionIds.incrementAndGet();
+            SubscriptionStats stats = new SubscriptionStats(id, stream, targetType, targetId, userId,
+                    policy, Instant.now());
+            activeSubscriptions.put(id, stats);
+
+            Flux<T> received = source.doOnNext(event -> stats.received.increment());
+            Flux<T> buffered = switch (policy.overflow()) {
+                case DROP_OLDEST, LATEST -> received.onBackpressureBuffer(policy.bufferSize(),
+                        dropped -> onDropped(stats), BufferOverflowStrategy.DROP_OLDEST);
+                case DISCONNECT -> received.onBackpressureBuffer(policy.bufferSize(),
+                                dropped -> onDropped(stats), BufferOverflowStrategy.ERROR)
+                        .onErrorMap(Exceptions::isOverflow, e -> disconnect(stats));
+            };
+
+            return buffered
+                    .doOnNext(event -> stats.delivered.increment())
+                    .doFinally(signal -> activeSubscriptions.remove(id));
+        });
+    }
+
+    /**
+     * Snapshot of all open subscriptions, most lagging first.
+     *
+     * @return Per-subscription statistics
+     */
+    public List<SubscriptionStatsView> getActiveSubscriptions() {
+        return activeSubscriptions.values().stream()
+                .map(SubscriptionStats::toView)
+                .sorted(Comparator.comparingLong(SubscriptionStatsView::lag).reversed())
+                .toList();
+    }
+
+    private void onDropped(SubscriptionStats stats) {
+        stats.dropped.increment();
+        droppedCounters.get(stats.stream).increment();
+    }
+
+    private RuntimeException disconnect(SubscriptionStats stats) {
+        disconnectedCounters.get(stats.stream).increment();
+        log.warn("Disconnecting slow {} subscriber {} (user={}, target={}:{}): buffer of {} events overflowed",
+                stats.stream.configKey, stats.id, stats.userId, stats.targetType, stats.targetId,
+                stats.policy.bufferSize());
+        return new IllegalStateException("Subscription terminated: client is not keeping up with events");
+    }
+
+    private double totalLag(Stream stream) {
+        return activeSubscriptions.values().stream()
+                .filter(stats -> stats.stream == stream)
+                .mapToLong(SubscriptionStats::lag)
+                .sum();
+    }
+
+    // ============================================
+    // Policy Types
+    // ============================================
+
+    /**
+     * Subscription streams with their config key and default overflow policy.
+     */
+    public enum Stream {
+        COMMENT_ADDED("comment-added", OverflowPolicy.DISCONNECT),
+        COMMENT_EVENTS("comment-events", OverflowPolicy.DISCONNECT),
+        LIKE_TOGGLED("like-toggled", OverflowPolicy.DROP_OLDEST),
+        RATING_EVENT("rating-event", OverflowPolicy.LATEST);
+
+        private final String configKey;
+        private final OverflowPolicy defaultOverflow;
+
+        Stream(String configKey, OverflowPolicy defaultOverflow) {
+            this.configKey = configKey;
+            this.defaultOverflow = defaultOverflow;
+        }
+    }
+
+    public enum OverflowPolicy {
+        /** Discard the oldest buffered event to make room */
+        DROP_OLDEST,
+        /** Keep only the most recent event (buffer of one) */
+        LATEST,
+        /** Terminate the subscription with an error */
+        DISCONNECT
+    }
+
+    public record StreamPolicy(int bufferSize, OverflowPolicy overflow) {}
+
+    // ============================================
+    // Statistics
+    // ============================================
+
+    public record SubscriptionStatsView(
+        Long id,
+        String stream,
+        String targetType,
+        Long targetId,
+        Long userId,
+        int bufferSize,
+        OverflowPolicy overflowPolicy,
+        long received,
+        long delivered,
+        long dropped,
+        long lag,
+        String subscribedAt
+    ) {}
+
+    private static final class SubscriptionStats {
+
+        private final long id;
+        private final Stream stream;
+        private final String targetType;
+        private final Long targetId;
+        private final Long userId;
+        private final StreamPolicy policy;
+        private final Instant subscribedAt;
+        private final LongAdder received = new LongAdder();
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        SubscriptionStats(long id, Stream stream, String targetType, Long targetId, Long userId,
+                          StreamPolicy policy, Instant subscribedAt) {
+            this.id = id;
+            this.stream = stream;
+            this.targetType = targetType;
+            this.targetId = targetId;
+            this.userId = userId;
+            this.policy = policy;
+            this.subscribedAt = subscribedAt;
+        }
+
+        /**
+         * Events accepted into the buffer but not yet handed to the client
+         */
+        long lag() {
+            return Math.max(0, received.sum() - delivered.sum() - dropped.sum());
+        }
+
+        SubscriptionStatsView toView() {
+            return new SubscriptionStatsView(id, stream.configKey, targetType, targetId, userId,
+                    policy.bufferSize(), policy.overflow(), received.sum(), delivered.sum(), dropped.sum(),
+                    lag(), subscribedAt.toString());
+        }
+    }
+}
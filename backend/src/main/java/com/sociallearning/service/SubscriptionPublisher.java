@@ -2,10 +2,11 @@ package com.sociallearning.service;
 
 import com.sociallearning.entity.Comment;
 import com.sociallearning.entity.Rating;
+import com.sociallearning.service.TopicRouter.TopicKey;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Sinks;
 
 /**
  * Service for publishing GraphQL subscription events.
@@ -17,21 +18,26 @@ import reactor.core.publisher.Sinks;
  * - Comment added/updated/deleted events
  * - Rating added events
  * - Like toggle events
+ * 
+ * Events are routed by (targetType, targetId) through a {@link TopicRouter} per event kind,
+ * so publishing only reaches the subscribers of the affected entity instead of filtering
+ * every event against every open subscription.
  */
 @Slf4j
 @Service
 public class SubscriptionPublisher {
 
-    // Sinks for different event types - using multicast to support multiple subscribers
-    private final Sinks.Many<CommentEvent> commentSink;
-    private final Sinks.Many<RatingEvent> ratingSink;
-    private final Sinks.Many<LikeEvent> likeSink;
+    private static final String COURSE = "COURSE";
+
+    // One topic per target entity - topics are created by the first subscriber and reclaimed after the last
+    private final TopicRouter<CommentEvent> commentRouter;
+    private final TopicRouter<RatingEvent> ratingRouter;
+    private final TopicRouter<LikeEvent> likeRouter;
 
-    public SubscriptionPublisher() {
-        // Create multicast sinks with replay of 0 (no history for new subscribers)
-        this.commentSink = Sinks.many().multicast().onBackpressureBuffer();
-        this.ratingSink = Sinks.many().multicast().onBackpressureBuffer();
-        this.likeSink = Sinks.many().multicast().onBackpressureBuffer();
+    public SubscriptionPublisher(MeterRegistry meterRegistry) {
+        this.commentRouter = new TopicRouter<>("comment", meterRegistry);
+        this.ratingRouter = new TopicRouter<>("rating", meterRegistry);
+        this.likeRouter = new TopicRouter<>("like", meterRegistry);
         
         log.info("SubscriptionPublisher initialized");
     }
@@ -55,11 +61,7 @@ public class SubscriptionPublisher {
                 targetId
         );
         
-        Sinks.EmitResult result = commentSink.tryEmitNext(event);
-        
-        if (result.isFailure()) {
-            log.warn("Failed to publish comment added event: {}", result);
-        } else {
+        if (commentRouter.publish(new TopicKey(targetType, targetId), event)) {
             log.debug("Published comment added event: commentId={}, targetType={}, targetId={}", 
                     comment.getId(), targetType, targetId);
         }
@@ -78,11 +80,7 @@ public class SubscriptionPublisher {
                 comment.getCommentableId()
         );
         
-        Sinks.EmitResult result = commentSink.tryEmitNext(event);
-        
-        if (result.isFailure()) {
-            log.warn("Failed to publish comment updated event: {}", result);
-        } else {
+        if (commentRouter.publish(new TopicKey(event.targetType(), event.targetId()), event)) {
             log.debug("Published comment updated event: commentId={}", comment.getId());
         }
     }
@@ -100,11 +98,7 @@ public class SubscriptionPublisher {
                 comment.getCommentableId()
         );
         
-        Sinks.EmitResult result = commentSink.tryEmitNext(event);
-        
-        if (result.isFailure()) {
-            log.warn("Failed to publish comment deleted event: {}", result);
-        } else {
+        if (commentRouter.publish(new TopicKey(event.targetType(), event.targetId()), event)) {
             log.debug("Published comment deleted event: commentId={}", comment.getId());
         }
     }
@@ -117,18 +111,7 @@ public class SubscriptionPublisher {
      * @return Flux of comment events
      */
     public Flux<CommentEvent> getCommentEventsForTarget(String targetType, Long targetId) {
-        return commentSink.asFlux()
-                .filter(event -> event.targetType().equals(targetType) 
-                        && event.targetId().equals(targetId));
-    }
-
-    /**
-     * Get a Flux of all comment events.
-     * 
-     * @return Flux of all comment events
-     */
-    public Flux<CommentEvent> getAllCommentEvents() {
-        return commentSink.asFlux();
+        return commentRouter.subscribe(new TopicKey(targetType, targetId));
     }
 
     // ============================================
@@ -148,11 +131,7 @@ public class SubscriptionPublisher {
                 rating.getCourse().getId()
         );
         
-        Sinks.EmitResult result = ratingSink.tryEmitNext(event);
-        
-        if (result.isFailure()) {
-            log.warn("Failed to publish rating event: {}", result);
-        } else {
+        if (ratingRouter.publish(new TopicKey(COURSE, event.courseId()), event)) {
             log.debug("Published rating {} event: ratingId={}, courseId={}", 
                     isNew ? "added" : "updated", rating.getId(), rating.getCourse().getId());
         }
@@ -165,8 +144,7 @@ public class SubscriptionPublisher {
      * @return Flux of rating events
      */
     public Flux<RatingEvent> getRatingEventsForCourse(Long courseId) {
-        return ratingSink.asFlux()
-                .filter(event -> event.courseId().equals(courseId));
+        return ratingRouter.subscribe(new TopicKey(COURSE, courseId));
     }
 
     // ============================================
@@ -192,11 +170,7 @@ public class SubscriptionPublisher {
                 newLikeCount
         );
         
-        Sinks.EmitResult result = likeSink.tryEmitNext(event);
-        
-        if (result.isFailure()) {
-            log.warn("Failed to publish like event: {}", result);
-        } else {
+        if (likeRouter.publish(new TopicKey(targetType, targetId), event)) {
             log.debug("Published like toggle event: targetType={}, targetId={}, liked={}", 
                     targetType, targetId, isLiked);
         }
@@ -210,9 +184,7 @@ public class SubscriptionPublisher {
      * @return Flux of like events
      */
     public Flux<LikeEvent> getLikeEventsForTarget(String targetType, Long targetId) {
-        return likeSink.asFlux()
-                .filter(event -> event.targetType().equals(targetType) 
-                        && event.targetId().equals(targetId));
+        return likeRouter.subscribe(new TopicKey(targetType, targetId));
     }
 
     // ============================================
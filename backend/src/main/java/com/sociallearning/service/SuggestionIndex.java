@@ -0,0 +1,397 @@
+package com.sociallearning.service;
+
+import com.sociallearning.entity.Category;
+import com.sociallearning.entity.Tag;
+import com.sociallearning.repository.CategoryRepository;
+import com.sociallearning.repository.CourseRepository;
+import com.sociallearning.repository.TagRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Search-as-you-type suggestions over course titles, tag names and category names.
+ *
+ * Provides business logic for:
+ * - One completion trie per kind (courses, tags, categories). Every word start of a name is
+ *   a key, so "java" also suggests "Advanced Java"
+ * - Keys are cut after {@value #MAX_KEY_LENGTH} characters and chains of single-child nodes are
+ *   merged into one edge (radix tree), so nodes only exist where keys branch or end
+ * - Each trie node stores its best suggestions, so a lookup walks the prefix and returns
+ *   the stored list: no database access and no scan below the node
+ * - Weights: course enrollments (rating breaks ties), {@code Tag.usageCount}, {@code Category.courseCount}
+ * - Background rebuilds (startup, scheduled, coalesced after course changes) swapped in atomically
+ * - Metrics: suggestions.rebuild
+ */
+@Slf4j
+@Service
+public class SuggestionIndex {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_KEY_LENGTH = 16;
+
+    private final CourseRepository courseRepository;
+    private final TagRepository tagRepository;
+    private final CategoryRepository categoryRepository;
+    private final Executor applicationTaskExecutor;
+    private final int suggestionsPerNode;
+    private final Timer rebuildTimer;
+
+    private volatile Tries tries;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean(false);
+
+    public SuggestionIndex(
+            CourseRepository courseRepository,
+            TagRepository tagRepository,
+            CategoryRepository categoryRepository,
+            Executor applicationTaskExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${app.suggest.max-results:10}") int suggestionsPerNode) {
+
+        if (suggestionsPerNode < 1) {
+            throw new IllegalArgumentException("app.suggest.max-results must be at least 1");
+        }
+        this.courseRepository = courseRepository;
+        this.tagRepository = tagRepository;
+        this.categoryRepository = categoryRepository;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.suggestionsPerNode = suggestionsPerNode;
+        this.rebuildTimer = Timer.builder("suggestions.rebuild")
+                .description("Time spent rebuilding the suggestion tries")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // Querying
+    // ============================================
+
+    /**
+     * Suggest courses, tags and categories whose name has a word starting with the prefix.
+     *
+     * @param prefix Typed text (case and accents are ignored)
+     * @param limit Maximum suggestions per kind (at most {@code app.suggest.max-results})
+     * @return Suggestions per kind, highest weight first (empty before the first build)
+     */
+    public Suggestions suggest(String prefix, int limit) {
+        Tries current = tries;
+        String key = toKey(prefix);
+        if (current == null || key.isEmpty()) {
+            return Suggestions.EMPTY;
+        }
+        return new Suggestions(
+                current.courses().complete(key, limit),
+                current.tags().complete(key, limit),
+                current.categories().complete(key, limit));
+    }
+
+    /**
+     * Normalize text into a trie key: accents removed, lower-cased, separators collapsed to one space.
+     */
+    private static String toKey(String text) {
+        return SEPARATORS.matcher(SearchTextAnalyzer.normalize(text)).replaceAll(" ").trim();
+    }
+
+    // ============================================
+    // Rebuild
+    // ============================================
+
+    /**
+     * Build the tries once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduledRebuild();
+    }
+
+    /**
+     * Rebuild periodically, picking up popularity changes (enrollments, tag usage, category sizes).
+     */
+    @Scheduled(fixedDelayString = "${app.suggest.refresh-interval-ms:300000}",
+            initialDelayString = "${app.suggest.refresh-interval-ms:300000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Suggestion index rebuild failed; keeping the previous tries", e);
+        }
+    }
+
+    /**
+     * Schedule a rebuild after a course change commits (new titles, tags, publish state).
+     * Bursts of changes are coalesced into one rebuild on the task executor.
+     *
+     * @param event Course change event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCourseChanged(CourseChangedEvent event) {
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            applicationTaskExecutor.execute(() -> {
+                rebuildPending.set(false);
+                scheduledRebuild();
+            });
+        } catch (RuntimeException e) {
+            rebuildPending.set(false);
+            log.warn("Could not schedule suggestion rebuild for course {}", event.courseId(), e);
+        }
+    }
+
+    /**
+     * Rebuild all tries from the database and swap them in.
+     */
+    public synchronized void rebuild() {
+        Tries fresh = rebuildTimer.record(() -> {
+            TrieBuilder courses = new TrieBuilder();
+            for (Object[] row : courseRepository.findSuggestionRows()) {
+                Integer enrollments = (Integer) row[3];
+                BigDecimal rating = (BigDecimal) row[4];
+                double weight = (enrollments != null ? enrollments : 0)
+                        + (rating != null ? rating.doubleValue() / 10 : 0);
+                courses.add(new Suggestion((Long) row[0], (String) row[1], (String) row[2], weight));
+            }
+
+            TrieBuilder tags = new TrieBuilder();
+            for (Tag tag : tagRepository.findAll()) {
+                tags.add(new Suggestion(tag.getId(), tag.getName(), tag.getSlug(),
+                        tag.getUsageCount() != null ? tag.getUsageCount() : 0));
+            }
+
+            TrieBuilder categories = new TrieBuilder();
+            for (Category category : categoryRepository.findAllByActiveTrueOrderByNameAsc()) {
+                categories.add(new Suggestion(category.getId(), category.getName(), category.getSlug(),
+                        category.getCourseCount() != null ? category.getCourseCount() : 0));
+            }
+
+            return new Tries(courses.build(suggestionsPerNode), tags.build(suggestionsPerNode),
+                    categories.build(suggestionsPerNode));
+        });
+        tries = fresh;
+        log.debug("Suggestion index rebuilt");
+    }
+
+    // ============================================
+    // Trie
+    // ============================================
+
+    private record Tries(Trie courses, Trie tags, Trie categories) {
+    }
+
+    /**
+     * Collects the keys of one kind; built into a compact {@link Trie} from the sorted keys.
+     */
+    private static final class TrieBuilder {
+
+        private final List<KeyEntry> entries = new ArrayList<>();
+
+        void add(Suggestion suggestion) {
+            String key = toKey(suggestion.text());
+            if (key.isEmpty()) {
+                return;
+            }
+            // Every word start is a key, so inner words of a name complete too
+            for (int start = 0; start >= 0; start = nextWordStart(key, start)) {
+                entries.add(new KeyEntry(key.substring(start, Math.min(key.length(), start + MAX_KEY_LENGTH)),
+                        suggestion));
+            }
+        }
+
+        private static int nextWordStart(String key, int from) {
+            int space = key.indexOf(' ', from);
+            return space < 0 ? -1 : space + 1;
+        }
+
+        Trie build(int suggestionsPerNode) {
+            entries.sort(Comparator.comparing(KeyEntry::key));
+            return new Trie(freeze("", 0, entries.size(), 0, suggestionsPerNode));
+        }
+
+        /**
+         * Build the node for the sorted entries [from, to), which share their first {@code depth}
+         * characters. A key that is a prefix of others sorts first; the rest are grouped by their
+         * next character, and each group's child starts where the group's keys diverge, so the
+         * edge to it spans the whole chain of characters they share.
+         */
+        private Node freeze(String edge, int from, int to, int depth, int suggestionsPerNode) {
+            Set<Suggestion> candidates = new LinkedHashSet<>();
+            int i = from;
+            for (; i < to && entries.get(i).key().length() == depth; i++) {
+                candidates.add(entries.get(i).suggestion());
+            }
+
+            List<Node> children = new ArrayList<>();
+            while (i < to) {
+                char label = entries.get(i).key().charAt(depth);
+                int groupEnd = i + 1;
+                while (groupEnd < to && entries.get(groupEnd).key().charAt(depth) == label) {
+                    groupEnd++;
+                }
+                String first = entries.get(i).key();
+                int childDepth = depth + commonPrefixLength(first, entries.get(groupEnd - 1).key(), depth);
+                Node child = freeze(first.substring(depth, childDepth), i, groupEnd, childDepth,
+                        suggestionsPerNode);
+                children.add(child);
+                candidates.addAll(Arrays.asList(child.best()).subList(0,
+                        Math.min(child.best().length, suggestionsPerNode)));
+                i = groupEnd;
+            }
+
+            // Nodes of cut keys keep all their suggestions, for longer prefixes to be checked against
+            Suggestion[] best = candidates.stream()
+                    .sorted(Comparator.comparingDouble(Suggestion::weight).reversed()
+                            .thenComparing(Suggestion::text))
+                    .limit(depth < MAX_KEY_LENGTH ? suggestionsPerNode : Long.MAX_VALUE)
+                    .toArray(Suggestion[]::new);
+            char[] labels = new char[children.size()];
+            for (int c = 0; c < labels.length; c++) {
+                labels[c] = children.get(c).edge().charAt(0);
+                // Share the array when one child holds all of the best suggestions
+                if (Arrays.equals(best, children.get(c).best())) {
+                    best = children.get(c).best();
+                }
+            }
+            return new Node(edge, labels, children.toArray(Node[]::new), best);
+        }
+
+        /**
+         * Length of the common prefix of two keys after their first {@code from} characters.
+         */
+        private static int commonPrefixLength(String a, String b, int from) {
+            int max = Math.min(a.length(), b.length());
+            int i = from;
+            while (i < max && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i - from;
+        }
+    }
+
+    private record KeyEntry(String key, Suggestion suggestion) {
+    }
+
+    /**
+     * Immutable radix trie: children are kept in sorted arrays of the first characters of their edges.
+     */
+    private record Trie(Node root) {
+
+        List<Suggestion> complete(String prefix, int limit) {
+            Node node = root;
+            int depth = Math.min(prefix.length(), MAX_KEY_LENGTH);
+            // The prefix may end inside an edge; the node below it holds the same keys
+            for (int i = 0; i < depth; i += node.edge().length()) {
+                node = node.child(prefix.charAt(i));
+                if (node == null
+                        || !node.edge().regionMatches(0, prefix, i, Math.min(node.edge().length(), depth - i))) {
+                    return List.of();
+                }
+            }
+            List<Suggestion> result = new ArrayList<>(Math.min(limit, node.best().length));
+            for (Suggestion suggestion : node.best()) {
+                if (result.size() == limit) {
+                    break;
+                }
+                // Keys are truncated; longer prefixes are checked against the full name
+                if (depth == prefix.length() || toKey(suggestion.text()).contains(prefix)) {
+                    result.add(suggestion);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @param edge Characters from the parent to this node (empty for the root)
+     * @param labels First characters of the children's edges, sorted
+     * @param children Children, in label order
+     * @param best Best suggestions of the keys ending in this node's subtree
+     *             (all of them at {@value #MAX_KEY_LENGTH} characters deep)
+     */
+    private record Node(String edge, char[] labels, Node[] children, Suggestion[] best) {
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    // ============================================
+    // Footprint
+    // ============================================
+
+    /**
+     * Size of the current tries, for checking how much memory an index takes.
+     *
+     * @return Node and stored suggestion reference counts over all kinds (zero before the first build)
+     */
+    Footprint footprint() {
+        Tries current = tries;
+        if (current == null) {
+            return new Footprint(0, 0);
+        }
+        Set<Suggestion[]> arrays = Collections.newSetFromMap(new IdentityHashMap<>());
+        int nodes = 0;
+        for (Trie trie : List.of(current.courses(), current.tags(), current.categories())) {
+            nodes += countNodes(trie.root(), arrays);
+        }
+        return new Footprint(nodes, arrays.stream().mapToInt(best -> best.length).sum());
+    }
+
+    private static int countNodes(Node node, Set<Suggestion[]> arrays) {
+        arrays.add(node.best());
+        int count = 1;
+        for (Node child : node.children()) {
+            count += countNodes(child, arrays);
+        }
+        return count;
+    }
+
+    /**
+     * @param nodes Trie nodes
+     * @param suggestionReferences Entries of the distinct best-suggestion arrays
+     */
+    record Footprint(int nodes, int suggestionReferences) {
+    }
+
+    // ============================================
+    // Result Types
+    // ============================================
+
+    /**
+     * One suggested course, tag or category.
+     *
+     * @param id Entity ID
+     * @param text Display name
+     * @param slug URL slug
+     * @param weight Ranking weight (popularity)
+     */
+    public record Suggestion(Long id, String text, String slug, double weight) {
+    }
+
+    /**
+     * Suggestions grouped by kind.
+     */
+    public record Suggestions(List<Suggestion> courses, List<Suggestion> tags, List<Suggestion> categories) {
+        static final Suggestions EMPTY = new Suggestions(List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,149 @@
+package com.sociallearning.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes subscription events to per-target topics.
+ *
+ * Each (targetType, targetId) pair gets its own hot sink, created lazily when the first
+ * subscriber arrives and reclaimed when the last one leaves. Publishing an event therefore
+ * costs O(subscribers of that target) instead of O(all open subscriptions).
+ *
+ * Metrics (tagged with the event kind):
+ * - subscriptions.topics: number of live topics
+ * - subscriptions.subscribers: number of subscribers across all topics
+ * - subscriptions.fanout: subscribers reached per published event
+ *
+ * @param <E> Event type
+ */
+@Slf4j
+final class TopicRouter<E> {
+
+    private final String kind;
+    private final ConcurrentHashMap<TopicKey, Topic<E>> topics = new ConcurrentHashMap<>();
+    private final DistributionSummary fanOut;
+
+    TopicRouter(String kind, MeterRegistry meterRegistry) {
+        this.kind = kind;
+        this.fanOut = DistributionSummary.builder("subscriptions.fanout")
+                .description("Subscribers reached per published event")
+                .tag("kind", kind)
+                .register(meterRegistry);
+
+        Gauge.builder("subscriptions.topics", topics, ConcurrentHashMap::size)
+                .description("Live subscription topics")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        Gauge.builder("subscriptions.subscribers", this, TopicRouter::subscriberCount)
+                .description("Open subscriptions across all topics")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribe to one topic. The topic is created on subscription and released
+     * when the returned Flux terminates or is cancelled.
+     *
+     * @param key Topic key
+     * @return Hot stream of events published to the topic
+     */
+    Flux<E> subscribe(TopicKey key) {
+        return Flux.defer(() -> {
+            Topic<E> topic = acquire(key);
+            return topic.sink.asFlux()
+                    .doFinally(signal -> release(key, topic));
+        });
+    }
+
+    /**
+     * Publish an event to the subscribers of one topic only.
+     *
+     * @param key Topic key
+     * @param event Event to deliver
+     * @return true if the topic existed and accepted the event
+     */
+    boolean publish(TopicKey key, E event) {
+        Topic<E> topic = topics.get(key);
+        if (topic == null) {
+            fanOut.record(0);
+            return false;
+        }
+
+        Sinks.EmitResult result;
+        // Sinks reject concurrent emission; serialize publishers per topic only
+        synchronized (topic) {
+            fanOut.record(topic.sink.currentSubscriberCount());
+            result = topic.sink.tryEmitNext(event);
+        }
+
+        if (result == Sinks.EmitResult.FAIL_TERMINATED || result == Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            // Last subscriber left between lookup and emit
+            return false;
+        }
+        if (result.isFailure()) {
+            log.warn("Failed to publish {} event to topic {}: {}", kind, key, result);
+            return false;
+        }
+        return true;
+    }
+
+    private Topic<E> acquire(TopicKey key) {
+        return topics.compute(key, (k, existing) -> {
+            Topic<E> topic = existing != null ? existing : new Topic<>();
+            topic.subscribers++;
+            if (existing == null) {
+                log.debug("Created {} topic {}", kind, key);
+            }
+            return topic;
+        });
+    }
+
+    private void release(TopicKey key, Topic<E> topic) {
+        topics.computeIfPresent(key, (k, current) -> {
+            if (current != topic) {
+                return current;
+            }
+            current.subscribers--;
+            if (current.subscribers > 0) {
+                return current;
+            }
+            synchronized (current) {
+                current.sink.tryEmitComplete();
+            }
+            log.debug("Reclaimed {} topic {}", kind, key);
+            return null;
+        });
+    }
+
+    private double subscriberCount() {
+        return topics.values().stream().mapToInt(topic -> topic.subscribers).sum();
+    }
+
+    /**
+     * Topic identity: the entity an event is about.
+     *
+     * @param targetType Type of entity (COURSE, LESSON, COMMENT)
+     * @param targetId ID of the entity
+     */
+    record TopicKey(String targetType, Long targetId) {
+    }
+
+    /**
+     * One topic's sink and reference count. The count is only changed inside
+     * {@link ConcurrentHashMap#compute}, which serializes updates per key.
+     */
+    private static final class Topic<E> {
+
+        // No shared buffer: each subscriber brings its own bounded buffer (see SubscriptionFlowControl),
+        // so a slow subscriber cannot stall delivery to the others on the same topic
+        private final Sinks.Many<E> sink = Sinks.many().multicast().directBestEffort();
+        private volatile int subscribers;
+    }
+}
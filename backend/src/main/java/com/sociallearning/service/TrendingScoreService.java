@@ -0,0 +1,252 @@
+package com.sociallearning.service;
+
+import com.sociallearning.repository.TrendingSignalRepository;
+import com.sociallearning.repository.TrendingSignalRepository.HourlyCount;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time-decayed trending scores for courses.
+ *
+ * Provides business logic for:
+ * - Recording enrollment, view, like and rating signals without touching the database
+ * - Folding the signals of each interval (one-minute buckets by default) into an
+ *   exponentially decayed score per course
+ * - A top-N ranking rebuilt with a bounded min-heap after every fold
+ * - Seeding the scores from the recent history of enrollments, likes and ratings on startup
+ * - Metrics: trending.tracked (scored courses), trending.refresh (fold and ranking time)
+ *
+ * A signal of weight w that happened at time t contributes w * 2^(-(now - t) / halfLife).
+ * Scores are stored scaled to a fixed epoch (w * 2^((t - epoch) / halfLife)); a common factor
+ * does not change the ranking, so courses without new activity never need to be touched.
+ * The epoch is moved forward (and all scores rescaled once) before the values grow too large.
+ *
+ * Configuration: {@code app.trending.half-life-hours}, {@code app.trending.top-size},
+ * {@code app.trending.refresh-interval-ms} and {@code app.trending.weights.<signal>}.
+ */
+@Slf4j
+@Service
+public class TrendingScoreService {
+
+    private static final double REBASE_AFTER_HALF_LIVES = 64;
+    private static final double SEED_HALF_LIVES = 4;
+    private static final double MIN_SCORE = 0.01;
+
+    private final TrendingSignalRepository trendingSignalRepository;
+    private final long halfLifeMillis;
+    private final int topSize;
+    private final Map<Signal, Integer> weights = new EnumMap<>(Signal.class);
+    private final Timer refreshTimer;
+
+    /** Signal weight recorded since the last fold, per course */
+    private final ConcurrentHashMap<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Only accessed under the instance lock
+    private final Map<Long, Double> scaledScores = new HashMap<>();
+    private long epochMillis = System.currentTimeMillis();
+
+    private volatile List<Long> topCourseIds = List.of();
+    private volatile int trackedCourses;
+
+    public TrendingScoreService(TrendingSignalRepository trendingSignalRepository,
+                                Environment environment,
+                                MeterRegistry meterRegistry) {
+        this.trendingSignalRepository = trendingSignalRepository;
+
+        double halfLifeHours = environment.getProperty("app.trending.half-life-hours", Double.class, 24.0);
+        if (halfLifeHours <= 0) {
+            throw new IllegalArgumentException("app.trending.half-life-hours must be positive");
+        }
+        this.halfLifeMillis = (long) (halfLifeHours * 3_600_000);
+        this.topSize = environment.getProperty("app.trending.top-size", Integer.class, 200);
+
+        for (Signal signal : Signal.values()) {
+            String key = "app.trending.weights." + signal.name().toLowerCase();
+            int weight = environment.getProperty(key, Integer.class, signal.defaultWeight);
+            if (weight < 0) {
+                throw new IllegalArgumentException(key + " must not be negative");
+            }
+            weights.put(signal, weight);
+        }
+        log.info("Trending scores: half-life {} h, top {}, weights {}", halfLifeHours, topSize, weights);
+
+        this.refreshTimer = Timer.builder("trending.refresh")
+                .description("Time spent folding trending signals and ranking courses")
+                .register(meterRegistry);
+        Gauge.builder("trending.tracked", this, service -> service.trackedCourses)
+                .description("Courses with a non-negligible trending score")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // Recording
+    // ============================================
+
+    /**
+     * Record one activity signal for a course. Never blocks on the database;
+     * the signal counts towards the ranking after the next fold.
+     *
+     * @param courseId Course ID
+     * @param signal Kind of activity
+     */
+    public void record(Long courseId, Signal signal) {
+        int weight = weights.get(signal);
+        if (weight > 0) {
+            pending.computeIfAbsent(courseId, id -> new LongAdder()).add(weight);
+        }
+    }
+
+    // ============================================
+    // Ranking
+    // ============================================
+
+    /**
+     * Course IDs ranked by trending score, highest first. Includes unpublished
+     * courses; callers filter by visibility.
+     *
+     * @return Up to {@code app.trending.top-size} course IDs
+     */
+    public List<Long> getTopCourseIds() {
+        return topCourseIds;
+    }
+
+    /**
+     * Fold the signals recorded since the last run into the scores and rebuild the ranking.
+     */
+    @Scheduled(fixedRateString = "${app.trending.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        refreshTimer.record(() -> {
+            long now = System.currentTimeMillis();
+            rebaseIfNeeded(now);
+
+            double growth = growth(now);
+            for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+                // Signals arriving concurrently stay in the adder for the next fold
+                long weight = entry.getValue().sumThenReset();
+                if (weight > 0) {
+                    scaledScores.merge(entry.getKey(), weight * growth, Double::sum);
+                }
+            }
+
+            rank(now);
+        });
+    }
+
+    private void rank(long now) {
+        double forgetBelow = MIN_SCORE * growth(now);
+        PriorityQueue<Map.Entry<Long, Double>> heap =
+                new PriorityQueue<>(topSize + 1, Map.Entry.comparingByValue());
+
+        Iterator<Map.Entry<Long, Double>> it = scaledScores.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Double> entry = it.next();
+            if (entry.getValue() < forgetBelow) {
+                it.remove();
+                continue;
+            }
+            heap.offer(entry);
+            if (heap.size() > topSize) {
+                heap.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(heap);
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+        topCourseIds = ranked.stream().map(Map.Entry::getKey).toList();
+        trackedCourses = scaledScores.size();
+    }
+
+    /**
+     * Move the epoch to {@code now} once scores have grown by many half-lives,
+     * keeping the scaled values far from double overflow.
+     */
+    private void rebaseIfNeeded(long now) {
+        if ((now - epochMillis) < REBASE_AFTER_HALF_LIVES * halfLifeMillis) {
+            return;
+        }
+        double factor = 1.0 / growth(now);
+        scaledScores.replaceAll((courseId, score) -> score * factor);
+        epochMillis = now;
+        log.debug("Rebased trending scores of {} courses", scaledScores.size());
+    }
+
+    private double growth(long timeMillis) {
+        return Math.pow(2.0, (double) (timeMillis - epochMillis) / halfLifeMillis);
+    }
+
+    // ============================================
+    // Seeding
+    // ============================================
+
+    /**
+     * Rebuild scores from the last few half-lives of enrollments, likes and ratings,
+     * so the ranking is meaningful right after a restart. Views are not stored with
+     * timestamps and only count from startup on.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void seedFromHistory() {
+        try {
+            long nowMillis = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime since = now.minusNanos((long) (SEED_HALF_LIVES * halfLifeMillis) * 1_000_000);
+
+            seed(trendingSignalRepository.countEnrollmentsByHour(now, since), Signal.ENROLLMENT, nowMillis);
+            seed(trendingSignalRepository.countCourseLikesByHour(now, since), Signal.LIKE, nowMillis);
+            seed(trendingSignalRepository.countRatingsByHour(now, since), Signal.RATING, nowMillis);
+            rank(nowMillis);
+
+            log.info("Seeded trending scores for {} courses", scaledScores.size());
+        } catch (RuntimeException e) {
+            // Scores then build up from live signals only
+            log.error("Seeding trending scores from history failed", e);
+        }
+    }
+
+    private void seed(List<HourlyCount> counts, Signal signal, long nowMillis) {
+        int weight = weights.get(signal);
+        for (HourlyCount count : counts) {
+            long eventMillis = nowMillis - (long) (count.ageSeconds() * 1000);
+            scaledScores.merge(count.courseId(), weight * count.count() * growth(eventMillis), Double::sum);
+        }
+    }
+
+    // ============================================
+    // Signals
+    // ============================================
+
+    /**
+     * Kinds of course activity with their default weight.
+     */
+    public enum Signal {
+        VIEW(1),
+        LIKE(3),
+        RATING(5),
+        ENROLLMENT(10);
+
+        private final int defaultWeight;
+
+        Signal(int defaultWeight) {
+            this.defaultWeight = defaultWeight;
+        }
+    }
+}
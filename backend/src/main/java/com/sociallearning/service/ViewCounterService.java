@@ -0,0 +1,248 @@
+package com.sociallearning.service;
+
+import com.sociallearning.repository.ViewCountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Write-behind aggregation of course and lesson view counts.
+ *
+ * Provides business logic for:
+ * - Recording views in memory without touching the database on the read path
+ * - Periodic flushing of accumulated deltas with one batched UPDATE per entity type
+ * - Draining pending views on shutdown
+ * - Metrics: pending keys, flush lag, flushed and dropped increments, flush duration
+ *
+ * Views are accumulated in striped maps: each request thread writes to the stripe
+ * selected by its thread ID, so a hot course does not serialize all readers on one lock.
+ * Memory is bounded by {@code app.view-counter.max-pending-keys}; views for new keys
+ * beyond that limit are dropped and counted.
+ */
+@Slf4j
+@Service
+public class ViewCounterService {
+
+    private static final int STRIPES = 16;
+    private static final int FLUSH_CHUNK_SIZE = 1000;
+
+    private final ViewCountRepository viewCountRepository;
+    private final ViewAccumulator courseViews;
+    private final ViewAccumulator lessonViews;
+    private final Timer flushTimer;
+
+    private volatile long lastSuccessfulFlushMillis = System.currentTimeMillis();
+
+    public ViewCounterService(
+            ViewCountRepository viewCountRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.view-counter.max-pending-keys:100000}") int maxPendingKeys) {
+
+        this.viewCountRepository = viewCountRepository;
+        this.courseViews = new ViewAccumulator("course", maxPendingKeys, meterRegistry);
+        this.lessonViews = new ViewAccumulator("lesson", maxPendingKeys, meterRegistry);
+        this.flushTimer = Timer.builder("view_counter.flush.duration")
+                .description("Time spent writing accumulated view counts")
+                .register(meterRegistry);
+
+        TimeGauge.builder("view_counter.flush.lag", this, TimeUnit.MILLISECONDS,
+                        service -> System.currentTimeMillis() - service.lastSuccessfulFlushMillis)
+                .description("Time since view counts were last flushed successfully")
+                .register(meterRegistry);
+    }
+
+    // ============================================
+    // Recording
+    // ============================================
+
+    /**
+     * Record a view of a course. Never blocks on the database.
+     *
+     * @param courseId Course ID
+     */
+    public void recordCourseView(Long courseId) {
+        courseViews.add(courseId, 1);
+    }
+
+    /**
+     * Record a view of a lesson. Never blocks on the database.
+     *
+     * @param lessonId Lesson ID
+     */
+    public void recordLessonView(Long lessonId) {
+        lessonViews.add(lessonId, 1);
+    }
+
+    // ============================================
+    // Flushing
+    // ============================================
+
+    /**
+     * Write all accumulated view deltas to the database.
+     * Runs periodically and once more on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${app.view-counter.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        flushTimer.record(() -> {
+            boolean coursesFlushed = flush(courseViews, viewCountRepository::incrementCourseViews);
+            boolean lessonsFlushed = flush(lessonViews, viewCountRepository::incrementLessonViews);
+
+            if (coursesFlushed && lessonsFlushed) {
+                lastSuccessfulFlushMillis = System.currentTimeMillis();
+            }
+        });
+    }
+
+    /**
+     * Drain pending views before the application context (and its DataSource) goes away.
+     */
+    @PreDestroy
+    public void drainOnShutdown() {
+        log.info("Draining pending view counts before shutdown");
+        flush();
+    }
+
+    private boolean flush(ViewAccumulator accumulator, ToIntFunction<Map<Long, Long>> writer) {
+        List<Map<Long, Long>> chunks = accumulator.drain(FLUSH_CHUNK_SIZE);
+
+        for (int i = 0; i < chunks.size(); i++) {
+            Map<Long, Long> chunk = chunks.get(i);
+            try {
+                writer.applyAsInt(chunk);
+                accumulator.flushed.increment(chunk.values().stream().mapToLong(Long::longValue).sum());
+            } catch (RuntimeException e) {
+                // Keep unwritten deltas for the next attempt; chunks already written are committed
+                log.warn("Failed to flush {} view counts, re-queueing {} chunk(s)",
+                        accumulator.entity, chunks.size() - i, e);
+                chunks.subList(i, chunks.size()).forEach(accumulator::requeue);
+                return false;
+            }
+        }
+
+        if (!chunks.isEmpty()) {
+            log.debug("Flushed {} view counts for {} chunk(s)", accumulator.entity, chunks.size());
+        }
+        return true;
+    }
+
+    /**
+     * Striped, bounded in-memory accumulator of view deltas for one entity type.
+     */
+    private static final class ViewAccumulator {
+
+        private final String entity;
+        private final Stripe[] stripes = new Stripe[STRIPES];
+        private final int maxKeysPerStripe;
+        private final Counter dropped;
+        private final Counter flushed;
+
+        ViewAccumulator(String entity, int maxPendingKeys, MeterRegistry meterRegistry) {
+            this.entity = entity;
+            this.maxKeysPerStripe = Math.max(1, maxPendingKeys / STRIPES);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe();
+            }
+
+            this.dropped = Counter.builder("view_counter.dropped")
+                    .description("View increments dropped because the pending buffer was full")
+                    .tag("entity", entity)
+                    .register(meterRegistry);
+            this.flushed = Counter.builder("view_counter.flushed")
+                    .description("View increments written to the database")
+                    .tag("entity", entity)
+                    .register(meterRegistry);
+            Gauge.builder("view_counter.pending", this, ViewAccumulator::pendingKeys)
+                    .description("Entities with unflushed view counts")
+                    .tag("entity", entity)
+                    .register(meterRegistry);
+        }
+
+        void add(Long id, long delta) {
+            Stripe stripe = stripes[(int) (Thread.currentThread().threadId() & (STRIPES - 1))];
+            boolean accepted;
+            synchronized (stripe) {
+                accepted = stripe.pending.containsKey(id) || stripe.pending.size() < maxKeysPerStripe;
+                if (accepted) {
+                    stripe.pending.merge(id, delta, Long::sum);
+                }
+            }
+            if (!accepted) {
+                dropped.increment(delta);
+            }
+        }
+
+        /**
+         * Put back deltas that could not be written. Spread by entity ID (the flushing thread
+         * would otherwise fill a single stripe) and exempt from the cap: they were counted already.
+         */
+        void requeue(Map<Long, Long> deltas) {
+            deltas.forEach((id, delta) -> {
+                Stripe stripe = stripes[Long.hashCode(id) & (STRIPES - 1)];
+                synchronized (stripe) {
+                    stripe.pending.merge(id, delta, Long::sum);
+                }
+            });
+        }
+
+        /**
+         * Atomically take everything accumulated so far, merged across stripes
+         * and split into chunks of at most {@code chunkSize} entities.
+         */
+        List<Map<Long, Long>> drain(int chunkSize) {
+            Map<Long, Long> totals = new HashMap<>();
+            for (Stripe stripe : stripes) {
+                Map<Long, Long> taken;
+                synchronized (stripe) {
+                    if (stripe.pending.isEmpty()) {
+                        continue;
+                    }
+                    taken = stripe.pending;
+                    stripe.pending = new HashMap<>();
+                }
+                taken.forEach((id, delta) -> totals.merge(id, delta, Long::sum));
+            }
+
+            List<Map<Long, Long>> chunks = new ArrayList<>();
+            Map<Long, Long> chunk = new HashMap<>();
+            for (Map.Entry<Long, Long> entry : totals.entrySet()) {
+                chunk.put(entry.getKey(), entry.getValue());
+                if (chunk.size() == chunkSize) {
+                    chunks.add(chunk);
+                    chunk = new HashMap<>();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.add(chunk);
+            }
+            return chunks;
+        }
+
+        double pendingKeys() {
+            int keys = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    keys += stripe.pending.size();
+                }
+            }
+            return keys;
+        }
+    }
+
+    private static final class Stripe {
+        private Map<Long, Long> pending = new HashMap<>();
+    }
+}
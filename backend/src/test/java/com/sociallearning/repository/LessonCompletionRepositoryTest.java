@@ -0,0 +1,234 @@
+package com.sociallearning.repository;
+
+import com.sociallearning.service.LessonProgressStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.BitSet;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the completion bitmap statements against PostgreSQL, since {@code set_bit}/{@code get_bit}
+ * semantics and bit order cannot be checked without it. Only the columns the statements use
+ * are created.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class LessonCompletionRepositoryTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    private LessonCompletionRepository repository;
+    private LessonProgressStore store;
+
+    @BeforeAll
+    static void createSchema() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        jdbcTemplate.execute("CREATE TABLE enrollments (id BIGSERIAL PRIMARY KEY, completed_lesson_bits BYTEA)");
+        jdbcTemplate.execute("CREATE TABLE courses (id BIGSERIAL PRIMARY KEY, next_progress_ordinal INTEGER)");
+        jdbcTemplate.execute("CREATE TABLE modules (id BIGSERIAL PRIMARY KEY, course_id BIGINT NOT NULL, " +
+                "order_index INTEGER NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE lessons (id BIGSERIAL PRIMARY KEY, module_id BIGINT, " +
+                "order_index INTEGER NOT NULL DEFAULT 0, progress_ordinal INTEGER)");
+        jdbcTemplate.execute("CREATE TABLE lesson_progress (id BIGSERIAL PRIMARY KEY, " +
+                "enrollment_id BIGINT NOT NULL, lesson_id BIGINT NOT NULL, completed BOOLEAN NOT NULL)");
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE enrollments, courses, modules, lessons, lesson_progress RESTART IDENTITY");
+        repository = new LessonCompletionRepository(jdbcTemplate);
+        store = new LessonProgressStore(repository, mock(ProgressRepository.class), mock(LessonRepository.class),
+                mock(CourseRepository.class), 100);
+    }
+
+    // ============================================
+    // SET_COMPLETED
+    // ============================================
+
+    @Test
+    void setCompletedReportsTransitionOnlyOnce() {
+        Long enrollmentId = enrollment(new BitSet());
+
+        assertThat(repository.setCompleted(enrollmentId, 3)).isTrue();
+        assertThat(repository.setCompleted(enrollmentId, 3)).isFalse();
+        assertThat(repository.findCompletedBits(enrollmentId)).isEqualTo(bits(3));
+    }
+
+    @Test
+    void setCompletedGrowsBitmapAndKeepsExistingBits() {
+        Long enrollmentId = enrollment(bits(0));
+
+        assertThat(repository.setCompleted(enrollmentId, 20)).isTrue();
+        assertThat(repository.setCompleted(enrollmentId, 0)).isFalse();
+        assertThat(repository.findCompletedBits(enrollmentId)).isEqualTo(bits(0, 20));
+    }
+
+    @Test
+    void setCompletedUsesBitSetBitOrder() {
+        Long enrollmentId = enrollment(bits(1, 9));
+
+        assertThat(repository.setCompleted(enrollmentId, 9)).isFalse();
+        assertThat(repository.setCompleted(enrollmentId, 2)).isTrue();
+        assertThat(repository.findCompletedBits(enrollmentId)).isEqualTo(bits(1, 2, 9));
+    }
+
+    @Test
+    void setCompletedSkipsUnmigratedEnrollment() {
+        Long enrollmentId = enrollment(null);
+
+        assertThat(repository.setCompleted(enrollmentId, 0)).isFalse();
+        assertThat(repository.findCompletedBits(enrollmentId)).isNull();
+    }
+
+    // ============================================
+    // LessonProgressStore.markCompleted
+    // ============================================
+
+    @Test
+    void markCompletedReturnsOnlyNewCompletions() {
+        Long first = enrollment(bits(0));
+        Long second = enrollment(bits(4));
+
+        Map<Long, BitSet> added = store.markCompleted(Map.of(first, bits(0, 1), second, bits(4)));
+
+        assertThat(added).isEqualTo(Map.of(first, bits(1)));
+        assertThat(repository.findCompletedBits(first)).isEqualTo(bits(0, 1));
+        assertThat(repository.findCompletedBits(second)).isEqualTo(bits(4));
+        assertThat(store.markCompleted(Map.of(first, bits(0, 1)))).isEmpty();
+    }
+
+    @Test
+    void markCompletedMigratesLegacyRowsFirst() {
+        Long enrollmentId = enrollment(null);
+        completedRow(enrollmentId, lesson(2));
+        lesson(4);
+
+        Map<Long, BitSet> added = store.markCompleted(Map.of(enrollmentId, bits(2, 4)));
+
+        assertThat(added).isEqualTo(Map.of(enrollmentId, bits(4)));
+        assertThat(repository.findCompletedBits(enrollmentId)).isEqualTo(bits(2, 4));
+    }
+
+    @Test
+    void completionRowsWrittenBeforeMigrationCountAsAlreadyCompleted() {
+        // Why a sync must set the bits before merging its progress rows: rows written first
+        // are migrated into the bitmap, and the completions are never counted
+        Long enrollmentId = enrollment(null);
+        completedRow(enrollmentId, lesson(5));
+
+        assertThat(store.markCompleted(Map.of(enrollmentId, bits(5)))).isEmpty();
+    }
+
+    // ============================================
+    // Ordinal Allocation
+    // ============================================
+
+    @Test
+    void deletedLastLessonsOrdinalIsNotReused() {
+        Long courseId = course();
+        Long moduleId = module(courseId);
+        lesson(moduleId, allocate(courseId));
+        Long last = lesson(moduleId, allocate(courseId));
+        Long enrollmentId = enrollment(new BitSet());
+        assertThat(repository.setCompleted(enrollmentId, 1)).isTrue();
+
+        // As LessonService.deleteLesson and createLesson do
+        repository.reserveAssignedOrdinals(courseId);
+        jdbcTemplate.update("DELETE FROM lessons WHERE id = ?", last);
+        int ordinal = allocate(courseId);
+        lesson(moduleId, ordinal);
+
+        assertThat(ordinal).isEqualTo(2);
+        assertThat(repository.findCompletedBits(enrollmentId).get(ordinal)).isFalse();
+        assertThat(repository.setCompleted(enrollmentId, ordinal)).isTrue();
+    }
+
+    @Test
+    void allocationStartsAboveOrdinalsAssignedBeforeTheCounter() {
+        Long courseId = course();
+        Long moduleId = module(courseId);
+        lesson(moduleId, 0);
+        lesson(moduleId, 4);
+
+        assertThat(allocate(courseId)).isEqualTo(5);
+        assertThat(allocate(courseId)).isEqualTo(6);
+    }
+
+    @Test
+    void missingOrdinalsAreAssignedAfterDeletedOnes() {
+        Long courseId = course();
+        Long moduleId = module(courseId);
+        lesson(moduleId, allocate(courseId));
+        Long deleted = lesson(moduleId, allocate(courseId));
+        repository.reserveAssignedOrdinals(courseId);
+        jdbcTemplate.update("DELETE FROM lessons WHERE id = ?", deleted);
+        Long legacy = jdbcTemplate.queryForObject(
+                "INSERT INTO lessons (module_id, order_index) VALUES (?, 5) RETURNING id", Long.class, moduleId);
+
+        assertThat(repository.assignMissingOrdinals(courseId)).isEqualTo(1);
+
+        assertThat(repository.findLessonOrdinal(legacy)).isEqualTo(2);
+        assertThat(allocate(courseId)).isEqualTo(3);
+    }
+
+    private int allocate(Long courseId) {
+        return repository.allocateOrdinal(courseId);
+    }
+
+    private static Long course() {
+        return jdbcTemplate.queryForObject("INSERT INTO courses DEFAULT VALUES RETURNING id", Long.class);
+    }
+
+    private static Long module(Long courseId) {
+        return jdbcTemplate.queryForObject("INSERT INTO modules (course_id, order_index) VALUES (?, 0) RETURNING id",
+                Long.class, courseId);
+    }
+
+    private static Long lesson(Long moduleId, int ordinal) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO lessons (module_id, progress_ordinal) VALUES (?, ?) RETURNING id",
+                Long.class, moduleId, ordinal);
+    }
+
+    /**
+     * @param completed Completed lesson ordinals, or null for an enrollment not migrated yet
+     */
+    private static Long enrollment(BitSet completed) {
+        if (completed == null) {
+            return jdbcTemplate.queryForObject("INSERT INTO enrollments DEFAULT VALUES RETURNING id", Long.class);
+        }
+        return jdbcTemplate.queryForObject("INSERT INTO enrollments (completed_lesson_bits) VALUES (?) RETURNING id",
+                Long.class, (Object) completed.toByteArray());
+    }
+
+    private static Long lesson(int ordinal) {
+        return jdbcTemplate.queryForObject("INSERT INTO lessons (progress_ordinal) VALUES (?) RETURNING id",
+                Long.class, ordinal);
+    }
+
+    private static void completedRow(Long enrollmentId, Long lessonId) {
+        jdbcTemplate.update("INSERT INTO lesson_progress (enrollment_id, lesson_id, completed) VALUES (?, ?, true)",
+                enrollmentId, lessonId);
+    }
+
+    private static BitSet bits(int... ordinals) {
+        BitSet bits = new BitSet();
+        for (int ordinal : ordinals) {
+            bits.set(ordinal);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,183 @@
+package com.sociallearning.service;
+
+import com.sociallearning.enums.CourseDifficulty;
+import com.sociallearning.repository.CourseRepository;
+import com.sociallearning.service.CourseFacetIndex.FacetFilter;
+import com.sociallearning.service.CourseFacetIndex.FacetResult;
+import com.sociallearning.service.CourseFacetIndex.MatchedCourses;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CourseFacetIndexTest {
+
+    private static final FacetFilter ANY = new FacetFilter(null, null, null, null, null, false);
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    private CourseFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CourseFacetIndex(courseRepository);
+    }
+
+    @Test
+    void rejectsQueriesBeforeFirstBuild() {
+        index.reindexCourse(1L);
+
+        assertThat(index.isReady()).isFalse();
+        assertThatThrownBy(() -> index.query(ANY, 0, 10)).isInstanceOf(IllegalStateException.class);
+        verifyNoInteractions(courseRepository);
+    }
+
+    @Test
+    void returnsAllCoursesInCatalogOrder() {
+        assertThat(build()).isEqualTo(4);
+
+        FacetResult result = index.query(ANY, 0, 10);
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(result.courseIds()).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(result.total()).isEqualTo(4);
+        assertThat(result.facets().ratings()).containsExactly(
+                Map.entry(4.5, 1), Map.entry(4.0, 2), Map.entry(3.5, 3),
+                Map.entry(3.0, 3), Map.entry(2.0, 3), Map.entry(1.0, 3));
+    }
+
+    @Test
+    void pagesThroughMatches() {
+        build();
+
+        FacetResult result = index.query(ANY, 1, 2);
+
+        assertThat(result.courseIds()).containsExactly(2L, 3L);
+        assertThat(result.total()).isEqualTo(4);
+    }
+
+    @Test
+    void queryIdsMatchesQueryWithoutFacets() {
+        build();
+        FacetFilter filter = new FacetFilter(null, null, List.of("en"), 4.0, List.of(100L), false);
+
+        MatchedCourses ids = index.queryIds(filter, 0, 10);
+        FacetResult full = index.query(filter, 0, 10);
+
+        assertThat(ids.courseIds()).containsExactly(1L, 2L).isEqualTo(full.courseIds());
+        assertThat(ids.total()).isEqualTo(full.total());
+        assertThat(index.queryIds(ANY, 1, 2).courseIds()).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void countsEachFacetAgainstTheOtherFacetsFilters() {
+        build();
+
+        FacetResult result = index.query(FacetFilter.of(10L, null, null, null), 0, 10);
+
+        assertThat(result.courseIds()).containsExactly(1L, 2L);
+        // Categories ignore the category selection, so switching category shows its size
+        assertThat(result.facets().categories()).isEqualTo(Map.of(10L, 2, 20L, 2));
+        assertThat(result.facets().difficulties()).isEqualTo(
+                Map.of(CourseDifficulty.BEGINNER, 1, CourseDifficulty.ADVANCED, 1));
+        assertThat(result.facets().languages()).isEqualTo(Map.of("en", 2));
+    }
+
+    @Test
+    void combinesFacetsWithAnd() {
+        build();
+
+        FacetResult result = index.query(FacetFilter.of(null, CourseDifficulty.BEGINNER, "en", null), 0, 10);
+
+        assertThat(result.courseIds()).containsExactly(1L);
+        assertThat(result.facets().languages()).isEqualTo(Map.of("en", 1, "de", 1));
+    }
+
+    @Test
+    void filtersByMinimumRating() {
+        build();
+
+        assertThat(index.query(FacetFilter.of(null, null, null, 4.0), 0, 10).courseIds()).containsExactly(1L, 2L);
+        assertThat(index.query(FacetFilter.of(null, null, null, 4.5), 0, 10).courseIds()).containsExactly(1L);
+        // Between band floors the ratings of the band's courses are checked
+        assertThat(index.query(FacetFilter.of(null, null, null, 3.7), 0, 10).courseIds()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void matchesAnyOrAllSelectedTags() {
+        build();
+
+        FacetResult any = index.query(new FacetFilter(null, null, null, null, List.of(100L, 200L), false), 0, 10);
+        FacetResult all = index.query(new FacetFilter(null, null, null, null, List.of(100L, 200L), true), 0, 10);
+
+        assertThat(any.courseIds()).containsExactly(1L, 2L, 3L);
+        assertThat(all.courseIds()).containsExactly(1L);
+        assertThat(all.facets().tags()).isEqualTo(Map.of(100L, 1, 200L, 1));
+    }
+
+    @Test
+    void reindexMovesChangedCourseInCatalogOrder() {
+        build();
+        when(courseRepository.findFacetRowsByIds(List.of(3L))).thenReturn(
+                List.<Object[]>of(row(3L, 20L, CourseDifficulty.BEGINNER, "de", "4.90", 80)));
+        when(courseRepository.findTagIdsByCourseIds(List.of(3L))).thenReturn(List.<Object[]>of(new Object[]{3L, 200L}));
+
+        index.reindexCourse(3L);
+
+        assertThat(index.query(ANY, 0, 10).courseIds()).containsExactly(3L, 1L, 2L, 4L);
+        assertThat(index.query(FacetFilter.of(null, null, null, 4.5), 0, 10).courseIds()).containsExactly(3L, 1L);
+        assertThat(index.query(new FacetFilter(null, null, null, null, List.of(200L), false), 0, 10).courseIds())
+                .containsExactly(3L, 1L);
+    }
+
+    @Test
+    void reindexRemovesUnpublishedCourse() {
+        build();
+        when(courseRepository.findFacetRowsByIds(List.of(2L))).thenReturn(List.of());
+        when(courseRepository.findTagIdsByCourseIds(List.of(2L))).thenReturn(List.of());
+
+        index.reindexCourse(2L);
+
+        FacetResult result = index.query(ANY, 0, 10);
+        assertThat(result.courseIds()).containsExactly(1L, 3L, 4L);
+        assertThat(result.total()).isEqualTo(3);
+        assertThat(result.facets().difficulties()).doesNotContainKey(CourseDifficulty.ADVANCED);
+        assertThat(index.query(new FacetFilter(null, null, null, null, List.of(100L), false), 0, 10).courseIds())
+                .containsExactly(1L);
+    }
+
+    /**
+     * Four published courses, already in catalog order as the repository returns them.
+     */
+    private int build() {
+        when(courseRepository.findFacetRows()).thenReturn(List.of(
+                row(1L, 10L, CourseDifficulty.BEGINNER, "en", "4.80", 100),
+                row(2L, 10L, CourseDifficulty.ADVANCED, "en", "4.20", 50),
+                row(3L, 20L, CourseDifficulty.BEGINNER, "de", "3.60", 80),
+                row(4L, 20L, CourseDifficulty.INTERMEDIATE, "en", null, null)));
+        when(courseRepository.findPublishedCourseTagIds()).thenReturn(List.of(
+                new Object[]{1L, 100L},
+                new Object[]{1L, 200L},
+                new Object[]{2L, 100L},
+                new Object[]{3L, 200L}));
+        return index.rebuild();
+    }
+
+    private static Object[] row(Long courseId, Long categoryId, CourseDifficulty difficulty, String language,
+                                String rating, Integer enrollments) {
+        return new Object[]{courseId, categoryId, difficulty, language,
+                rating != null ? new BigDecimal(rating) : null, enrollments};
+    }
+}
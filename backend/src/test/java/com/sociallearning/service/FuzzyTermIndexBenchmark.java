@@ -0,0 +1,144 @@
+package com.sociallearning.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of {@link FuzzyTermIndex#correct} over the vocabulary of 100k synthetic course titles,
+ * for misspellings of known terms and for terms nothing is close to. Lookups must stay below
+ * one millisecond on average. Run with {@code mvn test -Pbenchmark}; the regular build skips it.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class FuzzyTermIndexBenchmark {
+
+    private static final int TITLES = 100_000;
+    private static final int QUERIES = 4096;
+    private static final int LIMIT = 5;
+
+    private static final String[] TOPICS = {
+            "javascript", "kubernetes", "python", "machine", "learning", "react", "docker", "terraform",
+            "photography", "marketing", "accounting", "spanish", "guitar", "statistics", "calculus",
+            "design", "leadership", "negotiation", "nutrition", "painting", "security", "networking",
+            "databases", "postgresql", "microservices", "typescript", "excel", "writing", "investing"};
+    private static final String[] LEVELS = {
+            "introduction", "beginners", "advanced", "complete", "practical", "mastering", "essential",
+            "hands", "professional", "bootcamp", "fundamentals", "crash", "course", "guide", "workshop"};
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ren", "tas", "vo", "qui", "zel", "bra", "dor",
+            "fen", "gal", "hut", "jin", "mar", "nex", "pol", "sar", "tum", "wex"};
+
+    private FuzzyTermIndex index;
+    private String[] misspelled;
+    private String[] unknown;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new FuzzyTermIndex();
+        List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < TITLES; i++) {
+            // Each course counts a term once, as CourseSearchIndex adds them
+            Set<String> terms = new HashSet<>(SearchTextAnalyzer.tokenize(title(random)));
+            for (String term : terms) {
+                index.add(term);
+                vocabulary.add(term);
+            }
+        }
+
+        misspelled = new String[QUERIES];
+        unknown = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            misspelled[i] = misspell(vocabulary.get(random.nextInt(vocabulary.size())), random);
+            unknown[i] = "xq" + Integer.toString(random.nextInt(1_000_000), 36) + "zy";
+        }
+    }
+
+    @Benchmark
+    public List<FuzzyTermIndex.Correction> correctMisspelling(Cursor cursor) {
+        return index.correct(misspelled[cursor.next()], LIMIT);
+    }
+
+    @Benchmark
+    public List<FuzzyTermIndex.Correction> correctUnknown(Cursor cursor) {
+        return index.correct(unknown[cursor.next()], LIMIT);
+    }
+
+    @Test
+    void lookupStaysBelowOneMillisecond() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(FuzzyTermIndexBenchmark.class.getName())
+                .build()).run();
+
+        assertThat(results).isNotEmpty().allSatisfy(result ->
+                assertThat(result.getPrimaryResult().getScore()).isLessThan(1000.0));
+    }
+
+    /**
+     * A level, a topic, and a made-up product name, e.g. "Practical Kubernetes with Renvoqui 3".
+     */
+    private static String title(SplittableRandom random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return LEVELS[random.nextInt(LEVELS.length)] + " " + TOPICS[random.nextInt(TOPICS.length)]
+                + " with " + name + " " + (1 + random.nextInt(10));
+    }
+
+    /**
+     * Drop, replace or insert one character, like a typing slip.
+     */
+    private static String misspell(String term, SplittableRandom random) {
+        int at = random.nextInt(term.length());
+        char typo = (char) ('a' + random.nextInt(26));
+        return switch (random.nextInt(3)) {
+            case 0 -> term.substring(0, at) + term.substring(at + 1);
+            case 1 -> term.substring(0, at) + typo + term.substring(at + 1);
+            default -> term.substring(0, at) + typo + term.substring(at);
+        };
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int position = new SplittableRandom().nextInt(QUERIES);
+
+        int next() {
+            position = (position + 1) & (QUERIES - 1);
+            return position;
+        }
+    }
+}
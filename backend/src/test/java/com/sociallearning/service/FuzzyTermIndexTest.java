@@ -0,0 +1,68 @@
+package com.sociallearning.service;
+
+import com.sociallearning.service.FuzzyTermIndex.Correction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzyTermIndexTest {
+
+    private FuzzyTermIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FuzzyTermIndex();
+        index.add("javascript");
+        index.add("java");
+        index.add("python");
+        index.add("course");
+        for (int i = 0; i < 3; i++) {
+            index.add("courses");
+        }
+    }
+
+    @Test
+    void correctsMisspelledTerm() {
+        assertThat(index.correct("javscript", 5)).containsExactly(new Correction("javascript", 1, 1));
+    }
+
+    @Test
+    void ranksByDistanceThenUsage() {
+        assertThat(index.correct("coursee", 5)).containsExactly(
+                new Correction("courses", 1, 3),
+                new Correction("course", 1, 1));
+        assertThat(index.correct("coursee", 1)).extracting(Correction::term).containsExactly("courses");
+    }
+
+    @Test
+    void allowsOneEditForShortTerms() {
+        assertThat(index.correct("jaba", 5)).extracting(Correction::term).containsExactly("java");
+        // A transposition is two edits
+        assertThat(index.correct("jaav", 5)).isEmpty();
+    }
+
+    @Test
+    void doesNotCorrectKnownOrTooShortTerms() {
+        assertThat(index.correct("java", 5)).isEmpty();
+        assertThat(index.correct("ja", 5)).isEmpty();
+    }
+
+    @Test
+    void dropsTermWhenNoCourseUsesIt() {
+        index.remove("python");
+        assertThat(index.correct("pyton", 5)).isEmpty();
+
+        index.remove("courses");
+        assertThat(index.correct("coursee", 5)).contains(new Correction("courses", 1, 2));
+    }
+
+    @Test
+    void boundedDistanceStopsAboveMaximum() {
+        assertThat(FuzzyTermIndex.boundedDistance("kitten", "sitting", 3)).isEqualTo(3);
+        assertThat(FuzzyTermIndex.boundedDistance("kitten", "sitting", 2)).isEqualTo(3);
+        assertThat(FuzzyTermIndex.boundedDistance("flaw", "lawn", 2)).isEqualTo(2);
+        assertThat(FuzzyTermIndex.boundedDistance("java", "java", 1)).isZero();
+        assertThat(FuzzyTermIndex.boundedDistance("java", "javascript", 2)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,60 @@
+package com.sociallearning.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HeavyHitterSketchTest {
+
+    @Test
+    void rejectsNonPositiveDimensions() {
+        assertThatThrownBy(() -> new HeavyHitterSketch(0, 16, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HeavyHitterSketch(2, 0, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HeavyHitterSketch(2, 16, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void returnsMostFrequentTermsFirst() {
+        HeavyHitterSketch sketch = new HeavyHitterSketch(4, 1024, 10);
+        add(sketch, "java", 5);
+        add(sketch, "python", 3);
+        add(sketch, "rust", 1);
+
+        assertThat(sketch.top(2)).containsExactly(Map.entry("java", 5L), Map.entry("python", 3L));
+        assertThat(sketch.total()).isEqualTo(9);
+    }
+
+    @Test
+    void breaksTiesByTerm() {
+        HeavyHitterSketch sketch = new HeavyHitterSketch(4, 1024, 10);
+        sketch.add("spring");
+        sketch.add("kotlin");
+
+        assertThat(sketch.top(5)).extracting(Map.Entry::getKey).containsExactly("kotlin", "spring");
+    }
+
+    @Test
+    void keepsHeavyHitterUnderCollisionsWithoutUndercounting() {
+        // 101 distinct terms in 8 columns: every counter is shared
+        HeavyHitterSketch sketch = new HeavyHitterSketch(2, 8, 3);
+        for (int i = 0; i < 100; i++) {
+            sketch.add("graphql");
+            sketch.add("term" + i);
+        }
+
+        Map.Entry<String, Long> top = sketch.top(1).get(0);
+        assertThat(top.getKey()).isEqualTo("graphql");
+        assertThat(top.getValue()).isGreaterThanOrEqualTo(100L);
+        assertThat(sketch.top(10)).hasSize(3);
+        assertThat(sketch.total()).isEqualTo(200);
+    }
+
+    private static void add(HeavyHitterSketch sketch, String term, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.add(term);
+        }
+    }
+}
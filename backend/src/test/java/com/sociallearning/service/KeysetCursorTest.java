@@ -0,0 +1,84 @@
+package com.sociallearning.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123456000);
+
+    @Test
+    void roundTripsSortKeys() {
+        String cursor = KeysetCursor.encode("comment", true, CREATED_AT, new BigDecimal("4.50"), 7, 42L);
+
+        KeysetCursor decoded = KeysetCursor.decode(cursor, "comment", 5);
+
+        assertThat(decoded.getBoolean(0)).isTrue();
+        assertThat(decoded.getDateTime(1)).isEqualTo(CREATED_AT);
+        assertThat(decoded.getBigDecimal(2)).isEqualByComparingTo("4.50");
+        assertThat(decoded.getInteger(3)).isEqualTo(7);
+        assertThat(decoded.getLong(4)).isEqualTo(42L);
+    }
+
+    @Test
+    void encodesDecimalsWithoutExponent() {
+        String cursor = KeysetCursor.encode("course", new BigDecimal("1E+3"), 1L);
+
+        assertThat(KeysetCursor.decode(cursor, "course", 2).getBigDecimal(0)).isEqualByComparingTo("1000");
+    }
+
+    @Test
+    void isUrlSafeWithoutPadding() {
+        String cursor = KeysetCursor.encode("comment", true, CREATED_AT, 42L);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsCursorOfAnotherFeed() {
+        String cursor = KeysetCursor.encode("comment", 42L);
+
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor, "review", 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsWrongNumberOfValues() {
+        String cursor = KeysetCursor.encode("comment", CREATED_AT, 42L);
+
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor, "comment", 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor, "comment", 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedBase64() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor!", "comment", 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsNullKeys() {
+        assertThatThrownBy(() -> KeysetCursor.encode("comment", (Object) null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsValuesOfTheWrongType() {
+        KeysetCursor decoded = KeysetCursor.decode(KeysetCursor.encode("comment", "yes", "soon", "x"), "comment", 3);
+
+        assertThatThrownBy(() -> decoded.getBoolean(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> decoded.getDateTime(1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> decoded.getLong(2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> decoded.getInteger(2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> decoded.getBigDecimal(2)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
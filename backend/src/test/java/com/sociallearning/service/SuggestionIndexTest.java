@@ -0,0 +1,173 @@
+package com.sociallearning.service;
+
+import com.sociallearning.entity.Category;
+import com.sociallearning.entity.Tag;
+import com.sociallearning.repository.CategoryRepository;
+import com.sociallearning.repository.CourseRepository;
+import com.sociallearning.repository.TagRepository;
+import com.sociallearning.service.SuggestionIndex.Footprint;
+import com.sociallearning.service.SuggestionIndex.Suggestion;
+import com.sociallearning.service.SuggestionIndex.Suggestions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionIndexTest {
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = newIndex(10);
+    }
+
+    @Test
+    void rejectsNonPositiveResultLimit() {
+        assertThatThrownBy(() -> newIndex(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void suggestsNothingBeforeFirstBuild() {
+        assertThat(index.suggest("java", 10)).isEqualTo(Suggestions.EMPTY);
+    }
+
+    @Test
+    void completesEveryWordStartByWeight() {
+        build();
+
+        Suggestions suggestions = index.suggest("java", 10);
+
+        assertThat(suggestions.courses()).extracting(Suggestion::text)
+                .containsExactly("JavaScript Basics", "Advanced Java");
+        assertThat(suggestions.tags()).extracting(Suggestion::slug).containsExactly("java");
+        assertThat(suggestions.categories()).isEmpty();
+    }
+
+    @Test
+    void ignoresCaseAccentsAndSeparators() {
+        build();
+
+        assertThat(index.suggest("  JAVA ", 10).courses()).hasSize(2);
+        assertThat(index.suggest("resume", 10).courses()).extracting(Suggestion::id).containsExactly(4L);
+        assertThat(index.suggest("python-for", 10).courses()).extracting(Suggestion::id).containsExactly(3L);
+        assertThat(index.suggest("lang", 10).categories()).extracting(Suggestion::text)
+                .containsExactly("Programming Languages");
+    }
+
+    @Test
+    void appliesLimitPerKind() {
+        build();
+
+        assertThat(index.suggest("java", 1).courses()).extracting(Suggestion::id).containsExactly(2L);
+    }
+
+    @Test
+    void suggestsNothingForBlankOrUnknownPrefix() {
+        build();
+
+        assertThat(index.suggest(" - ", 10)).isEqualTo(Suggestions.EMPTY);
+        Suggestions unknown = index.suggest("rust", 10);
+        assertThat(unknown.courses()).isEmpty();
+        assertThat(unknown.tags()).isEmpty();
+        assertThat(unknown.categories()).isEmpty();
+    }
+
+    @Test
+    void checksPrefixesLongerThanTheKeysAgainstTheFullName() {
+        build();
+
+        assertThat(index.suggest("introduction to distributed systems engineering", 10).courses())
+                .extracting(Suggestion::id).containsExactly(5L);
+        assertThat(index.suggest("introduction to distributed systems engineers", 10).courses()).isEmpty();
+    }
+
+    @Test
+    void keepsOnlyTheBestSuggestionsPerNode() {
+        index = newIndex(1);
+        build();
+
+        assertThat(index.suggest("java", 10).courses()).extracting(Suggestion::id).containsExactly(2L);
+    }
+
+    @Test
+    void keepsLargeCatalogsCompactAndQuickToRebuild() {
+        int courses = 20_000;
+        int keys = courses * 5;
+        when(courseRepository.findSuggestionRows()).thenReturn(syntheticCourses(courses));
+        when(tagRepository.findAll()).thenReturn(List.of());
+        when(categoryRepository.findAllByActiveTrueOrderByNameAsc()).thenReturn(List.of());
+
+        assertTimeout(Duration.ofSeconds(5), index::rebuild);
+
+        Footprint footprint = index.footprint();
+        // Single-child chains are merged, so there is at most one branching node per key
+        assertThat(footprint.nodes()).isLessThanOrEqualTo(2 * keys);
+        // Cut keys keep all their suggestions, the other nodes only share the best ones
+        assertThat(footprint.suggestionReferences()).isLessThan(2 * keys);
+        assertThat(index.suggest("java", 10).courses()).hasSize(10);
+    }
+
+    private SuggestionIndex newIndex(int suggestionsPerNode) {
+        return new SuggestionIndex(courseRepository, tagRepository, categoryRepository, Runnable::run,
+                new SimpleMeterRegistry(), suggestionsPerNode);
+    }
+
+    private void build() {
+        when(courseRepository.findSuggestionRows()).thenReturn(List.of(
+                new Object[]{1L, "Advanced Java", "advanced-java", 120, new BigDecimal("4.50")},
+                new Object[]{2L, "JavaScript Basics", "javascript-basics", 300, new BigDecimal("4.00")},
+                new Object[]{3L, "Python for Data", "python-for-data", 200, null},
+                new Object[]{4L, "Résumé Writing", "resume-writing", 10, null},
+                new Object[]{5L, "Introduction to Distributed Systems Engineering", "intro-distributed", 5, null}));
+        when(tagRepository.findAll()).thenReturn(List.of(
+                Tag.builder().id(1L).name("Java").slug("java").usageCount(40).build(),
+                Tag.builder().id(2L).name("Python").slug("python").usageCount(25).build()));
+        when(categoryRepository.findAllByActiveTrueOrderByNameAsc()).thenReturn(List.of(
+                Category.builder().id(1L).name("Programming Languages").slug("programming-languages").courseCount(12).build(),
+                Category.builder().id(2L).name("Data Science").slug("data-science").courseCount(8).build()));
+        index.rebuild();
+    }
+
+    /**
+     * Titles of a unique word followed by four common ones, so most keys share long prefixes.
+     */
+    private static List<Object[]> syntheticCourses(int count) {
+        String[] words = {"java", "javascript", "python", "data", "science", "machine", "learning", "advanced",
+                "introduction", "web", "development", "react", "kubernetes", "docker", "cloud", "security",
+                "design", "patterns", "systems", "engineering"};
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder title = new StringBuilder(Long.toString(1_000_000L + i * 7919L, 36));
+            for (int w = 0; w < 4; w++) {
+                title.append(' ').append(words[random.nextInt(words.length)]);
+            }
+            rows.add(new Object[]{(long) i, title.toString(), "course-" + i, random.nextInt(1000), null});
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,109 @@
+package com.sociallearning.service;
+
+import com.sociallearning.repository.TrendingSignalRepository;
+import com.sociallearning.service.TrendingScoreService.Signal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Collection;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Throughput of {@link TrendingScoreService#record} from many request threads, alone and while
+ * a fold runs back to back, over a catalog where a few courses get most of the activity.
+ * Run with {@code mvn test -Pbenchmark}; the regular build skips it.
+ */
+@Tag("benchmark")
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrendingScoreBenchmark {
+
+    private static final int COURSES = 50_000;
+
+    private TrendingScoreService service;
+
+    @Setup
+    public void setUp() {
+        service = new TrendingScoreService(mock(TrendingSignalRepository.class), new MockEnvironment(),
+                new SimpleMeterRegistry());
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < COURSES; i++) {
+            service.record(1L + random.nextInt(COURSES), Signal.ENROLLMENT);
+        }
+        service.refresh();
+    }
+
+    @Benchmark
+    @Group("recordOnly")
+    @GroupThreads(8)
+    public void record(Requests requests) {
+        service.record(requests.nextCourseId(), requests.nextSignal());
+    }
+
+    @Benchmark
+    @Group("recordDuringRefresh")
+    @GroupThreads(7)
+    public void recordDuringRefresh(Requests requests) {
+        service.record(requests.nextCourseId(), requests.nextSignal());
+    }
+
+    @Benchmark
+    @Group("recordDuringRefresh")
+    @GroupThreads(1)
+    public void refresh() {
+        service.refresh();
+    }
+
+    @Test
+    void run() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(TrendingScoreBenchmark.class.getName())
+                .build()).run();
+
+        assertThat(results).isNotEmpty();
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+
+        private final SplittableRandom random = new SplittableRandom();
+
+        /**
+         * Skewed towards low IDs, so popular courses share adders across threads.
+         */
+        long nextCourseId() {
+            return 1L + random.nextInt(1 + random.nextInt(COURSES));
+        }
+
+        Signal nextSignal() {
+            // Mostly views, as in production
+            return random.nextInt(10) == 0 ? Signal.ENROLLMENT : Signal.VIEW;
+        }
+    }
+}